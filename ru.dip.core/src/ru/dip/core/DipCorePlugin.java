@@ -17,7 +17,10 @@ import java.io.File;
 import java.util.Arrays;
 import java.util.Objects;
 
+import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IStatus;
@@ -35,12 +38,19 @@ import org.eclipse.ui.WorkbenchException;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.osgi.framework.BundleContext;
 
+import ru.dip.core.link.LinkGraphUpdater;
 import ru.dip.core.model.DipRoot;
+import ru.dip.core.model.finder.TextIndexUpdater;
 import ru.dip.core.model.interfaces.IDipElement;
+import ru.dip.core.table.TableReader;
+import ru.dip.core.utilities.DiagramRenderCache;
 import ru.dip.core.utilities.GITUtilities;
 import ru.dip.core.utilities.ResourcesUtilities;
 import ru.dip.core.utilities.WorkbenchUtitlities;
+import ru.dip.core.utilities.git.GitMetadataProvider;
+import ru.dip.core.utilities.spellcheck.SpellCheckService;
 import ru.dip.core.utilities.start.DipStartUtilities;
+import ru.dip.core.utilities.ui.image.HtmlRasterCache;
 
 /**
  * The activator class controls the plug-in life cycle
@@ -60,6 +70,9 @@ public class DipCorePlugin extends AbstractUIPlugin {
 	public static final String GIT_SUBMODULE_RECURSE = "_git_submodule_recurse";
 	public static final String DISABLE_RESERVATION = "_disable_reservation";
 	public static final String DISABLE_PREPROCESSING = "_disable_preprocessing_2";
+	// размер кэша презентаций юнитов (Мб)
+	public static final String PRESENTATION_CACHE_SIZE = "_presentation_cache_size";
+	public static final int DEFAULT_PRESENTATION_CACHE_SIZE = 512;
 	
 	// путь до DIA (в Windows)
 	public static final String DIA_PATH = "_dia_path";
@@ -79,6 +92,16 @@ public class DipCorePlugin extends AbstractUIPlugin {
 	// путь до репозитория, который в данный момент находит в процессе обновления
 	// обновления при изменениях гита, будут проигнорированы
 	private String fCurrentUpdatingRepo;
+	// обновление индексов поиска по изменениям ресурсов
+	private final TextIndexUpdater fTextIndexUpdater = new TextIndexUpdater();
+	// обновление графов ссылок по изменениям ресурсов
+	private final LinkGraphUpdater fLinkGraphUpdater = new LinkGraphUpdater();
+	// сброс прочитанных .dnfo при закрытии/удалении проекта
+	private final IResourceChangeListener fTableCacheCleaner = event -> {
+		if (event.getResource() instanceof IProject) {
+			TableReader.invalidate((IProject) event.getResource());
+		}
+	};
 	
 	public void start(BundleContext context) throws Exception {
 		super.start(context);
@@ -87,6 +110,10 @@ public class DipCorePlugin extends AbstractUIPlugin {
 		getLog().addLogListener(new DipLogger());
 		logInfo("START ");
 		addGitListener();
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(fTextIndexUpdater, IResourceChangeEvent.POST_CHANGE);
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(fLinkGraphUpdater, IResourceChangeEvent.POST_CHANGE);
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(fTableCacheCleaner, 
+				IResourceChangeEvent.PRE_CLOSE | IResourceChangeEvent.PRE_DELETE);
 		checkEclipseSplash();
 	}
 	
@@ -166,6 +193,14 @@ public class DipCorePlugin extends AbstractUIPlugin {
 }
 	
 	public void stop(BundleContext context) throws Exception {
+		ResourcesPlugin.getWorkspace().removeResourceChangeListener(fTextIndexUpdater);
+		ResourcesPlugin.getWorkspace().removeResourceChangeListener(fLinkGraphUpdater);
+		ResourcesPlugin.getWorkspace().removeResourceChangeListener(fTableCacheCleaner);
+		TableReader.clearCache();
+		DiagramRenderCache.instance().dispose();
+		HtmlRasterCache.instance().dispose();
+		GitMetadataProvider.dispose();
+		SpellCheckService.dispose();
 		DipRoot.getInstance().clear();
 		plugin = null;
 		super.stop(context);
@@ -195,6 +230,7 @@ public class DipCorePlugin extends AbstractUIPlugin {
 		store.setDefault(DISABLE_PREPROCESSING, true);
 		store.setDefault(CHANGE_DIP_BANNER2, false);
 		store.setDefault(CHANGE_DIP_BANNER3, false);
+		store.setDefault(PRESENTATION_CACHE_SIZE, DEFAULT_PRESENTATION_CACHE_SIZE);
 	}
 		
 	public static void setDefaultSchemaExtension(String newExtension) {
@@ -269,6 +305,18 @@ public class DipCorePlugin extends AbstractUIPlugin {
 		plugin.getPreferenceStore().setValue(DISABLE_PREPROCESSING, newValue);
 	}
 	
+	public static int getPresentationCacheSize() {
+		if (plugin == null) {
+			return DEFAULT_PRESENTATION_CACHE_SIZE;
+		}
+		int size = plugin.getPreferenceStore().getInt(PRESENTATION_CACHE_SIZE);
+		return size > 0 ? size : DEFAULT_PRESENTATION_CACHE_SIZE;
+	}
+	
+	public static void setPresentationCacheSize(int newValue) {
+		plugin.getPreferenceStore().setValue(PRESENTATION_CACHE_SIZE, newValue);
+	}
+	
 	//========================
 	// loger
 	
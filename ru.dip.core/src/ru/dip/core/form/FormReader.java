@@ -36,6 +36,7 @@ import ru.dip.core.form.model.CoreFormModel;
 import ru.dip.core.form.model.Field;
 import ru.dip.core.form.partitioner.DocumentPartitioner;
 import ru.dip.core.form.partitioner.PartitionScanner;
+import ru.dip.core.schema.CompiledSchema;
 import ru.dip.core.schema.SchemaReader;
 
 public class FormReader {
@@ -44,30 +45,48 @@ public class FormReader {
 	private CoreFormModel fFormModel;
 	private DocumentPartitioner fPartitioner;
 	private IDocument fDocument;
+	private String fContent;		// содержимое файла, пока не создан документ
 	private DipDocProvider fDocumentProvider;
 
 	public FormReader(IFile file) {
 		fFile = file;
 	}
 
+	/**
+	 * Чтение формы из файла
+	 * Схема берется из кэша (CompiledSchema), значения полей читаются без документа (FormValuesReader).
+	 * Документ и модель позиций создаются при первом обращении к тегам полей (редактирование).
+	 */
 	public void read() {
 		// read schema
 		fFormModel = new CoreFormModel();
 		try {
-			SchemaReader schemaReader = new SchemaReader(fFormModel, fFile);
-			fFormModel.setFields(schemaReader.getFields());
+			CompiledSchema schema = CompiledSchema.forForm(fFile);
+			if (schema != null) {
+				schema.fill(fFormModel);
+			} else {
+				fFormModel.setFields(new ArrayList<>());
+			}
 		} catch (ParserConfigurationException | SAXException | IOException e1) {
 			e1.printStackTrace();
 		}
 		// read file
-		fDocument = new Document();
-		fDocumentProvider = new DipDocProvider();
-		try {
-			fDocumentProvider.setDocumentContent(fDocument, fFile.getContents(), null);
-		} catch (CoreException e) {
+		try (InputStream stream = fFile.getContents()) {
+			fContent = new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+		} catch (CoreException | IOException e) {
 			e.printStackTrace();
+			fContent = "";
 			return;
-		}		
+		}
+		fFormModel.setReadValues(FormValuesReader.read(fContent), this::createDocumentModel);
+	}
+	
+	/**
+	 * Документ по прочитанному содержимому (для редактирования)
+	 */
+	private void createDocumentModel() {
+		fDocument = new Document(fContent);
+		fContent = null;
 		createModel();
 	}
 	
@@ -103,7 +122,7 @@ public class FormReader {
 	
 	public void saveDocument(){
 		Path path = Paths.get(fFile.getLocationURI());
-		String content = fDocument.get();
+		String content = getContent();
 		ArrayList<String> list = new ArrayList<>();
 		list.add(content);
 		try {
@@ -130,7 +149,7 @@ public class FormReader {
 	// getters
 	
 	public String getContent(){
-		return fDocument.get();
+		return fDocument != null ? fDocument.get() : fContent;
 	}
 	
 	public List<Field> getFields(){
@@ -138,7 +157,7 @@ public class FormReader {
 	}
 	
 	public boolean isEmptyDocument(){
-		return fDocument.get().isEmpty();
+		return getContent().isEmpty();
 	}
 	
 	public String getShemaName() {
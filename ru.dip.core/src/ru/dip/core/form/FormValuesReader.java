@@ -0,0 +1,190 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.core.form;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jface.text.rules.ICharacterScanner;
+import org.eclipse.jface.text.rules.IToken;
+
+import ru.dip.core.form.model.CorePositionModel;
+import ru.dip.core.form.partitioner.IPartitions;
+import ru.dip.core.form.partitioner.TagScannerRule;
+import ru.dip.core.utilities.TagStringUtilities;
+
+/**
+ * Чтение значений полей формы одним проходом по тексту (без IDocument и DocumentPartitioner)
+ *
+ * Теги выделяются тем же правилом (TagScannerRule), что и при разбиении документа,
+ * теги и значения собираются так же, как в CorePositionModel и Tag,
+ * поэтому значения совпадают с чтением через документ.
+ * Используется только для чтения, для редактирования нужна модель позиций.
+ */
+public class FormValuesReader implements ICharacterScanner {
+
+	private static final char[][] LINE_DELIMITERS = { { '\n' }, { '\r', '\n' }, { '\r' } };
+
+	/**
+	 * Тег (или закрывающий тег) в тексте
+	 */
+	private static class TagToken {
+
+		private final boolean fEnd;
+		private final int fOffset;
+		private final int fLength;
+
+		private TagToken(boolean end, int offset, int length) {
+			fEnd = end;
+			fOffset = offset;
+			fLength = length;
+		}
+	}
+
+	/**
+	 * Значения полей: имя тега -> значение (первый тег с этим именем)
+	 */
+	public static Map<String, String> read(String content) {
+		return new FormValuesReader(content).readValues();
+	}
+
+	private final String fContent;
+	private int fOffset;
+	private List<TagToken> fTokens;
+	private int fCurrent;
+
+	private FormValuesReader(String content) {
+		fContent = content;
+	}
+
+	private Map<String, String> readValues() {
+		fTokens = scan();
+		List<String[]> tags = new ArrayList<>();
+		List<String[]> mainChildren = null;
+		for (fCurrent = 0; fCurrent < fTokens.size(); fCurrent++) {
+			if (!fTokens.get(fCurrent).fEnd) {
+				List<String[]> children = new ArrayList<>();
+				String[] tag = readTag(children);
+				if (tag != null) {
+					if (tags.isEmpty()) {
+						mainChildren = children;
+					}
+					tags.add(tag);
+				}
+			}
+		}
+		// как CorePositionModel.hasMainTag
+		if (!tags.isEmpty() && CorePositionModel.MAIN_TAG.equals(tags.get(0)[0])) {
+			tags = mainChildren;
+		}
+		Map<String, String> result = new HashMap<>();
+		for (String[] tag: tags) {
+			result.putIfAbsent(tag[0], tag[1]);
+		}
+		return result;
+	}
+
+	/**
+	 * Тег {имя, значение} от текущего открывающего тега до закрывающего (как CorePositionModel.createFullTag)
+	 * @param children - вложенные теги
+	 */
+	private String[] readTag(List<String[]> children) {
+		TagToken start = fTokens.get(fCurrent);
+		String name = TagStringUtilities.getNameFromStartTag(text(start));
+		fCurrent++;
+		while (fCurrent < fTokens.size()) {
+			TagToken token = fTokens.get(fCurrent);
+			if (token.fEnd) {
+				if (name != null && name.equals(TagStringUtilities.getNameFromEndTag(text(token)))) {
+					return new String[] { name, value(start, token) };
+				}
+			} else {
+				String[] child = readTag(new ArrayList<>());
+				if (child != null) {
+					children.add(child);
+				}
+			}
+			fCurrent++;
+		}
+		return null;
+	}
+
+	private String text(TagToken token) {
+		return fContent.substring(token.fOffset, token.fOffset + token.fLength);
+	}
+
+	/**
+	 * Значение между тегами без первого и последнего символа (переносы строк), как Tag
+	 */
+	private String value(TagToken start, TagToken end) {
+		int from = start.fOffset + start.fLength + 1;
+		int to = end.fOffset - 1;
+		if (to < from || to > fContent.length()) {
+			return "";
+		}
+		return fContent.substring(from, to);
+	}
+
+	//=========================
+	// scan
+
+	private List<TagToken> scan() {
+		List<TagToken> result = new ArrayList<>();
+		TagScannerRule rule = new TagScannerRule();
+		fOffset = 0;
+		while (fOffset < fContent.length()) {
+			int offset = fOffset;
+			IToken token = rule.evaluate(this);
+			if (token.isEOF()) {
+				break;
+			}
+			// в конце текста правило читает EOF
+			int length = Math.min(fOffset, fContent.length()) - offset;
+			if (token == IPartitions.TOKEN_TAG) {
+				result.add(new TagToken(false, offset, length));
+			} else if (token == IPartitions.TOKEN_ENDTAG) {
+				result.add(new TagToken(true, offset, length));
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public char[][] getLegalLineDelimiters() {
+		return LINE_DELIMITERS;
+	}
+
+	@Override
+	public int getColumn() {
+		int line = fContent.lastIndexOf('\n', fOffset - 1);
+		return fOffset - line - 1;
+	}
+
+	@Override
+	public int read() {
+		if (fOffset >= fContent.length()) {
+			fOffset++;
+			return EOF;
+		}
+		return fContent.charAt(fOffset++);
+	}
+
+	@Override
+	public void unread() {
+		fOffset--;
+	}
+
+}
@@ -14,6 +14,7 @@
 package ru.dip.core.form.model;
 
 import java.util.List;
+import java.util.Map;
 
 public class CoreFormModel {
 	
@@ -23,6 +24,9 @@ public class CoreFormModel {
 	private String fName;
 	private String fExtension;
 	private String fFixedField; 	// если указано это поле, то только оно отображается в fixed-режиме 
+	// значения полей, прочитанные без документа (до первого обращения к модели позиций)
+	private volatile Map<String, String> fReadValues;
+	private Runnable fPositionModelLoader;
 		
 	public void createModel(List<Tag> tags){
 		clearModel();
@@ -54,9 +58,43 @@ public class CoreFormModel {
 	}
 	
 	public CorePositionModel getPositionModel(){
+		loadPositionModel();
 		return fCorePositionModel;
 	}
 	
+	//===========================
+	// read values
+	
+	/**
+	 * Значения полей, прочитанные без документа (только для чтения)
+	 * @param loader - создает документ и модель позиций (при первом обращении к тегам или getPositionModel)
+	 */
+	public void setReadValues(Map<String, String> values, Runnable loader) {
+		fPositionModelLoader = loader;
+		fReadValues = values;
+	}
+	
+	/**
+	 * Значения полей прочитаны без документа, модель позиций еще не создана
+	 */
+	public boolean hasReadValues() {
+		return fReadValues != null;
+	}
+	
+	public String getReadValue(String fieldName) {
+		Map<String, String> values = fReadValues;
+		return values != null ? values.get(fieldName) : null;
+	}
+	
+	public synchronized void loadPositionModel() {
+		if (fPositionModelLoader != null) {
+			Runnable loader = fPositionModelLoader;
+			fPositionModelLoader = null;
+			loader.run();
+			fReadValues = null;
+		}
+	}
+	
 	//===========================
 	// getters
 		
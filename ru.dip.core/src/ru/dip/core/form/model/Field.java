@@ -40,6 +40,9 @@ public abstract class Field {
 	public abstract FormFieldType getType();
 	
 	public String getValue(){
+		if (fFormModel.hasReadValues()) {
+			return fFormModel.getReadValue(fName);
+		}
 		if (getTag() == null){
 			return null;
 		}
@@ -100,6 +103,7 @@ public abstract class Field {
 	}
 	
 	public Tag getTag(){
+		fFormModel.loadPositionModel();
 		return fTag;
 	}
 	
@@ -0,0 +1,266 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.core.link;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IPath;
+
+import ru.dip.core.model.DipProject;
+import ru.dip.core.model.DipUnit;
+import ru.dip.core.model.interfaces.IDipDocumentElement;
+import ru.dip.core.model.interfaces.IDipElement;
+import ru.dip.core.model.interfaces.IDipParent;
+import ru.dip.core.unit.UnitType;
+import ru.dip.core.utilities.DipUtilities;
+import ru.dip.core.utilities.FileUtilities;
+
+/**
+ * Граф ссылок проекта: файл источника -> ссылки (как записаны в тексте), ссылка -> файлы источников
+ *
+ * Заполняется при первом обращении (чтение всех файлов с поддержкой ссылок), далее
+ * перечитываются только измененные/добавленные файлы: по изменениям ресурсов (LinkGraphUpdater)
+ * и явно после записи не через ресурсы (LinkInteractor.updateLinks).
+ * Ссылки хранятся без разрешения - элементы ищутся при проверке (LinkResolver), поэтому
+ * переименование/удаление целей граф не изменяет. Источник хранит файл, элемент модели
+ * ищется при обращении (модель могла быть пересоздана после чтения файла).
+ */
+public class LinkGraph {
+
+	/**
+	 * Ссылки одного файла
+	 */
+	public static final class Source {
+
+		private final IFile fFile;
+		private final DipProject fProject;
+		private final List<String> fTitles = new ArrayList<>();
+		private final List<String> fLinks = new ArrayList<>();
+
+		private Source(IFile file, DipProject project, String content) {
+			fFile = file;
+			fProject = project;
+			Matcher matcher = LinkInteractor.LINK_PATTERN.matcher(content);
+			while (matcher.find()) {
+				int index = content.indexOf("](", matcher.start());
+				fTitles.add(content.substring(matcher.start() + 1, index));
+				fLinks.add(content.substring(index + 2, matcher.end() - 1));
+			}
+		}
+
+		public IFile file() {
+			return fFile;
+		}
+
+		/**
+		 * Элемент модели для файла, null - если его нет (модель еще не обновлена)
+		 */
+		public DipUnit unit() {
+			IDipElement element = DipUtilities.findDipElementInProject(fFile, fProject);
+			return element instanceof DipUnit ? (DipUnit) element : null;
+		}
+
+		public int size() {
+			return fLinks.size();
+		}
+
+		public String title(int index) {
+			return fTitles.get(index);
+		}
+
+		public String link(int index) {
+			return fLinks.get(index);
+		}
+
+		public boolean contains(String link) {
+			return fLinks.contains(link);
+		}
+	}
+
+	private final DipProject fProject;
+	private final Map<IFile, Source> fSources = new LinkedHashMap<>();
+	// ссылка -> файлы, в которых она есть (TreeMap - для поиска ссылок на дочерние элементы)
+	private final TreeMap<String, Set<IFile>> fReferrers = new TreeMap<>();
+	// добавленные/измененные файлы (перечитываются при следующем обращении)
+	private final Set<IFile> fDirty = new LinkedHashSet<>();
+	private boolean fComplete = false;
+
+	public LinkGraph(DipProject project) {
+		fProject = project;
+	}
+
+	//=========================
+	// resource changes
+
+	public synchronized void fileChanged(IFile file) {
+		if (fComplete) {
+			fDirty.add(file);
+		}
+	}
+
+	public synchronized void fileRemoved(IFile file) {
+		fDirty.remove(file);
+		removeSource(file);
+	}
+
+	public synchronized void clear() {
+		fSources.clear();
+		fReferrers.clear();
+		fDirty.clear();
+		fComplete = false;
+	}
+
+	//=========================
+	// queries
+
+	/**
+	 * Источники ссылок, расположенные в parent
+	 */
+	public synchronized List<Source> getSources(IDipParent parent) {
+		update();
+		List<Source> result = new ArrayList<>();
+		for (Map.Entry<IFile, Source> entry: fSources.entrySet()) {
+			if (isLocated(entry.getKey(), parent)) {
+				result.add(entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	public synchronized Source getSource(IFile file) {
+		update();
+		return fSources.get(file);
+	}
+
+	/**
+	 * Элементы (из parent), в которых есть ссылки на id (и на дочерние элементы id, если children)
+	 */
+	public synchronized List<DipUnit> getReferrers(IDipParent parent, String id, boolean children) {
+		update();
+		Set<IFile> files = new LinkedHashSet<>(fReferrers.getOrDefault(id, Collections.emptySet()));
+		if (children) {
+			String prefix = id + "/";
+			fReferrers.subMap(prefix, prefix + Character.MAX_VALUE).values().forEach(files::addAll);
+		}
+		List<DipUnit> result = new ArrayList<>();
+		for (IFile file: files) {
+			if (isLocated(file, parent)) {
+				DipUnit unit = fSources.get(file).unit();
+				if (unit != null) {
+					result.add(unit);
+				}
+			}
+		}
+		return result;
+	}
+
+	private boolean isLocated(IFile file, IDipParent parent) {
+		if (parent == fProject) {
+			return true;
+		}
+		IPath path = parent.resource().getFullPath();
+		return path.isPrefixOf(file.getFullPath());
+	}
+
+	//=========================
+	// update
+
+	private void update() {
+		if (!fComplete) {
+			fSources.clear();
+			fReferrers.clear();
+			fDirty.clear();
+			scan(fProject);
+			fComplete = true;
+			return;
+		}
+		if (fDirty.isEmpty()) {
+			return;
+		}
+		// элемент модели не нужен - каждый файл перечитывается один раз и удаляется из fDirty
+		for (IFile file: fDirty) {
+			removeSource(file);
+			if (file.exists() && isLinkSupport(file)) {
+				addSource(file);
+			}
+		}
+		fDirty.clear();
+	}
+
+	private boolean isLinkSupport(IFile file) {
+		return UnitType.defineUnitType(file.getName(), fProject).isLinkSupport();
+	}
+
+	private void scan(IDipParent parent) {
+		for (IDipDocumentElement dipDocElement: parent.getDipDocChildrenList()) {
+			if (dipDocElement instanceof DipUnit) {
+				DipUnit unit = (DipUnit) dipDocElement;
+				if (unit.getUnitType().isLinkSupport()) {
+					addSource(unit.resource());
+				}
+			} else if (dipDocElement instanceof IDipParent) {
+				scan((IDipParent) dipDocElement);
+			}
+		}
+	}
+
+	private void addSource(IFile file) {
+		if (!file.exists()) {
+			return;
+		}
+		String content;
+		try {
+			content = FileUtilities.readFile(file);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return;
+		}
+		if (content == null) {
+			return;
+		}
+		Source source = new Source(file, fProject, content);
+		fSources.put(file, source);
+		for (String link: new HashSet<>(source.fLinks)) {
+			fReferrers.computeIfAbsent(link, l -> new LinkedHashSet<>()).add(file);
+		}
+	}
+
+	private void removeSource(IFile file) {
+		Source source = fSources.remove(file);
+		if (source == null) {
+			return;
+		}
+		for (String link: source.fLinks) {
+			Set<IFile> files = fReferrers.get(link);
+			if (files != null) {
+				files.remove(file);
+				if (files.isEmpty()) {
+					fReferrers.remove(link);
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,90 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.core.link;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.runtime.CoreException;
+
+import ru.dip.core.model.DipProject;
+import ru.dip.core.model.DipRoot;
+
+/**
+ * Обновляет LinkGraph проектов по изменениям ресурсов
+ *
+ * Добавленные и измененные файлы перечитываются при следующем обращении к графу,
+ * удаленные - удаляются из графа. Открытие/закрытие проекта - граф сбрасывается.
+ */
+public class LinkGraphUpdater implements IResourceChangeListener {
+
+	@Override
+	public void resourceChanged(IResourceChangeEvent event) {
+		IResourceDelta delta = event.getDelta();
+		if (delta == null) {
+			return;
+		}
+		for (IResourceDelta projectDelta: delta.getAffectedChildren()) {
+			IResource resource = projectDelta.getResource();
+			if (!(resource instanceof IProject)) {
+				continue;
+			}
+			DipProject dipProject = DipRoot.getInstance().findDipProject((IProject) resource);
+			if (dipProject != null) {
+				updateGraph(dipProject.getLinkGraph(), projectDelta);
+			}
+		}
+	}
+
+	private void updateGraph(LinkGraph graph, IResourceDelta projectDelta) {
+		if (projectDelta.getKind() != IResourceDelta.CHANGED
+				|| (projectDelta.getFlags() & IResourceDelta.OPEN) != 0) {
+			graph.clear();
+			return;
+		}
+		try {
+			projectDelta.accept(delta -> {
+				IResource resource = delta.getResource();
+				if (resource.getType() != IResource.FILE) {
+					return true;
+				}
+				IFile file = (IFile) resource;
+				switch (delta.getKind()) {
+				case IResourceDelta.ADDED: {
+					graph.fileChanged(file);
+					break;
+				}
+				case IResourceDelta.REMOVED: {
+					graph.fileRemoved(file);
+					break;
+				}
+				case IResourceDelta.CHANGED: {
+					if ((delta.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED)) != 0) {
+						graph.fileChanged(file);
+					}
+					break;
+				}
+				}
+				return false;
+			});
+		} catch (CoreException e) {
+			graph.clear();
+			e.printStackTrace();
+		}
+	}
+
+}
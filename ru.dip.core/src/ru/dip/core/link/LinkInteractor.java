@@ -15,9 +15,14 @@ package ru.dip.core.link;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiFunction;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -90,31 +95,13 @@ public class LinkInteractor {
 		if (original == null) {
 			return original;
 		}
-		Matcher matcher = LINK_PATTERN.matcher(original);
-		while (matcher.find()) {
-			String group = matcher.group();
-			int index = group.indexOf("](");
-			String title = group.substring(1, index);
-			String link = group.substring(index + 2, group.length() - 1);
-			String result = getRef(title, link, source);
-			original = matcher.replaceFirst(result);
-			matcher = LINK_PATTERN.matcher(original);
-		}
-		return original;
+		LinkResolver resolver = new LinkResolver();
+		return replaceLinks(original, (title, link) -> getRef(title, link, source, resolver));
 	}
 
 	public String changeLinks(DipProject dipProject, String original) {
-		Matcher matcher = LINK_PATTERN.matcher(original);
-		while (matcher.find()) {
-			String group = matcher.group();
-			int index = group.indexOf("](");
-			String title = group.substring(1, index);
-			String link = group.substring(index + 2, group.length() - 1);
-			String result = getRef(dipProject, title, link);
-			original = matcher.replaceFirst(result);
-			matcher = LINK_PATTERN.matcher(original);
-		}
-		return original;
+		LinkResolver resolver = new LinkResolver();
+		return replaceLinks(original, (title, link) -> getRef(dipProject, title, link, resolver));
 	}
 
 	/**
@@ -125,25 +112,40 @@ public class LinkInteractor {
 		if (original == null) {
 			return original;
 		}
+		LinkResolver resolver = new LinkResolver();
+		return replaceLinks(original, (title, link) -> "[" + getRef(title, link, source, resolver) + "](" + link + ")");
+	}
+	
+	/**
+	 * Замена всех ссылок за один проход (replacement - по title и link)
+	 * Результат замены повторно не проверяется
+	 */
+	private static String replaceLinks(String original, BiFunction<String, String, String> replacement) {
 		Matcher matcher = LINK_PATTERN.matcher(original);
-		int findStartIndex = 0;
-		while (matcher.find(findStartIndex)) {
-			String group = matcher.group();			
-			int index = group.indexOf("](");
-			String title = group.substring(1, index);
-			String link = group.substring(index + 2, group.length() - 1);
-			String result = getRef(title, link, source);
-			findStartIndex = matcher.end();
-			String newLink = "[" + result + "](" + link + ")";
-			original = original.substring(0, matcher.start()) + newLink + original.substring(matcher.end());
-			matcher = LINK_PATTERN.matcher(original);
+		if (!matcher.find()) {
+			return original;
 		}
-		return original;
+		StringBuilder builder = new StringBuilder(original.length());
+		int last = 0;
+		do {
+			int index = original.indexOf("](", matcher.start());
+			String title = original.substring(matcher.start() + 1, index);
+			String link = original.substring(index + 2, matcher.end() - 1);
+			builder.append(original, last, matcher.start());
+			builder.append(replacement.apply(title, link));
+			last = matcher.end();
+		} while (matcher.find());
+		builder.append(original, last, original.length());
+		return builder.toString();
 	}
 
 	public String getRef(String title, String destination, IDipUnit source) {
+		return getRef(title, destination, source, new LinkResolver());
+	}
+	
+	private String getRef(String title, String destination, IDipUnit source, LinkResolver resolver) {
 		DipProject project = source.dipProject();
-		IDipElement element = DipUtilities.findElement(source, destination);
+		IDipElement element = resolver.findElement(source, destination);
 		if (element == null) {
 			fIncorrectLinks.add(new IncorrectLink(title, destination, source));
 			return destination;
@@ -152,7 +154,11 @@ public class LinkInteractor {
 	}
 
 	public String getRef(DipProject project, String title, String destination) {
-		IDipElement element = DipUtilities.findElement(project, destination);
+		return getRef(project, title, destination, new LinkResolver());
+	}
+	
+	private String getRef(DipProject project, String title, String destination, LinkResolver resolver) {
+		IDipElement element = resolver.findElement(project, destination);
 		if (element == null) {
 			return destination;
 		}
@@ -374,7 +380,7 @@ public class LinkInteractor {
 		if (!file.exists()) {
 			return false;
 		}
-		if (checkLinks(link.getLink(), link.getSource())) {
+		if (!containsLink(link.getLink(), link.getSource())) {
 			return false;
 		}
 		IDipElement element = null;
@@ -411,12 +417,9 @@ public class LinkInteractor {
 	 */
 	public void updateLinks(String lastID, String newID, IDipParent parent, boolean childrenLinks) {		
 		LinkUpdater updater = new LinkUpdater(lastID, newID);
-		for (IDipDocumentElement dipDocElement : parent.getDipDocChildrenList()) {
-			if (dipDocElement instanceof DipUnit) {
-				updateLinks(updater, (DipUnit) dipDocElement, childrenLinks);
-			} else if (dipDocElement instanceof IDipParent) {
-				updateLinks(lastID, newID, (IDipParent) dipDocElement, childrenLinks);
-			}
+		// только файлы, в которых есть ссылки на lastID (по графу ссылок)
+		for (DipUnit unit: parent.dipProject().getLinkGraph().getReferrers(parent, lastID, childrenLinks)) {
+			updateLinks(updater, unit, childrenLinks);
 		}
 	}
 
@@ -432,6 +435,8 @@ public class LinkInteractor {
 				String newContent = updater.updateLinks(content, childrenLinks);
 				if (updater.isNeedUpdate()) {
 					FileUtilities.writeFile(file, newContent);
+					// запись не через ресурсы - изменений ресурсов (LinkGraphUpdater) не будет
+					unit.dipProject().getLinkGraph().fileChanged(file);
 				}
 			} catch (IOException e) {
 				e.printStackTrace();
@@ -459,54 +464,43 @@ public class LinkInteractor {
 		});
 	}
 
+	/**
+	 * Проверка ссылок по графу ссылок проекта (файлы перечитываются только после изменения)
+	 */
 	public boolean checkLinks(IDipParent parent) {
-		boolean result = true;
 		if (parent == null) {
 			return true;
 		}
-		for (IDipDocumentElement dipDocumentElement : parent.getDipDocChildrenList()) {
-			if (dipDocumentElement instanceof DipUnit) {
-				boolean checkUnit = checkLinks((DipUnit) dipDocumentElement);
-				if (!checkUnit) {
-					result = false;
-				}
-			} else if (dipDocumentElement instanceof IDipParent) {
-				boolean checkParent = checkLinks((IDipParent) dipDocumentElement);
-				if (!checkParent) {
-					result = false;
-				}
+		List<LinkGraph.Source> sources = parent.dipProject().getLinkGraph().getSources(parent);
+		// правильные ссылки проверяемых элементов заменяются
+		Set<IDipUnit> units = Collections.newSetFromMap(new IdentityHashMap<>());
+		sources.stream()
+			.map(LinkGraph.Source::unit)
+			.filter(Objects::nonNull)
+			.forEach(units::add);
+		fCorrectLinks.removeIf(link -> units.contains(link.getSource()));
+
+		LinkResolver resolver = new LinkResolver();
+		boolean result = true;
+		for (LinkGraph.Source source: sources) {
+			if (!checkLinks(source, resolver)) {
+				result = false;
 			}
 		}
 		return result;
 	}
 
-	private boolean checkLinks(DipUnit unit) {
-		UnitType type = unit.getUnitType();
-		if (type.isLinkSupport()) {
-			try {
-				IFile file = unit.resource();
-				if (!file.exists()) {
-					return true;
-				}
-				String content = FileUtilities.readFile(file);
-				return checkLinksAfterDelete(content, unit);
-			} catch (IOException e) {
-				e.printStackTrace();
-				DipCorePlugin.logError(e, "Ошибка проверки ссылок");
-			}
+	private boolean checkLinks(LinkGraph.Source source, LinkResolver resolver) {
+		DipUnit unit = source.unit();
+		if (unit == null) {
+			// модель еще не обновлена - проверяется при следующем обращении
+			return true;
 		}
-		return true;
-	}
-
-	private boolean checkLinksAfterDelete(String content, DipUnit unit) {
-		Matcher matcher = LINK_PATTERN.matcher(content);
 		boolean result = true;
-		while (matcher.find()) {
-			String group = matcher.group();
-			int index = group.indexOf("](");
-			String title = group.substring(1, index);
-			String link = group.substring(index + 2, group.length() - 1);
-			IDipElement element = DipUtilities.findElement(unit, link);
+		for (int i = 0; i < source.size(); i++) {
+			String title = source.title(i);
+			String link = source.link(i);
+			IDipElement element = resolver.findElement(unit, link);
 			if (element == null) {
 				if (fIncorrectLinks.add(new IncorrectLink(title, link, unit))) {
 					result = false;
@@ -518,31 +512,14 @@ public class LinkInteractor {
 		return result;
 	}
 
-	private boolean checkLinks(String id, IDipUnit unit) {
-		UnitType type = unit.getUnitType();
-		if (type.isLinkSupport()) {
-			try {
-				IFile file = unit.resource();
-				String content = FileUtilities.readFile(file);
-				return findInccorrectLinks(id, content, unit);
-			} catch (IOException e) {
-				e.printStackTrace();
-				DipCorePlugin.logError(e, "Ошибка проверки ссылок");
-			}
-		}
-		return true;
-	}
-
-	private boolean findInccorrectLinks(String id, String content, IDipUnit unit) {
-		String idRregex = id.replace(".", "\\.").replace("-", "\\-").replace("[", "\\[").replace("]", "\\]")
-				.replace("+", "\\+").replace("(", "\\(").replace(")", "\\)");
-		String regex = "\\[[^]]*\\]\\(" + idRregex + "\\)";
-		Pattern pattern = Pattern.compile(regex);
-		Matcher matcher = pattern.matcher(content);
-		return !matcher.find();
+	/**
+	 * Есть ли ссылка в файле элемента (по графу ссылок)
+	 */
+	private boolean containsLink(String link, IDipUnit unit) {
+		LinkGraph.Source source = unit.dipProject().getLinkGraph().getSource(unit.resource());
+		return source != null && source.contains(link);
 	}
 
-	
 	/**
 	 * Список всех ссылок для DipUnit (используется при перепроцессинге)
 	 */
@@ -559,13 +536,13 @@ public class LinkInteractor {
 	
 	public static List<Link> findAllLinks(IDipUnit unit, String content){		
 		List<Link> links = new ArrayList<>();	
+		LinkResolver resolver = new LinkResolver();
 		Matcher matcher = LINK_PATTERN.matcher(content);
 		while (matcher.find()) {
-			String group = matcher.group();
-			int index = group.indexOf("](");
-			String title = group.substring(1, index);
-			String link = group.substring(index + 2, group.length() - 1);
-			IDipElement element = DipUtilities.findElement(unit, link);
+			int index = content.indexOf("](", matcher.start());
+			String title = content.substring(matcher.start() + 1, index);
+			String link = content.substring(index + 2, matcher.end() - 1);
+			IDipElement element = resolver.findElement(unit, link);
 			if (element == null) {
 				links.add(new IncorrectLink(title, link, unit));
 			} else {
@@ -0,0 +1,146 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.core.link;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import ru.dip.core.model.DipContainer;
+import ru.dip.core.model.IncludeFolder;
+import ru.dip.core.model.interfaces.IDipDocumentElement;
+import ru.dip.core.model.interfaces.IDipElement;
+import ru.dip.core.model.interfaces.IDipParent;
+import ru.dip.core.model.interfaces.IParent;
+import ru.dip.core.model.reports.ProjectReportFolder;
+import ru.dip.core.utilities.DipUtilities;
+import ru.dip.core.utilities.TagStringUtilities;
+
+/**
+ * Поиск элементов по ссылкам (аналог DipUtilities.findElement) для одного прохода по ссылкам
+ *
+ * Для каждой папки при первом обращении строится индекс имя -> дочерний элемент
+ * (вместо линейного поиска в getChild), результаты поиска запоминаются по папке источника и ссылке.
+ * Модель во время прохода не должна изменяться - индекс не обновляется.
+ */
+public class LinkResolver {
+
+	private static final Pattern PATH_SEPARATOR = Pattern.compile(TagStringUtilities.PATH_SEPARATOR_REGEX);
+
+	// папка -> (имя -> дочерний элемент)
+	private final Map<IParent, Map<String, IDipElement>> fChildren = new IdentityHashMap<>();
+	// папка источника -> (ссылка -> элемент или null)
+	private final Map<IDipElement, Map<String, IDipElement>> fLinks = new IdentityHashMap<>();
+
+	public IDipElement findElement(IDipElement source, String link) {
+		IDipElement key = source instanceof IParent ? source : source.parent();
+		if (key == null) {
+			key = source;
+		}
+		Map<String, IDipElement> links = fLinks.computeIfAbsent(key, k -> new HashMap<>());
+		if (links.containsKey(link)) {
+			return links.get(link);
+		}
+		IDipElement result = resolve(source, link);
+		links.put(link, result);
+		return result;
+	}
+
+	private IDipElement resolve(IDipElement element, String link) {
+		// преобразовать относительную ссылку
+		if (link.startsWith("./")) {
+			IParent parent = element.parent();
+			if (parent == null) {
+				return null;
+			}
+			link = link.substring(1);
+			while (link.startsWith("/../")) {
+				// для вложенных папок
+				if (parent instanceof IncludeFolder) {
+					IncludeFolder include = (IncludeFolder) parent;
+					return findByPath(include.parent(), link.substring(4));
+				}
+				parent = parent.parent();
+				if (parent == null) {
+					return null;
+				}
+				link = link.substring(3);
+			}
+			link = parent.resource().getProjectRelativePath().toString()
+					+ link;
+			if (link.startsWith("/")) {
+				link = link.substring(1);
+			}
+		}
+
+		IDipElement resultElement = findByPath(element.dipProject(), link);
+		if (resultElement == null && element.isIncluded()) {
+			IncludeFolder includefolder = DipUtilities.findIncludeFolder(element);
+			return findByPath(includefolder, link);
+		}
+		return resultElement;
+	}
+
+	private IDipElement findByPath(IParent root, String path) {
+		IDipElement resultElement = root;
+		for (String segment: PATH_SEPARATOR.split(path)) {
+			if (resultElement instanceof IDipParent) {
+				resultElement = getChild((IDipParent) resultElement, segment);
+			} else {
+				return null;
+			}
+		}
+		return resultElement;
+	}
+
+	//===========================
+	// children index
+
+	private IDipElement getChild(IParent parent, String name) {
+		// у ProjectReportFolder свой getChild (по отчетам)
+		if (!(parent instanceof DipContainer) || parent instanceof ProjectReportFolder) {
+			return parent.getChild(name);
+		}
+		return fChildren.computeIfAbsent(parent, this::createIndex).get(name);
+	}
+
+	/**
+	 * Как DipContainer.getChild: совпадение по name или dipName,
+	 * первый IDipDocumentElement, если такого нет - последний из остальных
+	 */
+	private Map<String, IDipElement> createIndex(IParent parent) {
+		Map<String, IDipElement> index = new HashMap<>();
+		for (IDipElement child: parent.getChildren()) {
+			addToIndex(index, child.name(), child);
+			String dipName = child.dipName();
+			if (dipName != null && !dipName.equals(child.name())) {
+				addToIndex(index, dipName, child);
+			}
+		}
+		return index;
+	}
+
+	private void addToIndex(Map<String, IDipElement> index, String name, IDipElement child) {
+		if (name == null) {
+			return;
+		}
+		IDipElement old = index.get(name);
+		if (old instanceof IDipDocumentElement) {
+			return;
+		}
+		index.put(name, child);
+	}
+
+}
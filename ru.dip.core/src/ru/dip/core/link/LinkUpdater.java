@@ -27,56 +27,31 @@ public class LinkUpdater {
 		fNewID = newID;
 	}
 	
+	/**
+	 * Замена ссылок за один проход, результат замены повторно не проверяется
+	 * (новый ID может начинаться со старого)
+	 * checkFolder - ссылки на дочерние элементы (lastID/...)
+	 */
 	public synchronized String updateLinks(String original, boolean checkFolder) {		
 		fNeedUpdate = false;
-		String result = updateSimpleLinks(original);
-		if (checkFolder) {
-			result = updateChildrenLinks(result);
+		String regex = "\\[[^]]*\\]\\(" + Pattern.quote(fLastID) + (checkFolder ? "(/[^)]*)?" : "") + "\\)";
+		Matcher matcher = Pattern.compile(regex).matcher(original);
+		if (!matcher.find()) {
+			return original;
 		}
-		return result;
-	}
-	
-	private synchronized String updateSimpleLinks(String original) {
-		String content = original;	
-		String lastIDRregex = fLastID.replace(".", "\\.").replace("-", "\\-");	
-		String regex = "\\[[^]]*\\]\\(" + lastIDRregex+"\\)";
-		Pattern pattern = Pattern.compile(regex);
-		Matcher matcher = pattern.matcher(content);
-		while(matcher.find()){
-			fNeedUpdate = true;
-			String group = matcher.group();
-			int index = group.indexOf("](");			
-			StringBuilder builder = new StringBuilder();
-			builder.append(group.substring(0, index + 2));
-			builder.append(fNewID);
-			builder.append(")");
-			content = matcher.replaceFirst(builder.toString());
-			matcher = pattern.matcher(content);
-		}		
-		return content;
-	}
-	
-	private  synchronized String updateChildrenLinks(String original) {
-		String content = original;	
-		String lastIDRregex = fLastID.replace(".", "\\.").replace("-", "\\-");	
-		String regex = "\\[[^]]*\\]\\(" + lastIDRregex + "/[^)]*" + "\\)";
-		Pattern pattern = Pattern.compile(regex);
-		Matcher matcher = pattern.matcher(content);
-		while(matcher.find()){
-			fNeedUpdate = true;
-			String group = matcher.group();
-			int index = group.indexOf("](");			
-			StringBuilder builder = new StringBuilder();
-			builder.append(group.substring(0, index + 2));
-			
-			String oldID = group.substring(index + 2 + fLastID.length(), group.length() - 1);												
+		fNeedUpdate = true;
+		StringBuilder builder = new StringBuilder(original.length());
+		int last = 0;
+		do {
+			int index = original.indexOf("](", matcher.start());
+			builder.append(original, last, index + 2);
 			builder.append(fNewID);
-			builder.append(oldID);			
-			builder.append(")");
-			content = matcher.replaceFirst(builder.toString());
-			matcher = pattern.matcher(content);
-		}		
-		return content;
+			// для дочерних элементов - остаток пути
+			builder.append(original, index + 2 + fLastID.length(), matcher.end());
+			last = matcher.end();
+		} while (matcher.find());
+		builder.append(original, last, original.length());
+		return builder.toString();
 	}
 	
 	public synchronized boolean isNeedUpdate() {
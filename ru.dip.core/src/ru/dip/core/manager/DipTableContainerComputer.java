@@ -15,7 +15,10 @@ package ru.dip.core.manager;
 
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IResource;
@@ -44,11 +47,12 @@ public class DipTableContainerComputer {
 
 	/**
 	 * Модель основанная только на ресурсах (без учета данных из файла .dnfof)
+	 * Файлы и папки по имени (в порядке ресурсов), найденные в .dnfo удаляются из карты
 	 */
 	private static class DipFolderResourceModel {
 
-		private final List<DipUnit> fileList = new ArrayList<>();
-		private final List<DipFolder> folderList = new ArrayList<>();
+		private final Map<String, DipUnit> fileList = new LinkedHashMap<>();
+		private final Map<String, DipFolder> folderList = new LinkedHashMap<>();
 		private final List<DipComment> commentList = new ArrayList<>();
 		private final List<DipDescription> descriptionList = new ArrayList<>();
 		private IDipComment fDipComment;
@@ -90,11 +94,11 @@ public class DipTableContainerComputer {
 		for (IDipElement element : container.getChildren()) {
 			DipElementType type = element.type();
 			if (type == DipElementType.UNIT) {
-				resourceModel.fileList.add((DipUnit) element);
+				resourceModel.fileList.putIfAbsent(element.name(), (DipUnit) element);
 			} else if (type == DipElementType.FOLDER) {
-				resourceModel.folderList.add((DipFolder) element);
+				resourceModel.folderList.putIfAbsent(element.name(), (DipFolder) element);
 			} else if (type == DipElementType.INCLUDE_FOLDER) {
-				resourceModel.folderList.add((IncludeFolder) element);
+				resourceModel.folderList.putIfAbsent(element.name(), (IncludeFolder) element);
 			} else if (type == DipElementType.COMMENT) {
 				resourceModel.commentList.add((DipComment) element);
 			} else if (type == DipElementType.DESCRIPTION) {
@@ -107,8 +111,7 @@ public class DipTableContainerComputer {
 	}
 
 	private void readDnfo() {
-		modelReader = new TableReader();
-		modelReader.readModel(fDipContainer.getTable().resource());
+		modelReader = TableReader.readCached(fDipContainer.getTable().resource());
 	}
 
 	private void setProperties() {
@@ -133,13 +136,12 @@ public class DipTableContainerComputer {
 		List<TableEntry> filesEntries = modelReader.getFiles();
 		for (TableEntry entry : filesEntries) {
 			String resName = entry.getName();
-			DipUnit child = findElement(fResourceModel.fileList, resName);
+			DipUnit child = fResourceModel.fileList.remove(resName);
 			if (child != null) {
 				child.setDescription(entry.getDescription());
 				boolean disable = entry.isDisable() || child.name().startsWith(IDisable.DISABLE_MARKER);
 				child.setDisabled(disable);
 				child.setHorizontalOrientation(entry.isHorizontal());
-				fResourceModel.fileList.remove(child);
 				fResultDipElements.add(child);
 			}
 		}
@@ -149,9 +151,7 @@ public class DipTableContainerComputer {
 	 * Добавление файлов, которых нет в DNFO
 	 */
 	private void addRemainingFilesToModel() {
-		for (DipUnit child : fResourceModel.fileList) {
-			fResultDipElements.add(child);
-		}
+		fResultDipElements.addAll(fResourceModel.fileList.values());
 	}
 
 	/**
@@ -166,7 +166,7 @@ public class DipTableContainerComputer {
 				child.setActiveNumeration(entry.isShowNumeration());
 				boolean disable = entry.isDisable() || child.dipName().startsWith(IDisable.DISABLE_MARKER);
 				child.setDisabled(disable);
-				fResourceModel.folderList.remove(child);
+				fResourceModel.folderList.remove(child.name(), child);
 				fResultDipElements.add(child);
 			}
 		}
@@ -178,7 +178,7 @@ public class DipTableContainerComputer {
 			child = prepareIncludeFolder(entry);
 		} else {
 			String resName = entry.getName();
-			child = findElement(fResourceModel.folderList, resName);
+			child = fResourceModel.folderList.get(resName);
 		}
 		return child;
 	}
@@ -189,7 +189,7 @@ public class DipTableContainerComputer {
 		if (resName == null || resName.isEmpty()) {
 			resName = Paths.get(entry.getLink()).getFileName().toString();
 		}
-		DipFolder child = findElement(fResourceModel.folderList, resName);
+		DipFolder child = fResourceModel.folderList.get(resName);
 		// проверка соответсвия ссылок
 		checkLinks(entry, child);
 		// если нет ссылки в ProjectExploter
@@ -262,11 +262,11 @@ public class DipTableContainerComputer {
 	}
 
 	private void addBrokenFolders() {
-		fResultDipElements.addAll(fResourceModel.folderList);
+		fResultDipElements.addAll(fResourceModel.folderList.values());
 	}
 
 	private void removeBrokenFolders() {
-		fDipContainer.getChildren().removeAll(fResourceModel.folderList);
+		fDipContainer.getChildren().removeAll(new HashSet<>(fResourceModel.folderList.values()));
 	}
 
 	private void addComments() {
@@ -283,13 +283,4 @@ public class DipTableContainerComputer {
 		}
 	}
 
-	private static <T extends IDipElement> T findElement(List<T> elements, String name) {
-		for (T element : elements) {
-			if (element.name().equals(name)) {
-				return element;
-			}
-		}
-		return null;
-	}
-
 }
@@ -30,6 +30,8 @@ import org.eclipse.ui.PlatformUI;
 
 import ru.dip.core.manager.DipNatureManager;
 import ru.dip.core.manager.DipProjectResourceCreator;
+import ru.dip.core.link.LinkGraph;
+import ru.dip.core.model.finder.TextIndex;
 import ru.dip.core.model.glossary.ProjectGlossaryFolder;
 import ru.dip.core.model.interfaces.IDipDocumentElement;
 import ru.dip.core.model.interfaces.IDipElement;
@@ -79,6 +81,8 @@ public class DipProject extends DipTableContainer implements IDipParent, IProjec
 	
 	private DipProjectProperties fProjectProperties = new DipProjectProperties(this);
 	private Repository fGitRepo;
+	private final TextIndex fTextIndex = new TextIndex();
+	private final LinkGraph fLinkGraph = new LinkGraph(this);
 	
 	public static DipProject instance(IProject container) {
 		IDipElement element = DipRoot.getInstance().getElement(container, null, DipElementType.RPOJECT);
@@ -718,4 +722,15 @@ public class DipProject extends DipTableContainer implements IDipParent, IProjec
 		return fGitRepo;
 	}
 	
+	//============================
+	// find
+	
+	public TextIndex getTextIndex() {
+		return fTextIndex;
+	}
+	
+	public LinkGraph getLinkGraph() {
+		return fLinkGraph;
+	}
+	
 }
@@ -83,7 +83,7 @@ public abstract class DipTableContainer extends DipContainer implements IDipPare
 	public DipTableContainer(IContainer container, IParent parent) {
 		super(container, parent);
 		fProperties = new DipTableContainerProperties(this);
-		fFinderManager = new TextFinderManager(this);
+		fFinderManager = new TextFinderManager(this, this);
 		fFinderIdManager = new FinderIdManager(this);
 	}
 
@@ -669,6 +669,11 @@ public abstract class DipTableContainer extends DipContainer implements IDipPare
 		Terms.findTerms(name(), terms);
 	}
 	
+	@Override
+	public String glossaryText() {
+		return name();
+	}
+	
 	//=================================
 	// table properties (columns' width)
 	
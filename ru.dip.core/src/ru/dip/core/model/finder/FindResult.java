@@ -34,6 +34,14 @@ public class FindResult implements IFindResult {
 		}
 	}
 	
+	/**
+	 * Результат по уже найденным позициям (например, из TextIndex)
+	 */
+	public static FindResult of(List<Point> points, String text, boolean caseSensitive) {
+		return points == null ? null 
+				: new FindResult(points, text, caseSensitive);
+	}
+	
 	public static FindResult findText(String content, 
 			String text, boolean caseSensitive) {
 		List<Point> points = TagStringUtilities.findText(content, text, caseSensitive);
@@ -0,0 +1,98 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.core.model.finder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IResource;
+
+import ru.dip.core.model.interfaces.IDipDocumentElement;
+import ru.dip.core.model.interfaces.IFindable;
+
+/**
+ * Элементы контейнера в порядке таблицы (getOneListChildren) для поиска через TextIndex
+ *
+ * Элементы, покрытые индексом, проверяются только если индекс считает их кандидатами,
+ * остальные (формы, поля форм, папки и т.п.) - при каждом поиске.
+ */
+public class SearchOrder {
+
+	private final IDipDocumentElement[] fElements;
+	private final Map<IDipDocumentElement, Integer> fPositions = new IdentityHashMap<>();
+	private final Map<IResource, Integer> fIndexed = new HashMap<>();
+	private final int[] fOther;
+
+	SearchOrder(IDipDocumentElement[] elements) {
+		fElements = elements;
+		int[] other = new int[elements.length];
+		int otherCount = 0;
+		for (int i = 0; i < elements.length; i++) {
+			IDipDocumentElement element = elements[i];
+			fPositions.put(element, i);
+			IResource resource = element instanceof IFindable ? ((IFindable) element).indexedResource() : null;
+			if (resource == null || fIndexed.putIfAbsent(resource, i) != null) {
+				other[otherCount++] = i;
+			}
+		}
+		fOther = Arrays.copyOf(other, otherCount);
+	}
+
+	/**
+	 * Элементы, которые нужно проверить при поиске text, начиная с start (по кругу)
+	 */
+	public IDipDocumentElement[] getElements(TextIndex index, String text, FindSettings settings,
+			IDipDocumentElement start) {
+		int startIndex = start == null ? 0 : fPositions.getOrDefault(start, 0);
+		// идентификаторы в индекс не входят
+		Set<IResource> candidates = settings.findInId() ? null
+				: index.candidates(text, settings.caseSensetive(), IFindable.TEXT);
+		if (candidates == null) {
+			return rotate(fElements, startIndex);
+		}
+
+		List<Integer> positions = new ArrayList<>(candidates.size() + fOther.length);
+		for (IResource resource: candidates) {
+			Integer position = fIndexed.get(resource);
+			if (position != null) {
+				positions.add(position);
+			}
+		}
+		for (int position: fOther) {
+			positions.add(position);
+		}
+		positions.sort((p1, p2) -> Integer.compare(shift(p1, startIndex), shift(p2, startIndex)));
+		return positions.stream().map(p -> fElements[p]).toArray(IDipDocumentElement[]::new);
+	}
+
+	private int shift(int position, int startIndex) {
+		return position >= startIndex ? position - startIndex : position - startIndex + fElements.length;
+	}
+
+	private static IDipDocumentElement[] rotate(IDipDocumentElement[] elements, int startIndex) {
+		if (startIndex <= 0) {
+			return elements.clone();
+		}
+		IDipDocumentElement[] result = new IDipDocumentElement[elements.length];
+		System.arraycopy(elements, startIndex, result, 0, elements.length - startIndex);
+		System.arraycopy(elements, 0, result, elements.length - startIndex, startIndex);
+		return result;
+	}
+
+}
@@ -15,8 +15,11 @@ package ru.dip.core.model.finder;
 
 import java.util.List;
 
+import org.eclipse.core.resources.IResource;
 import org.eclipse.swt.graphics.Point;
 
+import ru.dip.core.model.finder.TextIndex.IndexEntry;
+import ru.dip.core.model.interfaces.IDipElement;
 import ru.dip.core.model.interfaces.IFindable;
 import ru.dip.core.utilities.TagStringUtilities;
 
@@ -26,11 +29,20 @@ import ru.dip.core.utilities.TagStringUtilities;
 public class TextFinderManager implements IFindable, IFindPoints {
 	
 	private final IContent fContent;
+	private final IDipElement fElement;
 	protected IFindResult fFindResult;
 	private Filter fFilter;
 	
 	public TextFinderManager(IContent content) {
+		this(content, null);
+	}
+	
+	/**
+	 * Поиск через индекс проекта (TextIndex), содержимое ресурса элемента
+	 */
+	public TextFinderManager(IContent content, IDipElement element) {
 		fContent = content;
+		fElement = element;
 	}
 	
 	/**
@@ -46,6 +58,11 @@ public class TextFinderManager implements IFindable, IFindPoints {
 	}
 	
 	private boolean doContains(String text, boolean caseSensitive) {
+		IndexEntry entry = indexEntry();
+		if (entry != null) {
+			return getTextIndex().mayContain(resource(), text, caseSensitive, TEXT)
+					&& TextIndex.contains(entry, text, caseSensitive);
+		}
 		String content = fContent.getContent();
 		if (!caseSensitive) {
 			return TagStringUtilities.containsToIgnoreCase(content, text); 
@@ -67,9 +84,60 @@ public class TextFinderManager implements IFindable, IFindPoints {
 	}
 	
 	private FindResult findText(String text, boolean caseSensitive, boolean wholeWord) {
+		IndexEntry entry = indexEntry();
+		if (entry != null) {
+			return findInIndex(entry, text, caseSensitive, wholeWord);
+		}
 		String content = fContent.getContent();
 		return FindResult.find(content, text, caseSensitive, wholeWord);
 	}
+	
+	private FindResult findInIndex(IndexEntry entry, String text, boolean caseSensitive, boolean wholeWord) {
+		TextIndex index = getTextIndex();
+		if (!index.mayContain(resource(), text, caseSensitive, wholeWord)) {
+			return null;
+		}
+		List<Point> points;
+		if (wholeWord) {
+			points = index.findWord(entry, text, caseSensitive);
+			if (points == null) {
+				return FindResult.find(entry.getContent(), text, caseSensitive, wholeWord);
+			}
+			if (points.isEmpty()) {
+				return null;
+			}
+		} else {
+			points = TextIndex.findText(entry, text, caseSensitive);
+		}
+		return FindResult.of(points, text, caseSensitive);
+	}
+	
+	//=====================
+	// index
+	
+	/**
+	 * Индексирует содержимое (если элемент поддерживает индекс)
+	 */
+	@Override
+	public IResource indexedResource() {
+		return indexEntry() != null ? resource() : null;
+	}
+	
+	private IndexEntry indexEntry() {
+		TextIndex index = getTextIndex();
+		return index == null ? null : index.getEntry(resource(), fContent);
+	}
+	
+	private TextIndex getTextIndex() {
+		if (fElement == null || fElement.dipProject() == null) {
+			return null;
+		}
+		return fElement.dipProject().getTextIndex();
+	}
+	
+	private IResource resource() {
+		return fElement.resource();
+	}
 		
 	@Override
 	public void updateFindedPoints(String content) {
@@ -0,0 +1,546 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.core.model.finder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.swt.graphics.Point;
+
+import ru.dip.core.model.interfaces.IDipParent;
+
+/**
+ * Инвертированный индекс текста проекта (слово -> ресурсы и позиции)
+ *
+ * Индексируется то, что возвращает IContent.getContent(). Все элементы контейнера индексируются
+ * при построении порядка поиска (SearchOrder), дальше поиск проверяет только элементы-кандидаты.
+ * Запись считается устаревшей, если изменился modificationStamp ресурса (для папок - текст описания).
+ * Записи не ссылаются на владельцев (IContent), суммарный размер текста ограничен -
+ * давно не использованные записи вытесняются. При структурных изменениях проекта (TextIndexUpdater) 
+ * индекс сбрасывается.
+ *
+ * Используется как фильтр: если индекс говорит, что текста в элементе нет - полноценный поиск не выполняется.
+ */
+public class TextIndex {
+
+	private static final int MAX_CANDIDATES = 64;
+	// суммарная длина проиндексированного текста (символов)
+	private static final long MAX_CONTENT_LENGTH = 8 * 1024 * 1024;
+	private static final int GRAM = 3;
+
+	/**
+	 * Проиндексированное содержимое одного ресурса
+	 */
+	public static class IndexEntry {
+
+		private final long fStamp;
+		private final String fContent;
+		private final LowerCase fLowerContent;
+		private final Map<String, int[]> fOffsets;
+		private final Map<String, int[]> fLowerOffsets;
+
+		private IndexEntry(long stamp, String content) {
+			fStamp = stamp;
+			fContent = content;
+			fLowerContent = new LowerCase(content);
+			fOffsets = tokenize(fContent);
+			fLowerOffsets = tokenize(fLowerContent.fText);
+		}
+
+		public String getContent() {
+			return fContent;
+		}
+
+		public String getContent(boolean caseSensitive) {
+			return caseSensitive ? fContent : fLowerContent.fText;
+		}
+
+		private Map<String, int[]> offsets(boolean caseSensitive) {
+			return caseSensitive ? fOffsets : fLowerOffsets;
+		}
+
+		/**
+		 * Позиция в исходном тексте (для поиска без учета регистра позиции считаются по приведенному тексту)
+		 */
+		private Point point(int start, int end, boolean caseSensitive) {
+			if (caseSensitive) {
+				return new Point(start, end);
+			}
+			return new Point(fLowerContent.original(start), fLowerContent.original(end));
+		}
+	}
+
+	/**
+	 * Текст в нижнем регистре + соответствие позиций исходному тексту
+	 * (String.toLowerCase может менять длину строки, например для 'İ')
+	 */
+	private static class LowerCase {
+
+		private final String fText;
+		private final int[] fOriginal; // null - позиции совпадают
+
+		private LowerCase(String text) {
+			StringBuilder builder = new StringBuilder(text.length());
+			int[] original = new int[text.length() + 1];
+			boolean shifted = false;
+			int i = 0;
+			while (i < text.length()) {
+				int codePoint = text.codePointAt(i);
+				int lower = Character.toLowerCase(codePoint);
+				int count = Character.charCount(lower);
+				if (count != Character.charCount(codePoint)) {
+					shifted = true;
+				}
+				for (int j = 0; j < count; j++) {
+					if (builder.length() + j >= original.length) {
+						original = Arrays.copyOf(original, original.length * 2);
+					}
+					original[builder.length() + j] = i;
+				}
+				builder.appendCodePoint(lower);
+				i += Character.charCount(codePoint);
+			}
+			if (builder.length() >= original.length) {
+				original = Arrays.copyOf(original, builder.length() + 1);
+			}
+			original[builder.length()] = text.length();
+			fText = builder.toString();
+			fOriginal = shifted ? original : null;
+		}
+
+		private int original(int offset) {
+			return fOriginal == null ? offset : fOriginal[offset];
+		}
+	}
+
+	/**
+	 * Словарь: слово -> ресурсы, + триграммы слов для поиска по части слова
+	 */
+	private static class Postings {
+
+		private final Map<String, Set<IResource>> fResources = new HashMap<>();
+		private final Map<String, Set<String>> fGrams = new HashMap<>();
+
+		private void add(String token, IResource resource) {
+			Set<IResource> resources = fResources.get(token);
+			if (resources == null) {
+				resources = new HashSet<>();
+				fResources.put(token, resources);
+				for (int i = 0; i + GRAM <= token.length(); i++) {
+					fGrams.computeIfAbsent(token.substring(i, i + GRAM), g -> new HashSet<>()).add(token);
+				}
+			}
+			resources.add(resource);
+		}
+
+		private void remove(String token, IResource resource) {
+			Set<IResource> resources = fResources.get(token);
+			if (resources == null) {
+				return;
+			}
+			resources.remove(resource);
+			if (!resources.isEmpty()) {
+				return;
+			}
+			fResources.remove(token);
+			for (int i = 0; i + GRAM <= token.length(); i++) {
+				String gram = token.substring(i, i + GRAM);
+				Set<String> tokens = fGrams.get(gram);
+				if (tokens != null) {
+					tokens.remove(token);
+					if (tokens.isEmpty()) {
+						fGrams.remove(gram);
+					}
+				}
+			}
+		}
+
+		private Set<IResource> get(String token) {
+			return fResources.getOrDefault(token, Collections.emptySet());
+		}
+
+		/**
+		 * Ресурсы со словами, содержащими partial
+		 * null - часть слова слишком короткая для поиска по триграммам
+		 */
+		private Set<IResource> containing(String partial) {
+			if (partial.length() < GRAM) {
+				return null;
+			}
+			Set<String> tokens = null;
+			for (int i = 0; i + GRAM <= partial.length(); i++) {
+				Set<String> gramTokens = fGrams.get(partial.substring(i, i + GRAM));
+				if (gramTokens == null) {
+					return new HashSet<>();
+				}
+				if (tokens == null || gramTokens.size() < tokens.size()) {
+					tokens = gramTokens;
+				}
+			}
+			Set<IResource> result = new HashSet<>();
+			for (String token: tokens) {
+				if (token.contains(partial)) {
+					result.addAll(fResources.get(token));
+				}
+			}
+			return result;
+		}
+
+		private void clear() {
+			fResources.clear();
+			fGrams.clear();
+		}
+	}
+
+	// порядок доступа - для вытеснения давно не использованных записей
+	private final LinkedHashMap<IResource, IndexEntry> fEntries = new LinkedHashMap<>(16, 0.75f, true);
+	private long fContentLength;
+	private final Postings fPostings = new Postings();
+	private final Postings fLowerPostings = new Postings();
+	// кэш кандидатов для последних запросов (сбрасывается при любом изменении индекса)
+	private final Map<String, Set<IResource>> fCandidates = new LinkedHashMap<String, Set<IResource>>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Set<IResource>> eldest) {
+			return size() > MAX_CANDIDATES;
+		}
+	};
+	// порядок поиска по контейнерам (ключ - ресурс контейнера)
+	private final Map<IResource, SearchOrder> fOrders = new HashMap<>();
+	private int fOrdersVersion;
+
+	//=========================
+	// entries
+
+	/**
+	 * Возвращает актуальную запись для ресурса, при необходимости переиндексирует
+	 * Если ресурса нет (например, описание без файла) - null
+	 * 
+	 * Содержимое (owner.getContent) и разбор на слова - вне блокировки индекса,
+	 * запись публикуется, только если ресурс не изменился за это время
+	 */
+	public IndexEntry getEntry(IResource resource, IContent owner) {
+		if (resource == null) {
+			return null;
+		}
+		long stamp = resource.getModificationStamp();
+		boolean file = resource.getType() == IResource.FILE;
+		if (file) {
+			synchronized (this) {
+				IndexEntry entry = fEntries.get(resource);
+				if (entry != null && entry.fStamp == stamp) {
+					return entry;
+				}
+			}
+		}
+		String content = owner.getContent();
+		if (content == null) {
+			remove(resource);
+			return null;
+		}
+		// для папок содержимое (описание) хранится в поле, сравниваем его
+		IndexEntry entry = actualEntry(resource, stamp, content);
+		if (entry != null) {
+			return entry;
+		}
+		entry = new IndexEntry(stamp, content);
+		synchronized (this) {
+			IndexEntry current = actualEntry(resource, stamp, content);
+			if (current != null) {
+				return current;
+			}
+			if (resource.getModificationStamp() != stamp) {
+				// ресурс изменился во время чтения - запись не публикуется
+				return entry;
+			}
+			remove(resource);
+			fEntries.put(resource, entry);
+			fContentLength += content.length();
+			addPostings(resource, entry.fOffsets, fPostings);
+			addPostings(resource, entry.fLowerOffsets, fLowerPostings);
+			fCandidates.clear();
+			trim(resource);
+		}
+		return entry;
+	}
+	
+	private synchronized IndexEntry actualEntry(IResource resource, long stamp, String content) {
+		IndexEntry entry = fEntries.get(resource);
+		if (entry != null && entry.fStamp == stamp && entry.fContent.equals(content)) {
+			return entry;
+		}
+		return null;
+	}
+	
+	/**
+	 * Вытесняет давно не использованные записи (кроме только что добавленной)
+	 */
+	private void trim(IResource added) {
+		Iterator<Map.Entry<IResource, IndexEntry>> iterator = fEntries.entrySet().iterator();
+		while (fContentLength > MAX_CONTENT_LENGTH && iterator.hasNext()) {
+			Map.Entry<IResource, IndexEntry> eldest = iterator.next();
+			IResource resource = eldest.getKey();
+			if (resource.equals(added)) {
+				break;
+			}
+			IndexEntry entry = eldest.getValue();
+			iterator.remove();
+			fContentLength -= entry.fContent.length();
+			removePostings(resource, entry.fOffsets, fPostings);
+			removePostings(resource, entry.fLowerOffsets, fLowerPostings);
+		}
+	}
+
+	private void addPostings(IResource resource, Map<String, int[]> offsets, Postings postings) {
+		for (String token: offsets.keySet()) {
+			postings.add(token, resource);
+		}
+	}
+
+	public synchronized void remove(IResource resource) {
+		IndexEntry entry = fEntries.remove(resource);
+		if (entry == null) {
+			return;
+		}
+		fContentLength -= entry.fContent.length();
+		removePostings(resource, entry.fOffsets, fPostings);
+		removePostings(resource, entry.fLowerOffsets, fLowerPostings);
+		fCandidates.clear();
+	}
+
+	private void removePostings(IResource resource, Map<String, int[]> offsets, Postings postings) {
+		for (String token: offsets.keySet()) {
+			postings.remove(token, resource);
+		}
+	}
+
+	/**
+	 * Полный сброс (изменились переменные, структура проекта и т.п.)
+	 */
+	public synchronized void clear() {
+		fEntries.clear();
+		fContentLength = 0;
+		fPostings.clear();
+		fLowerPostings.clear();
+		fCandidates.clear();
+		resetOrders();
+	}
+
+	//=========================
+	// search order
+
+	/**
+	 * Порядок поиска для контейнера (все элементы проиндексированы)
+	 * Строится один раз, сбрасывается при изменении ресурсов проекта
+	 */
+	public SearchOrder getSearchOrder(IDipParent container) {
+		IResource key = container.resource();
+		int version;
+		synchronized (this) {
+			SearchOrder order = fOrders.get(key);
+			if (order != null) {
+				return order;
+			}
+			version = fOrdersVersion;
+		}
+		SearchOrder order = new SearchOrder(container.getOneListChildren());
+		synchronized (this) {
+			if (version == fOrdersVersion) {
+				fOrders.put(key, order);
+			}
+		}
+		return order;
+	}
+
+	/**
+	 * Изменились ресурсы проекта - элементы контейнеров могли быть пересозданы
+	 */
+	public synchronized void resetOrders() {
+		fOrders.clear();
+		fOrdersVersion++;
+	}
+
+	//=========================
+	// query
+
+	/**
+	 * false - если текста точно нет в записи
+	 * true - если текст может быть в записи (нужна проверка по содержимому)
+	 */
+	public synchronized boolean mayContain(IResource resource, String text, boolean caseSensitive, boolean word) {
+		if (!fEntries.containsKey(resource)) {
+			return true;
+		}
+		Set<IResource> candidates = candidates(text, caseSensitive, word);
+		return candidates == null || candidates.contains(resource);
+	}
+
+	/**
+	 * Множество ресурсов, которые могут содержать текст
+	 * null - если по индексу это определить нельзя
+	 */
+	public synchronized Set<IResource> candidates(String text, boolean caseSensitive, boolean word) {
+		String key = (caseSensitive ? "c" : "i") + (word ? "w" : "t") + text;
+		if (fCandidates.containsKey(key)) {
+			return fCandidates.get(key);
+		}
+		Set<IResource> result = computeCandidates(text, caseSensitive, word);
+		fCandidates.put(key, result);
+		return result;
+	}
+
+	private Set<IResource> computeCandidates(String text, boolean caseSensitive, boolean word) {
+		if (text == null || text.isEmpty()) {
+			return null;
+		}
+		// для поиска слов текст используется как регулярное выражение (TagStringUtilities.findWords)
+		if (word && !isPlainText(text)) {
+			return null;
+		}
+		String query = caseSensitive ? text : new LowerCase(text).fText;
+		Postings postings = caseSensitive ? fPostings : fLowerPostings;
+		List<Point> tokens = tokenPositions(query);
+		if (tokens.isEmpty()) {
+			return null;
+		}
+
+		Set<IResource> result = null;
+		Point longestPartial = null;
+		for (Point token: tokens) {
+			boolean complete = word || (token.x > 0 && token.y < query.length());
+			if (complete) {
+				result = intersect(result, postings.get(query.substring(token.x, token.y)));
+			} else if (longestPartial == null || token.y - token.x > longestPartial.y - longestPartial.x) {
+				longestPartial = token;
+			}
+		}
+		if (result != null) {
+			return result;
+		}
+		// только неполные слова (на краях запроса) - ищем по триграммам словаря
+		return postings.containing(query.substring(longestPartial.x, longestPartial.y));
+	}
+
+	private Set<IResource> intersect(Set<IResource> current, Set<IResource> resources) {
+		if (current == null) {
+			return new HashSet<>(resources);
+		}
+		current.retainAll(resources);
+		return current;
+	}
+
+	/**
+	 * Позиции слова целиком по индексу (только для запроса из одного слова)
+	 * null - если индекс не может ответить
+	 */
+	public synchronized List<Point> findWord(IndexEntry entry, String text, boolean caseSensitive) {
+		String query = caseSensitive ? text : new LowerCase(text).fText;
+		List<Point> tokens = tokenPositions(query);
+		if (tokens.size() != 1 || tokens.get(0).x != 0 || tokens.get(0).y != query.length()) {
+			return null;
+		}
+		List<Point> result = new ArrayList<>();
+		int[] offsets = entry.offsets(caseSensitive).get(query);
+		if (offsets != null) {
+			for (int offset: offsets) {
+				result.add(entry.point(offset, offset + query.length(), caseSensitive));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Поиск текста по уже подготовленному (в т.ч. приведенному к нижнему регистру) содержимому
+	 * Позиции - в исходном тексте
+	 */
+	public static List<Point> findText(IndexEntry entry, String text, boolean caseSensitive) {
+		String content = entry.getContent(caseSensitive);
+		if (content.isEmpty()) {
+			return null;
+		}
+		if (!caseSensitive) {
+			text = new LowerCase(text).fText;
+		}
+		List<Point> result = new ArrayList<>();
+		int index = 0;
+		int x = -1;
+		while ((x = content.indexOf(text, index)) >= 0) {
+			result.add(entry.point(x, x + text.length(), caseSensitive));
+			index = x + text.length();
+		}
+		return result.isEmpty() ? null : result;
+	}
+
+	public static boolean contains(IndexEntry entry, String text, boolean caseSensitive) {
+		return entry.getContent(caseSensitive).contains(caseSensitive ? text : new LowerCase(text).fText);
+	}
+
+	//=========================
+	// tokens
+
+	private static boolean isWordChar(char ch) {
+		return Character.isLetterOrDigit(ch) || ch == '_';
+	}
+
+	private static boolean isPlainText(String text) {
+		for (int i = 0; i < text.length(); i++) {
+			char ch = text.charAt(i);
+			if (!isWordChar(ch) && !Character.isWhitespace(ch) && ch != '-' && ch != ',') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static List<Point> tokenPositions(String text) {
+		List<Point> result = new ArrayList<>();
+		int start = -1;
+		for (int i = 0; i < text.length(); i++) {
+			if (isWordChar(text.charAt(i))) {
+				if (start < 0) {
+					start = i;
+				}
+			} else if (start >= 0) {
+				result.add(new Point(start, i));
+				start = -1;
+			}
+		}
+		if (start >= 0) {
+			result.add(new Point(start, text.length()));
+		}
+		return result;
+	}
+
+	private static Map<String, int[]> tokenize(String content) {
+		Map<String, List<Integer>> offsets = new HashMap<>();
+		for (Point token: tokenPositions(content)) {
+			offsets.computeIfAbsent(content.substring(token.x, token.y), t -> new ArrayList<>()).add(token.x);
+		}
+		Map<String, int[]> result = new HashMap<>(offsets.size() * 4 / 3 + 1);
+		offsets.forEach((token, list) -> result.put(token, list.stream().mapToInt(Integer::intValue).toArray()));
+		return result;
+	}
+
+}
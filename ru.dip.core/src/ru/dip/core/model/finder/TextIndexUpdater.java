@@ -0,0 +1,80 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.core.model.finder;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.runtime.CoreException;
+
+import ru.dip.core.model.DipProject;
+import ru.dip.core.model.DipRoot;
+import ru.dip.core.model.vars.VarContainer;
+
+/**
+ * Обновляет TextIndex проектов по изменениям ресурсов
+ *
+ * Изменение содержимого файла - удаляется только его запись (и порядок поиска, элементы могли пересоздаться)
+ * Добавление/удаление/перемещение, изменение переменных - индекс проекта сбрасывается
+ * (меняется текст ссылок и подстановка переменных в других файлах)
+ */
+public class TextIndexUpdater implements IResourceChangeListener {
+
+	@Override
+	public void resourceChanged(IResourceChangeEvent event) {
+		IResourceDelta delta = event.getDelta();
+		if (delta == null) {
+			return;
+		}
+		for (IResourceDelta projectDelta: delta.getAffectedChildren()) {
+			IResource resource = projectDelta.getResource();
+			if (!(resource instanceof IProject)) {
+				continue;
+			}
+			DipProject dipProject = DipRoot.getInstance().findDipProject((IProject) resource);
+			if (dipProject != null) {
+				updateIndex(dipProject.getTextIndex(), projectDelta);
+			}
+		}
+	}
+
+	private void updateIndex(TextIndex index, IResourceDelta projectDelta) {
+		try {
+			projectDelta.accept(delta -> {
+				IResource resource = delta.getResource();
+				if (delta.getKind() != IResourceDelta.CHANGED) {
+					index.clear();
+					return false;
+				}
+				if (resource.getType() == IResource.FILE) {
+					if (VarContainer.VAR_FILE.equals(resource.getName())) {
+						index.clear();
+						return false;
+					}
+					if ((delta.getFlags() & IResourceDelta.CONTENT) != 0) {
+						index.remove(resource);
+						index.resetOrders();
+					}
+				}
+				return true;
+			});
+		} catch (CoreException e) {
+			index.clear();
+			e.printStackTrace();
+		}
+	}
+
+}
@@ -51,7 +51,7 @@ public class WordFinder implements IFinder {
 		fElements = new ArrayList<>();
 		fCurrentIndex = 0;
 		fCurrentPointNumber = 0;
-		IDipDocumentElement[] children = fDipTable.getDipDocElementsForSearch();			
+		IDipDocumentElement[] children = fDipTable.getDipDocElementsForSearch(fText, findSettings);			
 		for (int i = 0; i < children.length; i++) {
 			findInDipDocElement(children[i], findSettings);
 		}
@@ -21,17 +21,15 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.swt.graphics.Point;
 
 import ru.dip.core.manager.DipNatureManager;
@@ -39,13 +37,11 @@ import ru.dip.core.model.DipElementType;
 import ru.dip.core.model.DipProject;
 import ru.dip.core.model.DipRoot;
 import ru.dip.core.model.DipTableContainer;
-import ru.dip.core.model.interfaces.IFindable;
 import ru.dip.core.model.interfaces.IGlossarySupport;
 import ru.dip.core.model.interfaces.IParent;
 import ru.dip.core.model.interfaces.IDipElement;
 import ru.dip.core.model.interfaces.IDipDocumentElement;
 import ru.dip.core.utilities.ResourcesUtilities;
-import ru.dip.core.utilities.text.Terms;
 
 public class GlossaryFolder implements IParent {
 
@@ -69,8 +65,7 @@ public class GlossaryFolder implements IParent {
 	private DipProject fDipProject;
 	private List<IGlossaryListener> fListeners = new ArrayList<>();
 	private List<GlossaryField> fFields = new ArrayList<>();
-	private String fUppderCaseWordsRegex = null;
-	private String fLowerCaseWordsRegex = null;
+	private volatile GlossaryMatcher fMatcher = GlossaryMatcher.EMPTY;
 	
 	public GlossaryFolder(IFile glossFile, DipProject project) {
 		fGlossaryFile = glossFile;
@@ -195,32 +190,15 @@ public class GlossaryFolder implements IParent {
 	// check glossary
 	
 	public List<GlossaryField> findUnsedFields() {
-		List<GlossaryField> fields = fDipProject.getGlossaryFolder().getChildren();		
-		Map<String, GlossaryField> regs = new HashMap<>();
-		for (GlossaryField field: fields) {
-			String regex = Terms.createRegexForGlossEntry(field.name());
-			regs.put(regex, field);			
-		}		
-		List<String> regList = new ArrayList<>(regs.keySet());
-		findTerms(fDipProject, regList);
-		return regList.stream().map(regs::get).collect(Collectors.toList());		
+		return GlossaryUsageAnalyzer.analyze(this).getUnusedFields();
 	}
 	
-	private void findTerms(DipTableContainer parent, List<String> terms) {		
-		if (terms.isEmpty()) {
-			return;
-		}
-		parent.removeIfFind(terms);
-		for (IDipDocumentElement dipDocumentElement: parent.getDipChildren()) {
-			if (terms.isEmpty()) {
-				return;
-			}
-			if (dipDocumentElement instanceof DipTableContainer) {
-				findTerms((DipTableContainer) dipDocumentElement, terms);
-			} else if (dipDocumentElement instanceof IFindable) {
-				((IGlossarySupport) dipDocumentElement).removeIfFind(terms);
-			}
-		}				
+	/**
+	 * Полный анализ использования терминов (количество вхождений, элементы)
+	 * @throws OperationCanceledException - при отмене через monitor
+	 */
+	public GlossaryUsage analyzeUsage(IProgressMonitor monitor) {
+		return new GlossaryUsageAnalyzer(this).analyze(monitor);
 	}
 	
 	//============================
@@ -256,119 +234,26 @@ public class GlossaryFolder implements IParent {
 	
 	protected void updateFindGlossRegex() {
 		if (fFields != null && !fFields.isEmpty()) {
-			createRegex();
+			fMatcher = new GlossaryMatcher(getChildren());
 		} else {
-			fUppderCaseWordsRegex = null;
-			fLowerCaseWordsRegex = null;
+			fMatcher = GlossaryMatcher.EMPTY;
 		}
 	}
 	
-	private void createRegex() {
-		List<String> upperCaseWords = new ArrayList<>();
-		List<String> lowerCaseWords = new ArrayList<>(); 
-		
-		for (GlossaryField field: getChildren()) {
-			if (field.isUpperCase()) {
-				upperCaseWords.add(field.name());
-			} else {
-				lowerCaseWords.add(field.name());
-			}
-		}
-
-		fUppderCaseWordsRegex = createRegex(upperCaseWords);
-		fLowerCaseWordsRegex = createRegex(lowerCaseWords);	
-	}
-
-	private String createRegex(Collection<String> words) {
-		if (words.isEmpty()) {
-			return null;
-		}
-		StringBuilder builder = new StringBuilder();
-		builder.append("(^|\\W)(");
-		if (words.size() == 1) {
-			for (String word: words) {
-				String wordRegex = Terms.createRegexForWord(word);
-				builder.append(wordRegex);				
-			}
-		} else { 
-			boolean first = true;
-			for (String word: words) {
-				word = word.replace("(", "\\(");
-				word = word.replace(")", "\\)");
-				if (!first) {
-					builder.append("|");
-				} else {
-					first = false;
-				}
-				String wordRegex = Terms.createRegexForWord(word);
-				builder.append(wordRegex);
-			}
-		}		
-		builder.append(")(\\W|$)");
-		return builder.toString();
+	/**
+	 * Общий (скомпилированный) поиск терминов, перестраивается только в updateFindGlossRegex
+	 */
+	public GlossaryMatcher getMatcher() {
+		return fMatcher;
 	}
 	
 	//============================
 	// search
 	
 	public List<Point> findKeyWords(String text){
-		ArrayList<Point> result= new ArrayList<>();
-		result.addAll(findUpperWords(text));
-		result.addAll(findLowerWords(text));
-		return result;
+		return fMatcher.findKeyWords(text);
 	}
 	
-	private List<Point>  findUpperWords(String text) {
-		ArrayList<Point> result= new ArrayList<>();	
-		if (fUppderCaseWordsRegex == null) {
-			return result;
-		}		
-		Pattern pattern = Pattern.compile(fUppderCaseWordsRegex,  Pattern.UNICODE_CHARACTER_CLASS);
-		Matcher matcher = pattern.matcher(text);
-		int start = 0;
-		while(matcher.find(start)) {
-			int offset = matcher.start();
-			int end = matcher.end();
-			
-			String findText = matcher.group();
-			if (!Character.isLetter(findText.charAt(0))){
-				offset ++;
-			}
-			if (!Character.isLetter(findText.charAt(findText.length()-1))){
-				end--;
-			}
-			
-			result.add(new Point(offset, end - offset));			
-			start = end;
-		}
-		return result;
-	}
-	
-	private List<Point>  findLowerWords(String text) {
-		ArrayList<Point> result= new ArrayList<>();	
-		if (fLowerCaseWordsRegex == null) {
-			return result;
-		}
-		Pattern pattern = Pattern.compile(fLowerCaseWordsRegex, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CHARACTER_CLASS);
-		Matcher matcher = pattern.matcher(text);
-		int start = 0;
-		while(matcher.find(start)) {
-			int offset = matcher.start();
-			int end = matcher.end();
-			
-			String findText = matcher.group();
-			if (Character.isWhitespace(findText.charAt(0))){
-				offset ++;
-			}
-			if (Character.isWhitespace(findText.charAt(findText.length()-1))){
-				end--;
-			}				
-			result.add(new Point(offset, end - offset));
-			start = end;
-		}	
-		return result;
-	} 
-	
 	//============================
 	// equals
 	
@@ -0,0 +1,190 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.core.model.glossary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.eclipse.swt.graphics.Point;
+
+import ru.dip.core.DipCorePlugin;
+import ru.dip.core.utilities.text.AhoCorasick;
+import ru.dip.core.utilities.text.Terms;
+
+/**
+ * Поиск терминов глоссария по тексту
+ *
+ * Строится один раз при изменении глоссария (GlossaryFolder.updateFindGlossRegex), неизменяемый.
+ * Регулярные выражения компилируются при построении, перед их применением текст проверяется
+ * автоматом Ахо-Корасик по основам терминов - если ни одной основы нет, регулярное выражение не запускается.
+ */
+public class GlossaryMatcher {
+
+	public static final GlossaryMatcher EMPTY = new GlossaryMatcher(new ArrayList<>());
+
+	private final Pattern fUpperCasePattern;
+	private final Pattern fLowerCasePattern;
+	// null - если не у всех терминов есть обязательная часть (фильтр не применим)
+	private final AhoCorasick fLiterals;
+
+	public GlossaryMatcher(Collection<GlossaryField> fields) {
+		List<String> upperCaseWords = new ArrayList<>();
+		List<String> lowerCaseWords = new ArrayList<>();
+		List<String> literals = new ArrayList<>();
+		boolean allLiterals = true;
+		for (GlossaryField field: fields) {
+			if (field.isUpperCase()) {
+				upperCaseWords.add(field.name());
+			} else {
+				lowerCaseWords.add(field.name());
+			}
+			String literal = Terms.createRequiredLiteral(field.name());
+			if (literal == null) {
+				allLiterals = false;
+			} else {
+				literals.add(literal.toLowerCase());
+			}
+		}
+		String upperRegex = createRegex(upperCaseWords);
+		String lowerRegex = createRegex(lowerCaseWords);
+		fUpperCasePattern = compile(upperRegex, Pattern.UNICODE_CHARACTER_CLASS);
+		fLowerCasePattern = compile(lowerRegex, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CHARACTER_CLASS);
+		fLiterals = allLiterals ? new AhoCorasick(literals) : null;
+	}
+	
+	private Pattern compile(String regex, int flags) {
+		if (regex == null) {
+			return null;
+		}
+		try {
+			return Pattern.compile(regex, flags);
+		} catch (PatternSyntaxException e) {
+			DipCorePlugin.logError(e, "Glossary regex error");
+			return null;
+		}
+	}
+
+	private String createRegex(Collection<String> words) {
+		if (words.isEmpty()) {
+			return null;
+		}
+		StringBuilder builder = new StringBuilder();
+		builder.append("(^|\\W)(");
+		if (words.size() == 1) {
+			for (String word: words) {
+				String wordRegex = Terms.createRegexForWord(word);
+				builder.append(wordRegex);
+			}
+		} else {
+			boolean first = true;
+			for (String word: words) {
+				word = word.replace("(", "\\(");
+				word = word.replace(")", "\\)");
+				if (!first) {
+					builder.append("|");
+				} else {
+					first = false;
+				}
+				String wordRegex = Terms.createRegexForWord(word);
+				builder.append(wordRegex);
+			}
+		}
+		builder.append(")(\\W|$)");
+		return builder.toString();
+	}
+
+	public boolean isEmpty() {
+		return fUpperCasePattern == null && fLowerCasePattern == null;
+	}
+
+	/**
+	 * Может ли текст содержать термины (быстрая проверка без регулярных выражений)
+	 */
+	public boolean mayContainTerms(String text) {
+		if (isEmpty() || text == null || text.isEmpty()) {
+			return false;
+		}
+		return fLiterals == null || fLiterals.containsAny(text.toLowerCase());
+	}
+
+	//============================
+	// search
+
+	/**
+	 * Позиции терминов (x - начало, y - длина)
+	 */
+	public List<Point> findKeyWords(String text){
+		ArrayList<Point> result= new ArrayList<>();
+		if (!mayContainTerms(text)) {
+			return result;
+		}
+		result.addAll(findUpperWords(text));
+		result.addAll(findLowerWords(text));
+		return result;
+	}
+
+	private List<Point>  findUpperWords(String text) {
+		ArrayList<Point> result= new ArrayList<>();
+		if (fUpperCasePattern == null) {
+			return result;
+		}
+		Matcher matcher = fUpperCasePattern.matcher(text);
+		int start = 0;
+		while(matcher.find(start)) {
+			int offset = matcher.start();
+			int end = matcher.end();
+
+			String findText = matcher.group();
+			if (!Character.isLetter(findText.charAt(0))){
+				offset ++;
+			}
+			if (!Character.isLetter(findText.charAt(findText.length()-1))){
+				end--;
+			}
+
+			result.add(new Point(offset, end - offset));
+			start = end;
+		}
+		return result;
+	}
+
+	private List<Point>  findLowerWords(String text) {
+		ArrayList<Point> result= new ArrayList<>();
+		if (fLowerCasePattern == null) {
+			return result;
+		}
+		Matcher matcher = fLowerCasePattern.matcher(text);
+		int start = 0;
+		while(matcher.find(start)) {
+			int offset = matcher.start();
+			int end = matcher.end();
+
+			String findText = matcher.group();
+			if (Character.isWhitespace(findText.charAt(0))){
+				offset ++;
+			}
+			if (Character.isWhitespace(findText.charAt(findText.length()-1))){
+				end--;
+			}
+			result.add(new Point(offset, end - offset));
+			start = end;
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,74 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.core.model.glossary;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import ru.dip.core.model.interfaces.IDipDocumentElement;
+
+/**
+ * Результат анализа использования терминов глоссария (GlossaryUsageAnalyzer)
+ * Количество вхождений и элементы, в которых встречается каждый термин
+ */
+public class GlossaryUsage {
+
+	private final List<GlossaryField> fFields;
+	private final Map<GlossaryField, Integer> fCounts = new ConcurrentHashMap<>();
+	private final Map<GlossaryField, Set<IDipDocumentElement>> fElements = new ConcurrentHashMap<>();
+
+	GlossaryUsage(List<GlossaryField> fields) {
+		fFields = fields;
+	}
+
+	void add(GlossaryField field, IDipDocumentElement element, int count) {
+		fCounts.merge(field, count, Integer::sum);
+		Set<IDipDocumentElement> elements = fElements.computeIfAbsent(field, f -> new LinkedHashSet<>());
+		synchronized (elements) {
+			elements.add(element);
+		}
+	}
+
+	/**
+	 * Термины, которые не встречаются в проекте
+	 */
+	public List<GlossaryField> getUnusedFields() {
+		List<GlossaryField> result = new ArrayList<>();
+		for (GlossaryField field: fFields) {
+			if (!fCounts.containsKey(field)) {
+				result.add(field);
+			}
+		}
+		return result;
+	}
+
+	public int getCount(GlossaryField field) {
+		return fCounts.getOrDefault(field, 0);
+	}
+
+	public Set<IDipDocumentElement> getElements(GlossaryField field) {
+		Set<IDipDocumentElement> elements = fElements.get(field);
+		return elements == null ? Collections.emptySet() : Collections.unmodifiableSet(elements);
+	}
+
+	public List<GlossaryField> getFields() {
+		return fFields;
+	}
+
+}
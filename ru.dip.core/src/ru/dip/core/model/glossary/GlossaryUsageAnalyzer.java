@@ -0,0 +1,202 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.core.model.glossary;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+import ru.dip.core.DipCorePlugin;
+import ru.dip.core.model.DipProject;
+import ru.dip.core.model.DipTableContainer;
+import ru.dip.core.model.interfaces.IDipDocumentElement;
+import ru.dip.core.model.interfaces.IGlossarySupport;
+import ru.dip.core.utilities.text.AhoCorasick;
+import ru.dip.core.utilities.text.Terms;
+
+/**
+ * Анализ использования терминов глоссария в проекте за один проход
+ *
+ * 1. Тексты элементов собираются один раз (из кэшированных презентаций) - последовательно
+ * 2. Каждый текст проверяется автоматом Ахо-Корасик по основам всех терминов,
+ *    регулярное выражение термина применяется только если его основа есть в тексте.
+ *    Папки верхнего уровня обрабатываются параллельно.
+ */
+public class GlossaryUsageAnalyzer {
+
+	private static class ElementText {
+
+		private final IDipDocumentElement fElement;
+		private final String fText;
+
+		private ElementText(IDipDocumentElement element, String text) {
+			fElement = element;
+			fText = text;
+		}
+	}
+
+	public static GlossaryUsage analyze(GlossaryFolder glossaryFolder) {
+		return new GlossaryUsageAnalyzer(glossaryFolder).analyze(new NullProgressMonitor());
+	}
+
+	private final DipProject fDipProject;
+	private final List<GlossaryField> fFields;
+	private final Pattern[] fPatterns;
+	private final AhoCorasick fLiterals;
+	// термины без обязательной части - проверяются всегда
+	private final BitSet fAlwaysCheck = new BitSet();
+	// номер строки в автомате -> номер термина
+	private final List<Integer> fLiteralFields = new ArrayList<>();
+
+	public GlossaryUsageAnalyzer(GlossaryFolder glossaryFolder) {
+		fDipProject = glossaryFolder.dipProject();
+		fFields = new ArrayList<>(glossaryFolder.getChildren());
+		fPatterns = new Pattern[fFields.size()];
+		List<String> literals = new ArrayList<>();
+		for (int i = 0; i < fFields.size(); i++) {
+			String name = fFields.get(i).name();
+			fPatterns[i] = compile(Terms.createRegexForGlossEntry(name));
+			String literal = Terms.createRequiredLiteral(name);
+			if (literal == null) {
+				fAlwaysCheck.set(i);
+			} else {
+				literals.add(literal.toLowerCase());
+				fLiteralFields.add(i);
+			}
+		}
+		fLiterals = new AhoCorasick(literals);
+	}
+
+	private Pattern compile(String regex) {
+		try {
+			return Pattern.compile(regex);
+		} catch (PatternSyntaxException e) {
+			DipCorePlugin.logError(e, "Glossary regex error");
+			return null;
+		}
+	}
+
+	/**
+	 * @throws OperationCanceledException - если анализ отменен через monitor
+	 */
+	public GlossaryUsage analyze(IProgressMonitor monitor) {
+		GlossaryUsage usage = new GlossaryUsage(fFields);
+		if (fFields.isEmpty()) {
+			return usage;
+		}
+		List<List<ElementText>> groups = collectTexts(monitor);
+		int size = groups.stream().mapToInt(List::size).sum();
+		monitor.beginTask("Glossary analysis", size);
+		groups.parallelStream().forEach(group -> analyzeGroup(group, usage, monitor));
+		checkCanceled(monitor);
+		monitor.done();
+		return usage;
+	}
+
+	//============================
+	// collect
+
+	/**
+	 * Тексты элементов, сгруппированные по папкам верхнего уровня
+	 * (презентации создаются и кэшируются в UnitPresentationCache, поэтому последовательно)
+	 */
+	private List<List<ElementText>> collectTexts(IProgressMonitor monitor) {
+		List<List<ElementText>> groups = new ArrayList<>();
+		List<ElementText> rootGroup = new ArrayList<>();
+		addText(fDipProject, rootGroup);
+		groups.add(rootGroup);
+		for (IDipDocumentElement element: fDipProject.getDipChildren()) {
+			checkCanceled(monitor);
+			if (element instanceof DipTableContainer) {
+				List<ElementText> group = new ArrayList<>();
+				collectTexts((DipTableContainer) element, group, monitor);
+				groups.add(group);
+			} else {
+				addText(element, rootGroup);
+			}
+		}
+		return groups;
+	}
+
+	private void collectTexts(DipTableContainer parent, List<ElementText> group, IProgressMonitor monitor) {
+		addText(parent, group);
+		for (IDipDocumentElement element: parent.getDipChildren()) {
+			checkCanceled(monitor);
+			if (element instanceof DipTableContainer) {
+				collectTexts((DipTableContainer) element, group, monitor);
+			} else {
+				addText(element, group);
+			}
+		}
+	}
+
+	private void addText(IDipDocumentElement element, List<ElementText> group) {
+		if (element instanceof IGlossarySupport) {
+			String text = ((IGlossarySupport) element).glossaryText();
+			if (text != null && !text.isEmpty()) {
+				group.add(new ElementText(element, text));
+			}
+		}
+	}
+
+	//============================
+	// analyze
+
+	private void analyzeGroup(List<ElementText> group, GlossaryUsage usage, IProgressMonitor monitor) {
+		for (ElementText elementText: group) {
+			if (monitor.isCanceled()) {
+				return;
+			}
+			analyzeText(elementText, usage);
+			synchronized (monitor) {
+				monitor.worked(1);
+			}
+		}
+	}
+
+	private void analyzeText(ElementText elementText, GlossaryUsage usage) {
+		BitSet candidates = (BitSet) fAlwaysCheck.clone();
+		BitSet literals = fLiterals.findAll(elementText.fText.toLowerCase());
+		for (int i = literals.nextSetBit(0); i >= 0; i = literals.nextSetBit(i + 1)) {
+			candidates.set(fLiteralFields.get(i));
+		}
+		for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+			if (fPatterns[i] == null) {
+				continue;
+			}
+			int count = 0;
+			Matcher matcher = fPatterns[i].matcher(elementText.fText);
+			while (matcher.find()) {
+				count++;
+			}
+			if (count > 0) {
+				usage.add(fFields.get(i), elementText.fElement.strong(), count);
+			}
+		}
+	}
+
+	private void checkCanceled(IProgressMonitor monitor) {
+		if (monitor.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+	}
+
+}
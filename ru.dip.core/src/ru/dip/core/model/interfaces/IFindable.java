@@ -13,6 +13,8 @@
  *******************************************************************************/
 package ru.dip.core.model.interfaces;
 
+import org.eclipse.core.resources.IResource;
+
 import ru.dip.core.model.finder.FindSettings;
 
 public interface IFindable {
@@ -42,5 +44,13 @@ public interface IFindable {
 	boolean appendWord(String text, boolean caseSensitive);
 
 	void cleanFind();
+	
+	/**
+	 * Ресурс, по которому элемент ищется через индекс проекта (TextIndex)
+	 * null - элемент проверяется при каждом поиске
+	 */
+	default IResource indexedResource() {
+		return null;
+	}
 
 }
@@ -25,5 +25,13 @@ public interface IGlossarySupport {
 	 * Используется для проверки наличия терминов из глоссария в проекте
 	 */
 	public void removeIfFind(Collection<String> terms);
+	
+	/**
+	 * Текст, в котором ищутся термины глоссария (GlossaryUsageAnalyzer)
+	 * null - если текста нет
+	 */
+	default String glossaryText() {
+		return null;
+	}
 
 }
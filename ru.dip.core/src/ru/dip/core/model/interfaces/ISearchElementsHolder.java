@@ -13,10 +13,18 @@
  *******************************************************************************/
 package ru.dip.core.model.interfaces;
 
+import ru.dip.core.model.finder.FindSettings;
 import ru.dip.core.model.interfaces.IDipDocumentElement;
 
 public interface ISearchElementsHolder {
 	
 	IDipDocumentElement[] getDipDocElementsForSearch();
+	
+	/**
+	 * Элементы, которые нужно проверить при поиске text (по умолчанию - все)
+	 */
+	default IDipDocumentElement[] getDipDocElementsForSearch(String text, FindSettings findSettings) {
+		return getDipDocElementsForSearch();
+	}
 
 }
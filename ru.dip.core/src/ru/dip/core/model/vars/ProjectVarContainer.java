@@ -20,6 +20,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import org.eclipse.core.resources.IFile;
@@ -32,23 +34,59 @@ import ru.dip.core.model.interfaces.IDipElement;
 import ru.dip.core.model.interfaces.IDipParent;
 import ru.dip.core.model.interfaces.IVariablesSupport;
 
-public class ProjectVarContainer extends VarContainer {
+public class ProjectVarContainer extends VarContainer implements IVarContainerListener {
+
+	// общий счетчик, чтобы версии не повторялись при пересоздании контейнера
+	private static final AtomicLong VERSIONS = new AtomicLong();
 
 	private List<IVarContainer> fFolders = new ArrayList<>();
 	private Map<IResource, IVarContainer> fContainerByFolder = new HashMap<>();
+	// подстановка переменных (по папке элемента), сбрасывается при изменении переменных
+	private final Map<IResource, VarExpander> fExpanders = new ConcurrentHashMap<>();
+	private volatile long fVersion = VERSIONS.incrementAndGet();
 	
 	public ProjectVarContainer(IFile varFile, DipProject project) {
 		super(varFile, project);
+		addListener(this);
 	}
 	
 	public void addContainer(VarContainer varContainer) {
 		fFolders.add(varContainer);
 		fContainerByFolder.put(varContainer.getDipParent().resource(), varContainer);
+		varContainer.addListener(this);
+		variablesChanged();
 	}
 	
 	public void removeContainer(VarContainer varContainer) {		
 		fFolders.remove(varContainer);
 		fContainerByFolder.remove(varContainer.getDipParent().resource());
+		varContainer.removeListener(this);
+		variablesChanged();
+	}
+	
+	//=========================
+	// expand
+	
+	@Override
+	public void variablesChanged() {
+		fVersion = VERSIONS.incrementAndGet();
+		fExpanders.clear();
+	}
+	
+	/**
+	 * Версия набора переменных (меняется при любом изменении переменных проекта и папок)
+	 */
+	public long getVersion() {
+		return fVersion;
+	}
+	
+	/**
+	 * Подстановка переменных, видимых в элементе (см. getVariablesForUnit)
+	 */
+	public VarExpander getExpander(IDipDocumentElement dde) {
+		IDipParent parent = dde.parent();
+		IResource key = parent != null ? parent.resource() : dipProject().resource();
+		return fExpanders.computeIfAbsent(key, k -> new VarExpander(getVariablesForUnit(dde)));
 	}
 	
 	/**
@@ -0,0 +1,89 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.core.model.vars;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Подстановка набора переменных в текст
+ * 
+ * Одно регулярное выражение на весь набор (компилируется один раз),
+ * все переменные заменяются за один проход по тексту.
+ * Правила как в Terms.createVarRegex: $name между символами '_' или не внутри слова.
+ * Неизменяемый, строится в ProjectVarContainer для каждой области видимости переменных.
+ */
+public class VarExpander {
+
+	public static final VarExpander EMPTY = new VarExpander(null);
+	
+	private static final int UNDERLINE_GROUP = 1;
+	private static final int WORD_GROUP = 2;
+	
+	private final Map<String, String> fValues = new HashMap<>();
+	private final Pattern fPattern;
+	
+	public VarExpander(Collection<Variable> variables) {
+		if (variables != null) {
+			variables.forEach(v -> fValues.put(v.name(), v.getValue()));
+		}
+		fPattern = createPattern();
+	}
+	
+	private Pattern createPattern() {
+		if (fValues.isEmpty()) {
+			return null;
+		}
+		StringBuilder names = new StringBuilder();
+		for (String name: fValues.keySet()) {
+			if (names.length() > 0) {
+				names.append('|');
+			}
+			names.append(Pattern.quote(name));
+		}
+		String regex = "(?<=_)\\$(" + names + ")(?=_)|(?<!\\w)\\$(" + names + ")(?!\\w)";
+		return Pattern.compile(regex);
+	}
+	
+	public String expand(String content) {
+		if (fPattern == null || content == null || content.indexOf('$') < 0) {
+			return content;
+		}
+		Matcher matcher = fPattern.matcher(content);
+		if (!matcher.find()) {
+			return content;
+		}
+		StringBuilder builder = new StringBuilder(content.length());
+		int last = 0;
+		do {
+			String name = matcher.group(UNDERLINE_GROUP);
+			if (name == null) {
+				name = matcher.group(WORD_GROUP);
+			}
+			builder.append(content, last, matcher.start());
+			builder.append(fValues.get(name));
+			last = matcher.end();
+		} while (matcher.find());
+		builder.append(content, last, content.length());
+		return builder.toString();
+	}
+	
+	public boolean isEmpty() {
+		return fPattern == null;
+	}
+
+}
@@ -13,10 +13,7 @@
  *******************************************************************************/
 package ru.dip.core.model.vars;
 
-import java.util.Collection;
-
 import ru.dip.core.model.interfaces.IDipDocumentElement;
-import ru.dip.core.utilities.text.Terms;
 
 public class VariableInteractor {
 	
@@ -25,11 +22,14 @@ public class VariableInteractor {
 		if (varContainer == null) {
 			return content;
 		}		
-		Collection<Variable> vars = varContainer.getVariablesForUnit(dde);		
-		for (Variable variable: vars) {		
-			String regex = Terms.createVarRegex(variable.name());
-			content = content.replaceAll(regex, variable.getValue());
-		}
-		return content;
+		return varContainer.getExpander(dde).expand(content);
+	}
+	
+	/**
+	 * Версия переменных проекта (для кэширования текста с подставленными переменными)
+	 */
+	public static long getVarsVersion(IDipDocumentElement dde) {
+		ProjectVarContainer varContainer = dde.dipProject().getVariablesContainer();
+		return varContainer == null ? 0 : varContainer.getVersion();
 	}
 }
@@ -0,0 +1,267 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.core.report.checker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.BiPredicate;
+
+import ru.dip.core.report.model.condition.BooleanSign;
+import ru.dip.core.report.model.condition.CloseBracket;
+import ru.dip.core.report.model.condition.Condition;
+import ru.dip.core.report.model.condition.ConditionPart;
+import ru.dip.core.report.model.condition.FieldName.FieldType;
+import ru.dip.core.report.model.condition.OpenBracket;
+import ru.dip.core.report.model.condition.SimpleCondition;
+
+/**
+ * Условие, скомпилированное в дерево AND/OR
+ *
+ * Дерево строится последовательным свертыванием частей условия (порядок свертки зависит только
+ * от состава частей, а не от значений): (node) -> node, node sign node -> Junction.
+ * Вычисление с коротким замыканием, операнды AND/OR упорядочены по стоимости:
+ * сначала расширение/путь/enabled, затем поля форм, текст и в конце версии (GIT).
+ * Некорректное условие (свертка не сходится) - всегда false.
+ * Компилируется один раз для Condition (пересобирается, если изменился список частей).
+ */
+public class CompiledCondition {
+
+	private static final Map<Condition, CompiledCondition> CACHE = Collections.synchronizedMap(new WeakHashMap<>());
+
+	public static CompiledCondition of(Condition condition) {
+		List<ConditionPart> parts = condition.getParts();
+		CompiledCondition compiled = CACHE.get(condition);
+		if (compiled == null || compiled.fParts != parts || compiled.fSize != parts.size()) {
+			compiled = new CompiledCondition(parts);
+			CACHE.put(condition, compiled);
+		}
+		return compiled;
+	}
+
+	//=========================
+	// nodes
+
+	private static abstract class Node implements ConditionPart {
+
+		abstract <T> boolean test(T object, BiPredicate<SimpleCondition, T> evaluator);
+
+		abstract int cost();
+	}
+
+	private static final Node TRUE = new Constant(true);
+	private static final Node FALSE = new Constant(false);
+
+	private static class Constant extends Node {
+
+		private final boolean fValue;
+
+		private Constant(boolean value) {
+			fValue = value;
+		}
+
+		@Override
+		<T> boolean test(T object, BiPredicate<SimpleCondition, T> evaluator) {
+			return fValue;
+		}
+
+		@Override
+		int cost() {
+			return 0;
+		}
+	}
+
+	private static class Leaf extends Node {
+
+		private final SimpleCondition fCondition;
+		private final int fCost;
+
+		private Leaf(SimpleCondition condition) {
+			fCondition = condition;
+			fCost = cost(condition.fieldName().type());
+		}
+
+		private static int cost(FieldType type) {
+			if (type == null) {
+				return 1;
+			}
+			switch (type) {
+			case EXT:
+			case PATH:
+			case ENABLED:
+				return 1;
+			case FORM_FIELD:
+				return 4;
+			case TEXT:
+			case CASE_TEXT:
+			case WORD:
+			case CASE_WORD:
+				return 8;
+			case VERSION:
+				return 16;
+			default:
+				return 8;
+			}
+		}
+
+		@Override
+		<T> boolean test(T object, BiPredicate<SimpleCondition, T> evaluator) {
+			return evaluator.test(fCondition, object);
+		}
+
+		@Override
+		int cost() {
+			return fCost;
+		}
+	}
+
+	private static class Junction extends Node {
+
+		private final boolean fAnd;
+		private final List<Node> fOperands = new ArrayList<>();
+		private int fCost;
+
+		private Junction(boolean and) {
+			fAnd = and;
+		}
+
+		/**
+		 * Операнды с тем же знаком объединяются (a & (b & c) -> a & b & c)
+		 */
+		private static Node of(BooleanSign sign, Node left, Node right) {
+			Junction junction = new Junction(sign == BooleanSign.AND);
+			junction.add(left);
+			junction.add(right);
+			junction.fOperands.sort(Comparator.comparingInt(Node::cost));
+			return junction;
+		}
+
+		private void add(Node node) {
+			if (node instanceof Junction && ((Junction) node).fAnd == fAnd) {
+				((Junction) node).fOperands.forEach(this::add);
+				return;
+			}
+			fOperands.add(node);
+			fCost += node.cost();
+		}
+
+		@Override
+		<T> boolean test(T object, BiPredicate<SimpleCondition, T> evaluator) {
+			for (Node operand: fOperands) {
+				if (operand.test(object, evaluator) != fAnd) {
+					return !fAnd;
+				}
+			}
+			return fAnd;
+		}
+
+		@Override
+		int cost() {
+			return fCost;
+		}
+	}
+
+	//=========================
+	// compile
+
+	private final List<ConditionPart> fParts;
+	private final int fSize;
+	private final Node fRoot;
+	private final boolean fMetadataOnly;
+
+	private CompiledCondition(List<ConditionPart> parts) {
+		fParts = parts;
+		fSize = parts.size();
+		fRoot = compile(parts);
+		fMetadataOnly = parts.stream()
+				.filter(SimpleCondition.class::isInstance)
+				.map(SimpleCondition.class::cast)
+				.allMatch(condition -> isMetadata(condition.fieldName().type()));
+	}
+	
+	private static boolean isMetadata(FieldType type) {
+		return type == FieldType.EXT || type == FieldType.PATH || type == FieldType.ENABLED;
+	}
+
+	private static Node compile(List<ConditionPart> parts) {
+		if (parts.isEmpty()) {
+			return TRUE;
+		}
+		List<ConditionPart> conditions = new ArrayList<>();
+		for (ConditionPart part: parts) {
+			conditions.add(part instanceof SimpleCondition ? new Leaf((SimpleCondition) part) : part);
+		}
+		int size = conditions.size();
+		while (size != 1) {
+			conditions = reduce(conditions);
+			if (conditions == null || conditions.size() == size) {
+				return FALSE;
+			}
+			size = conditions.size();
+		}
+		ConditionPart part = conditions.get(0);
+		return part instanceof Node ? (Node) part : FALSE;
+	}
+
+	/**
+	 * Один проход свертки:
+	 * (node) -> node, node sign node -> Junction
+	 */
+	private static List<ConditionPart> reduce(List<ConditionPart> conditions) {
+		List<ConditionPart> result = new ArrayList<>();
+		for (int i = 0; i < conditions.size(); i++) {
+			ConditionPart part = conditions.get(i);
+			if (part instanceof OpenBracket && i + 2 < conditions.size()
+					&& conditions.get(i + 1) instanceof Node
+					&& conditions.get(i + 2) instanceof CloseBracket) {
+				result.add(conditions.get(i + 1));
+				i = i + 2;
+			} else if (part instanceof Node && i + 2 < conditions.size()
+					&& conditions.get(i + 1) instanceof BooleanSign
+					&& conditions.get(i + 2) instanceof Node) {
+				BooleanSign sign = (BooleanSign) conditions.get(i + 1);
+				if (!sign.isValidBoolean()) {
+					return null;
+				}
+				result.add(Junction.of(sign, (Node) part, (Node) conditions.get(i + 2)));
+				i = i + 2;
+			} else {
+				result.add(part);
+			}
+		}
+		return result;
+	}
+
+	//=========================
+	// test
+
+	/**
+	 * @param evaluator - проверка простого условия для объекта
+	 */
+	public <T> boolean test(T object, BiPredicate<SimpleCondition, T> evaluator) {
+		return fRoot.test(object, evaluator);
+	}
+
+	/**
+	 * Только условия по расширению, пути и enabled - Presentation не создается и не читается,
+	 * можно проверять вне вызывающего потока
+	 */
+	public boolean isMetadataOnly() {
+		return fMetadataOnly;
+	}
+
+}
@@ -13,15 +13,10 @@
  *******************************************************************************/
 package ru.dip.core.report.checker;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import ru.dip.core.model.DipUnit;
 import ru.dip.core.model.interfaces.IDipDocumentElement;
 import ru.dip.core.model.interfaces.IDipParent;
-import ru.dip.core.report.model.condition.BooleanValue;
 import ru.dip.core.report.model.condition.Condition;
-import ru.dip.core.report.model.condition.ConditionPart;
 import ru.dip.core.report.model.condition.FieldName;
 import ru.dip.core.report.model.condition.FieldName.FieldType;
 import ru.dip.core.report.model.condition.Sign;
@@ -31,30 +26,10 @@ import ru.dip.core.report.model.condition.Value;
 public class DipDocElementConditionChecker {
 
 	public static boolean checkDipDocElement(IDipDocumentElement dipDocumentElement, Condition condition) {
-		List<ConditionPart> parts = condition.getParts();
-		if (parts.isEmpty()) {
-			return true;
-		}
-		List<ConditionPart> boolConditions = evaluateSimpleConditions(parts, dipDocumentElement);
-		return BooleanCalculator.checkBooleanConditions(boolConditions);
-	}
-
-	private static List<ConditionPart> evaluateSimpleConditions(List<ConditionPart> parts,
-			IDipDocumentElement dipDocumentElement) {
-		List<ConditionPart> result = new ArrayList<>();
-		for (ConditionPart part : parts) {
-			if (part instanceof SimpleCondition) {
-				SimpleCondition simpleCondition = (SimpleCondition) part;
-				boolean evaluate = evaluate(simpleCondition, dipDocumentElement);
-				result.add(BooleanValue.of(evaluate));
-			} else {
-				result.add(part);
-			}
-		}
-		return result;
+		return CompiledCondition.of(condition).test(dipDocumentElement, DipDocElementConditionChecker::evaluate);
 	}
 
-	private static boolean evaluate(SimpleCondition simpleCondition, IDipDocumentElement dipDocumentElement) {
+	static boolean evaluate(SimpleCondition simpleCondition, IDipDocumentElement dipDocumentElement) {
 		FieldName field = simpleCondition.fieldName();
 		Sign sign = simpleCondition.sign();
 		Value value = simpleCondition.value();
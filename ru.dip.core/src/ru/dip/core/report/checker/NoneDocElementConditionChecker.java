@@ -13,14 +13,9 @@
  *******************************************************************************/
 package ru.dip.core.report.checker;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import ru.dip.core.model.interfaces.IDipElement;
 import ru.dip.core.model.interfaces.IParent;
-import ru.dip.core.report.model.condition.BooleanValue;
 import ru.dip.core.report.model.condition.Condition;
-import ru.dip.core.report.model.condition.ConditionPart;
 import ru.dip.core.report.model.condition.FieldName;
 import ru.dip.core.report.model.condition.FieldName.FieldType;
 import ru.dip.core.report.model.condition.Sign;
@@ -34,30 +29,10 @@ import ru.dip.core.report.model.condition.Value;
 public class NoneDocElementConditionChecker {
 
 	public static boolean checkDipDocElement(IDipElement dipElement, Condition condition) {
-		List<ConditionPart> parts = condition.getParts();
-		if (parts.isEmpty()) {
-			return true;
-		}
-		List<ConditionPart> boolConditions = evaluateSimpleConditions(parts, dipElement);
-		return BooleanCalculator.checkBooleanConditions(boolConditions);
-	}
-
-	private static List<ConditionPart> evaluateSimpleConditions(List<ConditionPart> parts,
-			IDipElement dipElement) {
-		List<ConditionPart> result = new ArrayList<>();
-		for (ConditionPart part : parts) {
-			if (part instanceof SimpleCondition) {
-				SimpleCondition simpleCondition = (SimpleCondition) part;
-				boolean evaluate = evaluate(simpleCondition, dipElement);
-				result.add(BooleanValue.of(evaluate));
-			} else {
-				result.add(part);
-			}
-		}
-		return result;
+		return CompiledCondition.of(condition).test(dipElement, NoneDocElementConditionChecker::evaluate);
 	}
 
-	private static boolean evaluate(SimpleCondition simpleCondition, IDipElement dipElement) {
+	static boolean evaluate(SimpleCondition simpleCondition, IDipElement dipElement) {
 		FieldName field = simpleCondition.fieldName();
 		Sign sign = simpleCondition.sign();
 		Value value = simpleCondition.value();
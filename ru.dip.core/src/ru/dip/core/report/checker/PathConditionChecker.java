@@ -16,13 +16,9 @@ package ru.dip.core.report.checker;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.List;
 
 import ru.dip.core.model.finder.FindResult;
-import ru.dip.core.report.model.condition.BooleanValue;
 import ru.dip.core.report.model.condition.Condition;
-import ru.dip.core.report.model.condition.ConditionPart;
 import ru.dip.core.report.model.condition.FieldName;
 import ru.dip.core.report.model.condition.Sign;
 import ru.dip.core.report.model.condition.SimpleCondition;
@@ -38,27 +34,8 @@ public class PathConditionChecker {
 	 * определяться фильтры PATH)
 	 */
 	public static boolean checkByPath(Path fullPath, Path repoPath, Condition condition) {
-		List<ConditionPart> parts = condition.getParts();
-		if (parts.isEmpty()) {
-			return true;
-		}
-		List<ConditionPart> boolConditions = evaluateSimpleConditions(parts, fullPath, repoPath);
-		return BooleanCalculator.checkBooleanConditions(boolConditions);
-	}
-
-	private static List<ConditionPart> evaluateSimpleConditions(List<ConditionPart> parts, Path fullPath,
-			Path repoPath) {
-		List<ConditionPart> result = new ArrayList<>();
-		for (ConditionPart part : parts) {
-			if (part instanceof SimpleCondition) {
-				SimpleCondition simpleCondition = (SimpleCondition) part;
-				boolean evaluate = evaluate(simpleCondition, fullPath, repoPath);
-				result.add(BooleanValue.of(evaluate));
-			} else {
-				result.add(part);
-			}
-		}
-		return result;
+		return CompiledCondition.of(condition).test(fullPath,
+				(simpleCondition, path) -> evaluate(simpleCondition, path, repoPath));
 	}
 
 	private static boolean evaluate(SimpleCondition condition, Path path, Path repoPath) {
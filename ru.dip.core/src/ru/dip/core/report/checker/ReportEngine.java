@@ -0,0 +1,218 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.core.report.checker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+import ru.dip.core.model.DipReservedFolder;
+import ru.dip.core.model.DipReservedUnit;
+import ru.dip.core.model.DipUnit;
+import ru.dip.core.model.interfaces.IDipElement;
+import ru.dip.core.model.interfaces.IDipParent;
+import ru.dip.core.model.interfaces.IParent;
+import ru.dip.core.report.model.report.ReportEntry;
+import ru.dip.core.report.model.report.ReportRule;
+
+/**
+ * Вычисление разделов отчета
+ *
+ * Элементы проекта (DipUnit и DipReservedUnit, включая зарезервированные папки) собираются один раз,
+ * затем за один проход каждый элемент проверяется по всем правилам всех разделов.
+ * В пуле потоков проверяются только условия по расширению, пути и enabled (CompiledCondition.isMetadataOnly).
+ * Условия по тексту и полям форм создают и читают Presentation (в т.ч. изображения SWT), условия
+ * по версиям (GIT) заполняют историю коммитов (GitCommitInfoUtils) лениво - они проверяются
+ * вторым, последовательным проходом в вызывающем потоке.
+ * Результаты раздела - в порядке правил, отсортированы reportResultComparator (как findEntry).
+ */
+public class ReportEngine {
+
+	private static final int PARALLEL_THRESHOLD = 256;
+	private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+	/**
+	 * Результат раздела отчета
+	 */
+	public static class EntryResult {
+
+		private final ReportEntry fEntry;
+		private final List<Integer> fIndexes = new ArrayList<>();
+		private List<IDipElement> fElements = Collections.emptyList();
+		private ReportRuleSyntaxException fError;
+
+		private EntryResult(ReportEntry entry) {
+			fEntry = entry;
+		}
+
+		public ReportEntry entry() {
+			return fEntry;
+		}
+
+		/**
+		 * Элементы раздела, если в правиле ошибка - ReportRuleSyntaxException
+		 */
+		public List<IDipElement> elements() throws ReportRuleSyntaxException {
+			if (fError != null) {
+				throw fError;
+			}
+			return fElements;
+		}
+	}
+
+	public static List<EntryResult> findEntries(List<ReportEntry> entries, IDipParent parent) {
+		return findEntries(entries, parent, null);
+	}
+
+	/**
+	 * @param monitor - монитор вызывающего задания (может быть null), при отмене - OperationCanceledException
+	 */
+	public static List<EntryResult> findEntries(List<ReportEntry> entries, IDipParent parent, IProgressMonitor monitor) {
+		return new ReportEngine(parent).run(entries, monitor);
+	}
+
+	private final IDipParent fParent;
+	private final List<IDipElement> fElements = new ArrayList<>();
+
+	public ReportEngine(IDipParent parent) {
+		fParent = parent;
+		collect(parent);
+	}
+
+	private void collect(IParent parent) {
+		for (IDipElement dipElement: parent.getChildren()) {
+			if (dipElement instanceof IDipParent || dipElement instanceof DipReservedFolder) {
+				collect((IParent) dipElement);
+			} else if (dipElement instanceof DipUnit || dipElement instanceof DipReservedUnit) {
+				fElements.add(dipElement);
+			}
+		}
+	}
+
+	/**
+	 * @param monitor - может быть null, при отмене - OperationCanceledException
+	 */
+	public List<EntryResult> run(List<ReportEntry> entries, IProgressMonitor monitor) {
+		// правила -> условия (последовательно, ruleToFilter изменяет правило)
+		List<CompiledCondition> conditions = new ArrayList<>();
+		List<EntryResult> results = new ArrayList<>();
+		for (ReportEntry entry: entries) {
+			EntryResult result = new EntryResult(entry);
+			results.add(result);
+			try {
+				for (ReportRule rule: entry.getRules()) {
+					result.fIndexes.add(conditions.size());
+					conditions.add(compileRule(rule));
+				}
+			} catch (ReportRuleSyntaxException e) {
+				result.fError = e;
+			}
+		}
+
+		boolean[][] matches = check(conditions, monitor);
+
+		for (EntryResult result: results) {
+			if (result.fError != null) {
+				continue;
+			}
+			List<IDipElement> elements = new ArrayList<>();
+			for (int index: result.fIndexes) {
+				for (int i = 0; i < fElements.size(); i++) {
+					if (matches[i][index]) {
+						elements.add(fElements.get(i));
+					}
+				}
+			}
+			elements.sort(ReportEntryChecker.reportResultComparator);
+			result.fElements = elements;
+		}
+		return results;
+	}
+
+	private CompiledCondition compileRule(ReportRule rule) throws ReportRuleSyntaxException {
+		if (rule.getExtension() != null) {
+			ReportEntryChecker.ruleToFilter(rule);
+		}
+		String error = FilterValidator.validateFilter(rule.getCondition(), fParent.dipProject());
+		if (error != null) {
+			throw new ReportRuleSyntaxException(error);
+		}
+		return CompiledCondition.of(rule.getCondition());
+	}
+
+	/**
+	 * Проход по элементам: matches[элемент][условие]
+	 * Условия только по метаданным - параллельно, остальные - последовательно в вызывающем потоке
+	 */
+	private boolean[][] check(List<CompiledCondition> conditions, IProgressMonitor monitor) {
+		boolean[][] matches = new boolean[fElements.size()][conditions.size()];
+		int[] parallel = IntStream.range(0, conditions.size()).filter(i -> conditions.get(i).isMetadataOnly()).toArray();
+		int[] sequential = IntStream.range(0, conditions.size()).filter(i -> !conditions.get(i).isMetadataOnly()).toArray();
+		IntConsumer checkElement = i -> {
+			if (monitor != null && monitor.isCanceled()) {
+				return;
+			}
+			check(fElements.get(i), conditions, parallel, matches[i]);
+		};
+		if (fElements.size() < PARALLEL_THRESHOLD || parallel.length == 0) {
+			IntStream.range(0, fElements.size()).forEach(checkElement);
+		} else {
+			try {
+				POOL.submit(() -> IntStream.range(0, fElements.size()).parallel().forEach(checkElement)).get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+		if (sequential.length > 0) {
+			for (int i = 0; i < fElements.size(); i++) {
+				if (monitor != null && monitor.isCanceled()) {
+					break;
+				}
+				check(fElements.get(i), conditions, sequential, matches[i]);
+			}
+		}
+		if (monitor != null && monitor.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+		return matches;
+	}
+
+	private static void check(IDipElement element, List<CompiledCondition> conditions, int[] indexes, boolean[] result) {
+		for (int i: indexes) {
+			if (element instanceof DipUnit) {
+				result[i] = conditions.get(i).test((DipUnit) element, DipDocElementConditionChecker::evaluate);
+			} else {
+				result[i] = conditions.get(i).test(element, NoneDocElementConditionChecker::evaluate);
+			}
+		}
+	}
+
+	public int size() {
+		return fElements.size();
+	}
+
+}
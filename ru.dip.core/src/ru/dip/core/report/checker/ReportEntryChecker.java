@@ -13,20 +13,14 @@
  *******************************************************************************/
 package ru.dip.core.report.checker;
 
-import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 
-import ru.dip.core.model.DipReservedFolder;
-import ru.dip.core.model.DipReservedUnit;
-import ru.dip.core.model.DipUnit;
 import ru.dip.core.model.interfaces.IDipDocumentElement;
 import ru.dip.core.model.interfaces.IDipElement;
 import ru.dip.core.model.interfaces.IDipParent;
-import ru.dip.core.model.interfaces.IParent;
 import ru.dip.core.report.model.condition.BooleanSign;
 import ru.dip.core.report.model.condition.CloseBracket;
-import ru.dip.core.report.model.condition.Condition;
 import ru.dip.core.report.model.condition.ConditionPart;
 import ru.dip.core.report.model.condition.FieldName;
 import ru.dip.core.report.model.condition.OpenBracket;
@@ -69,30 +63,9 @@ public class ReportEntryChecker {
 	};
 	
 	public static List<IDipElement> findEntry(ReportEntry entry, IDipParent parent) throws ReportRuleSyntaxException {
-		List<IDipElement> result = new ArrayList<>();
-		for (ReportRule rule: entry.getRules()){
-			List<IDipElement> elements = findRule(rule, parent); 
-			if (elements != null && !elements.isEmpty()){
-				result.addAll(elements);
-			}
-		}		
-		// sort
-		result.sort(reportResultComparator);		
-		return result;
-	}
-	
-	private static List<IDipElement> findRule(ReportRule rule, IDipParent parent) throws ReportRuleSyntaxException{
-		if (rule.getExtension() != null) {		
-			ruleToFilter(rule);
-		}		
-		String error = FilterValidator.validateFilter(rule.getCondition(), parent.dipProject());
-		if (error != null) {
-			throw new ReportRuleSyntaxException(error);
-		}		
-		return filterUnitInRecursiveParent(rule.getCondition(), parent);
+		return ReportEngine.findEntries(List.of(entry), parent).get(0).elements();
 	}
 	
-	
 	/**
 	 * Преобразовать ReportRule - в формат фильтра
 	 */
@@ -124,31 +97,4 @@ public class ReportEntryChecker {
 		// если вдруг это правило будет обрабатываться второй раз
 		rule.setNullExtension();
 	}
-	
-
-	/**
-	 * Фильтр (как в таблице Document)
-	 */
-	private static List<IDipElement> filterUnitInRecursiveParent(Condition condition, IParent parent){
-		List<IDipElement> result = new ArrayList<>();
-		for (IDipElement dipElement: parent.getChildren()){
-			if (dipElement instanceof IDipParent){
-				result.addAll(filterUnitInRecursiveParent(condition, (IDipParent) dipElement));
-			} else if (dipElement instanceof DipReservedFolder) {
-				result.addAll(filterUnitInRecursiveParent(condition, (IParent) dipElement));				
-			} else if (dipElement instanceof DipUnit){
-				DipUnit unit = (DipUnit) dipElement;
-				boolean checkFilter = DipDocElementConditionChecker.checkDipDocElement(unit , condition);
-				if (checkFilter) {
-					result.add(unit);
-				}
-			} else if (dipElement instanceof DipReservedUnit) {
-				boolean checkFilter = NoneDocElementConditionChecker.checkDipDocElement(dipElement, condition);
-				if (checkFilter) {
-					result.add(dipElement);
-				}
-			}
-		}	
-		return result;
-	}
 }
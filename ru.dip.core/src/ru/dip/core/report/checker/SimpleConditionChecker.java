@@ -18,6 +18,7 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.diff.DiffEntry;
@@ -114,34 +115,34 @@ public class SimpleConditionChecker {
 		try {
 			if (sign == Sign.EQUAL) {
 				if (value.getData() instanceof CommitInfo) {
-					List<Path> changedFiles = GitCommitInfoUtils.getChangedCommitFiles(commitInfo, repo);
+					Set<Path> changedFiles = GitCommitInfoUtils.getChangedCommitFiles(commitInfo, repo);
 					Path unitPath = Path.of(unit.resource().getLocationURI());
 					return changedFiles.contains(unitPath);
 				} else {
 					return false;
 				}
 			} else if (sign == Sign.NOT_EQUAL) {
-				List<Path> changedFiles = GitCommitInfoUtils.getChangedCommitFiles(commitInfo, repo);
+				Set<Path> changedFiles = GitCommitInfoUtils.getChangedCommitFiles(commitInfo, repo);
 				Path unitPath = Path.of(unit.resource().getLocationURI());
 				return !changedFiles.contains(unitPath);
 			} else if (sign == Sign.MORE) {
-				List<Path> toHeadChangedFiles = GitCommitInfoUtils.getChangedToHeadFiles(commitInfo, repo);
+				Set<Path> toHeadChangedFiles = GitCommitInfoUtils.getChangedToHeadFiles(commitInfo, repo);
 				Path unitPath = Path.of(unit.resource().getLocationURI());
 				return toHeadChangedFiles.contains(unitPath);
 			} else if (sign == Sign.LESS) {
-				List<Path> toStartChangedFiles = GitCommitInfoUtils.getChangedToStartFiles(commitInfo, repo);
+				Set<Path> toStartChangedFiles = GitCommitInfoUtils.getChangedToStartFiles(commitInfo, repo);
 				Path unitPath = Path.of(unit.resource().getLocationURI());
 				if (toStartChangedFiles != null) {
 					return toStartChangedFiles.contains(unitPath);
 				}
 			} else if (sign == Sign.MORE_EQUAL) {
-				List<Path> toHeadChangedFiles = GitCommitInfoUtils.getChangedToHeadFiles(commitInfo, repo);
-				List<Path> changedFiles = GitCommitInfoUtils.getChangedCommitFiles(commitInfo, repo);
+				Set<Path> toHeadChangedFiles = GitCommitInfoUtils.getChangedToHeadFiles(commitInfo, repo);
+				Set<Path> changedFiles = GitCommitInfoUtils.getChangedCommitFiles(commitInfo, repo);
 				Path unitPath = Path.of(unit.resource().getLocationURI());
 				return toHeadChangedFiles.contains(unitPath) || changedFiles.contains(unitPath);
 			} else if (sign == Sign.LESS_EQUAL) {
-				List<Path> toStartChangedFiles = GitCommitInfoUtils.getChangedToStartFiles(commitInfo, repo);
-				List<Path> changedFiles = GitCommitInfoUtils.getChangedCommitFiles(commitInfo, repo);
+				Set<Path> toStartChangedFiles = GitCommitInfoUtils.getChangedToStartFiles(commitInfo, repo);
+				Set<Path> changedFiles = GitCommitInfoUtils.getChangedCommitFiles(commitInfo, repo);
 				Path unitPath = Path.of(unit.resource().getLocationURI());
 				return toStartChangedFiles.contains(unitPath) || changedFiles.contains(unitPath);
 			}
@@ -206,7 +207,7 @@ public class SimpleConditionChecker {
 			default:
 				return false;
 			}
-		} catch (IOException | GitAPIException e) {
+		} catch (IOException e) {
 			e.printStackTrace();
 		}
 		return false;
@@ -0,0 +1,100 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.core.schema;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.eclipse.core.resources.IFile;
+import org.xml.sax.SAXException;
+
+import ru.dip.core.form.model.CoreFormModel;
+import ru.dip.core.form.model.Field;
+
+/**
+ * Прочитанная схема формы (кэш для чтения форм)
+ *
+ * Схема формы определяется проектом и расширением файла (файл схемы проекта или схема по умолчанию),
+ * ключ кэша - файл схемы. Схема читается заново, если изменился файл (время изменения, размер).
+ * Схема не изменяется, для каждой формы создаются свои поля (fill).
+ */
+public class CompiledSchema {
+
+	private static final Map<File, CompiledSchema> CACHE = new ConcurrentHashMap<>();
+
+	/**
+	 * Схема для файла формы, null - если схемы нет
+	 */
+	public static CompiledSchema forForm(IFile formFile) throws ParserConfigurationException, SAXException, IOException {
+		File schemaFile = SchemaReader.getSchemaFileFromProject(formFile);
+		if (schemaFile == null) {
+			schemaFile = SchemaReader.getDefaultSchemaFile();
+		}
+		if (schemaFile == null) {
+			return null;
+		}
+		long modified = schemaFile.lastModified();
+		long length = schemaFile.length();
+		CompiledSchema schema = CACHE.get(schemaFile);
+		if (schema == null || schema.fModified != modified || schema.fLength != length) {
+			schema = new CompiledSchema(schemaFile, modified, length);
+			CACHE.put(schemaFile, schema);
+		}
+		return schema;
+	}
+
+	private final long fModified;
+	private final long fLength;
+	private final String fName;
+	private final String fHint;
+	private final String fFixedField;
+	private final List<SchemaField> fFields;
+
+	private CompiledSchema(File schemaFile, long modified, long length) throws ParserConfigurationException, SAXException, IOException {
+		fModified = modified;
+		fLength = length;
+		CoreFormModel formModel = new CoreFormModel();
+		try (InputStream stream = Files.newInputStream(schemaFile.toPath())) {
+			SchemaReader reader = new SchemaReader(formModel, stream);
+			fFields = Collections.unmodifiableList(new ArrayList<>(reader.getSchemaFields()));
+		}
+		fName = formModel.getName();
+		fHint = formModel.getHint();
+		fFixedField = formModel.getFixedField();
+	}
+
+	/**
+	 * Заполнить модель формы (название, подсказка, новые поля)
+	 */
+	public void fill(CoreFormModel formModel) {
+		formModel.setName(fName);
+		formModel.setHint(fHint);
+		formModel.setFixedField(fFixedField);
+		List<Field> fields = new ArrayList<>(fFields.size());
+		for (SchemaField schemaField: fFields) {
+			fields.add(schemaField.createField(formModel));
+		}
+		formModel.setFields(fields);
+	}
+
+}
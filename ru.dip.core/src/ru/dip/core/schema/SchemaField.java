@@ -0,0 +1,98 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.core.schema;
+
+import ru.dip.core.form.model.CheckField;
+import ru.dip.core.form.model.ComboField;
+import ru.dip.core.form.model.CoreFormModel;
+import ru.dip.core.form.model.Field;
+import ru.dip.core.form.model.Item;
+import ru.dip.core.form.model.RadioField;
+import ru.dip.core.form.model.TextField;
+
+/**
+ * Описание поля из схемы (не изменяется после чтения схемы)
+ * По описанию создаются поля для каждой формы
+ */
+public class SchemaField {
+
+	static final String COMBO_TYPE = "COMBO";
+	static final String CHECK_TYPE = "CHECK";
+	static final String RADIO_TYPE = "RADIO";
+
+	private final String fType;
+	private final String fName;
+	private final String fTitle;
+	private final String fDefaultValue;
+	private final String fForegroundColor;
+	private final String fBackgroundColor;
+	private final String fHint;
+	private final Item[] fItems;
+	private final Integer fLength;
+	private final Integer fHeight;
+	private final Integer fWidth;
+
+	SchemaField(String type, String name, String title, String defaultValue, String foregroundColor,
+			String backgroundColor, String hint, Item[] items, Integer length, Integer height, Integer width) {
+		fType = type;
+		fName = name;
+		fTitle = title;
+		fDefaultValue = defaultValue;
+		fForegroundColor = foregroundColor;
+		fBackgroundColor = backgroundColor;
+		fHint = hint;
+		fItems = items;
+		fLength = length;
+		fHeight = height;
+		fWidth = width;
+	}
+
+	public Field createField(CoreFormModel formModel) {
+		Field field;
+		if (COMBO_TYPE.equals(fType)) {
+			field = new ComboField(formModel, fName, fTitle, fItems);
+		} else if (CHECK_TYPE.equals(fType)) {
+			CheckField checkField = new CheckField(formModel, fName, fTitle, fItems);
+			if (fLength != null) {
+				checkField.setLength(fLength);
+			}
+			field = checkField;
+		} else if (RADIO_TYPE.equals(fType)) {
+			RadioField radioField = new RadioField(formModel, fName, fTitle, fItems);
+			if (fLength != null) {
+				radioField.setLength(fLength);
+			}
+			field = radioField;
+		} else {
+			TextField textField = new TextField(formModel, fName, fTitle);
+			if (fHeight != null) {
+				textField.setHeight(fHeight);
+			}
+			if (fWidth != null) {
+				textField.setWidth(fWidth);
+			}
+			field = textField;
+		}
+		field.setDefaultValue(fDefaultValue);
+		field.setForegraund(fForegroundColor);
+		field.setBackgroundColor(fBackgroundColor);
+		field.setHint(fHint);
+		return field;
+	}
+
+	public String getName() {
+		return fName;
+	}
+
+}
@@ -35,13 +35,9 @@ import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import ru.dip.core.exception.DIPException;
-import ru.dip.core.form.model.CheckField;
-import ru.dip.core.form.model.ComboField;
 import ru.dip.core.form.model.CoreFormModel;
 import ru.dip.core.form.model.Field;
 import ru.dip.core.form.model.Item;
-import ru.dip.core.form.model.RadioField;
-import ru.dip.core.form.model.TextField;
 import ru.dip.core.model.DipProject;
 import ru.dip.core.model.DipProjectSchemaModel;
 import ru.dip.core.model.DipRoot;
@@ -66,12 +62,13 @@ public class SchemaReader {
 	private static final String HINT_ATTRIBUTE = "hint";
 	private static final String SEQ_ATTRIBUTE = "seq";
 	// type values
-	private static final String COMBO_TYPE = "COMBO";
-	private static final String CHECK_TYPE = "CHECK";
-	private static final String RADIO_TYPE = "RADIO";
+	private static final String COMBO_TYPE = SchemaField.COMBO_TYPE;
+	private static final String CHECK_TYPE = SchemaField.CHECK_TYPE;
+	private static final String RADIO_TYPE = SchemaField.RADIO_TYPE;
 
 	private CoreFormModel fFormModel;
 	private List<Field> fFields = new ArrayList<>();
+	private List<SchemaField> fSchemaFields = new ArrayList<>();
 	private boolean fDefault = false;
 	
 	public SchemaReader(CoreFormModel formModel, InputStream schemaInputStream) throws ParserConfigurationException, SAXException, IOException {
@@ -119,13 +116,13 @@ public class SchemaReader {
 		return schemaFile;
 	}
 	
-	private File getSchemaFileFromProject(IFile file){
+	static File getSchemaFileFromProject(IFile file){
 		IProject project = file.getProject();
 		String fileExtension = file.getFileExtension();
 		return getSchemaFileFromProject(project, fileExtension);
 	}
 	
-	private File getSchemaFileFromProject(IProject project, String fileExtension){
+	private static File getSchemaFileFromProject(IProject project, String fileExtension){
 		DipProject dipProject = DipRoot.getInstance().findDipProject(project);
 		if (dipProject == null) {
 			return null;
@@ -138,7 +135,7 @@ public class SchemaReader {
 		return null;
 	}
 	
-	private File getDefaultSchemaFile(){
+	static File getDefaultSchemaFile(){
 		try {
 			return SchemaUtilities.getExistDefaultSchemaPath().toFile();
 		} catch (DIPException e) {
@@ -169,6 +166,7 @@ public class SchemaReader {
 	
 	private void readSchema(Document document) throws ParserConfigurationException, SAXException, IOException{
 		fFields = new ArrayList<>();
+		fSchemaFields = new ArrayList<>();
 		Element root = document.getDocumentElement();
 		String name = root.getAttribute(NAME_ATTRIBUTE);
 		fFormModel.setName(name);
@@ -198,55 +196,23 @@ public class SchemaReader {
 		String hint = element.getAttribute(HINT_ATTRIBUTE);
 		title = title.replaceAll("\\\\n", "\n");
 		hint = hint.replaceAll("\\\\n", "\n");
+		Item[] values = null;
+		Integer length = null;
+		Integer height = null;
+		Integer width = null;
 		if (COMBO_TYPE.equals(type)){
-			Item[] values = getComboValues(element, type);
-			Field newField = new ComboField(fFormModel, name, title, values);
-			newField.setDefaultValue(defaultValue);
-			newField.setForegraund(foregroundColor);
-			newField.setBackgroundColor(backgroundColor);
-			newField.setHint(hint);
-
-			fFields.add(newField);
-		} else if (CHECK_TYPE.equals(type)){
-			Item[] values = getComboValues(element, type);
-			CheckField newField = new CheckField(fFormModel, name, title, values);
-			Integer length = readIntAttribute(element, LENGTH_ATTRIBUTE);
-			if (length != null){
-				newField.setLength(length);
-			}	
-			newField.setDefaultValue(defaultValue);
-			newField.setForegraund(foregroundColor);
-			newField.setBackgroundColor(backgroundColor);
-			newField.setHint(hint);
-			fFields.add(newField);
-		} else if (RADIO_TYPE.equals(type)){
-			Item[] values = getComboValues(element, type);
-			RadioField newField = new RadioField(fFormModel, name, title, values);
-			Integer length = readIntAttribute(element, LENGTH_ATTRIBUTE);
-			if (length != null){
-				newField.setLength(length);
-			}	
-			newField.setDefaultValue(defaultValue);
-			newField.setForegraund(foregroundColor);
-			newField.setBackgroundColor(backgroundColor);
-			newField.setHint(hint);
-			fFields.add(newField);
+			values = getComboValues(element, type);
+		} else if (CHECK_TYPE.equals(type) || RADIO_TYPE.equals(type)){
+			values = getComboValues(element, type);
+			length = readIntAttribute(element, LENGTH_ATTRIBUTE);
 		} else {
-			TextField newField = new TextField(fFormModel, name, title);
-			Integer height = readIntAttribute(element, HEIGHT_ATTRIBUTE);
-			Integer width = readIntAttribute(element, WIDTH_ATTRIBUTE);
-			newField.setDefaultValue(defaultValue);
-			newField.setForegraund(foregroundColor);
-			newField.setBackgroundColor(backgroundColor);
-			newField.setHint(hint);
-			if (height != null){
-				newField.setHeight(height);
-			}
-			if (width != null){
-				newField.setWidth(width);
-			}
-			fFields.add(newField);
-		}	
+			height = readIntAttribute(element, HEIGHT_ATTRIBUTE);
+			width = readIntAttribute(element, WIDTH_ATTRIBUTE);
+		}
+		SchemaField schemaField = new SchemaField(type, name, title, defaultValue, foregroundColor, 
+				backgroundColor, hint, values, length, height, width);
+		fSchemaFields.add(schemaField);
+		fFields.add(schemaField.createField(fFormModel));
 	}
 	
 	private Item[] getComboValues(Element element, String type){
@@ -294,6 +260,10 @@ public class SchemaReader {
 		return fFields;
 	}
 	
+	public List<SchemaField> getSchemaFields(){
+		return fSchemaFields;
+	}
+	
 	public boolean isDefault(){
 		return fDefault;
 	}
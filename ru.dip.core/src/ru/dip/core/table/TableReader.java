@@ -17,14 +17,20 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -53,13 +59,106 @@ public class TableReader {
 	public static final String ROOT_ATR = "is_root";
 	public static final String LANDSCAPE = "LANDSCAPE";
 
+	/**
+	 * Прочитанный файл .dnfo, проверяется по modificationStamp ресурса
+	 */
+	private static class CachedModel {
+		
+		private final long fStamp;
+		private final TableReader fReader;
+		
+		private CachedModel(long stamp, TableReader reader) {
+			fStamp = stamp;
+			fReader = reader;
+		}
+	}
+	
+	private static final DocumentBuilderFactory FACTORY = DocumentBuilderFactory.newInstance();
+	static {
+		FACTORY.setIgnoringElementContentWhitespace(true);
+	}
+	// DocumentBuilder не потокобезопасный - свой для каждого потока
+	private static final ThreadLocal<DocumentBuilder> BUILDERS = new ThreadLocal<>();
+	private static final Map<String, CachedModel> CACHE = new ConcurrentHashMap<>();
+	
+	private static DocumentBuilder documentBuilder() throws ParserConfigurationException {
+		DocumentBuilder builder = BUILDERS.get();
+		if (builder == null) {
+			synchronized (FACTORY) {
+				builder = FACTORY.newDocumentBuilder();
+			}
+			BUILDERS.set(builder);
+		} else {
+			builder.reset();
+		}
+		return builder;
+	}
+	
+	/**
+	 * Модель из файла .dnfo, файл перечитывается только если изменился (modificationStamp)
+	 * Возвращаемый объект общий - не изменять
+	 */
+	public static TableReader readCached(IFile ifile) {
+		URI uri = ifile.getLocationURI();
+		TableReader reader = new TableReader();
+		if (uri == null) {
+			return reader;
+		}
+		File file = new File(uri);
+		if (!file.exists()) {
+			DipCorePlugin.logInfo("TABLE_FILE_NOT_FOUND");
+			return reader;
+		}
+		String key = cacheKey(file.getPath());
+		long stamp = ifile.getModificationStamp();
+		CachedModel cached = CACHE.get(key);
+		if (cached != null && stamp != IResource.NULL_STAMP && cached.fStamp == stamp) {
+			return cached.fReader;
+		}
+		try {
+			reader.readDnfo(file);
+		} catch (ParserConfigurationException | SAXException | IOException e) {
+			DipCorePlugin.logError(e, "TABLE_FILE_ERROR");
+			return reader;
+		}
+		reader.fFiles = Collections.unmodifiableList(reader.fFiles);
+		reader.fFolders = Collections.unmodifiableList(reader.fFolders);
+		if (stamp != IResource.NULL_STAMP) {
+			CACHE.put(key, new CachedModel(stamp, reader));
+		}
+		return reader;
+	}
+	
+	/**
+	 * Сбросить прочитанную модель (вызывается при записи файла)
+	 */
+	public static void invalidate(String path) {
+		CACHE.remove(cacheKey(path));
+	}
+	
+	/**
+	 * Сбросить модели проекта (проект закрывается или удаляется)
+	 */
+	public static void invalidate(IProject project) {
+		if (project.getLocation() == null) {
+			return;
+		}
+		String prefix = cacheKey(project.getLocation().toOSString()) + File.separator;
+		CACHE.keySet().removeIf(key -> key.startsWith(prefix));
+	}
+	
+	public static void clearCache() {
+		CACHE.clear();
+	}
+	
+	private static String cacheKey(String path) {
+		return Paths.get(path).toAbsolutePath().normalize().toString();
+	}
+	
 	public static boolean isRoot(URI uri){
 		try {
 			File file = new File(uri);
-			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-			factory.setIgnoringElementContentWhitespace(true);		
-			DocumentBuilder builder = factory.newDocumentBuilder();
-			Document document = builder.parse(file);
+			Document document = documentBuilder().parse(file);
 			Element root = document.getDocumentElement();			
 			return "true".equalsIgnoreCase(root.getAttribute(ROOT_ATR));
 		} catch (ParserConfigurationException | SAXException | IOException e) {
@@ -77,10 +176,7 @@ public class TableReader {
 	private boolean fRoot;
 	
 	public void readModel(InputStream inputStream) throws ParserConfigurationException, SAXException, IOException {
-		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-		factory.setIgnoringElementContentWhitespace(true);		
-		DocumentBuilder builder = factory.newDocumentBuilder();
-		Document document = builder.parse(inputStream);
+		Document document = documentBuilder().parse(inputStream);
 		parseDocument(document);
 	}
 	
@@ -103,10 +199,7 @@ public class TableReader {
 			return;
 		}
 		
-		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-		factory.setIgnoringElementContentWhitespace(true);		
-		DocumentBuilder builder = factory.newDocumentBuilder();
-		Document document = builder.parse(file);
+		Document document = documentBuilder().parse(file);
 		parseDocument(document);
 	}
 	
@@ -13,6 +13,7 @@
  *******************************************************************************/
 package ru.dip.core.table;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
@@ -20,6 +21,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -48,6 +51,9 @@ import ru.dip.core.utilities.TagStringUtilities;
 
 public class TableWriter {
 	
+	// записанные из модели файлы .dnfo: путь -> время изменения и размер после записи
+	private static final Map<String, long[]> SAVED = new ConcurrentHashMap<>();
+	
 	public static void saveModel(IDipParent parent) throws ParserConfigurationException, IOException {				
 		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
 		DocumentBuilder builder = factory.newDocumentBuilder();
@@ -201,7 +207,32 @@ public class TableWriter {
 		transformer.transform(dom_source, result);		
 		List<String> lines = TagStringUtilities.removeEmptyStirng(writer.toString());
 		Files.write(Paths.get(path), lines, StandardCharsets.UTF_8);
+		TableReader.invalidate(path);
 		writer.close();
+		File file = new File(path);
+		SAVED.put(savedKey(path), new long[] {file.lastModified(), file.length()});
+	}
+	
+	/**
+	 * Файл .dnfo не изменялся после последней записи из модели
+	 * (изменение ресурса - результат сохранения модели, а не внешнее изменение)
+	 * Запись о сохранении удаляется при проверке (одна проверка на одно изменение ресурса)
+	 */
+	public static boolean isSavedByModel(IFile ifile) {
+		if (ifile.getLocation() == null) {
+			return false;
+		}
+		String path = ifile.getLocation().toOSString();
+		long[] saved = SAVED.remove(savedKey(path));
+		if (saved == null) {
+			return false;
+		}
+		File file = new File(path);
+		return file.lastModified() == saved[0] && file.length() == saved[1];
+	}
+	
+	private static String savedKey(String path) {
+		return Paths.get(path).toAbsolutePath().normalize().toString();
 	}
 	
 }
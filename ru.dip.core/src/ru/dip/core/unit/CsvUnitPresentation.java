@@ -213,6 +213,16 @@ public class CsvUnitPresentation extends ZoomImagePresentation {
 		}
 	}
 	
+	@Override
+	public String glossaryText() {
+		try {
+			return FileUtilities.readFile(getUnit().resource());
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+	
 	//======================
 	// variables
 	
@@ -22,7 +22,9 @@ import java.util.regex.Pattern;
 
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.widgets.Display;
 
 import ru.dip.core.DipCorePlugin;
 import ru.dip.core.model.finder.FindSettings;
@@ -31,7 +33,10 @@ import ru.dip.core.model.interfaces.IDipUnit;
 import ru.dip.core.utilities.FileUtilities;
 import ru.dip.core.utilities.HtmlUtilities;
 import ru.dip.core.utilities.TagStringUtilities;
+import ru.dip.core.utilities.WorkbenchUtitlities;
 import ru.dip.core.utilities.text.Terms;
+import ru.dip.core.utilities.ui.image.CoreImageProvider;
+import ru.dip.core.utilities.ui.image.HtmlRasterCache;
 import ru.dip.core.utilities.ui.image.ImageUtilities;
 import ru.dip.core.utilities.ui.swt.ColorProvider;
 
@@ -42,8 +47,10 @@ public class HtmlUnitPresentation extends ZoomImagePresentation {
 	private static final int RGB_TEXT_LENGTH = 8;
 	
 	private String fText;
+	// ширина текущего изображения (HtmlRasterCache.bucket)
 	private int fOldWidth = -1;
 	private String fOldText;	
+	private boolean fDisposed = false;
 	
 	private List<Point> fFindedPoints = new ArrayList<>();
 	private int fCurrentFindedPoint = -1;
@@ -79,44 +86,95 @@ public class HtmlUnitPresentation extends ZoomImagePresentation {
 		return null;
 	}
 		
+	/**
+	 * Растр берется из HtmlRasterCache (ширина округляется до HtmlRasterCache.bucket)
+	 * Если есть растр другой ширины - временно показывается он (масштабированный),
+	 * а нужная ширина отрисовывается в фоне
+	 */
 	@Override
 	public void trimImage(int width) {
-		fOldWidth = width;
-		if (getZoomImage() != null && fOldWidth == width){
+		int bucket = HtmlRasterCache.bucket(width);
+		if (getZoomImage() != null && fOldWidth == bucket){
 			return;
 		}	
 		try {
 			if (fText == null) {
 				fText = FileUtilities.readFile(getUnit().resource());
 				fText = TextPresentation.prepareText(fText, getUnit());
-			}			
-			String newText = getHtmlWithWidth(fText, width);
-			if (newText != null) {
-				fText = newText;
-				Image image = ImageUtilities.createImageFromHtml(fText, getUnit().resource());
-				super.trimImage(width, image);
 			}
+			String content = fText;
+			HtmlRasterCache rasterCache = HtmlRasterCache.instance();
+			ImageData raster = rasterCache.getCached(content, bucket);
+			if (raster == null) {
+				ImageData nearest = rasterCache.getNearest(content, bucket);
+				if (nearest != null) {
+					setZoomImage(scaledImage(nearest, bucket), bucket);
+					rasterCache.renderAsync(content, bucket, w -> getHtmlWithWidth(content, w), () -> renderFinished(content, bucket));
+					return;
+				}
+				raster = rasterCache.getRaster(content, bucket, w -> getHtmlWithWidth(content, w));
+			}
+			setZoomImage(raster != null ? new Image(Display.getDefault(), raster) : CoreImageProvider.getImage(), bucket);
 		} catch (Exception e) {
 			DipCorePlugin.logError(e, "Create html image error " + getUnit());
 			e.printStackTrace();
 		}
 	}
 	
+	private void setZoomImage(Image image, int width) {
+		disposeZoomImage();
+		super.trimImage(width, image);
+		fOldWidth = width;
+	}
+	
+	private Image scaledImage(ImageData data, int width) {
+		Image image = new Image(Display.getDefault(), data);
+		if (image.getBounds().width == width) {
+			return image;
+		}
+		Image scaled = ImageUtilities.trimImageByWidth(width, image);
+		image.dispose();
+		return scaled;
+	}
+	
+	private void renderFinished(String content, int width) {
+		// пока шла отрисовка изменился текст (поиск) или ширина
+		if (fDisposed || content != fText || fOldWidth != width) {
+			return;
+		}
+		disposeZoomImage();
+		WorkbenchUtitlities.updateEditorsLater(getUnit().dipProject());
+	}
+	
+	@Override
+	protected void dispose() {
+		fDisposed = true;
+		super.dispose();
+	}
+	
 	protected String getHtmlWithWidth(String text, int width) {
 		return HtmlUtilities.setHtmlWidth(text, width);
 	}
 	
 	public Image getExternalImage(int width) {
-		String text = getHtmlWithWidth(getText(), width);
-		if (text != null) {
-			try {
-				Image image = ImageUtilities.createImageFromHtml(text, getResource());
-				if (image.getBounds().width > width) {
-					return ImageUtilities.trimImageByWidth(width, image);
-				}	
-			} catch (Exception e) {
-				e.printStackTrace();
+		String text = getText();
+		if (text == null) {
+			return null;
+		}
+		try {
+			ImageData raster = HtmlRasterCache.instance().getRaster(text, width, w -> getHtmlWithWidth(text, w));
+			if (raster == null) {
+				return CoreImageProvider.getImage();
 			}
+			Image image = new Image(Display.getDefault(), raster);
+			if (image.getBounds().width > width) {
+				Image trimmed = ImageUtilities.trimImageByWidth(width, image);
+				image.dispose();
+				return trimmed;
+			}
+			return image;
+		} catch (Exception e) {
+			e.printStackTrace();
 		}
 		return null;
 	}
@@ -321,6 +379,11 @@ public class HtmlUnitPresentation extends ZoomImagePresentation {
 			Terms.findTerms(fText, terms);
 		}		
 	}
+	
+	@Override
+	public String glossaryText() {
+		return fText;
+	}
 
 	//==========================
 	// Variables
@@ -57,6 +57,11 @@ public class ImagePresentation extends ZoomImagePresentation implements INotText
 		return fText;
 	}
 
+	@Override
+	protected Image getLoadedImage() {
+		return fImage;
+	}
+	
 	@Override
 	public Image getImage() {
 		if (fImage == null) {
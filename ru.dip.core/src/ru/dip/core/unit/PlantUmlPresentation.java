@@ -24,15 +24,21 @@ import org.eclipse.swt.widgets.Display;
 
 import ru.dip.core.model.finder.FindSettings;
 import ru.dip.core.model.interfaces.IDipUnit;
+import ru.dip.core.utilities.DiagramRenderCache;
 import ru.dip.core.utilities.FileUtilities;
 import ru.dip.core.utilities.TagStringUtilities;
 import ru.dip.core.utilities.UmlUtilities;
+import ru.dip.core.utilities.WorkbenchUtitlities;
 import ru.dip.core.utilities.text.Terms;
 
 public class PlantUmlPresentation extends ZoomImagePresentation {
 
 	private Image fImage;
 	private String fText;
+	// исходный текст диаграммы (для поиска, глоссария), перечитывается при изменении файла
+	private String fFileText;
+	private long fFileTextStamp;
+	private boolean fDisposed = false;
 	
 	public PlantUmlPresentation(IDipUnit unit) {
 		super(unit);
@@ -43,13 +49,38 @@ public class PlantUmlPresentation extends ZoomImagePresentation {
 		fImage = null;
 		fText = null;
 		IFile file = getUnit().resource();
-		String filename = file.getLocation().toOSString();
-		File imageFile = UmlUtilities.getImageFileFromUml(filename, getUnit().id());
-		if (imageFile != null){
-			fImage = new Image(Display.getDefault(), imageFile.getAbsolutePath());
-			disposeZoomImage();
-			fText = createText();	
-		} 
+		String source = readSource(file);
+		DiagramRenderCache renderCache = DiagramRenderCache.instance();
+		File imageFile = renderCache.getCachedImage(file.getProject(), source);
+		if (imageFile == null){
+			// пока диаграмма отрисовывается в фоне - пустая ячейка
+			renderCache.renderAsync(file.getProject(), source, this::renderFinished);
+			return;
+		}
+		fImage = new Image(Display.getDefault(), imageFile.getAbsolutePath());
+		disposeZoomImage();
+		fText = createText();	
+	}
+	
+	/**
+	 * Исходный текст диаграммы для PlantUML
+	 */
+	protected String readSource(IFile file) {
+		return UmlUtilities.readUmlFile(file);
+	}
+	
+	private void renderFinished() {
+		if (fDisposed) {
+			return;
+		}
+		read();
+		WorkbenchUtitlities.updateEditorsLater(getUnit().dipProject());
+	}
+	
+	@Override
+	protected void dispose() {
+		fDisposed = true;
+		super.dispose();
 	}
 	
 	private String createText(){
@@ -94,7 +125,7 @@ public class PlantUmlPresentation extends ZoomImagePresentation {
 	
 	public boolean find(String text, boolean caseSensitive, boolean word) {
 		try {
-			String filetext = FileUtilities.readFile(getUnit().resource());
+			String filetext = getFileText();
 			if (!caseSensitive) {
 				return TagStringUtilities.containsToIgnoreCase(filetext, text, word);
 			}
@@ -109,6 +140,16 @@ public class PlantUmlPresentation extends ZoomImagePresentation {
 		return false;
 	}
 	
+	private String getFileText() throws IOException {
+		IFile file = getUnit().resource();
+		long stamp = file.getModificationStamp();
+		if (fFileText == null || fFileTextStamp != stamp) {
+			fFileText = FileUtilities.readFile(file);
+			fFileTextStamp = stamp;
+		}
+		return fFileText;
+	}
+	
 	@Override
 	public boolean appendFind(String text, boolean caseSensitive) {
 		return false;
@@ -129,7 +170,7 @@ public class PlantUmlPresentation extends ZoomImagePresentation {
 	@Override
 	public void removeIfFind(Collection<String> terms) {
 		try {
-			String filetext = FileUtilities.readFile(getUnit().resource());
+			String filetext = getFileText();
 			TagStringUtilities.removeIfContains(filetext, terms);
 		} catch (IOException e) {
 			e.printStackTrace();
@@ -139,20 +180,30 @@ public class PlantUmlPresentation extends ZoomImagePresentation {
 	@Override
 	public void findTerms(Set<String> terms) {
 		try {
-			String filetext = FileUtilities.readFile(getUnit().resource());
+			String filetext = getFileText();
 			Terms.findTerms(filetext, terms);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 	}
 	
+	@Override
+	public String glossaryText() {
+		try {
+			return getFileText();
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+	
 	//===================================
 	// variables
 	
 	@Override
 	public void findVars(Set<String> vars) {
 		try {
-			String filetext = FileUtilities.readFile(getUnit().resource());
+			String filetext = getFileText();
 			Terms.findVarsNames(filetext, vars);
 		} catch (IOException e) {
 			e.printStackTrace();
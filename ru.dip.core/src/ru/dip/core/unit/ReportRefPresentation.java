@@ -27,7 +27,8 @@ import ru.dip.core.model.interfaces.IDipElement;
 import ru.dip.core.model.interfaces.IDipUnit;
 import ru.dip.core.model.interfaces.INotTextPresentation;
 import ru.dip.core.model.reports.Report;
-import ru.dip.core.report.checker.ReportEntryChecker;
+import ru.dip.core.report.checker.ReportEngine;
+import ru.dip.core.report.checker.ReportEngine.EntryResult;
 import ru.dip.core.report.checker.ReportRuleSyntaxException;
 import ru.dip.core.report.model.report.ReportEntry;
 import ru.dip.core.report.scanner.ReportReader;
@@ -100,11 +101,13 @@ public class ReportRefPresentation extends TablePresentation implements INotText
 		clearPoints();
 		StringBuilder builder = new StringBuilder();
 		StringBuilder fixedBuilder = new StringBuilder();
+		// все разделы - за один проход по проекту
+		List<EntryResult> results = ReportEngine.findEntries(fEntries, getUnit().dipProject());
 		for (int i = 0; i < fEntries.size(); i++) {
 			ReportEntry reportEntry = fEntries.get(i);
 			String name = reportEntry.getName();
 			try {
-				List<IDipElement> units = ReportEntryChecker.findEntry(reportEntry, getUnit().dipProject());
+				List<IDipElement> units = results.get(i).elements();
 				addName(name, units.size(), builder, fPoints);
 				addName(name, units.size(), fixedBuilder, fFixedPoints);
 				addElements(units, builder, length);
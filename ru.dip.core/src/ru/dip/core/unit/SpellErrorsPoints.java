@@ -19,7 +19,7 @@ import java.util.List;
 import org.eclipse.swt.graphics.Point;
 
 import ru.dip.core.model.interfaces.ISpellErrorPoints;
-import ru.dip.core.utilities.spellcheck.Dictionary;
+import ru.dip.core.utilities.spellcheck.SpellCheckService;
 
 public class SpellErrorsPoints implements ISpellErrorPoints {
 
@@ -32,7 +32,14 @@ public class SpellErrorsPoints implements ISpellErrorPoints {
 
 	@Override
 	public void findErrorWords(String text) {
-		fErrorPoints = Dictionary.instance().checkText(text);
+		fErrorPoints = SpellCheckService.instance().checkText(text);
+	}
+	
+	/**
+	 * Точки, найденные заранее (SpellCheckService.checkText вне UI-потока)
+	 */
+	public void setErrorPoints(List<Point> errorPoints) {
+		fErrorPoints = errorPoints;
 	}
 
 }
@@ -18,6 +18,7 @@ import java.util.List;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.Rectangle;
 
 import ru.dip.core.model.interfaces.IFindable;
 import ru.dip.core.model.interfaces.IGlossarySupport;
@@ -62,6 +63,10 @@ public abstract class TablePresentation implements IFindable, IGlossarySupport,I
 		fSpellErrorPoints.findErrorWords(text);
 	}
 	
+	public void setErrorsPoints(List<Point> errorPoints) {
+		fSpellErrorPoints.setErrorPoints(errorPoints);
+	}
+	
 	public List<Point> errorsPoints(){
 		return fSpellErrorPoints.errorsPoints();
 	}
@@ -78,9 +83,41 @@ public abstract class TablePresentation implements IFindable, IGlossarySupport,I
 		fTimeModified = newValue;
 	}
 
+	//=============================
+	// cache weight
+	
+	private static final long BASE_WEIGHT = 1024;
+	
+	/**
+	 * Примерный объем памяти в байтах (для ограничения UnitPresentationCache)
+	 */
+	public long estimateWeight() {
+		return BASE_WEIGHT + textWeight(getText()) + imageWeight(getLoadedImage());
+	}
+	
+	/**
+	 * Изображение, если оно уже загружено (без чтения файла)
+	 */
+	protected Image getLoadedImage() {
+		return getImage();
+	}
+	
+	protected static long textWeight(String text) {
+		return text == null ? 0 : 2L * text.length();
+	}
+	
+	protected static long imageWeight(Image image) {
+		if (image == null || image.isDisposed()) {
+			return 0;
+		}
+		Rectangle bounds = image.getBounds();
+		return 4L * bounds.width * bounds.height;
+	}
+
 	protected void dispose() {
-		if (getImage() != null) {
-			getImage().dispose();
+		Image image = getLoadedImage();
+		if (image != null && !image.isDisposed()) {
+			image.dispose();
 		}
 	}
 	
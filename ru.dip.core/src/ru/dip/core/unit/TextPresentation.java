@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.eclipse.core.resources.IResource;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.Point;
@@ -79,11 +80,21 @@ public class TextPresentation extends TablePresentation implements IVariablesSup
 	protected String fText;
 	private final GlossaryPoints fGlossaryPoints;
 	private final TextFinderManager fFinderManager;
+	// кэш подстановки переменных (read вызывается и без изменения файла, напр. при отрисовке)
+	// без инициализаторов - read() вызывается из конструктора TablePresentation
+	private String fExpandSource;
+	private String fExpandedText;
+	private long fExpandStamp;
+	private long fExpandVarsVersion;
+	// getContent
+	private String fContentSource;
+	private String fContent;
+	private long fContentVarsVersion;
 	
 	public TextPresentation(IDipUnit unit) {
 		super(unit);
 		fGlossaryPoints = new GlossaryPoints(unit.dipProject());
-		fFinderManager = new TextFinderManager(this);
+		fFinderManager = new TextFinderManager(this, unit);
 		read();
 	}
 	
@@ -91,7 +102,7 @@ public class TextPresentation extends TablePresentation implements IVariablesSup
 	public void read() {
 		try {
 			fText = FileUtilities.readFile(getUnit().resource());
-			fText = prepareText(fText, getUnit());
+			fText = prepareTextCached(fText);
 		} catch (IOException e) {
 			if (e instanceof NoSuchFileException) {
 				DipCorePlugin.logError(e, "Read textfile error");
@@ -103,6 +114,42 @@ public class TextPresentation extends TablePresentation implements IVariablesSup
 		}
 	}
 	
+	/**
+	 * Чтение и подготовка текста без изменения состояния Presentation (можно вызывать вне UI-потока)
+	 */
+	public static String readText(IDipUnit unit) throws IOException {
+		return prepareText(FileUtilities.readFile(unit.resource()), unit);
+	}
+	
+	/**
+	 * Текст, прочитанный через readText, stamp - modification stamp файла до чтения
+	 */
+	public void setPreparedText(String text, long stamp) {
+		fText = text;
+		setTimeModified(stamp);
+	}
+	
+	/**
+	 * Как prepareText, подстановка переменных берется из кэша,
+	 * если не изменились файл (modification stamp), переменные и текст после замены ссылок
+	 */
+	private String prepareTextCached(String content) {
+		if (content == null || content.isEmpty()) {
+			return content;
+		}
+		IDipUnit unit = getUnit();
+		content = LinkInteractor.instance().changeLinks(content, unit);
+		long stamp = unit.resource().getModificationStamp();
+		long varsVersion = VariableInteractor.getVarsVersion(unit);
+		if (stamp != fExpandStamp || varsVersion != fExpandVarsVersion || !content.equals(fExpandSource)) {
+			fExpandSource = content;
+			fExpandedText = VariableInteractor.changeVar(content, unit);
+			fExpandStamp = stamp;
+			fExpandVarsVersion = varsVersion;
+		}
+		return fExpandedText;
+	}
+	
 	/**
 	 * Точки для подстветки синтаксиса в Document (в редакторах-наследниках)
 	 */
@@ -115,8 +162,13 @@ public class TextPresentation extends TablePresentation implements IVariablesSup
 	
 	@Override
 	public String getContent() {
-		String content = fText;
-		return prepareText(content, getUnit());
+		long varsVersion = VariableInteractor.getVarsVersion(getUnit());
+		if (fContentSource != fText || fContentVarsVersion != varsVersion) {
+			fContent = prepareText(fText, getUnit());
+			fContentSource = fText;
+			fContentVarsVersion = varsVersion;
+		}
+		return fContent;
 	}
 	
 	@Override
@@ -166,6 +218,11 @@ public class TextPresentation extends TablePresentation implements IVariablesSup
 		return fFinderManager.getFindedPoints();
 	}
 	
+	@Override
+	public IResource indexedResource() {
+		return fFinderManager.indexedResource();
+	}
+	
 	//=========================
 	// glossary
 	
@@ -179,6 +236,11 @@ public class TextPresentation extends TablePresentation implements IVariablesSup
 		Terms.findTerms(fText, terms);
 	}
 	
+	@Override
+	public String glossaryText() {
+		return fText;
+	}
+	
 	@Override
 	public IGlossaryPoints getGlossaryPoints() {
 		return fGlossaryPoints;
@@ -252,6 +252,11 @@ public class UnitDescriptionPresentation extends UnitExtension implements IUnitD
 		}		
 	}
 	
+	@Override
+	public String glossaryText() {
+		return getDipUnit().description();
+	}
+	
 	//========================
 	// IVariableSupport
 	
@@ -18,6 +18,7 @@ import java.util.List;
 import java.util.Set;
 
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
 import org.eclipse.swt.graphics.Point;
 
 import ru.dip.core.model.finder.FindSettings;
@@ -185,6 +186,12 @@ public class UnitPresentation extends UnitExtension implements IUnitPresentation
 		return fFindedIdPoints != null;
 	}
 	
+	@Override
+	public IResource indexedResource() {
+		TablePresentation tablePresentation = getPresentation();
+		return tablePresentation == null ? null : tablePresentation.indexedResource();
+	}
+	
 	public boolean isFind() {
 		return fFindedIdPoints != null;
 	}
@@ -212,6 +219,12 @@ public class UnitPresentation extends UnitExtension implements IUnitPresentation
 		UnitPresentationCache.applyIfExists(getFile(), tp -> tp.findTerms(terms));
 	}
 	
+	@Override
+	public String glossaryText() {
+		TablePresentation tablePresentation = getPresentation();
+		return tablePresentation == null ? null : tablePresentation.glossaryText();
+	}
+	
 	@Override
 	public void findVars(Set<String> vars) {
 		TablePresentation tablePresentation = getPresentation();
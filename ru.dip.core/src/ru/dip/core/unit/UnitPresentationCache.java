@@ -13,7 +13,11 @@
  *******************************************************************************/
 package ru.dip.core.unit;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
@@ -21,26 +25,150 @@ import java.util.stream.Collectors;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.swt.widgets.Display;
 
+import ru.dip.core.DipCorePlugin;
 import ru.dip.core.model.DipProject;
 import ru.dip.core.model.interfaces.IDipEditor;
 import ru.dip.core.model.interfaces.IDipParent;
 import ru.dip.core.utilities.WorkbenchUtitlities;
 
+/**
+ * Кэш презентаций юнитов
+ * 
+ * Ограничен по примерному объему памяти (TablePresentation.estimateWeight, изображения - по количеству пикселей),
+ * при превышении удаляются давно не использованные презентации (LRU) с вызовом TablePresentation.dispose().
+ * Вес пересчитывается при обращении (изображение может появиться после создания презентации).
+ * Учет по проектам - clearHash() удаляет презентации проектов без открытых редакторов.
+ * Все операции под одной блокировкой (короткие, без чтения файлов).
+ */
 public class UnitPresentationCache {
 	
-	private static Map<IFile, TablePresentation> fPresentationById = new HashMap<>();
+	private static class Entry {
+		
+		private final TablePresentation fPresentation;
+		private final IProject fProject;
+		private long fWeight;
+		
+		private Entry(TablePresentation presentation, IProject project, long weight) {
+			fPresentation = presentation;
+			fProject = project;
+			fWeight = weight;
+		}
+	}
+	
+	/**
+	 * Счетчики кэша (копия на момент вызова getStatistics)
+	 */
+	public static class CacheStatistics {
+		
+		private final long fHits;
+		private final long fMisses;
+		private final long fEvictions;
+		private final int fSize;
+		private final long fWeight;
+		private final long fMaxWeight;
+		private final Map<IProject, Long> fProjectWeights;
+		
+		private CacheStatistics(long hits, long misses, long evictions, int size, long weight, long maxWeight, Map<IProject, Long> projectWeights) {
+			fHits = hits;
+			fMisses = misses;
+			fEvictions = evictions;
+			fSize = size;
+			fWeight = weight;
+			fMaxWeight = maxWeight;
+			fProjectWeights = projectWeights;
+		}
+		
+		public long hits() {
+			return fHits;
+		}
+		
+		public long misses() {
+			return fMisses;
+		}
+		
+		public long evictions() {
+			return fEvictions;
+		}
+		
+		public int size() {
+			return fSize;
+		}
+		
+		public long weight() {
+			return fWeight;
+		}
+		
+		public long maxWeight() {
+			return fMaxWeight;
+		}
+		
+		public Map<IProject, Long> projectWeights() {
+			return fProjectWeights;
+		}
+		
+		@Override
+		public String toString() {
+			return "hits=" + fHits + ", misses=" + fMisses + ", evictions=" + fEvictions 
+					+ ", size=" + fSize + ", weight=" + fWeight + "/" + fMaxWeight;
+		}
+	}
+	
+	private static final Object LOCK = new Object();
+	// порядок доступа - первой идет давно не использованная
+	private static final LinkedHashMap<IFile, Entry> fEntries = new LinkedHashMap<>(256, 0.75f, true);
+	private static final Map<IProject, Long> fProjectWeights = new HashMap<>();
+	private static long fWeight = 0;
+	private static long fHits = 0;
+	private static long fMisses = 0;
+	private static long fEvictions = 0;
 	
 	public static TablePresentation getPresentation(IFile file) {
-		return fPresentationById.get(file);
+		List<TablePresentation> evicted;
+		TablePresentation result;
+		synchronized (LOCK) {
+			Entry entry = fEntries.get(file);
+			if (entry == null) {
+				fMisses++;
+				return null;
+			}
+			fHits++;
+			updateWeight(entry);
+			result = entry.fPresentation;
+			evicted = evict(file);
+		}
+		disposePresentations(evicted);
+		return result;
 	}
 	
 	public static void putPresentation(IFile file, TablePresentation presentation) {
-		fPresentationById.put(file, presentation);
+		List<TablePresentation> evicted = new ArrayList<>();
+		synchronized (LOCK) {
+			Entry old = fEntries.remove(file);
+			if (old != null) {
+				removeWeight(old);
+				if (old.fPresentation != presentation) {
+					evicted.add(old.fPresentation);
+				}
+			}
+			if (presentation != null) {
+				Entry entry = new Entry(presentation, file.getProject(), 0);
+				fEntries.put(file, entry);
+				updateWeight(entry);
+				evicted.addAll(evict(file));
+			}
+		}
+		disposePresentations(evicted);
 	}
 	
 	public static void applyIfExists(IFile file, Consumer<TablePresentation> consumer) {
-		TablePresentation tablePresentation = fPresentationById.get(file);
+		TablePresentation tablePresentation;
+		synchronized (LOCK) {
+			// без учета в статистике
+			Entry entry = fEntries.get(file);
+			tablePresentation = entry == null ? null : entry.fPresentation;
+		}
 		if (tablePresentation != null) {
 			consumer.accept(tablePresentation);
 		}
@@ -54,14 +182,91 @@ public class UnitPresentationCache {
 				.map(DipProject::resource)
 				.collect(Collectors.toSet());
 		
-		Set<IFile> filesToRemove = fPresentationById.entrySet()
-				.stream()
-				.filter(e -> !projects.contains(e.getKey().getProject()))
-				.peek(e ->  disposePresentation(e.getValue()))
-				.map(e -> e.getKey())
-				.collect(Collectors.toSet());
-		
-		fPresentationById.keySet().removeAll(filesToRemove);
+		List<TablePresentation> removed = new ArrayList<>();
+		synchronized (LOCK) {
+			Iterator<Entry> iterator = fEntries.values().iterator();
+			while (iterator.hasNext()) {
+				Entry entry = iterator.next();
+				if (!projects.contains(entry.fProject)) {
+					iterator.remove();
+					removeWeight(entry);
+					removed.add(entry.fPresentation);
+				}
+			}
+		}
+		disposePresentations(removed);
+	}
+	
+	public static CacheStatistics getStatistics() {
+		synchronized (LOCK) {
+			return new CacheStatistics(fHits, fMisses, fEvictions, fEntries.size(), 
+					fWeight, getMaxWeight(), new HashMap<>(fProjectWeights));
+		}
+	}
+	
+	//=============================
+	// weight
+	
+	private static long getMaxWeight() {
+		return DipCorePlugin.getPresentationCacheSize() * 1024L * 1024L;
+	}
+	
+	private static void updateWeight(Entry entry) {
+		long weight = entry.fPresentation.estimateWeight();
+		if (weight != entry.fWeight) {
+			fWeight += weight - entry.fWeight;
+			fProjectWeights.merge(entry.fProject, weight - entry.fWeight, Long::sum);
+			entry.fWeight = weight;
+		}
+	}
+	
+	private static void removeWeight(Entry entry) {
+		fWeight -= entry.fWeight;
+		Long projectWeight = fProjectWeights.merge(entry.fProject, -entry.fWeight, Long::sum);
+		if (projectWeight != null && projectWeight <= 0) {
+			fProjectWeights.remove(entry.fProject);
+		}
+	}
+	
+	/**
+	 * Удаляет давно не использованные презентации, пока вес больше допустимого
+	 * (текущая презентация не удаляется)
+	 */
+	private static List<TablePresentation> evict(IFile current) {
+		List<TablePresentation> result = new ArrayList<>();
+		long maxWeight = getMaxWeight();
+		if (fWeight <= maxWeight) {
+			return result;
+		}
+		Iterator<Map.Entry<IFile, Entry>> iterator = fEntries.entrySet().iterator();
+		while (fWeight > maxWeight && iterator.hasNext()) {
+			Map.Entry<IFile, Entry> next = iterator.next();
+			if (next.getKey().equals(current)) {
+				continue;
+			}
+			iterator.remove();
+			removeWeight(next.getValue());
+			result.add(next.getValue().fPresentation);
+			fEvictions++;
+		}
+		return result;
+	}
+	
+	//=============================
+	// dispose
+	
+	/**
+	 * Изображения освобождаются в UI-потоке после текущей отрисовки
+	 */
+	private static void disposePresentations(List<TablePresentation> presentations) {
+		if (presentations.isEmpty()) {
+			return;
+		}
+		Display display = Display.getDefault();
+		if (display == null || display.isDisposed()) {
+			return;
+		}
+		display.asyncExec(() -> presentations.forEach(UnitPresentationCache::disposePresentation));
 	}
 	
 	private static void disposePresentation(TablePresentation presentation) {
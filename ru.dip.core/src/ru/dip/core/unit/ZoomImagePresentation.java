@@ -93,6 +93,11 @@ public abstract class ZoomImagePresentation extends TablePresentation {
 		}
 	}
 	
+	@Override
+	public long estimateWeight() {
+		return super.estimateWeight() + imageWeight(fZoomImage);
+	}
+	
 	@Override
 	protected void dispose() {
 		disposeZoomImage();
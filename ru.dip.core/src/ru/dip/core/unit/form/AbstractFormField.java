@@ -103,6 +103,11 @@ public abstract class AbstractFormField extends UnitExtension implements IFormFi
 		}
 	}
 	
+	@Override
+	public String glossaryText() {
+		return fText;
+	}
+	
 	// ===================================
 	// IVariableSupport
 	
@@ -39,6 +39,7 @@ import ru.dip.core.unit.TablePresentation;
 import ru.dip.core.unit.TextPresentation;
 import ru.dip.core.unit.md.MarkdownSettings;
 import ru.dip.core.unit.md.MdFormatPoints;
+import ru.dip.core.utilities.TagStringUtilities;
 
 public class FormPresentation extends TablePresentation implements ITextPresentation, IFindable, IFormFields {
 
@@ -310,6 +311,19 @@ public class FormPresentation extends TablePresentation implements ITextPresenta
 		}			
 	}
 	
+	@Override
+	public String glossaryText() {
+		StringBuilder builder = new StringBuilder();
+		for (FormField field: fFormFields) {
+			String text = field.glossaryText();
+			if (text != null) {
+				builder.append(text);
+				builder.append(TagStringUtilities.LINESEPARATOR);
+			}
+		}
+		return builder.toString();
+	}
+	
 	//=================================
 	// Variables Support
 	
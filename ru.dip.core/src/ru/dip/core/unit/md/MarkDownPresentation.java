@@ -18,6 +18,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
+import org.eclipse.core.resources.IResource;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.Point;
 
@@ -43,7 +44,7 @@ public class MarkDownPresentation extends TablePresentation implements ITextPres
 	public MarkDownPresentation(IDipUnit unit) {
 		super(unit);
 		fGlossaryPoints = new GlossaryPoints(unit.dipProject());
-		fFinderManager = new TextFinderManager(this);
+		fFinderManager = new TextFinderManager(this, unit);
 	}
 
 	@Override
@@ -56,6 +57,13 @@ public class MarkDownPresentation extends TablePresentation implements ITextPres
 		return fParser.parse(settings, lineLength, getResource());
 	}
 	
+	/**
+	 * Результат разбора, выполненного отдельным парсером (вне UI-потока)
+	 */
+	public void setParsed(MdPresentationParser parser) {
+		fParser = parser;
+	}
+	
 	//=============================
 	// find
 	
@@ -112,6 +120,11 @@ public class MarkDownPresentation extends TablePresentation implements ITextPres
 		return fFinderManager.getFindedPoints();
 	}
 	
+	@Override
+	public IResource indexedResource() {
+		return fFinderManager.indexedResource();
+	}
+	
 	//=============================
 	// glossary
 	
@@ -135,6 +148,16 @@ public class MarkDownPresentation extends TablePresentation implements ITextPres
 		}		
 	}
 	
+	@Override
+	public String glossaryText() {
+		try {
+			return FileUtilities.readFile(getUnit().resource());
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+	
 	//=============================
 	// vars
 	
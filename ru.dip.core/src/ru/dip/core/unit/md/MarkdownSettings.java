@@ -56,6 +56,13 @@ public class MarkdownSettings {
 		fIndent = indent;
 		fShowComment = showComment;
 	}
+	
+	/**
+	 * Копия настроек (общий экземпляр может измениться, пока идет разбор вне UI-потока)
+	 */
+	public MarkdownSettings copy() {
+		return new MarkdownSettings(fFontStylesEnable, fEmptyLines, fListEmptyLines, fIndentEnable, fIndent, fShowComment);
+	}
 
 	public boolean fontStylesEnable() {
 		return fFontStylesEnable;
@@ -0,0 +1,305 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.core.utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.swt.widgets.Display;
+
+import net.sourceforge.plantuml.SourceStringReader;
+import net.sourceforge.plantuml.version.Version;
+import ru.dip.core.DipCorePlugin;
+import ru.dip.core.unit.UnitType;
+
+/**
+ * Кэш изображений PlantUML/DOT
+ * 
+ * PNG хранятся в каталоге состояния плагина (diagrams/<имя проекта>), а не в проекте -
+ * не появляются в ресурсах workspace и в репозитории. Имя файла - хэш исходного текста диаграммы
+ * и версии PlantUML. Неизмененные диаграммы не отрисовываются повторно (в т.ч. между сессиями и при экспорте).
+ * Отрисовка в фоне - ограниченный пул потоков, одна задача на диаграмму.
+ * Ошибка отрисовки запоминается (до изменения исходного текста - меняется имя файла).
+ * Один раз за сессию для проекта удаляются PNG, для которых нет исходной диаграммы
+ * (и папка __diagrams в проекте, которую создавали прежние версии).
+ */
+public class DiagramRenderCache {
+	
+	private static final String CACHE_FOLDER = "diagrams"; //$NON-NLS-1$
+	private static final String LEGACY_FOLDER = "__diagrams"; //$NON-NLS-1$
+	private static final String IMAGE_EXTENSION = ".png";
+	private static final int MAX_WORKERS = 2;
+	
+	private static DiagramRenderCache instance;
+	
+	public static synchronized DiagramRenderCache instance() {
+		if (instance == null) {
+			instance = new DiagramRenderCache();
+		}
+		return instance;
+	}
+	
+	private final ExecutorService fExecutor;
+	// отрисовка в процессе (по имени файла)
+	private final Map<Path, CompletableFuture<File>> fPending = new ConcurrentHashMap<>();
+	// диаграммы, которые не удалось отрисовать
+	private final Set<Path> fFailed = ConcurrentHashMap.newKeySet();
+	// проекты, для которых кэш уже очищен в этой сессии
+	private final Set<String> fPruned = ConcurrentHashMap.newKeySet();
+	private final String fPlantUmlVersion;
+	
+	private DiagramRenderCache() {
+		int workers = Math.max(1, Math.min(MAX_WORKERS, Runtime.getRuntime().availableProcessors() - 1));
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(workers, workers, 30, TimeUnit.SECONDS, 
+				new LinkedBlockingQueue<>(), runnable -> {
+					Thread thread = new Thread(runnable, "Diagram render");
+					thread.setDaemon(true);
+					return thread;
+				});
+		executor.allowCoreThreadTimeOut(true);
+		fExecutor = executor;
+		fPlantUmlVersion = getPlantUmlVersion();
+	}
+	
+	private static String getPlantUmlVersion() {
+		try {
+			return Version.versionString();
+		} catch (Throwable e) {
+			return "";
+		}
+	}
+	
+	//==========================
+	// cache
+	
+	/**
+	 * Изображение из кэша или null, если диаграмма еще не отрисована
+	 */
+	public File getCachedImage(IProject project, String source) {
+		Path path = getImagePath(project, source);
+		if (path == null) {
+			return null;
+		}
+		pruneLater(project);
+		if (Files.exists(path)) {
+			return path.toFile();
+		}
+		return null;
+	}
+	
+	/**
+	 * Изображение из кэша, если нет - отрисовка в текущем потоке (экспорт, редакторы)
+	 */
+	public File getImage(IProject project, String source) {
+		File cached = getCachedImage(project, source);
+		if (cached != null) {
+			return cached;
+		}
+		Path path = getImagePath(project, source);
+		if (path == null || fFailed.contains(path)) {
+			return null;
+		}
+		CompletableFuture<File> pending = fPending.get(path);
+		if (pending != null) {
+			return pending.join();
+		}
+		return render(source, path);
+	}
+	
+	/**
+	 * Отрисовка в фоне, onReady вызывается в UI-потоке после успешной отрисовки
+	 * Если диаграмму уже не удалось отрисовать - повторно не ставится в очередь
+	 */
+	public void renderAsync(IProject project, String source, Runnable onReady) {
+		Path path = getImagePath(project, source);
+		if (path == null || fFailed.contains(path)) {
+			return;
+		}
+		CompletableFuture<File> future = new CompletableFuture<>();
+		CompletableFuture<File> pending = fPending.putIfAbsent(path, future);
+		if (pending == null) {
+			fExecutor.execute(() -> {
+				File file = null;
+				try {
+					file = render(source, path);
+				} finally {
+					fPending.remove(path);
+					future.complete(file);
+				}
+			});
+			pending = future;
+		}
+		pending.thenAccept(file -> {
+			if (file != null) {
+				Display display = Display.getDefault();
+				if (display != null && !display.isDisposed()) {
+					display.asyncExec(onReady);
+				}
+			}
+		});
+	}
+	
+	public void dispose() {
+		fExecutor.shutdownNow();
+	}
+	
+	//==========================
+	// render
+	
+	private File render(String source, Path path) {
+		try {
+			Files.createDirectories(path.getParent());
+			// пишем во временный файл и переименовываем, чтобы не прочитать недописанное изображение
+			Path tmp = Files.createTempFile(path.getParent(), "render", ".tmp");
+			try {
+				try (OutputStream out = Files.newOutputStream(tmp)) {
+					new SourceStringReader(source).outputImage(out);
+				}
+				Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+			} finally {
+				Files.deleteIfExists(tmp);
+			}
+			return path.toFile();
+		} catch (Exception e) {
+			fFailed.add(path);
+			DipCorePlugin.logError(e, "Render diagram error");
+			e.printStackTrace();
+		}
+		return null;
+	}
+	
+	//==========================
+	// prune
+	
+	private void pruneLater(IProject project) {
+		if (fPruned.add(project.getName())) {
+			long started = System.currentTimeMillis();
+			fExecutor.execute(() -> prune(project, started));
+		}
+	}
+	
+	/**
+	 * Удаляет PNG, исходных диаграмм для которых в проекте нет
+	 * (только созданные до начала очистки, чтобы не удалить только что отрисованные)
+	 */
+	private void prune(IProject project, long started) {
+		deleteLegacyFolder(project);
+		Path folder = projectFolder(project);
+		if (!Files.isDirectory(folder)) {
+			return;
+		}
+		Set<Path> alive = new HashSet<>();
+		try {
+			project.accept(proxy -> {
+				if (proxy.getType() == IResource.FILE) {
+					String source = readDiagramSource((IFile) proxy.requestResource());
+					Path path = source == null ? null : getImagePath(project, source);
+					if (path != null) {
+						alive.add(path);
+					}
+					return false;
+				}
+				return !LEGACY_FOLDER.equals(proxy.getName());
+			}, IResource.NONE);
+		} catch (CoreException e) {
+			DipCorePlugin.logError(e, "Prune diagram cache error");
+			return;
+		}
+		try (Stream<Path> images = Files.list(folder)) {
+			images.filter(path -> path.getFileName().toString().endsWith(IMAGE_EXTENSION))
+				.filter(path -> !alive.contains(path))
+				.filter(path -> path.toFile().lastModified() < started)
+				.forEach(path -> path.toFile().delete());
+		} catch (IOException e) {
+			DipCorePlugin.logError(e, "Prune diagram cache error");
+		}
+	}
+	
+	private String readDiagramSource(IFile file) {
+		String extension = file.getFileExtension();
+		if (extension == null) {
+			return null;
+		}
+		if (UnitType.isPlantUML(extension)) {
+			return UmlUtilities.readUmlFile(file);
+		}
+		if (UnitType.isDOT(extension)) {
+			return UmlUtilities.readDotFile(file);
+		}
+		return null;
+	}
+	
+	private void deleteLegacyFolder(IProject project) {
+		IFolder legacy = project.getFolder(LEGACY_FOLDER);
+		if (legacy.exists()) {
+			try {
+				legacy.delete(true, null);
+			} catch (CoreException e) {
+				DipCorePlugin.logError(e, "Delete diagram cache folder error");
+			}
+		}
+	}
+	
+	private Path projectFolder(IProject project) {
+		return ResourcesUtilities.metadataPluginPath(DipCorePlugin.getDefault(), CACHE_FOLDER).resolve(project.getName());
+	}
+	
+	private Path getImagePath(IProject project, String source) {
+		if (project == null || source == null) {
+			return null;
+		}
+		String hash = hash(fPlantUmlVersion + "\n" + source);
+		if (hash == null) {
+			return null;
+		}
+		return projectFolder(project).resolve(hash + IMAGE_EXTENSION);
+	}
+	
+	private static String hash(String text) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+			StringBuilder builder = new StringBuilder();
+			for (byte b: digest) {
+				builder.append(String.format("%02x", b));
+			}
+			return builder.toString();
+		} catch (NoSuchAlgorithmException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+}
@@ -28,6 +28,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -72,8 +73,10 @@ import org.eclipse.team.core.RepositoryProvider;
 import ru.dip.core.DipCorePlugin;
 import ru.dip.core.model.DipProject;
 import ru.dip.core.model.interfaces.IDipElement;
-import ru.dip.core.utilities.git.CommitCache;
 import ru.dip.core.utilities.git.CommitInfo;
+import ru.dip.core.utilities.git.GitHistoryIndex;
+import ru.dip.core.utilities.git.GitMetadataProvider;
+import ru.dip.core.utilities.git.GitMetadataProvider.FileMetadata;
 import ru.dip.core.utilities.git.GitRevisionModel;
 import ru.dip.core.utilities.git.GitTagModel;
 
@@ -241,9 +244,8 @@ public class GITUtilities {
 			Path resPath = Paths.get(resource.getLocationURI());
 			Path path = repoPath.relativize(resPath);
 			try {
-				Git git = new Git(repo);
-				return getCurrentHash(git, path.toString());
-			} catch (RevisionSyntaxException | IOException | GitAPIException e) {
+				return GitHistoryIndex.of(repo).lastChanged(path.toString().replace('\\', '/'));
+			} catch (IOException e) {
 				e.printStackTrace();
 			}
 		}
@@ -601,55 +603,38 @@ public class GITUtilities {
 	
 	/**
 	 * Возвращает тег по коммиту
+	 * (самый поздний тег, в котором файл совпадает с файлом из коммита hash и hash - предок тега)
 	 */
 	public static String getTag(String repoPath, String filePath, String hash) {
 		int tagTime = 0;
 		String tag = null;
-		try {
-			Git git = Git.open(new File(repoPath));
-			RevWalk walk = new RevWalk(git.getRepository());
-			Map<String, Ref> tags = git.getRepository().getTags();
+		try (Git git = Git.open(new File(repoPath)); RevWalk walk = new RevWalk(git.getRepository())) {
+			Repository repo = git.getRepository();
+			String path = filePath.replace('\\', '/');
+			RevCommit changed = walk.parseCommit(ObjectId.fromString(hash));
+			ObjectId blob = getBlobId(repo, changed, path);
+			Map<String, Ref> tags = repo.getTags();
 			for (Entry<String, Ref> entry : tags.entrySet()) {
-				Ref ref = entry.getValue();
-				RevObject revObj = walk.parseAny(ref.getObjectId());
-				int type = revObj.getType();
-				if (type == 4) {
-					RevTag revTag = walk.parseTag(ref.getObjectId());
-					int time = walk.parseCommit(revObj.getId()).getCommitTime();
-					if (time > tagTime) {
-
-						for (RevCommit commit : git.log().addPath(filePath).add(revTag.getObject()).setMaxCount(1)
-								.call()) {
-							if (commit.getName().equals(hash)) {
-								tagTime = time;
-								tag = entry.getKey();
-							}
-						}
-					}
-				} else {
-					int time = walk.parseCommit(revObj.getId()).getCommitTime();
-					if (time > tagTime) {
-						for (RevCommit commit : git.log().addPath(filePath).add(revObj).setMaxCount(1).call()) {
-							if (commit.getName().equals(hash)) {
-								tagTime = time;
-								tag = entry.getKey();
-							}
-						}
-					}
+				// parseCommit разворачивает аннотированный тег
+				RevCommit tagCommit = walk.parseCommit(entry.getValue().getObjectId());
+				int time = tagCommit.getCommitTime();
+				if (time > tagTime && Objects.equals(blob, getBlobId(repo, tagCommit, path))
+						&& walk.isMergedInto(changed, tagCommit)) {
+					tagTime = time;
+					tag = entry.getKey();
 				}
 			}
-			walk.close();
-			git.close();
-		} catch (IOException | RevisionSyntaxException e) {
-			e.printStackTrace();
-		} catch (NoHeadException e) {
-			e.printStackTrace();
-		} catch (GitAPIException e) {
+		} catch (IOException | IllegalArgumentException e) {
 			e.printStackTrace();
 		}
-		
 		return tag;
 	}
+	
+	private static ObjectId getBlobId(Repository repo, RevCommit commit, String path) throws IOException {
+		try (TreeWalk treeWalk = TreeWalk.forPath(repo, path, commit.getTree())) {
+			return treeWalk != null ? treeWalk.getObjectId(0) : null;
+		}
+	}
 
 	/**
 	 * Все файлы которые есть в этом коммите (не измененные, а все дерево)
@@ -673,33 +658,17 @@ public class GITUtilities {
 	 * Возвращает статус (текущий хеш и был ли изменен)
 	 */
 	public static GitFileStatus checkStatus(String repoPath, String filePath) {
-		try {
-			Git git = Git.open(new File(repoPath));
-			String hash = getCurrentHash(git, filePath);
-			boolean changed = isChanged(git, filePath);
-			if (hash == null) {
+		try (Git git = Git.open(new File(repoPath))) {
+			FileMetadata metadata = GitMetadataProvider.of(git.getRepository()).compute(filePath.replace('\\', '/'));
+			if (metadata == null || metadata.commit() == null) {
 				return null;
 			}
-			return new GitFileStatus(hash, changed);
-		} catch (IOException | RevisionSyntaxException | GitAPIException e) {
+			return new GitFileStatus(metadata.commit(), metadata.isChanged());
+		} catch (IOException e) {
 			return null;
 		}
 	}
 	
-	/**
-	 * Возвращает текущий хэш 
-	 */
-	private static String getCurrentHash(Git git, String filePath) throws RevisionSyntaxException,
-			AmbiguousObjectException, IncorrectObjectTypeException, IOException, NoHeadException, GitAPIException {
-		Repository repository = git.getRepository();
-		ObjectId head = repository.resolve(Constants.HEAD);
-		Iterable<RevCommit> commits = git.log().add(head).addPath(filePath).setMaxCount(1).call();
-		for (RevCommit commit : commits) {
-			return commit.getId().getName();
-		}
-		return null;
-	}
-
 	/**
 	 * Статус. Изменён ли файл
 	 */
@@ -722,63 +691,54 @@ public class GITUtilities {
 	 */
 	public static String getDescribe(IDipElement dde) {
 		Repository repository = dde.dipProject().getGitRepo();		
-		try {
-			if (repository != null) {
-				// возможно имеет смысл устанавливать хэш в поле проекта перед обновлением, чтобы не высчитывать для каждого элемента				
-				String currentHash = getCurrentHash(repository.getDirectory().getAbsolutePath());
-				try {
-					return getDescribe(repository, currentHash, dde);
-				} catch (IOException | GitAPIException e) {
-					e.printStackTrace();
-				}
+		if (repository != null) {
+			try {
+				FileMetadata metadata = GitMetadataProvider.of(repository).compute(getRepoFilePath(repository, dde));
+				return metadata != null ? metadata.describe() : null;
+			} catch (IOException e) {
+				e.printStackTrace();
 			}
-		} catch (IOException | GitAPIException e1) {
-			e1.printStackTrace();
-		}	
+		}
 		return null;
 	}
 	
-	
-	private static String getDescribe(Repository repo, String currentHash, IDipElement dde)
-			throws IOException, NoHeadException, GitAPIException {
-		String commitName = CommitCache.instance.getCommitChanged(dde.resource(), currentHash);
-		if (commitName == null) {
-			RevCommit commit = getChangedCommit(repo, dde);
-			if (commit != null) {
-				commitName = commit.getName();				
-				CommitCache.instance.putChangedCommit(dde.resource(), currentHash, commitName);
-			}
-		}
-		if (commitName != null) {
-			String describe = CommitCache.instance.getDescribe(dde.dipProject().getProject(), commitName);
-			if (describe != null) {
-				return describe;
-			}
-			
-			Git git = Git.open(repo.getDirectory().getParentFile());
-			describe = git.describe().setTarget(commitName).call();
-			CommitCache.instance.putDescribe(dde.dipProject().getProject(), commitName, describe);
-			return describe;
+	/**
+	 * Данные git (статус, коммит, describe) без ожидания
+	 * null - нет репозитория или данные еще вычисляются (по окончании вызывается onReady, см. GitMetadataProvider.get)
+	 */
+	public static FileMetadata getMetadata(IDipElement dde, Object requester, Runnable onReady) {
+		Repository repository = dde.dipProject().getGitRepo();
+		if (repository == null) {
+			return null;
 		}
-		return null;
+		return GitMetadataProvider.of(repository).get(getRepoFilePath(repository, dde), requester, onReady);
 	}
 
 	/**
 	 * Возвращает коммит в котором файл был изменен
 	 */
-	public static RevCommit getChangedCommit(Repository repo, IDipElement dde) throws IOException, NoHeadException, GitAPIException {
-		Git git = Git.open(repo.getDirectory().getParentFile());
-		String path = getRepoPath(repo, dde.resource());
-		path = path.replace('\\', '/');
-		Iterable<RevCommit> commits = git.log().addPath(path).setMaxCount(1).call();
-		Iterator<RevCommit> iterator = commits.iterator();
-		if (iterator.hasNext()) {
-			RevCommit commit = iterator.next();
-			if (commit != null) {
-				return commit;
-			}
+	public static RevCommit getChangedCommit(Repository repo, IDipElement dde) throws IOException {
+		String commitName = getChangedCommitName(repo, dde);
+		if (commitName == null) {
+			return null;
 		}
-		return null;
+		try (RevWalk walk = new RevWalk(repo)) {
+			return walk.parseCommit(ObjectId.fromString(commitName));
+		}
+	}
+	
+	/**
+	 * Хэш коммита в котором файл был изменен (по индексу истории репозитория)
+	 */
+	private static String getChangedCommitName(Repository repo, IDipElement dde) throws IOException {
+		return GitHistoryIndex.of(repo).lastChanged(getRepoFilePath(repo, dde));
+	}
+	
+	/**
+	 * Путь относительно репозитория в формате git (разделитель '/')
+	 */
+	private static String getRepoFilePath(Repository repo, IDipElement dde) {
+		return getRepoPath(repo, dde.resource()).replace('\\', '/');
 	}
 	
 	
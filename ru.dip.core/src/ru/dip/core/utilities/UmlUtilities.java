@@ -14,8 +14,6 @@
 package ru.dip.core.utilities;
 
 import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
@@ -25,7 +23,6 @@ import org.eclipse.core.resources.IFile;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Display;
 
-import net.sourceforge.plantuml.SourceStringReader;
 import ru.dip.core.model.DipUnit;
 import ru.dip.core.model.interfaces.IDipElement;
 import ru.dip.core.model.interfaces.IDipUnit;
@@ -38,76 +35,37 @@ public class UmlUtilities {
 	//  UML
 	
 	public static Image getUmlImage(IFile file){
-		String filename = file.getLocation().toOSString();
-		File imageFile = UmlUtilities.getImageFileFromUml(filename, filename);
-		if (imageFile != null) {
-			return new Image(Display.getDefault(), imageFile.getAbsolutePath());
-		}
-		return null;
+		return createImage(getUmlImageFile(file));
 	}
 	
 	public static Image getUmlImage(String umlContent, IFile file){
-		String filename = file.getLocation().toOSString();
-		File imageFile = UmlUtilities.getImageFileFromUmlContent(umlContent, filename);
-		if (imageFile != null) {
-			return new Image(Display.getDefault(), imageFile.getAbsolutePath());
-		}
-		return null;
+		return createImage(DiagramRenderCache.instance().getImage(file.getProject(), umlContent));
 	}
 	
-	public static File getImageFileFromUml(String filename, String tempFileName){			
-		Path path = Paths.get(filename);
-		String content = FileUtilities.readFile(path,"");
-		try {
-			SourceStringReader reader = new SourceStringReader(content);		
-			File file = File.createTempFile(tempFileName, "");
-			reader.outputImage(Files.newOutputStream(file.toPath()));
-			return file;
-			
-		} catch (Exception e) {
-			e.printStackTrace();
-		}
-		return null;
+	/**
+	 * PNG из кэша диаграмм (отрисовывается, если его еще нет)
+	 */
+	public static File getUmlImageFile(IFile file){
+		return DiagramRenderCache.instance().getImage(file.getProject(), readUmlFile(file));
 	}
 	
-	public static File getImageFileFromUmlContent(String content, String tempFileName){						
-		SourceStringReader reader = new SourceStringReader(content);		
-		try {
-			File file = File.createTempFile(tempFileName, "");
-			reader.outputImage(Files.newOutputStream(file.toPath()));
-			return file;
-			
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-		return null;
+	public static String readUmlFile(IFile file){
+		return FileUtilities.readFile(Paths.get(file.getLocation().toOSString()), "");
 	}
 	
 	//================================
 	// DOT
 	
 	public static Image getDotImage(IFile file){
-		String filename = file.getLocation().toOSString();
-		File imageFile = UmlUtilities.getDotInputStream(filename, filename);
-		if (imageFile != null) {
-			return new Image(Display.getDefault(), imageFile.getAbsolutePath());
-		}
-		return null;
+		return createImage(getDotImageFile(file));
 	}
 	
-	public static File getDotInputStream(String filename, String tempFileName){			
-		Path path = Paths.get(filename);
-		String content = readDotFile(path); 	
-		SourceStringReader reader = new SourceStringReader(content);	
-		try {
-			File file = File.createTempFile(tempFileName, "");
-			reader.outputImage(Files.newOutputStream(file.toPath()));
-			return file;
-			
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-		return null;
+	public static File getDotImageFile(IFile file){
+		return DiagramRenderCache.instance().getImage(file.getProject(), readDotFile(file));
+	}
+	
+	public static String readDotFile(IFile file){
+		return readDotFile(Paths.get(file.getLocation().toOSString()));
 	}
 	
 	public static String readDotFile(Path path){
@@ -123,6 +81,13 @@ public class UmlUtilities {
 		return builder.toString();	
 	}
 	
+	private static Image createImage(File imageFile) {
+		if (imageFile != null) {
+			return new Image(Display.getDefault(), imageFile.getAbsolutePath());
+		}
+		return null;
+	}
+	
 	//============================
 	// MARKDOWN
 	
@@ -16,8 +16,10 @@ package ru.dip.core.utilities;
 import java.io.File;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -85,6 +87,10 @@ import ru.dip.core.utilities.md.UnityMdInput;
 
 public class WorkbenchUtitlities {
 	
+	private static final int UPDATE_EDITORS_DELAY = 300;
+	// проекты, редакторы которых ожидают обновления (updateEditorsLater)
+	private static final Set<DipProject> fEditorsToUpdate = new HashSet<>();
+	
 	public static Shell checkShell(Shell shell) {
 		if (shell == null) {
 			return PlatformUI.getWorkbench().getActiveWorkbenchWindow().getShell();
@@ -361,6 +367,36 @@ public class WorkbenchUtitlities {
 		}
 	}
 	
+	/**
+	 * Обновить открытые редакторы проектов (вызывается из UI-потока)
+	 * Вызовы в течение UPDATE_EDITORS_DELAY объединяются в одно обновление
+	 */
+	public static void updateEditorsLater(DipProject project) {
+		if (fEditorsToUpdate.isEmpty()) {
+			Display.getDefault().timerExec(UPDATE_EDITORS_DELAY, WorkbenchUtitlities::updateEditors);
+		}
+		fEditorsToUpdate.add(project);
+	}
+	
+	private static void updateEditors() {
+		Set<DipProject> projects = new HashSet<>(fEditorsToUpdate);
+		fEditorsToUpdate.clear();
+		List<IDipEditor> editors = getOpenedDocumentEditors();
+		if (editors == null) {
+			return;
+		}
+		for (IDipEditor editor : editors) {
+			if (!projects.contains(editor.dipProject())) {
+				continue;
+			}
+			if (getWorkbenchWindow().getActivePage().isPartVisible((IEditorPart) editor)) {
+				editor.updateEditor();
+			} else {
+				editor.setModelChanged();
+			}
+		}
+	}
+	
 	public static void updateRoot() {
 		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();		
 		IProject[] projects =  root.getProjects();
@@ -14,7 +14,7 @@
 package ru.dip.core.utilities.git;
 
 import java.nio.file.Path;
-import java.util.List;
+import java.util.Set;
 
 import org.eclipse.jgit.revwalk.RevCommit;
 
@@ -24,9 +24,10 @@ public class CommitInfo {
 	private final int fTime;
 	private final String fRepoPath;
 	
-	private List<Path> fChangedFiles;   // файлы измененные в коммите
-	private List<Path> fChangedToHeadFiles; // файлы измененные после коммита (diff к HEAD)
-	private List<Path> fChangedToStartFiles; // файлы измененные до коммита (diff к start commit
+	// множества - для проверки файла за постоянное время (фильтр VERSION)
+	private Set<Path> fChangedFiles;   // файлы измененные в коммите
+	private Set<Path> fChangedToHeadFiles; // файлы измененные после коммита (diff к HEAD)
+	private Set<Path> fChangedToStartFiles; // файлы измененные до коммита (diff к start commit
 	
 	public CommitInfo(RevCommit commit, String repoPath) {
 		fHash = commit.getName();
@@ -47,27 +48,27 @@ public class CommitInfo {
 		return fRepoPath;
 	}
 
-	public List<Path> getCommitChangedFiles() {
+	public Set<Path> getCommitChangedFiles() {
 		return fChangedFiles;
 	}
 
-	public void setCommitChangedFiles(List<Path> changedFiles) {
+	public void setCommitChangedFiles(Set<Path> changedFiles) {
 		fChangedFiles = changedFiles;
 	}
 
-	public List<Path> getChangedToHeadFiles() {
+	public Set<Path> getChangedToHeadFiles() {
 		return fChangedToHeadFiles;
 	}
 	
-	public void setChangedToHeadFiles(List<Path> changedFiles) {
+	public void setChangedToHeadFiles(Set<Path> changedFiles) {
 		fChangedToHeadFiles = changedFiles;
 	}
 
-	public List<Path> getChangedToStartFiles() {
+	public Set<Path> getChangedToStartFiles() {
 		return fChangedToStartFiles;
 	}
 	
-	public void setChangedToStartFiles(List<Path> changedFiles) {
+	public void setChangedToStartFiles(Set<Path> changedFiles) {
 		fChangedToStartFiles = changedFiles;
 	}
 
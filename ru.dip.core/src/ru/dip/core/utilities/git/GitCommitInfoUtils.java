@@ -15,10 +15,11 @@ package ru.dip.core.utilities.git;
 
 import java.io.IOException;
 import java.nio.file.Path;
-import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
@@ -43,20 +44,23 @@ public class GitCommitInfoUtils {
 	 * Список файлов которые были изменены в указанном коммите
 	 * Берет из commitInfo, если там null, то получает из Git
 	 */
-	public static List<Path> getChangedCommitFiles(CommitInfo commitInfo, Repository repo) throws MissingObjectException, IncorrectObjectTypeException, IOException, GitAPIException {
-		List<Path> changedFiles = commitInfo.getCommitChangedFiles();
-		if (changedFiles == null) {
-			changedFiles = computeChangedCommitFiles(commitInfo, repo);
-			commitInfo.setCommitChangedFiles(changedFiles);
+	public static Set<Path> getChangedCommitFiles(CommitInfo commitInfo, Repository repo) throws MissingObjectException, IncorrectObjectTypeException, IOException, GitAPIException {
+		// вычисляется один раз (проверка элементов отчета выполняется в нескольких потоках)
+		synchronized (commitInfo) {
+			Set<Path> changedFiles = commitInfo.getCommitChangedFiles();
+			if (changedFiles == null) {
+				changedFiles = computeChangedCommitFiles(commitInfo, repo);
+				commitInfo.setCommitChangedFiles(changedFiles);
+			}
+			return changedFiles;
 		}
-		return changedFiles;
 	}
 	
 	/**
 	 * Список файлов которые были изменены в указанном коммите
 	 * Получает из Git
 	 */
-	private static List<Path> computeChangedCommitFiles(CommitInfo commitInfo, Repository repo) throws MissingObjectException, IncorrectObjectTypeException, IOException, GitAPIException {
+	private static Set<Path> computeChangedCommitFiles(CommitInfo commitInfo, Repository repo) throws MissingObjectException, IncorrectObjectTypeException, IOException, GitAPIException {
 		try (Git git = new Git(repo)){
 			RevCommit commit = GITUtilities.getRevCommitByHash(repo, commitInfo.getHash());			
 			RevCommit prevCommit = GITUtilities.getPrevCommit(commit, repo);			
@@ -72,13 +76,15 @@ public class GitCommitInfoUtils {
 	 * Вычисляет файлы, которые были изменены после указанного коммита (diff к HEAD)
 	 * Берет из commitInfo, если там null, то получает из Git
 	 */
-	public static List<Path> getChangedToHeadFiles(CommitInfo commitInfo, Repository repo) throws MissingObjectException, IncorrectObjectTypeException, IOException, GitAPIException {
-		List<Path> changedFiles = commitInfo.getChangedToHeadFiles();
-		if (changedFiles == null) {
-			changedFiles = computeChangedToHeadFiles(commitInfo, repo);
-			commitInfo.setChangedToHeadFiles(changedFiles);
+	public static Set<Path> getChangedToHeadFiles(CommitInfo commitInfo, Repository repo) throws MissingObjectException, IncorrectObjectTypeException, IOException, GitAPIException {
+		synchronized (commitInfo) {
+			Set<Path> changedFiles = commitInfo.getChangedToHeadFiles();
+			if (changedFiles == null) {
+				changedFiles = computeChangedToHeadFiles(commitInfo, repo);
+				commitInfo.setChangedToHeadFiles(changedFiles);
+			}
+			return changedFiles;
 		}
-		return changedFiles;
 	}
 
 	
@@ -86,13 +92,13 @@ public class GitCommitInfoUtils {
 	 * Вычисляет файлы, которые были изменены после указанного коммита (diff к HEAD)
 	 * Получает из Git
 	 */
-	private static List<Path> computeChangedToHeadFiles(CommitInfo commitInfo, Repository repo) throws MissingObjectException, IncorrectObjectTypeException, IOException, GitAPIException {
+	private static Set<Path> computeChangedToHeadFiles(CommitInfo commitInfo, Repository repo) throws MissingObjectException, IncorrectObjectTypeException, IOException, GitAPIException {
 		try (RevWalk revWalk = new RevWalk(repo); Git git = new Git(repo)){
 			RevCommit commit = GITUtilities.getRevCommitByHash(repo, commitInfo.getHash());
 			ObjectId head = repo.resolve(Constants.HEAD);
 			RevCommit headCommit = revWalk.parseCommit(head);
 			if (Objects.equals(commit.getName(), headCommit.getName())) {
-				return Collections.emptyList();
+				return Collections.emptySet();
 			}			
 			List<DiffEntry> diffs = GITUtilities.computeChanged(repo, git, commit, headCommit, null);
 			return mapDiffEntryToPath(diffs, repo);			
@@ -106,35 +112,37 @@ public class GitCommitInfoUtils {
 	 * Вычисляет файлы, которые были изменены до указанного коммита (diff к StartCommit)
 	 * Берет из commitInfo, если там null, то получает из Git
 	 */
-	public static List<Path> getChangedToStartFiles(CommitInfo commitInfo, Repository repo)
+	public static Set<Path> getChangedToStartFiles(CommitInfo commitInfo, Repository repo)
 			throws MissingObjectException, IncorrectObjectTypeException, IOException, GitAPIException {
-		List<Path> changedFiles = commitInfo.getChangedToStartFiles();
-		if (changedFiles == null) {
-			changedFiles = computeChangedToStartCommitFiles(commitInfo, repo);
-			commitInfo.setChangedToStartFiles(changedFiles);
+		synchronized (commitInfo) {
+			Set<Path> changedFiles = commitInfo.getChangedToStartFiles();
+			if (changedFiles == null) {
+				changedFiles = computeChangedToStartCommitFiles(commitInfo, repo);
+				commitInfo.setChangedToStartFiles(changedFiles);
+			}
+			return changedFiles;
 		}
-		return changedFiles;
 	}
 	
 	/**
 	 * Вычисляет файлы, которые были изменены до указанного коммита (diff к StartCommit)
 	 * Получает из Git
 	 */
-	private static List<Path> computeChangedToStartCommitFiles(CommitInfo commitInfo, Repository repo) throws MissingObjectException, IncorrectObjectTypeException, IOException, GitAPIException {
+	private static Set<Path> computeChangedToStartCommitFiles(CommitInfo commitInfo, Repository repo) throws MissingObjectException, IncorrectObjectTypeException, IOException, GitAPIException {
 		try(RevWalk revWalk = new RevWalk(repo); Git git = new Git(repo)) {
 			ObjectId commitId = repo.resolve(commitInfo.getHash());
 			RevCommit commit = revWalk.parseCommit(commitId);
 						
 			RevCommit prevCommit = GITUtilities.getPrevCommit(commit, repo);
 			if (prevCommit == null) {
-				return Collections.emptyList();
+				return Collections.emptySet();
 			}			
 			RevCommit startCommit = GITUtilities.getStartCommit(repo);
 			
 			// если указанный коммит является вторым
 			if (Objects.equals(prevCommit.getName(), startCommit.getName())) {
 				// вернуть список всех файлов из первого коммита
-				return GITUtilities.getFilesForCommit(prevCommit, repo);
+				return new LinkedHashSet<>(GITUtilities.getFilesForCommit(prevCommit, repo));
 			}		
 			List<DiffEntry> diffs = GITUtilities.computeChanged(repo, git, startCommit, prevCommit, null);
 			return mapDiffEntryToPath(diffs, repo);
@@ -147,8 +155,8 @@ public class GitCommitInfoUtils {
 	/**
 	 * Преобразует DiffEntry в FullPath
 	 */
-	private static List<Path> mapDiffEntryToPath(List<DiffEntry> diffs, Repository repo){
-		List<Path> result = new ArrayList<Path>();
+	private static Set<Path> mapDiffEntryToPath(List<DiffEntry> diffs, Repository repo){
+		Set<Path> result = new LinkedHashSet<>();
 		for (DiffEntry diff : diffs) {
 			String path = null;
 			if (diff.getChangeType() == ChangeType.DELETE) {
@@ -0,0 +1,307 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.core.utilities.git;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+import ru.dip.core.DipCorePlugin;
+import ru.dip.core.utilities.ResourcesUtilities;
+
+/**
+ * Индекс истории репозитория: путь (относительно репозитория) -> коммит, в котором путь изменялся последний раз
+ *
+ * Хранится только последнее изменение пути (полная история пути по-прежнему берется из git log).
+ * Строится одним проходом RevWalk от HEAD (от новых коммитов к старым):
+ * - первый коммит - все файлы дерева;
+ * - обычный коммит - файлы, отличающиеся от родителя;
+ * - merge - файлы, отличающиеся от всех родителей (как упрощение истории в git log -- path).
+ * При перемещении HEAD вперед просматриваются только новые коммиты, иначе индекс строится заново.
+ * Новый индекс строится в отдельной карте и подменяет прежний целиком (чтение без блокировки).
+ * Индекс сохраняется в метаданных плагина вместе с HEAD и при следующем запуске
+ * используется как начальный (если сохраненный HEAD - предок текущего).
+ */
+public class GitHistoryIndex {
+
+	private static final String FOLDER = "git-history";
+	private static final Map<File, GitHistoryIndex> INDEXES = new HashMap<>();
+
+	public static synchronized GitHistoryIndex of(Repository repo) {
+		GitHistoryIndex index = INDEXES.computeIfAbsent(repo.getDirectory().getAbsoluteFile(), dir -> new GitHistoryIndex(repo));
+		index.fRepo = repo;
+		return index;
+	}
+
+	/**
+	 * Построенный индекс (не изменяется)
+	 */
+	private static class Snapshot {
+
+		private final ObjectId fHead;
+		private final Map<String, String> fLastChanged;
+
+		private Snapshot(ObjectId head, Map<String, String> lastChanged) {
+			fHead = head;
+			fLastChanged = lastChanged;
+		}
+	}
+
+	private static final Snapshot EMPTY = new Snapshot(null, Collections.emptyMap());
+
+	// репозиторий проекта мог быть открыт заново (тот же каталог)
+	private volatile Repository fRepo;
+	private volatile Snapshot fSnapshot = EMPTY;
+	// построение индекса - одним потоком (чтение fSnapshot не блокируется)
+	private final Object fUpdateLock = new Object();
+	private boolean fLoaded = false;
+
+	private GitHistoryIndex(Repository repo) {
+		fRepo = repo;
+	}
+
+	/**
+	 * Коммит, в котором путь изменялся последний раз (аналог git log --max-count=1 -- path)
+	 * @param path - путь относительно репозитория (разделитель '/')
+	 */
+	public String lastChanged(String path) throws IOException {
+		return update().fLastChanged.get(path);
+	}
+
+	public ObjectId head() throws IOException {
+		return update().fHead;
+	}
+
+	/**
+	 * Индекс построен для коммита head (без обновления)
+	 */
+	boolean isBuiltFor(ObjectId head) {
+		return head != null && head.equals(fSnapshot.fHead);
+	}
+
+	/**
+	 * lastChanged без обновления индекса (см. isBuiltFor)
+	 */
+	String cachedLastChanged(String path) {
+		return fSnapshot.fLastChanged.get(path);
+	}
+
+	//=========================
+	// update
+
+	private Snapshot update() throws IOException {
+		synchronized (fUpdateLock) {
+			Repository repo = fRepo;
+			Snapshot snapshot = fSnapshot;
+			ObjectId head = repo.resolve(Constants.HEAD);
+			if (head == null) {
+				fSnapshot = EMPTY;
+				return EMPTY;
+			}
+			if (head.equals(snapshot.fHead)) {
+				return snapshot;
+			}
+			if (!fLoaded) {
+				fLoaded = true;
+				snapshot = load(repo);
+				fSnapshot = snapshot;
+				if (head.equals(snapshot.fHead)) {
+					return snapshot;
+				}
+			}
+			Map<String, String> lastChanged;
+			try (RevWalk walk = new RevWalk(repo)) {
+				RevCommit headCommit = walk.parseCommit(head);
+				ObjectId from = isAncestor(walk, snapshot.fHead, headCommit) ? snapshot.fHead : null;
+				lastChanged = from != null ? new HashMap<>(snapshot.fLastChanged) : new HashMap<>();
+				walk.reset();
+				Map<String, String> scanned = scan(repo, walk, headCommit, from);
+				if (lastChanged.isEmpty()) {
+					lastChanged = scanned;
+				} else {
+					merge(walk, lastChanged, scanned);
+				}
+			}
+			snapshot = new Snapshot(head, lastChanged);
+			fSnapshot = snapshot;
+			save(repo, snapshot);
+			return snapshot;
+		}
+	}
+
+	private boolean isAncestor(RevWalk walk, ObjectId commit, RevCommit head) throws IOException {
+		if (commit == null) {
+			return false;
+		}
+		try {
+			return walk.isMergedInto(walk.parseCommit(commit), head);
+		} catch (MissingObjectException e) {
+			// сохраненный HEAD удален (rebase, gc)
+			return false;
+		}
+	}
+
+	/**
+	 * Новые коммиты могут быть старше сохраненных (ветка, влитая merge-коммитом),
+	 * поэтому значение заменяется, только если новый коммит не старше - 
+	 * как при полном построении (обход по времени коммита, первый найденный)
+	 */
+	private void merge(RevWalk walk, Map<String, String> lastChanged, Map<String, String> scanned) throws IOException {
+		Map<String, Integer> times = new HashMap<>();
+		for (Map.Entry<String, String> entry: scanned.entrySet()) {
+			String old = lastChanged.get(entry.getKey());
+			if (old == null || commitTime(walk, entry.getValue(), times) >= commitTime(walk, old, times)) {
+				lastChanged.put(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+	
+	private int commitTime(RevWalk walk, String name, Map<String, Integer> times) throws IOException {
+		Integer time = times.get(name);
+		if (time == null) {
+			try {
+				time = walk.parseCommit(ObjectId.fromString(name)).getCommitTime();
+			} catch (MissingObjectException e) {
+				time = Integer.MIN_VALUE;
+			}
+			times.put(name, time);
+		}
+		return time;
+	}
+
+	/**
+	 * Пути, измененные в коммитах от head (до from, не включая)
+	 */
+	private Map<String, String> scan(Repository repo, RevWalk walk, RevCommit head, ObjectId from) throws IOException {
+		Map<String, String> result = new HashMap<>();
+		walk.markStart(head);
+		if (from != null) {
+			walk.markUninteresting(walk.parseCommit(from));
+		}
+		for (RevCommit commit: walk) {
+			String name = commit.getName();
+			for (String path: changedPaths(repo, walk, commit)) {
+				result.putIfAbsent(path, name);
+			}
+		}
+		return result;
+	}
+
+	private List<String> changedPaths(Repository repo, RevWalk walk, RevCommit commit) throws IOException {
+		List<String> result = new ArrayList<>();
+		try (TreeWalk treeWalk = new TreeWalk(repo)) {
+			treeWalk.setRecursive(true);
+			treeWalk.addTree(commit.getTree());
+			int parents = commit.getParentCount();
+			for (RevCommit parent: commit.getParents()) {
+				walk.parseHeaders(parent);
+				treeWalk.addTree(parent.getTree());
+			}
+			if (parents > 0) {
+				treeWalk.setFilter(TreeFilter.ANY_DIFF);
+			}
+			while (treeWalk.next()) {
+				if (isChanged(treeWalk, parents)) {
+					result.add(treeWalk.getPathString());
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Файл коммита отличается от всех родителей
+	 */
+	private boolean isChanged(TreeWalk treeWalk, int parents) {
+		for (int i = 1; i <= parents; i++) {
+			if (treeWalk.idEqual(0, i) && treeWalk.getRawMode(0) == treeWalk.getRawMode(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	//=========================
+	// persistence
+
+	private Path indexFile(Repository repo) {
+		String name = Integer.toHexString(repo.getDirectory().getAbsolutePath().hashCode()) + ".idx";
+		return ResourcesUtilities.metadataPluginPath(DipCorePlugin.getDefault(), FOLDER).resolve(name);
+	}
+
+	private Snapshot load(Repository repo) {
+		Path file = indexFile(repo);
+		if (!Files.exists(file)) {
+			return EMPTY;
+		}
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			if (!repo.getDirectory().getAbsolutePath().equals(reader.readLine())) {
+				return EMPTY;
+			}
+			ObjectId head = ObjectId.fromString(reader.readLine());
+			Map<String, String> lastChanged = new HashMap<>();
+			String line;
+			while ((line = reader.readLine()) != null) {
+				int index = line.lastIndexOf('\t');
+				if (index > 0) {
+					lastChanged.put(line.substring(0, index), line.substring(index + 1));
+				}
+			}
+			return new Snapshot(head, lastChanged);
+		} catch (IOException | IllegalArgumentException | NullPointerException e) {
+			DipCorePlugin.logError(e, "Read git history index error");
+			return EMPTY;
+		}
+	}
+
+	private void save(Repository repo, Snapshot snapshot) {
+		Path file = indexFile(repo);
+		try {
+			Files.createDirectories(file.getParent());
+			try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+				writer.write(repo.getDirectory().getAbsolutePath());
+				writer.newLine();
+				writer.write(snapshot.fHead.getName());
+				writer.newLine();
+				for (Map.Entry<String, String> entry: snapshot.fLastChanged.entrySet()) {
+					writer.write(entry.getKey());
+					writer.write('\t');
+					writer.write(entry.getValue());
+					writer.newLine();
+				}
+			}
+		} catch (IOException e) {
+			DipCorePlugin.logError(e, "Save git history index error");
+		}
+	}
+
+}
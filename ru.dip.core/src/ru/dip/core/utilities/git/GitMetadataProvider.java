@@ -0,0 +1,395 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.core.utilities.git;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+
+import ru.dip.core.DipCorePlugin;
+
+/**
+ * Данные git для всех файлов репозитория (статус, последний коммит, describe этого коммита)
+ *
+ * Снимок строится одним вызовом git status, последние коммиты берутся из GitHistoryIndex
+ * (один проход по истории). Снимок актуален, пока не изменились HEAD, файл индекса
+ * и ресурсы workspace. Describe вычисляется один раз для каждого коммита.
+ * Вычисления выполняются в фоновом потоке: get возвращает готовые (возможно, устаревшие) данные
+ * и по окончании пересчета вызывает onReady.
+ */
+public class GitMetadataProvider {
+
+	/**
+	 * Данные файла
+	 */
+	public static class FileMetadata {
+
+		private final String fCommit;
+		private final boolean fChanged;
+		private final String fDescribe;
+
+		private FileMetadata(String commit, boolean changed, String describe) {
+			fCommit = commit;
+			fChanged = changed;
+			fDescribe = describe;
+		}
+
+		/**
+		 * Коммит, в котором файл был изменен последний раз
+		 */
+		public String commit() {
+			return fCommit;
+		}
+
+		/**
+		 * Файл изменен в рабочей копии (git status - modified)
+		 */
+		public boolean isChanged() {
+			return fChanged;
+		}
+
+		/**
+		 * git describe для commit()
+		 */
+		public String describe() {
+			return fDescribe;
+		}
+	}
+
+	/**
+	 * Состояние репозитория, для которого построен снимок
+	 */
+	private static class Snapshot {
+
+		private final ObjectId fHead;
+		private final long fIndexTime;
+		private final long fWorkspaceVersion;
+		private final Set<String> fChanged;
+
+		private Snapshot(ObjectId head, long indexTime, long workspaceVersion, Set<String> changed) {
+			fHead = head;
+			fIndexTime = indexTime;
+			fWorkspaceVersion = workspaceVersion;
+			fChanged = changed;
+		}
+
+		private boolean isActual(ObjectId head, long indexTime, long workspaceVersion) {
+			return Objects.equals(fHead, head) && fIndexTime == indexTime && fWorkspaceVersion == workspaceVersion;
+		}
+	}
+
+	private static final long STATE_CHECK_INTERVAL = 1000;
+	private static final Map<File, GitMetadataProvider> PROVIDERS = new HashMap<>();
+	private static final AtomicLong WORKSPACE_VERSION = new AtomicLong();
+	private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "Git metadata");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	// изменения файлов workspace сбрасывают снимки (регистрируется при первом обращении, снимается в dispose)
+	private static final IResourceChangeListener WORKSPACE_LISTENER = GitMetadataProvider::workspaceChanged;
+	private static boolean fListening = false;
+
+	/**
+	 * Провайдер репозитория
+	 * Провайдер открывает свой экземпляр Repository (вызывающий может закрыть свой), закрывается в dispose
+	 */
+	public static synchronized GitMetadataProvider of(Repository repo) {
+		if (!fListening) {
+			fListening = true;
+			ResourcesPlugin.getWorkspace().addResourceChangeListener(WORKSPACE_LISTENER, IResourceChangeEvent.POST_CHANGE);
+		}
+		return PROVIDERS.computeIfAbsent(repo.getDirectory().getAbsoluteFile(), dir -> new GitMetadataProvider(openRepository(repo)));
+	}
+
+	private static Repository openRepository(Repository repo) {
+		try {
+			return new FileRepositoryBuilder().setGitDir(repo.getDirectory()).setMustExist(true).build();
+		} catch (IOException e) {
+			DipCorePlugin.logError(e, "Open git repository error");
+			repo.incrementOpen();
+			return repo;
+		}
+	}
+
+	/**
+	 * Снять слушатель workspace и закрыть репозитории (остановка плагина)
+	 */
+	public static synchronized void dispose() {
+		if (fListening) {
+			fListening = false;
+			ResourcesPlugin.getWorkspace().removeResourceChangeListener(WORKSPACE_LISTENER);
+		}
+		PROVIDERS.values().forEach(provider -> provider.fRepo.close());
+		PROVIDERS.clear();
+	}
+
+	/**
+	 * Версия workspace увеличивается только при изменении содержимого, добавлении и удалении ресурсов
+	 * (изменения маркеров, свойств и т.п. не влияют на git status)
+	 */
+	private static void workspaceChanged(IResourceChangeEvent event) {
+		IResourceDelta delta = event.getDelta();
+		if (delta == null) {
+			return;
+		}
+		boolean[] changed = {false};
+		try {
+			delta.accept(child -> {
+				if (changed[0]) {
+					return false;
+				}
+				int kind = child.getKind();
+				if (kind == IResourceDelta.ADDED || kind == IResourceDelta.REMOVED
+						|| (kind == IResourceDelta.CHANGED && (child.getFlags() & IResourceDelta.CONTENT) != 0)) {
+					changed[0] = true;
+					return false;
+				}
+				return true;
+			});
+		} catch (CoreException e) {
+			changed[0] = true;
+		}
+		if (changed[0]) {
+			WORKSPACE_VERSION.incrementAndGet();
+		}
+	}
+
+	private final Repository fRepo;
+	private Snapshot fSnapshot;
+	private boolean fActual = false;
+	private long fCheckTime;
+	private boolean fScheduled = false;
+	// коммит -> describe (значение может быть null)
+	private final Map<String, String> fDescribes = new HashMap<>();
+	private final Set<String> fDescribeQueue = new LinkedHashSet<>();
+	private final Map<Object, Runnable> fWaiting = new LinkedHashMap<>();
+
+	private GitMetadataProvider(Repository repo) {
+		fRepo = repo;
+	}
+
+	//=========================
+	// api
+
+	/**
+	 * Данные файла без ожидания
+	 * null - данные еще не вычислены (вычисление запускается в фоне)
+	 * Если данных нет или они устарели, по окончании вычисления вызывается onReady
+	 * (в фоновом потоке, один раз для requester)
+	 * @param path - путь относительно репозитория (разделитель '/')
+	 */
+	public synchronized FileMetadata get(String path, Object requester, Runnable onReady) {
+		checkState();
+		FileMetadata result = fSnapshot != null ? metadata(path) : null;
+		if (!fActual || result == null) {
+			schedule();
+			if (onReady != null) {
+				fWaiting.put(requester, onReady);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Данные файла с ожиданием вычисления (не вызывать из UI-потока)
+	 */
+	public FileMetadata compute(String path) throws IOException {
+		synchronized (this) {
+			checkState();
+			if (fActual) {
+				FileMetadata result = metadata(path);
+				if (result != null) {
+					return result;
+				}
+			}
+		}
+		update();
+		boolean changed;
+		synchronized (this) {
+			if (fSnapshot == null) {
+				return null;
+			}
+			FileMetadata result = metadata(path);
+			if (result != null) {
+				return result;
+			}
+			changed = fSnapshot.fChanged.contains(path);
+		}
+		String commit = GitHistoryIndex.of(fRepo).lastChanged(path);
+		return new FileMetadata(commit, changed, describe(commit));
+	}
+
+	/**
+	 * Данные из снимка
+	 * null - снимок построен для другого индекса истории или describe коммита еще не вычислен
+	 * (коммит ставится в очередь)
+	 */
+	private FileMetadata metadata(String path) {
+		GitHistoryIndex index = GitHistoryIndex.of(fRepo);
+		if (!index.isBuiltFor(fSnapshot.fHead)) {
+			fActual = false;
+			return null;
+		}
+		String commit = index.cachedLastChanged(path);
+		boolean changed = fSnapshot.fChanged.contains(path);
+		if (commit == null) {
+			return new FileMetadata(null, changed, null);
+		}
+		if (!fDescribes.containsKey(commit)) {
+			fDescribeQueue.add(commit);
+			return null;
+		}
+		return new FileMetadata(commit, changed, fDescribes.get(commit));
+	}
+
+	//=========================
+	// state
+
+	/**
+	 * Проверка актуальности снимка (не чаще STATE_CHECK_INTERVAL)
+	 */
+	private void checkState() {
+		long now = System.currentTimeMillis();
+		if (fSnapshot == null || !fActual || now - fCheckTime < STATE_CHECK_INTERVAL) {
+			return;
+		}
+		fCheckTime = now;
+		try {
+			fActual = fSnapshot.isActual(fRepo.resolve(Constants.HEAD), fRepo.getIndexFile().lastModified(),
+					WORKSPACE_VERSION.get());
+		} catch (IOException e) {
+			fActual = false;
+		}
+	}
+
+	private void schedule() {
+		if (!fScheduled) {
+			fScheduled = true;
+			EXECUTOR.execute(this::backgroundUpdate);
+		}
+	}
+
+	private void backgroundUpdate() {
+		boolean updated = true;
+		try {
+			update();
+		} catch (IOException e) {
+			updated = false;
+			DipCorePlugin.logError(e, "Git metadata update error");
+		}
+		List<Runnable> waiting;
+		synchronized (this) {
+			waiting = new ArrayList<>(fWaiting.values());
+			fWaiting.clear();
+		}
+		// при ошибке не уведомляем, иначе запросы будут повторяться по кругу
+		if (updated) {
+			waiting.forEach(Runnable::run);
+		}
+	}
+
+	/**
+	 * Пересчет снимка (если устарел) и describe для коммитов из очереди
+	 */
+	private void update() throws IOException {
+		Repository repo;
+		boolean actual;
+		synchronized (this) {
+			fScheduled = false;
+			repo = fRepo;
+			actual = fActual && fSnapshot != null && GitHistoryIndex.of(repo).isBuiltFor(fSnapshot.fHead);
+		}
+		if (!actual) {
+			Snapshot snapshot = build(repo);
+			synchronized (this) {
+				fSnapshot = snapshot;
+				fActual = true;
+				fCheckTime = System.currentTimeMillis();
+			}
+		}
+		List<String> commits;
+		synchronized (this) {
+			commits = new ArrayList<>(fDescribeQueue);
+			fDescribeQueue.clear();
+		}
+		for (String commit: commits) {
+			describe(commit);
+		}
+	}
+
+	private Snapshot build(Repository repo) throws IOException {
+		long workspaceVersion = WORKSPACE_VERSION.get();
+		ObjectId head = GitHistoryIndex.of(repo).head();
+		Set<String> changed;
+		try (Git git = new Git(repo)) {
+			changed = new HashSet<>(git.status().call().getModified());
+		} catch (GitAPIException e) {
+			DipCorePlugin.logError(e, "Git status error");
+			changed = Collections.emptySet();
+		}
+		// git status может обновить индекс, поэтому время индекса - после вызова
+		return new Snapshot(head, repo.getIndexFile().lastModified(), workspaceVersion, changed);
+	}
+
+	//=========================
+	// describe
+
+	private String describe(String commit) {
+		if (commit == null) {
+			return null;
+		}
+		synchronized (this) {
+			if (fDescribes.containsKey(commit)) {
+				return fDescribes.get(commit);
+			}
+		}
+		String describe = null;
+		try (Git git = new Git(fRepo)) {
+			describe = git.describe().setTarget(commit).call();
+		} catch (IOException | GitAPIException e) {
+			DipCorePlugin.logError(e, "Git describe error");
+		}
+		synchronized (this) {
+			fDescribes.put(commit, describe);
+		}
+		return describe;
+	}
+
+}
@@ -54,7 +54,7 @@ public class MdParser {
 	
 	private static MdParser instance;
 	
-	public static MdParser instance() {
+	public static synchronized MdParser instance() {
 		if (instance == null) {
 			instance = MdParser.builder().inlineParserFactory(new InlineParserFactory() {
 				
@@ -0,0 +1,522 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.core.utilities.spellcheck;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import ru.dip.core.DipCorePlugin;
+import ru.dip.core.utilities.ResourcesUtilities;
+
+/**
+ * Скомпилированный словарь (только для чтения)
+ *
+ * Список слов (одно слово в строке, UTF-8) компилируется в минимальный ациклический автомат
+ * и, если задана фонетическая функция, индекс "фонетический хэш -> номера слов".
+ * Результат сохраняется в каталоге состояния плагина (FOLDER, файл с расширением EXTENSION,
+ * список слов может лежать в каталоге установки только для чтения) и отображается
+ * в память, поэтому при следующем запуске словарь не читается построчно.
+ * Файл пересобирается, если изменился список слов (время изменения, размер).
+ * Проверка слова - переходы по автомату без создания объектов.
+ *
+ * Формат (big-endian):
+ * заголовок - MAGIC, VERSION, время изменения и размер списка слов, флаги, число слов,
+ * смещение начального состояния, смещение индекса (0 - индекса нет);
+ * состояние - (число переходов << 1 | конечное), число слов от состояния,
+ * переходы (символ, смещение состояния) по возрастанию символа;
+ * индекс - число хэшей, записи (смещение хэша, длина хэша, смещение номеров, число номеров)
+ * по возрастанию хэша, символы хэшей, номера слов.
+ */
+public class CompiledDictionary {
+
+	public static final String EXTENSION = ".compiled"; //$NON-NLS-1$
+	private static final String FOLDER = "dictionaries"; //$NON-NLS-1$
+
+	private static final int MAGIC = 0x44495053;
+	private static final int VERSION = 1;
+	private static final int FLAG_PHONETIC_INDEX = 1;
+
+	private static final int HEADER_SIZE = 40;
+	private static final int MODIFIED_POSITION = 8;
+	private static final int SIZE_POSITION = 16;
+	private static final int FLAGS_POSITION = 24;
+	private static final int WORDS_POSITION = 28;
+	private static final int ROOT_POSITION = 32;
+	private static final int INDEX_POSITION = 36;
+
+	private static final int STATE_HEADER_SIZE = 8;
+	private static final int TRANSITION_SIZE = 6;
+	private static final int INDEX_ENTRY_SIZE = 16;
+
+	private static final Map<Path, CompiledDictionary> CACHE = new HashMap<>();
+
+	/**
+	 * Словарь для списка слов (общий для всех, кто открывает этот список)
+	 * @param wordList - список слов
+	 * @param phoneticHash - фонетическая функция для индекса, null - индекс не нужен
+	 */
+	public static synchronized CompiledDictionary open(Path wordList, Function<String, String> phoneticHash) throws IOException {
+		Path path = wordList.toAbsolutePath().normalize();
+		BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+		long modified = attributes.lastModifiedTime().toMillis();
+		long size = attributes.size();
+		boolean needIndex = phoneticHash != null;
+
+		CompiledDictionary dictionary = CACHE.get(path);
+		if (dictionary == null || !dictionary.isBuiltFor(modified, size, needIndex)) {
+			Path compiled = compiledPath(path);
+			ByteBuffer buffer = map(compiled);
+			if (buffer == null || !isBuiltFor(buffer, modified, size, needIndex)) {
+				buffer = compile(path, compiled, modified, size, phoneticHash);
+			}
+			dictionary = new CompiledDictionary(buffer);
+			CACHE.put(path, dictionary);
+		}
+		return dictionary;
+	}
+
+	/**
+	 * Файл скомпилированного словаря в каталоге состояния плагина
+	 * (в имени - хэш полного пути, списки с одинаковыми именами не пересекаются)
+	 */
+	private static Path compiledPath(Path wordList) {
+		String name = Integer.toHexString(wordList.toString().hashCode()) + "_" + wordList.getFileName() + EXTENSION; //$NON-NLS-1$
+		return ResourcesUtilities.metadataPluginPath(DipCorePlugin.getDefault(), FOLDER).resolve(name);
+	}
+
+	private static ByteBuffer map(Path compiled) {
+		if (!Files.exists(compiled)) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(compiled, StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_SIZE) {
+				return null;
+			}
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static boolean isBuiltFor(ByteBuffer buffer, long modified, long size, boolean needIndex) {
+		return buffer.getInt(0) == MAGIC
+				&& buffer.getInt(4) == VERSION
+				&& buffer.getLong(MODIFIED_POSITION) == modified
+				&& buffer.getLong(SIZE_POSITION) == size
+				&& (!needIndex || (buffer.getInt(FLAGS_POSITION) & FLAG_PHONETIC_INDEX) != 0);
+	}
+
+	private final ByteBuffer fBuffer;
+	private final int fRoot;
+	private final int fIndex;
+
+	private CompiledDictionary(ByteBuffer buffer) {
+		fBuffer = buffer;
+		fRoot = buffer.getInt(ROOT_POSITION);
+		fIndex = buffer.getInt(INDEX_POSITION);
+	}
+
+	private boolean isBuiltFor(long modified, long size, boolean needIndex) {
+		return isBuiltFor(fBuffer, modified, size, needIndex);
+	}
+
+	//=========================
+	// lookup
+
+	public boolean contains(CharSequence word) {
+		return contains(word, 0, word.length(), false);
+	}
+
+	/**
+	 * Есть ли в словаре слово text[start, end)
+	 * @param lowerCase - проверять слово в нижнем регистре
+	 */
+	public boolean contains(CharSequence text, int start, int end, boolean lowerCase) {
+		int state = fRoot;
+		for (int i = start; i < end; i++) {
+			char ch = text.charAt(i);
+			state = next(state, lowerCase ? Character.toLowerCase(ch) : ch);
+			if (state < 0) {
+				return false;
+			}
+		}
+		return isFinal(state);
+	}
+
+	public int size() {
+		return fBuffer.getInt(WORDS_POSITION);
+	}
+
+	public boolean hasPhoneticIndex() {
+		return fIndex != 0;
+	}
+
+	/**
+	 * Слова с заданным фонетическим хэшем (пустой список, если индекса нет)
+	 */
+	public List<String> getPhoneticCandidates(CharSequence hash) {
+		int entry = findHash(hash);
+		if (entry < 0) {
+			return Collections.emptyList();
+		}
+		int postings = fBuffer.getInt(entry + 8);
+		int count = fBuffer.getInt(entry + 12);
+		List<String> result = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			result.add(getWord(fBuffer.getInt(postings + i * 4)));
+		}
+		return result;
+	}
+
+	/**
+	 * Слово по номеру (слова пронумерованы по возрастанию)
+	 */
+	public String getWord(int number) {
+		StringBuilder builder = new StringBuilder();
+		int state = fRoot;
+		int rest = number;
+		while (true) {
+			if (isFinal(state)) {
+				if (rest == 0) {
+					return builder.toString();
+				}
+				rest--;
+			}
+			int count = transitionsCount(state);
+			int next = -1;
+			for (int i = 0; i < count; i++) {
+				int transition = state + STATE_HEADER_SIZE + i * TRANSITION_SIZE;
+				int target = fBuffer.getInt(transition + 2);
+				int words = fBuffer.getInt(target + 4);
+				if (rest < words) {
+					builder.append(fBuffer.getChar(transition));
+					next = target;
+					break;
+				}
+				rest -= words;
+			}
+			if (next < 0) {
+				return null;
+			}
+			state = next;
+		}
+	}
+
+	private boolean isFinal(int state) {
+		return (fBuffer.getInt(state) & 1) != 0;
+	}
+
+	private int transitionsCount(int state) {
+		return fBuffer.getInt(state) >>> 1;
+	}
+
+	/**
+	 * Переход по символу (двоичный поиск), -1 - перехода нет
+	 */
+	private int next(int state, char ch) {
+		int base = state + STATE_HEADER_SIZE;
+		int low = 0;
+		int high = transitionsCount(state) - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			char label = fBuffer.getChar(base + middle * TRANSITION_SIZE);
+			if (label < ch) {
+				low = middle + 1;
+			} else if (label > ch) {
+				high = middle - 1;
+			} else {
+				return fBuffer.getInt(base + middle * TRANSITION_SIZE + 2);
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Запись индекса для хэша (двоичный поиск), -1 - хэша нет
+	 */
+	private int findHash(CharSequence hash) {
+		if (fIndex == 0) {
+			return -1;
+		}
+		int base = fIndex + 4;
+		int low = 0;
+		int high = fBuffer.getInt(fIndex) - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int entry = base + middle * INDEX_ENTRY_SIZE;
+			int compare = compareHash(entry, hash);
+			if (compare < 0) {
+				low = middle + 1;
+			} else if (compare > 0) {
+				high = middle - 1;
+			} else {
+				return entry;
+			}
+		}
+		return -1;
+	}
+
+	private int compareHash(int entry, CharSequence hash) {
+		int offset = fBuffer.getInt(entry);
+		int length = fBuffer.getInt(entry + 4);
+		int min = Math.min(length, hash.length());
+		for (int i = 0; i < min; i++) {
+			char ch = fBuffer.getChar(offset + i * 2);
+			if (ch != hash.charAt(i)) {
+				return ch - hash.charAt(i);
+			}
+		}
+		return length - hash.length();
+	}
+
+	//=========================
+	// compile
+
+	/**
+	 * Состояние автомата при построении
+	 * Состояния с одинаковыми переходами объединяются (после добавления всех слов с этим префиксом)
+	 */
+	private static class Node {
+
+		private boolean fFinal;
+		private char[] fLabels = new char[0];
+		private Node[] fTargets = new Node[0];
+		private int fWords = -1;
+		private int fOffset = -1;
+
+		private void add(char label, Node target) {
+			int length = fLabels.length;
+			fLabels = Arrays.copyOf(fLabels, length + 1);
+			fTargets = Arrays.copyOf(fTargets, length + 1);
+			fLabels[length] = label;
+			fTargets[length] = target;
+		}
+
+		private void replaceLast(Node target) {
+			fTargets[fTargets.length - 1] = target;
+		}
+
+		@Override
+		public int hashCode() {
+			int result = fFinal ? 1 : 0;
+			result = 31 * result + Arrays.hashCode(fLabels);
+			for (Node target: fTargets) {
+				result = 31 * result + System.identityHashCode(target);
+			}
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Node)) {
+				return false;
+			}
+			Node other = (Node) obj;
+			if (fFinal != other.fFinal || !Arrays.equals(fLabels, other.fLabels)) {
+				return false;
+			}
+			for (int i = 0; i < fTargets.length; i++) {
+				if (fTargets[i] != other.fTargets[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	private static ByteBuffer compile(Path wordList, Path compiled, long modified, long size,
+			Function<String, String> phoneticHash) throws IOException {
+		TreeSet<String> words = readWords(wordList);
+		byte[] data = serialize(words, modified, size, phoneticHash);
+		Path temp = compiled.resolveSibling(compiled.getFileName() + ".tmp"); //$NON-NLS-1$
+		try {
+			Files.createDirectories(compiled.getParent());
+			Files.write(temp, data);
+			Files.move(temp, compiled, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			ByteBuffer buffer = map(compiled);
+			if (buffer != null) {
+				return buffer;
+			}
+		} catch (IOException e) {
+			// нет доступа к каталогу или старый файл занят - словарь остается в памяти
+			Files.deleteIfExists(temp);
+		}
+		return ByteBuffer.wrap(data).asReadOnlyBuffer();
+	}
+
+	private static TreeSet<String> readWords(Path wordList) throws IOException {
+		TreeSet<String> words = new TreeSet<>();
+		CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+		decoder.onMalformedInput(CodingErrorAction.REPLACE);
+		decoder.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(wordList), decoder))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				// строки с ошибками кодировки пропускаются, как при построчном чтении словаря
+				if (!line.isEmpty() && line.indexOf('\uFFFD') < 0) {
+					words.add(line);
+				}
+			}
+		}
+		return words;
+	}
+
+	private static byte[] serialize(TreeSet<String> words, long modified, long size,
+			Function<String, String> phoneticHash) throws IOException {
+		Node root = buildAutomaton(words);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		// заголовок заполняется после записи данных
+		out.write(new byte[HEADER_SIZE]);
+		writeState(root, out);
+		int index = 0;
+		if (phoneticHash != null) {
+			index = out.size();
+			writeIndex(words, phoneticHash, out);
+		}
+		out.flush();
+		ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+		buffer.putInt(0, MAGIC);
+		buffer.putInt(4, VERSION);
+		buffer.putLong(MODIFIED_POSITION, modified);
+		buffer.putLong(SIZE_POSITION, size);
+		buffer.putInt(FLAGS_POSITION, phoneticHash != null ? FLAG_PHONETIC_INDEX : 0);
+		buffer.putInt(WORDS_POSITION, words.size());
+		buffer.putInt(ROOT_POSITION, root.fOffset);
+		buffer.putInt(INDEX_POSITION, index);
+		return buffer.array();
+	}
+
+	/**
+	 * Минимальный автомат по отсортированным словам (инкрементальное построение):
+	 * после каждого слова состояния, не входящие в общий префикс со следующим словом,
+	 * заменяются эквивалентными из реестра
+	 */
+	private static Node buildAutomaton(TreeSet<String> words) {
+		Map<Node, Node> register = new HashMap<>();
+		List<Node> path = new ArrayList<>();
+		Node root = new Node();
+		path.add(root);
+		String previous = ""; //$NON-NLS-1$
+		for (String word: words) {
+			int prefix = 0;
+			int max = Math.min(previous.length(), word.length());
+			while (prefix < max && previous.charAt(prefix) == word.charAt(prefix)) {
+				prefix++;
+			}
+			minimize(path, prefix, register);
+			for (int i = prefix; i < word.length(); i++) {
+				Node node = new Node();
+				path.get(i).add(word.charAt(i), node);
+				path.add(node);
+			}
+			path.get(word.length()).fFinal = true;
+			previous = word;
+		}
+		minimize(path, 0, register);
+		return root;
+	}
+
+	private static void minimize(List<Node> path, int prefix, Map<Node, Node> register) {
+		for (int i = path.size() - 1; i > prefix; i--) {
+			Node node = path.remove(i);
+			Node registered = register.putIfAbsent(node, node);
+			if (registered != null) {
+				path.get(i - 1).replaceLast(registered);
+			}
+		}
+	}
+
+	/**
+	 * Запись состояний (дочерние раньше родительских), возвращает число слов от состояния
+	 */
+	private static int writeState(Node node, DataOutputStream out) throws IOException {
+		if (node.fOffset >= 0) {
+			return node.fWords;
+		}
+		int words = node.fFinal ? 1 : 0;
+		for (Node target: node.fTargets) {
+			words += writeState(target, out);
+		}
+		node.fWords = words;
+		node.fOffset = out.size();
+		out.writeInt(node.fLabels.length << 1 | (node.fFinal ? 1 : 0));
+		out.writeInt(words);
+		for (int i = 0; i < node.fLabels.length; i++) {
+			out.writeChar(node.fLabels[i]);
+			out.writeInt(node.fTargets[i].fOffset);
+		}
+		return words;
+	}
+
+	private static void writeIndex(TreeSet<String> words, Function<String, String> phoneticHash, DataOutputStream out) throws IOException {
+		TreeMap<String, List<Integer>> hashes = new TreeMap<>();
+		int number = 0;
+		for (String word: words) {
+			hashes.computeIfAbsent(phoneticHash.apply(word), hash -> new ArrayList<>()).add(number++);
+		}
+		int entries = out.size() + 4;
+		int keys = entries + hashes.size() * INDEX_ENTRY_SIZE;
+		int postings = keys;
+		for (String hash: hashes.keySet()) {
+			postings += hash.length() * 2;
+		}
+		out.writeInt(hashes.size());
+		int keyOffset = keys;
+		int postingsOffset = postings;
+		for (Entry<String, List<Integer>> entry: hashes.entrySet()) {
+			out.writeInt(keyOffset);
+			out.writeInt(entry.getKey().length());
+			out.writeInt(postingsOffset);
+			out.writeInt(entry.getValue().size());
+			keyOffset += entry.getKey().length() * 2;
+			postingsOffset += entry.getValue().size() * 4;
+		}
+		for (String hash: hashes.keySet()) {
+			out.writeChars(hash);
+		}
+		for (List<Integer> numbers: hashes.values()) {
+			for (int wordNumber: numbers) {
+				out.writeInt(wordNumber);
+			}
+		}
+	}
+
+}
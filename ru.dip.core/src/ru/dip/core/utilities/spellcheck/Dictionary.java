@@ -14,18 +14,14 @@
 package ru.dip.core.utilities.spellcheck;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.swt.graphics.Point;
@@ -33,20 +29,19 @@ import org.eclipse.swt.graphics.Point;
 import ru.dip.core.DipCorePlugin;
 import ru.dip.core.model.DipUnit;
 import ru.dip.core.model.interfaces.IDipParent;
-import ru.dip.core.model.interfaces.IDipDocumentElement;
 import ru.dip.core.unit.UnitType;
 import ru.dip.core.utilities.FileUtilities;
 import ru.dip.core.utilities.TagStringUtilities;
 
 public class Dictionary {
 
-	private static final String REGEX = "\\b\\w+\\b";
+	private static final Pattern WORD_PATTERN = Pattern.compile("\\b\\w+\\b", Pattern.UNICODE_CHARACTER_CLASS);
 	private static final String pluginID = "ru.dip.text.spelling";
 	private static final String PREF_DICTIONARY = "_pref_dictionary";
 
 	private static Dictionary instance;
 
-	public static Dictionary instance() {
+	public static synchronized Dictionary instance() {
 		if (instance == null) {
 			instance = new Dictionary();
 		}
@@ -55,7 +50,10 @@ public class Dictionary {
 
 	private String fDictionaryPath;
 	private FileTime fLastModifiedTime;
-	private Set<String> dictionary = new HashSet<>();
+	// null - словаря нет
+	private CompiledDictionary fDictionary;
+	// изменяется при каждой смене словаря (для кэша результатов проверки)
+	private volatile int fVersion;
 
 	private Dictionary() {
 		fDictionaryPath = getDictionaryPathPref();
@@ -83,9 +81,8 @@ public class Dictionary {
 			return;
 		}
 		try {
-			dictionary = Files.readAllLines(path, StandardCharsets.UTF_8)
-					.parallelStream()
-					.collect(Collectors.toSet());
+			fDictionary = CompiledDictionary.open(path, null);
+			fVersion++;
 			fLastModifiedTime = Files.getLastModifiedTime(path);
 		} catch (IOException e) {
 			e.printStackTrace();
@@ -95,11 +92,11 @@ public class Dictionary {
 	// ========================
 	// modified dictionary
 
-	public void checkDictionaryUpdate() {
+	public synchronized void checkDictionaryUpdate() {
 		String dictionaryPath = getDictionaryPathPref();
 		if (dictionaryPath == null || dictionaryPath.isEmpty()) {
 			if (fDictionaryPath != null && !fDictionaryPath.isEmpty()) {
-				dictionary = new HashSet<String>();
+				setEmpty();
 			}
 			return;
 		}
@@ -112,8 +109,9 @@ public class Dictionary {
 				readDictionary();
 			}
 		} else {
+			fDictionaryPath = dictionaryPath;
 			if (!checkPath(fDictionaryPath)) {
-				dictionary = new HashSet<String>();
+				setEmpty();
 				return;
 			} else {
 				readDictionary();
@@ -121,6 +119,17 @@ public class Dictionary {
 		}
 	}
 
+	private void setEmpty() {
+		if (fDictionary != null) {
+			fDictionary = null;
+			fVersion++;
+		}
+	}
+
+	public int version() {
+		return fVersion;
+	}
+
 	private boolean isTimeModified() {
 		Path path = Paths.get(fDictionaryPath);
 		try {
@@ -138,14 +147,21 @@ public class Dictionary {
 	// ==============================
 	// check spelling
 
+	/**
+	 * Есть ли в словаре слово text[start, end) в нижнем регистре
+	 */
+	private boolean contains(String text, int start, int end) {
+		CompiledDictionary dictionary = fDictionary;
+		return dictionary != null && dictionary.contains(text, start, end, true);
+	}
+
 	public List<Point> checkText(String text) {
 		List<Point> result = new ArrayList<>();
-		Pattern pattern = Pattern.compile(REGEX, Pattern.UNICODE_CHARACTER_CLASS);
-		Matcher matcher = pattern.matcher(text);
+		Matcher matcher = WORD_PATTERN.matcher(text);
 		int start = 0;
 		while (matcher.find(start)) {
-			String group = matcher.group();
-			if (!dictionary.contains(group.toLowerCase())) {
+			if (!contains(text, matcher.start(), matcher.end())) {
+				String group = matcher.group();
 				if (!group.toUpperCase().equals(group) && TagStringUtilities.isRussianLetters(group)) {
 					Point p = new Point(matcher.start(), matcher.end() - matcher.start());
 					result.add(p);
@@ -156,22 +172,11 @@ public class Dictionary {
 		return result;
 	}
 
+	/**
+	 * Проверка всех элементов (с кэшем результатов, см. SpellCheckService)
+	 */
 	public List<SpellCheckError> checkDipParent(IDipParent parent) {
-		List<SpellCheckError> result = new ArrayList<>();
-		for (IDipDocumentElement dipDocElement : parent.getDipDocChildrenList()) {
-			if (dipDocElement instanceof IDipParent) {
-				List<SpellCheckError> errors = checkDipParent((IDipParent) dipDocElement);
-				if (errors != null) {
-					result.addAll(errors);
-				}
-			} else if (dipDocElement instanceof DipUnit) {
-				List<SpellCheckError> errors = checkDipUnit((DipUnit) dipDocElement);
-				if (errors != null) {
-					result.addAll(errors);
-				}
-			}
-		}
-		return result;
+		return SpellCheckService.instance().check(parent, null, null);
 	}
 
 	public List<SpellCheckError> checkDipUnit(DipUnit unit) {
@@ -190,14 +195,20 @@ public class Dictionary {
 
 	public List<SpellCheckError> spellCheckText(DipUnit unit) throws IOException {
 		String text = FileUtilities.readFile(unit.resource());
+		return spellCheckText(unit, text);
+	}
+
+	/**
+	 * Ошибки в тексте элемента
+	 */
+	public List<SpellCheckError> spellCheckText(DipUnit unit, String text) {
 		List<SpellCheckError> result = new ArrayList<>();
-		Pattern pattern = Pattern.compile(REGEX, Pattern.UNICODE_CHARACTER_CLASS);
-		Matcher matcher = pattern.matcher(text);
+		Matcher matcher = WORD_PATTERN.matcher(text);
 		int start = 0;
 		while (matcher.find(start)) {
-			String group = matcher.group();
-			if (!dictionary.contains(group.toLowerCase()) && TagStringUtilities.isRussianLetters(group)) {
-				if (!group.toUpperCase().equals(group)) {
+			if (!contains(text, matcher.start(), matcher.end())) {
+				String group = matcher.group();
+				if (TagStringUtilities.isRussianLetters(group) && !group.toUpperCase().equals(group)) {
 					Point p = new Point(matcher.start(), matcher.end() - matcher.start());
 					SpellCheckError error = new SpellCheckError(unit, group, p);
 					result.add(error);
@@ -0,0 +1,355 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.core.utilities.spellcheck;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.swt.graphics.Point;
+
+import ru.dip.core.DipCorePlugin;
+import ru.dip.core.model.DipUnit;
+import ru.dip.core.model.interfaces.IDipDocumentElement;
+import ru.dip.core.model.interfaces.IDipParent;
+import ru.dip.core.utilities.FileUtilities;
+
+/**
+ * Проверка орфографии с кэшем результатов
+ *
+ * Результат элемента хранится вместе с SHA-1 текста и версией словаря.
+ * По изменениям ресурсов (IResourceChangeListener) результаты измененных файлов помечаются устаревшими,
+ * при следующей проверке перечитываются только они (если текст не изменился - результат остается).
+ * Устаревшие элементы проверяются в пуле потоков, результаты передаются по мере готовности.
+ * Для текста таблицы (SpellErrorsPoints) - отдельный кэш по тексту.
+ */
+public class SpellCheckService {
+
+	private static final int PARALLEL_THRESHOLD = 16;
+	// суммарная длина (символов) текстов, результаты для которых хранятся в кэше
+	private static final int MAX_TEXT_RESULTS_LENGTH = 4 * 1024 * 1024;
+	private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+	private static SpellCheckService instance;
+
+	public static synchronized SpellCheckService instance() {
+		if (instance == null) {
+			instance = new SpellCheckService();
+		}
+		return instance;
+	}
+
+	/**
+	 * Снять слушатель ресурсов и сбросить кэш (остановка плагина)
+	 */
+	public static synchronized void dispose() {
+		if (instance != null) {
+			ResourcesPlugin.getWorkspace().removeResourceChangeListener(instance.fListener);
+			instance = null;
+		}
+	}
+
+	/**
+	 * Результат проверки файла
+	 */
+	private static class UnitResult {
+
+		private final byte[] fDigest;
+		private final int fVersion;
+		private final List<SpellCheckError> fErrors;
+		private volatile boolean fStale;
+
+		private UnitResult(byte[] digest, int version, List<SpellCheckError> errors) {
+			fDigest = digest;
+			fVersion = version;
+			fErrors = errors;
+		}
+
+		private boolean isTextEquals(byte[] digest) {
+			return MessageDigest.isEqual(fDigest, digest);
+		}
+
+		/**
+		 * Ошибки для элемента (элемент модели может быть создан заново для того же файла)
+		 */
+		private List<SpellCheckError> errors(DipUnit unit) {
+			if (fErrors.isEmpty() || fErrors.get(0).source() == unit) {
+				return fErrors;
+			}
+			List<SpellCheckError> result = new ArrayList<>(fErrors.size());
+			for (SpellCheckError error: fErrors) {
+				result.add(new SpellCheckError(unit, error.error(), error.location()));
+			}
+			return result;
+		}
+	}
+
+	private final Map<IFile, UnitResult> fResults = new ConcurrentHashMap<>();
+	// SHA-1 текста -> ошибки (для версии словаря fTextVersion)
+	private final Map<ByteBuffer, TextResult> fTextResults = new LinkedHashMap<>(16, 0.75f, true);
+	private long fTextResultsLength;
+	private int fTextVersion;
+	private final IResourceChangeListener fListener = this::resourceChanged;
+
+	private SpellCheckService() {
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(fListener, IResourceChangeEvent.POST_CHANGE);
+	}
+
+	private void resourceChanged(IResourceChangeEvent event) {
+		if (fResults.isEmpty() || event.getDelta() == null) {
+			return;
+		}
+		try {
+			event.getDelta().accept(delta -> {
+				IResource resource = delta.getResource();
+				if (resource.getType() != IResource.FILE) {
+					return true;
+				}
+				if (delta.getKind() == IResourceDelta.REMOVED) {
+					fResults.remove(resource);
+				} else if ((delta.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED)) != 0) {
+					UnitResult result = fResults.get(resource);
+					if (result != null) {
+						result.fStale = true;
+					}
+				}
+				return false;
+			});
+		} catch (CoreException e) {
+			fResults.clear();
+		}
+	}
+
+	//=========================
+	// project
+
+	/**
+	 * Проверка всех элементов
+	 * @param monitor - может быть null, при отмене - OperationCanceledException
+	 * @param consumer - ошибки элемента по мере готовности (из рабочих потоков), может быть null
+	 * @return ошибки в порядке элементов
+	 */
+	public List<SpellCheckError> check(IDipParent parent, IProgressMonitor monitor, Consumer<List<SpellCheckError>> consumer) {
+		Dictionary dictionary = Dictionary.instance();
+		dictionary.checkDictionaryUpdate();
+		int version = dictionary.version();
+
+		List<DipUnit> units = new ArrayList<>();
+		collect(parent, units);
+		List<List<SpellCheckError>> errors = new ArrayList<>(Collections.nCopies(units.size(), null));
+		List<Integer> changed = new ArrayList<>();
+		for (int i = 0; i < units.size(); i++) {
+			List<SpellCheckError> cached = getCached(units.get(i), version);
+			if (cached != null) {
+				errors.set(i, cached);
+				accept(consumer, cached);
+			} else {
+				changed.add(i);
+			}
+		}
+
+		Consumer<Integer> checkUnit = i -> {
+			if (monitor != null && monitor.isCanceled()) {
+				return;
+			}
+			List<SpellCheckError> unitErrors = check(units.get(i), version);
+			errors.set(i, unitErrors);
+			accept(consumer, unitErrors);
+		};
+		if (changed.size() < PARALLEL_THRESHOLD) {
+			changed.forEach(checkUnit);
+		} else {
+			try {
+				POOL.submit(() -> IntStream.range(0, changed.size()).parallel().forEach(i -> checkUnit.accept(changed.get(i)))).get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+		if (monitor != null && monitor.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+
+		List<SpellCheckError> result = new ArrayList<>();
+		for (List<SpellCheckError> unitErrors: errors) {
+			if (unitErrors != null) {
+				result.addAll(unitErrors);
+			}
+		}
+		return result;
+	}
+
+	private void collect(IDipParent parent, List<DipUnit> units) {
+		for (IDipDocumentElement dipDocElement : parent.getDipDocChildrenList()) {
+			if (dipDocElement instanceof IDipParent) {
+				collect((IDipParent) dipDocElement, units);
+			} else if (dipDocElement instanceof DipUnit) {
+				DipUnit unit = (DipUnit) dipDocElement;
+				if (unit.getUnitType().isSpellCheckingSupport()) {
+					units.add(unit);
+				}
+			}
+		}
+	}
+
+	private void accept(Consumer<List<SpellCheckError>> consumer, List<SpellCheckError> errors) {
+		if (consumer != null && !errors.isEmpty()) {
+			consumer.accept(errors);
+		}
+	}
+
+	/**
+	 * Ошибки из кэша без чтения файла, null - результата нет или он устарел
+	 */
+	private List<SpellCheckError> getCached(DipUnit unit, int version) {
+		UnitResult result = fResults.get(unit.resource());
+		if (result == null || result.fStale || result.fVersion != version) {
+			return null;
+		}
+		return result.errors(unit);
+	}
+
+	/**
+	 * Проверка элемента: файл перечитывается, если текст тот же - результат из кэша
+	 */
+	private List<SpellCheckError> check(DipUnit unit, int version) {
+		IFile file = unit.resource();
+		long stamp = file.getModificationStamp();
+		String text;
+		try {
+			text = FileUtilities.readFile(file);
+		} catch (IOException e) {
+			DipCorePlugin.logError(e, "Ошибка проверки орфографии");
+			return Collections.emptyList();
+		}
+		if (text == null) {
+			fResults.remove(file);
+			return Collections.emptyList();
+		}
+		byte[] digest = digest(text);
+		UnitResult result = fResults.get(file);
+		if (result == null || result.fVersion != version || !result.isTextEquals(digest)) {
+			result = new UnitResult(digest, version, Dictionary.instance().spellCheckText(unit, text));
+			fResults.put(file, result);
+		}
+		// файл мог измениться во время чтения
+		result.fStale = stamp != file.getModificationStamp();
+		return result.errors(unit);
+	}
+
+	private static byte[] digest(String text) {
+		try {
+			return MessageDigest.getInstance("SHA-1").digest(text.getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$
+		} catch (NoSuchAlgorithmException e) {
+			// SHA-1 есть в любой JRE
+			throw new IllegalStateException(e);
+		}
+	}
+
+	//=========================
+	// text
+
+	/**
+	 * Ошибки в тексте (для представления в таблице)
+	 */
+	public List<Point> checkText(String text) {
+		int version = Dictionary.instance().version();
+		ByteBuffer key = ByteBuffer.wrap(digest(text));
+		synchronized (fTextResults) {
+			if (fTextVersion != version) {
+				fTextResults.clear();
+				fTextResultsLength = 0;
+				fTextVersion = version;
+			}
+			TextResult result = fTextResults.get(key);
+			if (result != null) {
+				return copy(result.fPoints);
+			}
+		}
+		List<Point> points = Dictionary.instance().checkText(text);
+		synchronized (fTextResults) {
+			if (fTextVersion == version) {
+				TextResult old = fTextResults.put(key, new TextResult(copy(points), text.length()));
+				if (old != null) {
+					fTextResultsLength -= old.fLength;
+				}
+				fTextResultsLength += text.length();
+				trimTextResults();
+			}
+		}
+		return points;
+	}
+
+	/**
+	 * Удаляет давно не использованные результаты, пока суммарная длина текстов больше MAX_TEXT_RESULTS_LENGTH
+	 */
+	private void trimTextResults() {
+		Iterator<TextResult> iterator = fTextResults.values().iterator();
+		while (fTextResultsLength > MAX_TEXT_RESULTS_LENGTH && iterator.hasNext()) {
+			fTextResultsLength -= iterator.next().fLength;
+			iterator.remove();
+		}
+	}
+
+	private static class TextResult {
+
+		private final List<Point> fPoints;
+		private final int fLength;
+
+		TextResult(List<Point> points, int length) {
+			fPoints = points;
+			fLength = length;
+		}
+
+	}
+
+	/**
+	 * Point изменяемый, поэтому в кэше и наружу - разные экземпляры
+	 */
+	private static List<Point> copy(List<Point> points) {
+		List<Point> result = new ArrayList<>(points.size());
+		for (Point point: points) {
+			result.add(new Point(point.x, point.y));
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,142 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.core.utilities.text;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Автомат Ахо-Корасик для одновременного поиска множества строк
+ * Строится один раз, после построения неизменяемый (можно использовать из нескольких потоков)
+ */
+public class AhoCorasick {
+
+	private static class Node {
+		private final Map<Character, Node> fNext = new HashMap<>();
+		private Node fFail;
+		// номера строк, которые заканчиваются в этом узле (с учетом fail-ссылок)
+		private int[] fOutput = new int[0];
+	}
+
+	private final Node fRoot = new Node();
+	private final int fSize;
+
+	public AhoCorasick(List<String> patterns) {
+		fSize = patterns.size();
+		for (int i = 0; i < patterns.size(); i++) {
+			addPattern(patterns.get(i), i);
+		}
+		buildFailLinks();
+	}
+
+	private void addPattern(String pattern, int index) {
+		Node node = fRoot;
+		for (int i = 0; i < pattern.length(); i++) {
+			node = node.fNext.computeIfAbsent(pattern.charAt(i), c -> new Node());
+		}
+		node.fOutput = append(node.fOutput, index);
+	}
+
+	private void buildFailLinks() {
+		ArrayDeque<Node> queue = new ArrayDeque<>();
+		for (Node child: fRoot.fNext.values()) {
+			child.fFail = fRoot;
+			queue.add(child);
+		}
+		while (!queue.isEmpty()) {
+			Node node = queue.poll();
+			for (Map.Entry<Character, Node> entry: node.fNext.entrySet()) {
+				char ch = entry.getKey();
+				Node child = entry.getValue();
+				Node fail = node.fFail;
+				while (fail != null && !fail.fNext.containsKey(ch)) {
+					fail = fail.fFail;
+				}
+				child.fFail = fail == null ? fRoot : fail.fNext.get(ch);
+				for (int index: child.fFail.fOutput) {
+					child.fOutput = append(child.fOutput, index);
+				}
+				queue.add(child);
+			}
+		}
+	}
+
+	private static int[] append(int[] array, int value) {
+		int[] result = new int[array.length + 1];
+		System.arraycopy(array, 0, result, 0, array.length);
+		result[array.length] = value;
+		return result;
+	}
+
+	private Node step(Node node, char ch) {
+		while (node != fRoot && !node.fNext.containsKey(ch)) {
+			node = node.fFail;
+		}
+		Node next = node.fNext.get(ch);
+		return next == null ? fRoot : next;
+	}
+
+	/**
+	 * Содержит ли текст хотя бы одну из строк
+	 */
+	public boolean containsAny(CharSequence text) {
+		Node node = fRoot;
+		for (int i = 0; i < text.length(); i++) {
+			node = step(node, text.charAt(i));
+			if (node.fOutput.length > 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Номера строк, которые встречаются в тексте
+	 */
+	public BitSet findAll(CharSequence text) {
+		BitSet result = new BitSet(fSize);
+		Node node = fRoot;
+		for (int i = 0; i < text.length(); i++) {
+			node = step(node, text.charAt(i));
+			for (int index: node.fOutput) {
+				result.set(index);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Позиции вхождений: для каждого вхождения - {номер строки, позиция конца (не включая)}
+	 */
+	public List<int[]> findMatches(CharSequence text) {
+		List<int[]> result = new ArrayList<>();
+		Node node = fRoot;
+		for (int i = 0; i < text.length(); i++) {
+			node = step(node, text.charAt(i));
+			for (int index: node.fOutput) {
+				result.add(new int[] {index, i + 1});
+			}
+		}
+		return result;
+	}
+
+	public int size() {
+		return fSize;
+	}
+
+}
@@ -93,6 +93,35 @@ public class TermRegexBuilder {
 		fRegex = buildWord();
 	}
 	
+	/**
+	 * Самая длинная неизменная часть термина (основа слова без окончания, аббревиатура), 
+	 * которая обязательно есть в тексте при совпадении с регулярным выражением.
+	 * Для первого слова первая буква не учитывается (может быть в любом регистре)
+	 * null - если такой части нет
+	 */
+	public String getRequiredLiteral() {
+		if (fWords.isEmpty()) {
+			computeWords();
+		}
+		String result = null;
+		for (int i = 0; i < fWords.size(); i++) {
+			if (fTypes.get(i) == Type.SPACE) {
+				continue;
+			}
+			String stem = fWords.get(i);
+			if (fTypes.get(i) == Type.WORD) {
+				stem = getWordStem(stem);
+				if (i == 0) {
+					stem = stem.substring(1);
+				}
+			}
+			if (result == null || stem.length() > result.length()) {
+				result = stem;
+			}
+		}
+		return result == null || result.isEmpty() ? null : result;
+	}
+	
 	private void computeWords() {
 		char[] chars = fOriginal.toCharArray();
 		boolean currentIsLetter = false;
@@ -189,6 +218,21 @@ public class TermRegexBuilder {
 	}
 	
 	private String getWordRegex(String word) {
+		if (word.length() < 3) {
+			return word;				
+		}		
+		char last = word.charAt(word.length() - 1);
+		if (isVowelLetter(last)) {
+			return getWordStem(word) + "\\S{0,3}";
+		} else {
+			return word + "\\S{0,2}";
+		}
+	}
+	
+	/**
+	 * Основа слова (без гласных окончаний)
+	 */
+	private String getWordStem(String word) {
 		if (word.length() < 3) {
 			return word;				
 		}		
@@ -196,13 +240,12 @@ public class TermRegexBuilder {
 		if (isVowelLetter(last)) {
 			char preLast = word.charAt(word.length() - 2);
 			if (isVowelLetter(preLast)) {
-				return word.substring(0, word.length() - 2) + "\\S{0,3}";
+				return word.substring(0, word.length() - 2);
 			} else {
-				return word.substring(0, word.length() - 1) + "\\S{0,3}";
+				return word.substring(0, word.length() - 1);
 			}																
-		} else {
-			return word + "\\S{0,2}";
 		}
+		return word;
 	}
 		
 	private String firstLetterRegex(char ch) {
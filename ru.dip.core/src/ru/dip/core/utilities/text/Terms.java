@@ -53,6 +53,14 @@ public class Terms {
 		return builder.getRegex();
 	}
 
+	/**
+	 * Неизменная часть термина, обязательная при совпадении с createRegexForWord (для предварительного фильтра)
+	 */
+	public static String createRequiredLiteral(String word) {
+		TermRegexBuilder builder = new TermRegexBuilder(word);
+		return builder.getRequiredLiteral();
+	}
+
 	/**
 	 * Поиск аббревиатур
 	 */
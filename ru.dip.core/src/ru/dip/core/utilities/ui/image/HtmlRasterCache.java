@@ -0,0 +1,277 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.core.utilities.ui.image;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.widgets.Display;
+
+import ru.dip.core.DipCorePlugin;
+
+/**
+ * Кэш растровых изображений html (HtmlUnitPresentation, TableUnitPresentation)
+ *
+ * Ключ - содержимое html (без учета ширины) и ширина, округленная до WIDTH_STEP.
+ * Хранятся ImageData (не Image), поэтому растеризация выполняется в фоне,
+ * а каждый потребитель создает и освобождает свой Image.
+ * Вес оценивается по размеру растра, при превышении удаляются давно не использованные (LRU).
+ * Фоновая отрисовка - один поток (растеризация через Swing выполняется по одной, см.
+ * ImageUtilities.createImageDataFromHtml), для одного содержимого выполняется
+ * только последняя запрошенная ширина (при изменении ширины колонки промежуточные пропускаются).
+ */
+public class HtmlRasterCache {
+
+	private static final int WIDTH_STEP = 8;
+	private static final long MAX_WEIGHT = 64L * 1024L * 1024L;
+
+	private static HtmlRasterCache instance;
+
+	public static synchronized HtmlRasterCache instance() {
+		if (instance == null) {
+			instance = new HtmlRasterCache();
+		}
+		return instance;
+	}
+
+	/**
+	 * Ширина, для которой выполняется растеризация
+	 */
+	public static int bucket(int width) {
+		return Math.max(WIDTH_STEP, width - width % WIDTH_STEP);
+	}
+
+	private static final class Key {
+
+		private final String fContent;
+		private final int fWidth;
+
+		private Key(String content, int width) {
+			fContent = content;
+			fWidth = width;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * fContent.hashCode() + fWidth;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return fWidth == other.fWidth && fContent.equals(other.fContent);
+		}
+	}
+
+	private final ExecutorService fExecutor;
+	// порядок доступа - первым идет давно не использованный
+	private final LinkedHashMap<Key, ImageData> fRasters = new LinkedHashMap<>(64, 0.75f, true);
+	// ширины растров по содержимому (для поиска ближайшей)
+	private final Map<String, TreeMap<Integer, Key>> fWidths = new HashMap<>();
+	private long fWeight = 0;
+	// отрисовка в процессе
+	private final Map<Key, CompletableFuture<ImageData>> fPending = new ConcurrentHashMap<>();
+	// последняя запрошенная (в фоне) ширина для содержимого
+	private final Map<String, Integer> fRequested = new ConcurrentHashMap<>();
+
+	private HtmlRasterCache() {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), runnable -> {
+					Thread thread = new Thread(runnable, "Html render");
+					thread.setDaemon(true);
+					return thread;
+				});
+		executor.allowCoreThreadTimeOut(true);
+		fExecutor = executor;
+	}
+
+	//==========================
+	// cache
+
+	/**
+	 * Растр для ширины bucket(width) или null, если еще не отрисован
+	 */
+	public synchronized ImageData getCached(String content, int width) {
+		return fRasters.get(new Key(content, bucket(width)));
+	}
+
+	/**
+	 * Растр того же содержимого с ближайшей шириной или null
+	 */
+	public synchronized ImageData getNearest(String content, int width) {
+		TreeMap<Integer, Key> widths = fWidths.get(content);
+		if (widths == null) {
+			return null;
+		}
+		int bucket = bucket(width);
+		Integer floor = widths.floorKey(bucket);
+		Integer ceiling = widths.ceilingKey(bucket);
+		Integer nearest;
+		if (floor == null) {
+			nearest = ceiling;
+		} else if (ceiling == null) {
+			nearest = floor;
+		} else {
+			nearest = bucket - floor <= ceiling - bucket ? floor : ceiling;
+		}
+		return nearest == null ? null : fRasters.get(widths.get(nearest));
+	}
+
+	/**
+	 * Растр из кэша, если нет - отрисовка в текущем потоке (просмотр изображений, первое отображение)
+	 * @param html - html для указанной ширины
+	 */
+	public ImageData getRaster(String content, int width, IntFunction<String> html) {
+		Key key = new Key(content, bucket(width));
+		ImageData cached;
+		synchronized (this) {
+			cached = fRasters.get(key);
+		}
+		if (cached != null) {
+			return cached;
+		}
+		CompletableFuture<ImageData> pending = fPending.get(key);
+		if (pending != null) {
+			ImageData data = pending.join();
+			if (data != null) {
+				return data;
+			}
+		}
+		return render(key, html);
+	}
+
+	/**
+	 * Отрисовка в фоне, onReady вызывается в UI-потоке после успешной отрисовки
+	 * Если до начала отрисовки для того же содержимого запрошена другая ширина - задача пропускается
+	 */
+	public void renderAsync(String content, int width, IntFunction<String> html, Runnable onReady) {
+		Key key = new Key(content, bucket(width));
+		fRequested.put(content, key.fWidth);
+		CompletableFuture<ImageData> future = new CompletableFuture<>();
+		CompletableFuture<ImageData> pending = fPending.putIfAbsent(key, future);
+		if (pending == null) {
+			fExecutor.execute(() -> {
+				ImageData data = null;
+				try {
+					if (Integer.valueOf(key.fWidth).equals(fRequested.get(content))) {
+						data = render(key, html);
+					}
+				} finally {
+					fRequested.remove(content, key.fWidth);
+					fPending.remove(key);
+					future.complete(data);
+				}
+			});
+			pending = future;
+		}
+		pending.thenAccept(data -> {
+			if (data != null) {
+				Display display = Display.getDefault();
+				if (display != null && !display.isDisposed()) {
+					display.asyncExec(onReady);
+				}
+			}
+		});
+	}
+
+	private ImageData render(Key key, IntFunction<String> html) {
+		try {
+			String text = html.apply(key.fWidth);
+			if (text == null) {
+				return null;
+			}
+			ImageData data = ImageUtilities.createImageDataFromHtml(text);
+			if (data != null) {
+				put(key, data);
+			}
+			return data;
+		} catch (Exception e) {
+			DipCorePlugin.logError(e, "Render html error");
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+	private synchronized void put(Key key, ImageData data) {
+		ImageData old = fRasters.put(key, data);
+		if (old != null) {
+			fWeight -= weight(key, old);
+		}
+		fWeight += weight(key, data);
+		fWidths.computeIfAbsent(key.fContent, content -> new TreeMap<>()).put(key.fWidth, key);
+		evict(key);
+	}
+
+	private void evict(Key current) {
+		Iterator<Map.Entry<Key, ImageData>> iterator = fRasters.entrySet().iterator();
+		while (fWeight > MAX_WEIGHT && iterator.hasNext()) {
+			Map.Entry<Key, ImageData> entry = iterator.next();
+			Key key = entry.getKey();
+			if (key.equals(current)) {
+				continue;
+			}
+			iterator.remove();
+			fWeight -= weight(key, entry.getValue());
+			TreeMap<Integer, Key> widths = fWidths.get(key.fContent);
+			if (widths != null) {
+				widths.remove(key.fWidth);
+				if (widths.isEmpty()) {
+					fWidths.remove(key.fContent);
+				}
+			}
+		}
+	}
+
+	private static long weight(Key key, ImageData data) {
+		long weight = (long) data.bytesPerLine * data.height + key.fContent.length() * 2L;
+		if (data.alphaData != null) {
+			weight += data.alphaData.length;
+		}
+		return weight;
+	}
+
+	public synchronized void clear() {
+		fRasters.clear();
+		fWidths.clear();
+		fWeight = 0;
+	}
+
+	public synchronized int size() {
+		return fRasters.size();
+	}
+
+	public synchronized long weight() {
+		return fWeight;
+	}
+
+	public void dispose() {
+		fExecutor.shutdownNow();
+		clear();
+	}
+
+}
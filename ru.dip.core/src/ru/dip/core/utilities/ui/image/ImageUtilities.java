@@ -35,6 +35,9 @@ import org.eclipse.swt.widgets.Display;
 
 public class ImageUtilities {
 	
+	// растеризация html через Swing (createImageDataFromHtml)
+	private static final Object HTML_RENDER_LOCK = new Object();
+	
 	/**
 	 * 
 	 * Старое изображение не освобождается!!!
@@ -96,17 +99,10 @@ public class ImageUtilities {
 	}
 	
 	public  static Image createImageFromHtml(String HTML) {
-		JEditorPane jep = new JEditorPane("text/html", HTML);
-		Dimension dim = jep.getPreferredSize();
-		BufferedImage image = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
-				.getDefaultConfiguration().createCompatibleImage(dim.width, dim.height);					
-		Graphics graphics = image.createGraphics();
-		jep.setSize(dim.width, dim.height);
-		jep.print(graphics);	
-		ImageData imageData = convertToSWT(image);
-		jep.setEnabled(false);
-		jep.setVisible(false);
-
+		ImageData imageData = createImageDataFromHtml(HTML);
+		if (imageData == null) {
+			return null;
+		}
 		try {
 			return new Image(Display.getDefault(), imageData);
 		} catch (Exception e) {
@@ -115,6 +111,28 @@ public class ImageUtilities {
 		}
 	}
 	
+	/**
+	 * Растеризация html без создания Image (можно вызывать не из UI-потока)
+	 * Swing не потокобезопасен - JEditorPane используется только под HTML_RENDER_LOCK (по одному),
+	 * преобразование в ImageData - вне блокировки
+	 */
+	public static ImageData createImageDataFromHtml(String HTML) {
+		BufferedImage image;
+		synchronized (HTML_RENDER_LOCK) {
+			JEditorPane jep = new JEditorPane("text/html", HTML);
+			Dimension dim = jep.getPreferredSize();
+			image = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+					.getDefaultConfiguration().createCompatibleImage(dim.width, dim.height);					
+			Graphics graphics = image.createGraphics();
+			jep.setSize(dim.width, dim.height);
+			jep.print(graphics);
+			graphics.dispose();
+			jep.setEnabled(false);
+			jep.setVisible(false);
+		}
+		return convertToSWT(image);
+	}
+	
 	private static ImageData convertToSWT(BufferedImage bufferedImage) {
 	    if (bufferedImage.getColorModel() instanceof DirectColorModel) {
 	        DirectColorModel colorModel = (DirectColorModel)bufferedImage.getColorModel();
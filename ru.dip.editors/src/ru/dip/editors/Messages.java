@@ -121,6 +121,7 @@ public class Messages extends NLS {
 	public static String FormsEditorActionBarContributor_NextTextFieldActionName;
 	public static String FormsEditorActionBarContributor_PreviousTextFieldActionName;
 	public static String FormsEditorActionBarContributor_UpdateTextboxActionName;
+	public static String SpellCheckView_CheckJobName;
 	public static String SpellCheckView_CpellCheckActionToolTip;
 	public static String SpellCheckView_ErrorColumnName;
 	public static String SpellCheckView_ID;
@@ -14,6 +14,8 @@
 package ru.dip.editors.report.content;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collection;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.operation.IRunnableWithProgress;
@@ -379,6 +381,12 @@ public class ReportContentComposite extends Composite implements ITableComposite
 		fTable.setModel(fTableModel);
 	}
 	
+	@Override
+	public void refreshElements(Collection<IDipTableElement> elements) {
+		fTableModel.updateElements(new ArrayList<>(elements));
+		refreshTable();
+	}
+	
 	//==========================
 	// dispose
 	
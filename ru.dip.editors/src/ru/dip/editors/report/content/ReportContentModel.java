@@ -26,8 +26,9 @@ import ru.dip.core.model.interfaces.IDipDocumentElement;
 import ru.dip.core.model.interfaces.IDipElement;
 import ru.dip.core.model.interfaces.IDipParent;
 import ru.dip.core.model.interfaces.IUnitPresentation;
+import ru.dip.core.report.checker.ReportEngine;
+import ru.dip.core.report.checker.ReportEngine.EntryResult;
 import ru.dip.core.report.checker.ReportRuleSyntaxException;
-import ru.dip.core.report.model.report.ReportEntry;
 import ru.dip.core.unit.UnitType;
 import ru.dip.editors.report.ReportEditor;
 import ru.dip.editors.report.content.model.RceEntryElement;
@@ -102,13 +103,14 @@ public class ReportContentModel implements KTableModel, IDipTableModel {
 		if (parent == null){
 			return;
 		}							
-		List<ReportEntry> entries = fEditor.getEntries();
-		for (ReportEntry entry: entries) {
-			ReportEntryPresentation reportPresentation = new ReportEntryPresentation(entry);			
+		// все разделы - за один проход по проекту
+		List<EntryResult> results = ReportEngine.findEntries(fEditor.getEntries(), parent);
+		for (EntryResult result: results) {
+			ReportEntryPresentation reportPresentation = new ReportEntryPresentation(result.entry());			
 			RceEntryElement entryElement = new RceEntryElement(this, reportPresentation);			
 			fElements.add(entryElement);		
 			try {
-				entryElement.computeChildren();
+				entryElement.computeChildren(result.elements());
 				fElements.addAll(entryElement.children());
 			} catch (ReportRuleSyntaxException e) {
 				// добавить ошибочный элемент
@@ -53,8 +53,14 @@ public class RceEntryElement extends RceDipElement implements ITableNode {
 	 * @throws ReportRuleSyntaxException 
 	 */
 	public void computeChildren() throws ReportRuleSyntaxException {
+		computeChildren(ReportEntryChecker.findEntry(fEntryPresentation.getEntry(), fModel.getDipProject()));
+	}
+	
+	/**
+	 * Создает список детей по найденным элементам раздела (ReportEngine)
+	 */
+	public void computeChildren(List<IDipElement> dipElements) {
 		fChildren = new ArrayList<>();
-		List<IDipElement> dipElements = ReportEntryChecker.findEntry(fEntryPresentation.getEntry(), fModel.getDipProject());
 		for (IDipElement element: dipElements) {
 			if (element instanceof IDipUnit) {
 				IDipUnit dipUnit = (IDipUnit) element;
@@ -13,10 +13,16 @@
  *******************************************************************************/
 package ru.dip.editors.report.content.render;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.eclipse.swt.graphics.GC;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.graphics.TextLayout;
+import org.eclipse.swt.widgets.Display;
 
 import ru.dip.core.model.interfaces.IDipDocumentElement;
 import ru.dip.core.model.interfaces.IDipElement;
@@ -28,6 +34,7 @@ import ru.dip.core.unit.form.FormField;
 import ru.dip.core.utilities.DipUtilities;
 import ru.dip.core.utilities.GITUtilities;
 import ru.dip.core.utilities.TagStringUtilities;
+import ru.dip.core.utilities.git.GitMetadataProvider.FileMetadata;
 import ru.dip.core.utilities.ui.gc.GCUtils;
 import ru.dip.editors.report.content.model.RceDipElement;
 import ru.dip.editors.report.content.model.RceNotDocumentElement;
@@ -46,6 +53,8 @@ public class ReportIDPainter {
 
 	
 	private ITableComposite fTableComposite;
+	// элементы, для которых еще не вычислены данные git
+	private final Set<IDipTableElement> fGitWaiting = ConcurrentHashMap.newKeySet();
 
 	public ReportIDPainter(ITableComposite tableComposite) {
 		fTableComposite = tableComposite;
@@ -101,19 +110,19 @@ public class ReportIDPainter {
 	}
 
 	protected void simpleUpdateCell(IContentContainer tableElement, IDipElement dipDocElement) {				
-		String text = getFirstColumnText(dipDocElement);
+		String text = getFirstColumnText(tableElement, dipDocElement);
 		text = wrapIDText(text);
 		updateCell(tableElement, text, getNavigatorImage(dipDocElement));
 	}
 	
-	private String getFirstColumnText(IDipElement dipDocElement) {
-		return getRelativeProjectName(dipDocElement);
+	private String getFirstColumnText(IContentContainer tableElement, IDipElement dipDocElement) {
+		return getRelativeProjectName(tableElement, dipDocElement);
 	}
 
-	private String getRelativeProjectName(IDipElement dipDocElement) {
+	private String getRelativeProjectName(IContentContainer tableElement, IDipElement dipDocElement) {
 		String relativeName = DipUtilities.relativeProjectID(dipDocElement);
 		if (isNeedAppendHash(dipDocElement)) {
-			return getNameWithHash(dipDocElement, relativeName);
+			return getNameWithHash(tableElement, dipDocElement, relativeName);
 		} else {
 			return relativeName;
 		}
@@ -124,14 +133,28 @@ public class ReportIDPainter {
 				&& fTableComposite.getTableSettings().isShowFormVersion();
 	}
 	
-	private String getNameWithHash(IDipElement dde, String name) {
-		String hash = GITUtilities.getDescribe(dde);
-		if (hash != null) {
-			return name + "@" + hash;
+	private String getNameWithHash(IContentContainer tableElement, IDipElement dde, String name) {
+		FileMetadata metadata = GITUtilities.getMetadata(dde, this, this::gitMetadataReady);
+		if (metadata == null && tableElement instanceof IDipTableElement) {
+			fGitWaiting.add((IDipTableElement) tableElement);
+		}
+		if (metadata != null && metadata.describe() != null) {
+			return name + "@" + metadata.describe();
 		}
 		return name;
 	}
 	
+	private void gitMetadataReady() {
+		Display.getDefault().asyncExec(() -> {
+			if (fTableComposite.isDisposed() || fGitWaiting.isEmpty()) {
+				return;
+			}
+			List<IDipTableElement> elements = new ArrayList<>(fGitWaiting);
+			fGitWaiting.removeAll(elements);
+			fTableComposite.refreshElements(elements);
+		});
+	}
+	
 	protected void updateCell(IContentContainer tableElement, String text, Image image) {
 		contentProvider.setText(tableElement, text);		
 		contentProvider.setImage(tableElement, image);
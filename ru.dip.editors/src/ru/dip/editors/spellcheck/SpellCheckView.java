@@ -13,9 +13,15 @@
  *******************************************************************************/
 package ru.dip.editors.spellcheck;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IToolBarManager;
 import org.eclipse.jface.layout.TreeColumnLayout;
@@ -31,6 +37,7 @@ import org.eclipse.jface.viewers.ViewerCell;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Tree;
 import org.eclipse.swt.widgets.TreeColumn;
 import org.eclipse.ui.IEditorPart;
@@ -42,8 +49,8 @@ import org.eclipse.ui.part.ViewPart;
 
 import ru.dip.core.model.DipProject;
 import ru.dip.core.utilities.WorkbenchUtitlities;
-import ru.dip.core.utilities.spellcheck.Dictionary;
 import ru.dip.core.utilities.spellcheck.SpellCheckError;
+import ru.dip.core.utilities.spellcheck.SpellCheckService;
 import ru.dip.core.utilities.ui.CompositeFactory;
 import ru.dip.editors.Messages;
 import ru.dip.editors.formeditor.FormsEditor;
@@ -54,6 +61,9 @@ public class SpellCheckView extends ViewPart implements IPropertyListener {
 
 	public static final String ID = Messages.SpellCheckView_ID;
 	private TreeViewer fViewer;
+	// ошибки для текущего входа (изменяются в UI-потоке)
+	private final List<SpellCheckError> fErrors = new ArrayList<>();
+	private Job fCheckJob;
 	
 	public SpellCheckView() {
 	}
@@ -75,7 +85,7 @@ public class SpellCheckView extends ViewPart implements IPropertyListener {
 		@Override
 		public void run() {			
 			DipProject dipProject = WorkbenchUtitlities.getDipProjectFromOpenedEditor();	
-			fViewer.setInput(dipProject);			
+			check(dipProject);
 		}
 	}
 	
@@ -127,9 +137,7 @@ public class SpellCheckView extends ViewPart implements IPropertyListener {
 			@Override
 			public Object[] getElements(Object inputElement) {			
 				if (inputElement instanceof DipProject) {
-					DipProject dipProject = (DipProject) inputElement;					
-					List<SpellCheckError> errors = Dictionary.instance().checkDipParent(dipProject);					
-					return errors.toArray();
+					return fErrors.toArray();
 				}
 				return new Object[0];
 			}
@@ -175,6 +183,53 @@ public class SpellCheckView extends ViewPart implements IPropertyListener {
 		
 	}
 	
+	//=========================
+	// check
+	
+	/**
+	 * Проверка в фоне, ошибки добавляются в дерево по мере готовности
+	 * Предыдущая проверка отменяется
+	 */
+	private void check(DipProject dipProject) {
+		cancelCheck();
+		fViewer.setInput(dipProject);
+		if (dipProject == null) {
+			return;
+		}
+		Job job = new Job(Messages.SpellCheckView_CheckJobName) {
+			
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				try {
+					SpellCheckService.instance().check(dipProject, monitor, errors -> addErrors(this, errors));
+				} catch (OperationCanceledException e) {
+					return Status.CANCEL_STATUS;
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		fCheckJob = job;
+		job.schedule();
+	}
+	
+	private void addErrors(Job job, List<SpellCheckError> errors) {
+		Display.getDefault().asyncExec(() -> {
+			if (job != fCheckJob || fViewer.getControl().isDisposed()) {
+				return;
+			}
+			fErrors.addAll(errors);
+			fViewer.add(fViewer.getInput(), errors.toArray());
+		});
+	}
+	
+	private void cancelCheck() {
+		if (fCheckJob != null) {
+			fCheckJob.cancel();
+			fCheckJob = null;
+		}
+		fErrors.clear();
+	}
+	
 	public void openFile(SpellCheckError error) {
 		IFile file = (IFile) error.source().resource();
 		IEditorPart editorPart = WorkbenchUtitlities.openFile(file);
@@ -204,11 +259,18 @@ public class SpellCheckView extends ViewPart implements IPropertyListener {
 			DipTableEditor editor = (DipTableEditor) source;
 			if (editor.kTable().getTableSettings().isCheckSpellingEnable()) {
 				DipProject dipProject = WorkbenchUtitlities.getDipProjectFromOpenedEditor();
-				fViewer.setInput(dipProject);	
+				check(dipProject);
 				return;
 			}
 		}		
+		cancelCheck();
 		fViewer.setInput(""); //$NON-NLS-1$
 	}
+	
+	@Override
+	public void dispose() {
+		cancelCheck();
+		super.dispose();
+	}
 
 }
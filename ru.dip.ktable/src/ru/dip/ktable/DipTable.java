@@ -233,19 +233,15 @@ public final class DipTable extends KTable {
 	 */
 	public int computeTopRow() {
 		int selection = getVerticalBar().getSelection();
-		int maxHeight = 0;
-		int start = 0;
-		getDipTableModel().clearFirstElement();
+		IKTableModel model = getDipTableModel();
+		model.clearFirstElement();
 		
-		for (int i = 1; i < getModel().getRowCount(); i++) {
-			start = maxHeight;
-			int currentHeight = getModel().getRowHeight(i);
-			maxHeight += currentHeight;
-			if (maxHeight > selection) {
-				getDipTableModel().setFirstCell(i);
-				getDipTableModel().setIndent(selection - start);
-				return i;
-			}
+		int row = model.findRow(1, selection);
+		if (row < model.getRowCount()) {
+			int start = model.getRowsHeight(1, row);
+			model.setFirstCell(row);
+			model.setIndent(selection - start);
+			return row;
 		}
 		return m_TopRow;
 	}
@@ -354,6 +350,9 @@ public final class DipTable extends KTable {
 			m_TopRow = getFixedRowCount();
 		}
 
+		// видимые ряды готовятся до расчета их количества (высоты могут измениться)
+		getDipTableModel().prepareRows(m_TopRow, rect.height);
+
 		int fixedHeight = getFixedHeight();
 		m_ColumnsVisible = 0;
 		m_ColumnsFullyVisible = 0;
@@ -400,11 +399,7 @@ public final class DipTable extends KTable {
 	}
 
 	private int computeMaxHeight() {
-		int maxHeight = 0;
-		for (int i = 0; i < getModel().getRowCount()/* - getFullyVisibleRowCountAtEndOfTable() */; i++) {
-			maxHeight += getDipTableModel().getFullRowHeight(i);
-		}
-		return maxHeight + 5;
+		return getDipTableModel().getTotalHeight() + 5;
 	}
 
 	private void updateVerticalBarMaximum() {
@@ -436,9 +431,7 @@ public final class DipTable extends KTable {
 				y += m_Model.getRowHeight(i);
 
 		} else {
-			y = getFixedHeight();
-			for (int i = m_TopRow; i < row; i++)
-				y += m_Model.getRowHeight(i);
+			y = getFixedHeight() + getDipTableModel().getRowsHeight(m_TopRow, row);
 		}
 		return y;
 	}
@@ -570,6 +563,24 @@ public final class DipTable extends KTable {
 		redraw();
 	}
 
+	/**
+	 * Высоты рядов изменились (подготовка в фоне) - верхний ряд и отступ сохраняются,
+	 * пересчитываются высота и положение скролбара
+	 */
+	public void rowHeightsChanged() {
+		if (isDisposed() || m_Model == null) {
+			return;
+		}
+		IKTableModel model = getDipTableModel();
+		int selection = model.getRowsHeight(1, m_TopRow);
+		if (model.firstCell() == m_TopRow) {
+			selection += model.indent();
+		}
+		updateVerticalBarMaximum();
+		getVerticalBar().setSelection(selection);
+		redraw();
+	}
+
 	public void scrollToY(int y, int row) {
 		// выставляем в середину экрана
 		int y2 = y - (getClientArea().height - getModel().getRowHeight(0)) / 2 + 5 /* +THUMB *//* +fThumb */;
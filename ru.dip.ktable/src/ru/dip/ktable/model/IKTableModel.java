@@ -22,6 +22,51 @@ public interface IKTableModel extends KTableModel  {
 	
 	int getFullRowHeight(int row);
 	
+	/**
+	 * Сумма getRowHeight для рядов [from, to)
+	 */
+	default int getRowsHeight(int from, int to) {
+		int height = 0;
+		for (int i = Math.max(from, 0); i < to; i++) {
+			height += getRowHeight(i);
+		}
+		return height;
+	}
+	
+	/**
+	 * Ряд (начиная с from), на который приходится координата y,
+	 * отсчитанная от начала ряда from (по getRowHeight)
+	 * getRowCount(), если сумма высот рядов не больше y
+	 */
+	default int findRow(int from, int y) {
+		int height = 0;
+		for (int i = from; i < getRowCount(); i++) {
+			height += getRowHeight(i);
+			if (height > y) {
+				return i;
+			}
+		}
+		return getRowCount();
+	}
+	
+	/**
+	 * Сумма getFullRowHeight всех рядов
+	 */
+	default int getTotalHeight() {
+		int height = 0;
+		for (int i = 0; i < getRowCount(); i++) {
+			height += getFullRowHeight(i);
+		}
+		return height;
+	}
+
+	/**
+	 * Подготовить ряды, начиная с from, занимающие height пикселей (вызывается перед отрисовкой)
+	 * Для моделей, где высоты рядов вне экрана оценочные
+	 */
+	default void prepareRows(int from, int height) {
+	}
+
 	void clearFirstElement();
 	
 	int firstCell();
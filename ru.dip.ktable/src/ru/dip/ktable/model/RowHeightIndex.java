@@ -0,0 +1,94 @@
+/**********************************************************************
+ *  
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ * 
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package ru.dip.ktable.model;
+
+/**
+ * Индекс высот рядов (дерево Фенвика)
+ * Сумма высот первых рядов и поиск ряда по координате - O(log n), изменение высоты ряда - O(log n)
+ * Высоты должны быть неотрицательными
+ */
+public final class RowHeightIndex {
+
+	private final int[] fHeights;
+	private final int[] fTree;
+	
+	public RowHeightIndex(int[] heights) {
+		fHeights = heights.clone();
+		fTree = new int[heights.length + 1];
+		// построение за O(n)
+		for (int i = 1; i <= heights.length; i++) {
+			fTree[i] += heights[i - 1];
+			int parent = i + (i & -i);
+			if (parent <= heights.length) {
+				fTree[parent] += fTree[i];
+			}
+		}
+	}
+	
+	public int size() {
+		return fHeights.length;
+	}
+	
+	public int getHeight(int index) {
+		return fHeights[index];
+	}
+	
+	public void setHeight(int index, int height) {
+		int delta = height - fHeights[index];
+		if (delta == 0) {
+			return;
+		}
+		fHeights[index] = height;
+		for (int i = index + 1; i < fTree.length; i += i & -i) {
+			fTree[i] += delta;
+		}
+	}
+	
+	/**
+	 * Сумма высот рядов [0, count)
+	 */
+	public int prefix(int count) {
+		int sum = 0;
+		for (int i = Math.min(count, fHeights.length); i > 0; i -= i & -i) {
+			sum += fTree[i];
+		}
+		return sum;
+	}
+	
+	/**
+	 * Сумма высот рядов [from, to)
+	 */
+	public int sum(int from, int to) {
+		if (to <= from) {
+			return 0;
+		}
+		return prefix(to) - prefix(Math.max(from, 0));
+	}
+	
+	/**
+	 * Первый ряд, для которого prefix(index + 1) > y (ряд, содержащий координату y)
+	 * size(), если сумма всех высот не больше y
+	 */
+	public int find(int y) {
+		int pos = 0;
+		int remaining = y;
+		for (int step = Integer.highestOneBit(Math.max(fHeights.length, 1)); step > 0; step >>= 1) {
+			int next = pos + step;
+			if (next < fTree.length && fTree[next] <= remaining) {
+				pos = next;
+				remaining -= fTree[next];
+			}
+		}
+		return pos;
+	}
+
+}
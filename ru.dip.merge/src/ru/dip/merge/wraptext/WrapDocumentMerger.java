@@ -0,0 +1,1508 @@
+/*******************************************************************************
+ * DocumentMerger.java
+ *
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *
+ *
+ * Modifications:
+ * 		2025 Denis Melnik.
+ * 		2025 Ruslan Sabirov.
+ * 		2025 Andrei Motorin.
+ * Differences are computed from document snapshots (can run off the UI thread),
+ * histogram line diff, partial re-diff around edits
+ *
+ * This work is derived from the original source code of the DocumentMerger.java.
+ *
+ *
+ *******************************************************************************/
+package ru.dip.merge.wraptext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+import org.eclipse.compare.CompareConfiguration;
+import org.eclipse.compare.ICompareFilter;
+import org.eclipse.compare.contentmergeviewer.ITokenComparator;
+import org.eclipse.compare.internal.ChangeCompareFilterPropertyAction;
+import org.eclipse.compare.internal.CompareMessages;
+import org.eclipse.compare.internal.CompareUIPlugin;
+import org.eclipse.compare.internal.MergeViewerContentProvider;
+import org.eclipse.compare.internal.Utilities;
+import org.eclipse.compare.rangedifferencer.RangeDifference;
+import org.eclipse.compare.rangedifferencer.RangeDifferencer;
+import org.eclipse.compare.structuremergeviewer.Differencer;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.BadPositionCategoryException;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Position;
+import org.eclipse.jface.text.TextUtilities;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.Point;
+
+import ru.dip.merge.wraptext.diff.HistogramDiff;
+import ru.dip.merge.wraptext.diff.HistogramDiff.Edit;
+import ru.dip.merge.wraptext.diff.LineSequence;
+
+/**
+ * Копия DocumentMerger
+ *
+ * Различия вычисляются по снимку документов (DiffRequest), поэтому могут вычисляться в фоне,
+ * результат применяется (apply) в UI-потоке, если документы после снимка не изменились.
+ * Строки двух документов сравниваются HistogramDiff, трех - RangeDifferencer,
+ * токены сравниваются только в измененных диапазонах.
+ * После правок (два документа) заново сравнивается только участок вокруг измененных строк.
+ */
+public class WrapDocumentMerger {
+
+	private static final String DIFF_RANGE_CATEGORY = CompareUIPlugin.PLUGIN_ID + ".DIFF_RANGE_CATEGORY"; //$NON-NLS-1$
+
+	private static final char ANCESTOR_CONTRIBUTOR = MergeViewerContentProvider.ANCESTOR_CONTRIBUTOR;
+	private static final char RIGHT_CONTRIBUTOR = MergeViewerContentProvider.RIGHT_CONTRIBUTOR;
+	private static final char LEFT_CONTRIBUTOR = MergeViewerContentProvider.LEFT_CONTRIBUTOR;
+
+	/** if true copying conflicts from one side to other concatenates both sides */
+	private static final boolean APPEND_CONFLICT= true;
+	// строк до и после правки, которые сравниваются заново
+	private static final int CONTEXT_LINES = 3;
+	// участок без общих редких строк сравнивается RangeDifferencer, если (строк слева * строк справа) не больше
+	private static final long MAX_FALLBACK_SIZE = 4_000_000L;
+	// изменения длиннее (символов) не разбиваются на токены
+	private static final int MAX_TOKEN_DIFF_LENGTH = 100_000;
+
+	/** All diffs for calculating scrolling position (includes line ranges without changes) */
+	private ArrayList<Diff> fAllDiffs;
+	/** Subset of above: just real differences. */
+	private ArrayList<Diff> fChangeDiffs;
+	// увеличивается при каждой замене различий (частичный результат применяется только к тем различиям, по которым вычислен)
+	private int fGeneration;
+	// участок {начало, конец}, измененный после вычисления различий, null - правок нет
+	private int[] fLeftEdit;
+	private int[] fRightEdit;
+
+	private final IDocumentMergerInput fInput;
+
+	/**
+	 * Interface that defines that input to the document merge process
+	 */
+	public interface IDocumentMergerInput {
+
+		IDocument getDocument(char contributor);
+
+		Position getRegion(char contributor);
+
+		boolean isIgnoreAncestor();
+
+		boolean isThreeWay();
+
+		CompareConfiguration getCompareConfiguration();
+
+		/**
+		 * Вызывается при вычислении различий, в том числе вне UI-потока
+		 */
+		ITokenComparator createTokenComparator(String s);
+
+		boolean isPatchHunk();
+
+		boolean isShowPseudoConflicts();
+	}
+
+	public class Diff {
+		/** character range in ancestor document */
+		Position fAncestorPos;
+		/** character range in left document */
+		Position fLeftPos;
+		/** character range in right document */
+		Position fRightPos;
+		/** if this is a TokenDiff fParent points to the enclosing LineDiff */
+		Diff fParent;
+		/** if Diff has been resolved */
+		boolean fResolved;
+		int fDirection;
+		boolean fIsToken= false;
+		/** child token diffs */
+		ArrayList<Diff> fDiffs;
+		boolean fIsWhitespace= false;
+
+		/*
+		 * Create Diff from two ranges and an optional parent diff.
+		 */
+		Diff(Diff parent, int dir, IDocument ancestorDoc, Position aRange, int ancestorStart, int ancestorEnd,
+					 IDocument leftDoc, Position lRange, int leftStart, int leftEnd,
+					 IDocument rightDoc, Position rRange, int rightStart, int rightEnd) {
+			fParent= parent != null ? parent : this;
+			fDirection= dir;
+
+			fLeftPos= createPosition(leftDoc, lRange, leftStart, leftEnd);
+			fRightPos= createPosition(rightDoc, rRange, rightStart, rightEnd);
+			if (ancestorDoc != null)
+				fAncestorPos= createPosition(ancestorDoc, aRange, ancestorStart, ancestorEnd);
+		}
+
+		/*
+		 * Diff without positions in documents (not updated on edits)
+		 */
+		Diff(int dir, Position ancestorPos, Position leftPos, Position rightPos) {
+			fParent= this;
+			fDirection= dir;
+			fAncestorPos= ancestorPos;
+			fLeftPos= leftPos;
+			fRightPos= rightPos;
+		}
+
+		public Position getPosition(char type) {
+			switch (type) {
+			case ANCESTOR_CONTRIBUTOR:
+				return fAncestorPos;
+			case LEFT_CONTRIBUTOR:
+				return fLeftPos;
+			case RIGHT_CONTRIBUTOR:
+				return fRightPos;
+			default:
+				return null;
+			}
+		}
+
+		boolean isInRange(char type, int pos) {
+			Position p= getPosition(type);
+			return (pos >= p.offset) && (pos < (p.offset+p.length));
+		}
+
+		public String changeType() {
+			boolean leftEmpty= fLeftPos.length == 0;
+			boolean rightEmpty= fRightPos.length == 0;
+
+			if (fDirection == RangeDifference.LEFT) {
+				if (!leftEmpty && rightEmpty)
+					return CompareMessages.TextMergeViewer_changeType_addition;
+				if (leftEmpty && !rightEmpty)
+					return CompareMessages.TextMergeViewer_changeType_deletion;
+			} else {
+				if (leftEmpty && !rightEmpty)
+					return CompareMessages.TextMergeViewer_changeType_addition;
+				if (!leftEmpty && rightEmpty)
+					return CompareMessages.TextMergeViewer_changeType_deletion;
+			}
+			return CompareMessages.TextMergeViewer_changeType_change;
+		}
+
+		public Image getImage() {
+			int code= Differencer.CHANGE;
+			switch (fDirection) {
+			case RangeDifference.RIGHT:
+				code+= Differencer.LEFT;
+				break;
+			case RangeDifference.LEFT:
+				code+= Differencer.RIGHT;
+				break;
+			case RangeDifference.ANCESTOR:
+			case RangeDifference.CONFLICT:
+				code+= Differencer.CONFLICTING;
+				break;
+			default:
+				break;
+			}
+			if (code != 0)
+				return getCompareConfiguration().getImage(code);
+			return null;
+		}
+
+		Position createPosition(IDocument doc, Position range, int start, int end) {
+			int l= end-start;
+			if (range != null) {
+				int dl= range.length;
+				if (l > dl)
+					l= dl;
+			} else {
+				int dl= doc.getLength();
+				if (start+l > dl)
+					l= dl-start;
+			}
+
+			Position p= null;
+			try {
+				p= new Position(start, l);
+			} catch (RuntimeException ex) {
+				p= new Position(0, 0);
+			}
+
+			try {
+				doc.addPosition(DIFF_RANGE_CATEGORY, p);
+			} catch (BadPositionCategoryException | BadLocationException ex) {
+				// silently ignored
+			}
+			return p;
+		}
+
+		void add(Diff d) {
+			if (fDiffs == null)
+				fDiffs= new ArrayList<>();
+			fDiffs.add(d);
+		}
+
+		public boolean isDeleted() {
+			if (fAncestorPos != null && fAncestorPos.isDeleted())
+				return true;
+			return fLeftPos.isDeleted() || fRightPos.isDeleted();
+		}
+
+		void setResolved(boolean r) {
+			fResolved= r;
+			if (r)
+				fDiffs= null;
+		}
+
+		public boolean isResolved() {
+			if (!fResolved && fDiffs != null) {
+				Iterator<Diff> e= fDiffs.iterator();
+				while (e.hasNext()) {
+					Diff d= e.next();
+					if (!d.isResolved())
+						return false;
+				}
+				return true;
+			}
+			return fResolved;
+		}
+
+		public boolean hasChildren() {
+			return fDiffs != null && !fDiffs.isEmpty();
+		}
+
+		public int getKind() {
+			return fDirection;
+		}
+
+		public boolean isToken() {
+			return fIsToken;
+		}
+
+		public Diff getParent() {
+			return fParent;
+		}
+
+		public Iterator<Diff> childIterator() {
+			if (fDiffs == null)
+				return new ArrayList<Diff>().iterator();
+			return fDiffs.iterator();
+		}
+
+		public int getMaxDiffHeight() {
+			Point region= new Point(0, 0);
+			int h= getLineRange(getDocument(LEFT_CONTRIBUTOR), fLeftPos, region).y;
+			if (isThreeWay())
+				h= Math.max(h, getLineRange(getDocument(ANCESTOR_CONTRIBUTOR), fAncestorPos, region).y);
+			return Math.max(h, getLineRange(getDocument(RIGHT_CONTRIBUTOR), fRightPos, region).y);
+		}
+
+		public int getAncestorHeight() {
+			Point region= new Point(0, 0);
+			return getLineRange(getDocument(ANCESTOR_CONTRIBUTOR), fAncestorPos, region).y;
+		}
+
+		public int getLeftHeight() {
+			Point region= new Point(0, 0);
+			return getLineRange(getDocument(LEFT_CONTRIBUTOR), fLeftPos, region).y;
+		}
+
+		public int getRightHeight() {
+			Point region= new Point(0, 0);
+			return getLineRange(getDocument(RIGHT_CONTRIBUTOR), fRightPos, region).y;
+		}
+
+		public Diff[] getChangeDiffs(char contributor, IRegion region) {
+			if (fDiffs != null && intersectsRegion(contributor, region)) {
+				List<Diff> result = new ArrayList<>();
+				for (Diff diff : fDiffs) {
+					if (diff.intersectsRegion(contributor, region)) {
+						result.add(diff);
+					}
+				}
+				return result.toArray(new Diff[result.size()]);
+			}
+			return new Diff[0];
+		}
+
+		private boolean intersectsRegion(char contributor, IRegion region) {
+			Position p = getPosition(contributor);
+			if (p != null)
+				return p.overlapsWith(region.getOffset(), region.getLength());
+			return false;
+		}
+
+		public boolean overlaps(char contributor, int start, int end, int docLength) {
+			Position h= getPosition(contributor);
+			if (h != null) {
+				int ds= h.getOffset();
+				int de= ds + h.getLength();
+				if ((start < de) && (end >= ds))
+					return true;
+				if ((start == docLength) && (start <= de) && (end >= ds))
+					return true;
+			}
+			return false;
+		}
+
+		private void collectPositions(Set<Position> positions) {
+			if (fAncestorPos != null)
+				positions.add(fAncestorPos);
+			positions.add(fLeftPos);
+			positions.add(fRightPos);
+			if (fDiffs != null) {
+				for (Diff diff : fDiffs) {
+					diff.collectPositions(positions);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Снимок строк документа
+	 */
+	private static class Snapshot {
+
+		private final IDocument fDocument;
+		private final long fStamp;
+		private final String fText;
+		private final int fOffset;
+		private final int fLineCount;
+		// частичный пересчет: строки без изменений до и после участка [fHeadOffset, fOffset), [конец текста, fTailOffset)
+		private final int fHeadOffset;
+		private final int fTailOffset;
+
+		private Snapshot(IDocument document, int firstLine, int lineCount, int headOffset, int tailOffset) throws BadLocationException {
+			fDocument = document;
+			fStamp = getStamp(document);
+			fOffset = getLineStart(document, firstLine);
+			fText = document.get(fOffset, getLineStart(document, firstLine + lineCount) - fOffset);
+			fLineCount = lineCount;
+			fHeadOffset = headOffset < 0 ? fOffset : headOffset;
+			fTailOffset = tailOffset < 0 ? fOffset + fText.length() : tailOffset;
+		}
+
+		private boolean isCurrent(IDocument document) {
+			if (document != fDocument) {
+				return false;
+			}
+			if (fStamp != IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP) {
+				return fStamp == getStamp(document);
+			}
+			try {
+				return fText.equals(document.get(fOffset, fText.length()));
+			} catch (BadLocationException e) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Данные для вычисления различий (снимок документов и настроек)
+	 */
+	public static class DiffRequest {
+
+		private final int fGeneration;
+		private final boolean fIgnoreWhitespace;
+		private final boolean fTokenDiffs;
+		private final ICompareFilter[] fFilters;
+		private final Snapshot fAncestor;
+		private final Snapshot fLeft;
+		private final Snapshot fRight;
+		// частичный пересчет: заменяются различия [fFrom, fTo), -1 - все различия
+		private final int fFrom;
+		private final int fTo;
+
+		private DiffRequest(int generation, boolean ignoreWhitespace, boolean tokenDiffs, ICompareFilter[] filters,
+				Snapshot ancestor, Snapshot left, Snapshot right, int from, int to) {
+			fGeneration = generation;
+			fIgnoreWhitespace = ignoreWhitespace;
+			fTokenDiffs = tokenDiffs;
+			fFilters = filters;
+			fAncestor = ancestor;
+			fLeft = left;
+			fRight = right;
+			fFrom = from;
+			fTo = to;
+		}
+
+		public boolean isPartial() {
+			return fFrom >= 0;
+		}
+	}
+
+	/**
+	 * Вычисленные различия (смещения в документах на момент снимка)
+	 */
+	public static class DiffResult {
+
+		private final DiffRequest fRequest;
+		private final List<RangeResult> fRanges;
+
+		private DiffResult(DiffRequest request, List<RangeResult> ranges) {
+			fRequest = request;
+			fRanges = ranges;
+		}
+
+		public boolean isPartial() {
+			return fRequest.isPartial();
+		}
+	}
+
+	private static class RangeResult {
+
+		private final int fKind;
+		private int fAncestorStart;
+		private int fAncestorEnd;
+		private int fLeftStart;
+		private int fLeftEnd;
+		private int fRightStart;
+		private int fRightEnd;
+		private boolean fWhitespace;
+		private List<RangeResult> fTokens;
+
+		private RangeResult(int kind, int ancestorStart, int ancestorEnd, int leftStart, int leftEnd, int rightStart, int rightEnd) {
+			fKind = kind;
+			fAncestorStart = ancestorStart;
+			fAncestorEnd = ancestorEnd;
+			fLeftStart = leftStart;
+			fLeftEnd = leftEnd;
+			fRightStart = rightStart;
+			fRightEnd = rightEnd;
+		}
+
+		private int getStart(char type) {
+			return type == LEFT_CONTRIBUTOR ? fLeftStart : type == RIGHT_CONTRIBUTOR ? fRightStart : fAncestorStart;
+		}
+
+		private int getEnd(char type) {
+			return type == LEFT_CONTRIBUTOR ? fLeftEnd : type == RIGHT_CONTRIBUTOR ? fRightEnd : fAncestorEnd;
+		}
+	}
+
+	public WrapDocumentMerger(IDocumentMergerInput input) {
+		this.fInput = input;
+	}
+
+	//=========================
+	// request
+
+	/**
+	 * Снимок документов для вычисления всех различий (в UI-потоке)
+	 * @return null - документов нет
+	 */
+	public DiffRequest createRequest() {
+		return createRequest(false, true);
+	}
+
+	/**
+	 * Снимок участка вокруг правок (в UI-потоке)
+	 * @return null - правок нет или участок не определить (три документа, фрагменты, патч), нужно полное вычисление
+	 */
+	public DiffRequest createPartialRequest() {
+		return createRequest(true, true);
+	}
+
+	private DiffRequest createRequest(boolean partial, boolean tokenDiffs) {
+		IDocument lDoc= getDocument(LEFT_CONTRIBUTOR);
+		IDocument rDoc= getDocument(RIGHT_CONTRIBUTOR);
+		if (lDoc == null || rDoc == null)
+			return null;
+		IDocument aDoc= null;
+		if (isThreeWay() && !isIgnoreAncestor())
+			aDoc= getDocument(ANCESTOR_CONTRIBUTOR);
+		boolean ignoreWhitespace= isIgnoreWhitespace();
+		ICompareFilter[] filters= getCompareFilters();
+		try {
+			if (partial)
+				return aDoc == null ? createPartialRequest(lDoc, rDoc, ignoreWhitespace, filters) : null;
+			Snapshot ancestor= aDoc != null ? createSnapshot(aDoc, fInput.getRegion(ANCESTOR_CONTRIBUTOR)) : null;
+			Snapshot left= createSnapshot(lDoc, fInput.getRegion(LEFT_CONTRIBUTOR));
+			Snapshot right= createSnapshot(rDoc, fInput.getRegion(RIGHT_CONTRIBUTOR));
+			return new DiffRequest(fGeneration, ignoreWhitespace, tokenDiffs, filters, ancestor, left, right, -1, -1);
+		} catch (BadLocationException e) {
+			return null;
+		}
+	}
+
+	/*
+	 * Lines of the document region (as DocLineComparator)
+	 */
+	private static Snapshot createSnapshot(IDocument doc, Position region) throws BadLocationException {
+		if (region == null)
+			return new Snapshot(doc, 0, doc.getNumberOfLines(), -1, -1);
+		int firstLine= doc.getLineOfOffset(region.getOffset());
+		int lineCount= region.getLength() == 0 ? 0 : doc.getNumberOfLines(region.getOffset(), region.getLength());
+		return new Snapshot(doc, firstLine, lineCount, -1, -1);
+	}
+
+	/**
+	 * Участок для пересчета: строки правок и CONTEXT_LINES строк вокруг, расширенные до границ изменений.
+	 * Диапазоны без изменений на границах участка разделяются: строки вне участка остаются без изменений.
+	 * @return null - нужно полное вычисление
+	 */
+	private DiffRequest createPartialRequest(IDocument lDoc, IDocument rDoc, boolean ignoreWhitespace,
+			ICompareFilter[] filters) throws BadLocationException {
+		if (fAllDiffs == null || fAllDiffs.isEmpty() || (fLeftEdit == null && fRightEdit == null)
+				|| fInput.getRegion(LEFT_CONTRIBUTOR) != null || fInput.getRegion(RIGHT_CONTRIBUTOR) != null
+				|| isPatchHunk())
+			return null;
+		// {индекс диапазона, строк диапазона до участка} и {индекс диапазона, строк диапазона после участка}
+		int[] start= null;
+		int[] end= null;
+		for (char contributor : new char[] { LEFT_CONTRIBUTOR, RIGHT_CONTRIBUTOR }) {
+			int[] edit= contributor == LEFT_CONTRIBUTOR ? fLeftEdit : fRightEdit;
+			if (edit == null)
+				continue;
+			IDocument doc= contributor == LEFT_CONTRIBUTOR ? lDoc : rDoc;
+			int length= doc.getLength();
+			int firstLine= Math.max(0, doc.getLineOfOffset(Math.min(edit[0], length)) - CONTEXT_LINES);
+			int endLine= Math.min(doc.getNumberOfLines(), doc.getLineOfOffset(Math.min(edit[1], length)) + 1 + CONTEXT_LINES);
+			int first= findRange(contributor, doc, firstLine);
+			// диапазоны, у которых на этой стороне не осталось строк (например, удаленных правкой), тоже пересчитываются
+			while (first > 0 && getStartLine(contributor, doc, first - 1) == getStartLine(contributor, doc, first))
+				first--;
+			int last= findRange(contributor, doc, endLine - 1);
+			int head= fAllDiffs.get(first).getKind() == RangeDifference.NOCHANGE ? firstLine - getStartLine(contributor, doc, first) : 0;
+			int tail= fAllDiffs.get(last).getKind() == RangeDifference.NOCHANGE ? getEndLine(contributor, doc, last) - endLine : 0;
+			if (start == null || first < start[0] || (first == start[0] && head < start[1]))
+				start= new int[] { first, Math.max(0, head) };
+			if (end == null || last > end[0] || (last == end[0] && tail < end[1]))
+				end= new int[] { last, Math.max(0, tail) };
+		}
+		int from= start[0];
+		int to= end[0] + 1;
+		if (from >= to)
+			return null;
+		Snapshot left= createPartialSnapshot(LEFT_CONTRIBUTOR, lDoc, from, to, start[1], end[1]);
+		Snapshot right= createPartialSnapshot(RIGHT_CONTRIBUTOR, rDoc, from, to, start[1], end[1]);
+		if (left == null || right == null)
+			return null;
+		return new DiffRequest(fGeneration, ignoreWhitespace, true, filters, null, left, right, from, to);
+	}
+
+	private Snapshot createPartialSnapshot(char contributor, IDocument doc, int from, int to, int head, int tail) throws BadLocationException {
+		int headLine= getStartLine(contributor, doc, from);
+		int tailLine= getEndLine(contributor, doc, to - 1);
+		int firstLine= headLine + head;
+		int endLine= tailLine - tail;
+		if (endLine < firstLine)
+			return null;
+		return new Snapshot(doc, firstLine, endLine - firstLine, getLineStart(doc, headLine), getLineStart(doc, tailLine));
+	}
+
+	/*
+	 * Index of the range containing the line
+	 */
+	private int findRange(char contributor, IDocument doc, int line) throws BadLocationException {
+		int low= 0;
+		int high= fAllDiffs.size() - 1;
+		while (low < high) {
+			int middle= (low + high + 1) >>> 1;
+			if (getStartLine(contributor, doc, middle) <= line)
+				low= middle;
+			else
+				high= middle - 1;
+		}
+		return low;
+	}
+
+	/*
+	 * Ranges split the document into lines: a range ends where the next range starts
+	 */
+	private int getStartLine(char contributor, IDocument doc, int index) throws BadLocationException {
+		if (index == 0)
+			return 0;
+		Position p= fAllDiffs.get(index).getPosition(contributor);
+		return doc.getLineOfOffset(Math.min(p.getOffset(), doc.getLength()));
+	}
+
+	private int getEndLine(char contributor, IDocument doc, int index) throws BadLocationException {
+		if (index == fAllDiffs.size() - 1)
+			return doc.getNumberOfLines();
+		return getStartLine(contributor, doc, index + 1);
+	}
+
+	private static int getLineStart(IDocument doc, int line) throws BadLocationException {
+		return line < doc.getNumberOfLines() ? doc.getLineOffset(line) : doc.getLength();
+	}
+
+	private static long getStamp(IDocument doc) {
+		if (doc instanceof IDocumentExtension4)
+			return ((IDocumentExtension4) doc).getModificationStamp();
+		return IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+	}
+
+	/**
+	 * Запоминание измененного участка (для частичного пересчета)
+	 */
+	public void documentChanged(DocumentEvent event) {
+		IDocument doc= event.getDocument();
+		int textLength= event.getText() == null ? 0 : event.getText().length();
+		if (doc == getDocument(LEFT_CONTRIBUTOR)) {
+			fLeftEdit= addEdit(fLeftEdit, event.getOffset(), event.getLength(), textLength);
+		} else if (doc == getDocument(RIGHT_CONTRIBUTOR)) {
+			fRightEdit= addEdit(fRightEdit, event.getOffset(), event.getLength(), textLength);
+		}
+	}
+
+	private static int[] addEdit(int[] edit, int offset, int length, int textLength) {
+		int end= offset + textLength;
+		if (edit == null)
+			return new int[] { offset, end };
+		int delta= textLength - length;
+		int editStart= shiftOffset(edit[0], offset, length, delta);
+		int editEnd= shiftOffset(edit[1], offset, length, delta);
+		return new int[] { Math.min(editStart, offset), Math.max(editEnd, end) };
+	}
+
+	private static int shiftOffset(int position, int offset, int length, int delta) {
+		if (position >= offset + length)
+			return position + delta;
+		return Math.min(position, offset);
+	}
+
+	//=========================
+	// compute
+
+	/**
+	 * Вычисление различий по снимку, можно вне UI-потока
+	 * @param monitor - может быть null, при отмене - OperationCanceledException
+	 */
+	public DiffResult computeDiff(DiffRequest request, IProgressMonitor monitor) {
+		Map<String, Integer> ids= new HashMap<>();
+		LineSequence ancestor= request.fAncestor != null ? createLines(request, request.fAncestor, ANCESTOR_CONTRIBUTOR, LEFT_CONTRIBUTOR, ids) : null;
+		LineSequence left= createLines(request, request.fLeft, LEFT_CONTRIBUTOR, RIGHT_CONTRIBUTOR, ids);
+		LineSequence right= createLines(request, request.fRight, RIGHT_CONTRIBUTOR, LEFT_CONTRIBUTOR, ids);
+		checkCanceled(monitor);
+
+		List<RangeResult> ranges= new ArrayList<>();
+		if (ancestor == null) {
+			diffLines(left, right, ids.size(), ranges, monitor);
+		} else {
+			RangeDifference[] differences= RangeDifferencer.findRanges(monitor, ancestor, left, right);
+			checkCanceled(monitor);
+			for (RangeDifference es : differences) {
+				ranges.add(new RangeResult(es.kind(),
+						ancestor.getLineStart(es.ancestorStart()), ancestor.getLineStart(es.ancestorEnd()),
+						left.getLineStart(es.leftStart()), left.getLineStart(es.leftEnd()),
+						right.getLineStart(es.rightStart()), right.getLineStart(es.rightEnd())));
+			}
+		}
+
+		for (RangeResult range : ranges) {
+			if (range.fKind == RangeDifference.NOCHANGE)
+				continue;
+			checkCanceled(monitor);
+			String a= ancestor != null ? extract(request.fAncestor, range.fAncestorStart, range.fAncestorEnd) : null;
+			String s= extract(request.fLeft, range.fLeftStart, range.fLeftEnd);
+			String d= extract(request.fRight, range.fRightStart, range.fRightEnd);
+			if (request.fIgnoreWhitespace
+					&& (a == null || a.trim().length() == 0)
+					&& s.trim().length() == 0
+					&& d.trim().length() == 0) {
+				range.fWhitespace= true;
+			} else if (request.fTokenDiffs && s.length() > 0 && d.length() > 0
+					&& s.length() + d.length() <= MAX_TOKEN_DIFF_LENGTH) {
+				range.fTokens= tokenDiff(range, a, s, d);
+			}
+		}
+		if (request.isPartial())
+			addUnchangedLines(request, ranges);
+		return new DiffResult(request, ranges);
+	}
+
+	private LineSequence createLines(DiffRequest request, Snapshot snapshot, char contributor, char otherContributor, Map<String, Integer> ids) {
+		UnaryOperator<String> normalizer= null;
+		if (request.fFilters.length > 0 || request.fIgnoreWhitespace) {
+			normalizer= line -> {
+				String result= applyCompareFilters(line, contributor, otherContributor, request.fFilters);
+				return request.fIgnoreWhitespace ? removeWhitespace(result) : result;
+			};
+		}
+		return new LineSequence(snapshot.fText, snapshot.fOffset, snapshot.fLineCount, normalizer, ids);
+	}
+
+	/*
+	 * Histogram diff, fragments without rare common lines - RangeDifferencer (if not too large)
+	 */
+	private void diffLines(LineSequence left, LineSequence right, int idCount, List<RangeResult> ranges, IProgressMonitor monitor) {
+		HistogramDiff.Fallback fallback= (beginA, endA, beginB, endB) -> {
+			if ((long) (endA - beginA) * (endB - beginB) > MAX_FALLBACK_SIZE)
+				return Collections.singletonList(new Edit(beginA, endA, beginB, endB));
+			RangeDifference[] differences= RangeDifferencer.findDifferences(monitor, left.range(beginA, endA), right.range(beginB, endB));
+			checkCanceled(monitor);
+			List<Edit> edits= new ArrayList<>(differences.length);
+			for (RangeDifference es : differences) {
+				edits.add(new Edit(beginA + es.leftStart(), beginA + es.leftEnd(), beginB + es.rightStart(), beginB + es.rightEnd()));
+			}
+			return edits;
+		};
+		List<Edit> edits= HistogramDiff.diff(left.ids(), right.ids(), idCount, fallback, monitor);
+		int a= 0;
+		int b= 0;
+		for (Edit edit : edits) {
+			if (edit.beginA > a)
+				ranges.add(lineRange(RangeDifference.NOCHANGE, left, a, edit.beginA, right, b, edit.beginB));
+			ranges.add(lineRange(RangeDifference.CHANGE, left, edit.beginA, edit.endA, right, edit.beginB, edit.endB));
+			a= edit.endA;
+			b= edit.endB;
+		}
+		if (a < left.getRangeCount() || b < right.getRangeCount())
+			ranges.add(lineRange(RangeDifference.NOCHANGE, left, a, left.getRangeCount(), right, b, right.getRangeCount()));
+	}
+
+	private static RangeResult lineRange(int kind, LineSequence left, int leftStart, int leftEnd, LineSequence right, int rightStart, int rightEnd) {
+		return new RangeResult(kind, 0, 0, left.getLineStart(leftStart), left.getLineStart(leftEnd),
+				right.getLineStart(rightStart), right.getLineStart(rightEnd));
+	}
+
+	/*
+	 * Lines outside of the partial diff region are unchanged: join them to the first and the last ranges
+	 */
+	private static void addUnchangedLines(DiffRequest request, List<RangeResult> ranges) {
+		Snapshot left= request.fLeft;
+		Snapshot right= request.fRight;
+		if (left.fHeadOffset < left.fOffset || right.fHeadOffset < right.fOffset) {
+			RangeResult first= ranges.isEmpty() ? null : ranges.get(0);
+			if (first != null && first.fKind == RangeDifference.NOCHANGE) {
+				first.fLeftStart= left.fHeadOffset;
+				first.fRightStart= right.fHeadOffset;
+			} else {
+				ranges.add(0, new RangeResult(RangeDifference.NOCHANGE, 0, 0, left.fHeadOffset, left.fOffset, right.fHeadOffset, right.fOffset));
+			}
+		}
+		int leftEnd= left.fOffset + left.fText.length();
+		int rightEnd= right.fOffset + right.fText.length();
+		if (leftEnd < left.fTailOffset || rightEnd < right.fTailOffset) {
+			RangeResult last= ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+			if (last != null && last.fKind == RangeDifference.NOCHANGE) {
+				last.fLeftEnd= left.fTailOffset;
+				last.fRightEnd= right.fTailOffset;
+			} else {
+				ranges.add(new RangeResult(RangeDifference.NOCHANGE, 0, 0, leftEnd, left.fTailOffset, rightEnd, right.fTailOffset));
+			}
+		}
+	}
+
+	private static String extract(Snapshot snapshot, int start, int end) {
+		return snapshot.fText.substring(start - snapshot.fOffset, end - snapshot.fOffset);
+	}
+
+	private List<RangeResult> tokenDiff(RangeResult base, String a, String s, String d) {
+		ITokenComparator sa= a != null ? fInput.createTokenComparator(a) : null;
+		ITokenComparator sy= fInput.createTokenComparator(s);
+		ITokenComparator sm= fInput.createTokenComparator(d);
+
+		RangeDifference[] r= RangeDifferencer.findDifferences(sa, sy, sm);
+		List<RangeResult> tokens= new ArrayList<>(r.length);
+		for (RangeDifference es : r) {
+			int ancestorStart= base.fAncestorStart;
+			int ancestorEnd= base.fAncestorStart;
+			if (sa != null) {
+				ancestorStart+= sa.getTokenStart(es.ancestorStart());
+				ancestorEnd+= getTokenEnd(sa, es.ancestorStart(), es.ancestorLength());
+			}
+			tokens.add(new RangeResult(es.kind(), ancestorStart, ancestorEnd,
+					base.fLeftStart + sy.getTokenStart(es.leftStart()),
+					base.fLeftStart + getTokenEnd(sy, es.leftStart(), es.leftLength()),
+					base.fRightStart + sm.getTokenStart(es.rightStart()),
+					base.fRightStart + getTokenEnd(sm, es.rightStart(), es.rightLength())));
+		}
+		return tokens;
+	}
+
+	private static int getTokenEnd(ITokenComparator tc, int start, int count) {
+		if (count <= 0)
+			return tc.getTokenStart(start);
+		int index= start + count - 1;
+		return tc.getTokenStart(index) + tc.getTokenLength(index);
+	}
+
+	/*
+	 * Filters get only this line (the other line is not known when lines are hashed)
+	 */
+	private static String applyCompareFilters(String line, char contributor, char otherContributor, ICompareFilter[] filters) {
+		if (filters.length == 0)
+			return line;
+		HashMap<String, Object> input= new HashMap<>();
+		input.put(ICompareFilter.THIS_LINE, line);
+		input.put(ICompareFilter.THIS_CONTRIBUTOR, Character.valueOf(contributor));
+		input.put(ICompareFilter.OTHER_CONTRIBUTOR, Character.valueOf(otherContributor));
+		boolean[] removed= null;
+		for (ICompareFilter filter : filters) {
+			IRegion[] regions;
+			try {
+				regions= filter.getFilteredRegions(input);
+			} catch (RuntimeException e) {
+				continue;
+			}
+			if (regions == null)
+				continue;
+			for (IRegion region : regions) {
+				if (removed == null)
+					removed= new boolean[line.length()];
+				int end= Math.min(line.length(), region.getOffset() + region.getLength());
+				for (int i= Math.max(0, region.getOffset()); i < end; i++)
+					removed[i]= true;
+			}
+		}
+		if (removed == null)
+			return line;
+		StringBuilder result= new StringBuilder(line.length());
+		for (int i= 0; i < line.length(); i++) {
+			if (!removed[i])
+				result.append(line.charAt(i));
+		}
+		return result.toString();
+	}
+
+	private static String removeWhitespace(String line) {
+		StringBuilder result= null;
+		for (int i= 0; i < line.length(); i++) {
+			char c= line.charAt(i);
+			if (Character.isWhitespace(c)) {
+				if (result == null)
+					result= new StringBuilder(line.substring(0, i));
+			} else if (result != null) {
+				result.append(c);
+			}
+		}
+		return result == null ? line : result.toString();
+	}
+
+	private static void checkCanceled(IProgressMonitor monitor) {
+		if (monitor != null && monitor.isCanceled())
+			throw new OperationCanceledException();
+	}
+
+	//=========================
+	// apply
+
+	/**
+	 * Замена различий результатом вычисления (в UI-потоке)
+	 * @return false - документы изменились после снимка (или различия уже заменены), результат не применен
+	 */
+	public boolean apply(DiffResult result) {
+		DiffRequest request= result.fRequest;
+		IDocument aDoc= request.fAncestor != null ? request.fAncestor.fDocument : null;
+		IDocument lDoc= request.fLeft.fDocument;
+		IDocument rDoc= request.fRight.fDocument;
+		if ((aDoc != null && !request.fAncestor.isCurrent(getDocument(ANCESTOR_CONTRIBUTOR)))
+				|| !request.fLeft.isCurrent(getDocument(LEFT_CONTRIBUTOR))
+				|| !request.fRight.isCurrent(getDocument(RIGHT_CONTRIBUTOR)))
+			return false;
+		if (request.isPartial() && (request.fGeneration != fGeneration || fAllDiffs == null || request.fTo > fAllDiffs.size()))
+			return false;
+
+		Position aRegion= aDoc != null ? fInput.getRegion(ANCESTOR_CONTRIBUTOR) : null;
+		Position lRegion= fInput.getRegion(LEFT_CONTRIBUTOR);
+		Position rRegion= fInput.getRegion(RIGHT_CONTRIBUTOR);
+		List<Diff> diffs= new ArrayList<>(result.fRanges.size());
+		for (RangeResult range : result.fRanges) {
+			Diff diff= new Diff(null, range.fKind,
+					aDoc, aRegion, range.fAncestorStart, range.fAncestorEnd,
+					lDoc, lRegion, range.fLeftStart, range.fLeftEnd,
+					rDoc, rRegion, range.fRightStart, range.fRightEnd);
+			diff.fIsWhitespace= range.fWhitespace;
+			if (range.fTokens != null) {
+				for (RangeResult token : range.fTokens) {
+					Diff tokenDiff= new Diff(diff, token.fKind,
+							aDoc, null, token.fAncestorStart, token.fAncestorEnd,
+							lDoc, null, token.fLeftStart, token.fLeftEnd,
+							rDoc, null, token.fRightStart, token.fRightEnd);
+					tokenDiff.fIsToken= true;
+					diff.add(tokenDiff);
+				}
+			}
+			diffs.add(diff);
+		}
+
+		List<Diff> removed;
+		if (request.isPartial()) {
+			List<Diff> replaced= fAllDiffs.subList(request.fFrom, request.fTo);
+			removed= new ArrayList<>(replaced);
+			replaced.clear();
+			fAllDiffs.addAll(request.fFrom, diffs);
+		} else {
+			removed= fAllDiffs != null ? fAllDiffs : Collections.<Diff>emptyList();
+			fAllDiffs= new ArrayList<>(diffs);
+		}
+		removePositions(removed);
+		fChangeDiffs= new ArrayList<>();
+		for (Diff diff : fAllDiffs) {
+			if (useChange(diff))
+				fChangeDiffs.add(diff);	// here we remember only the real diffs
+		}
+		fGeneration++;
+		fLeftEdit= null;
+		fRightEdit= null;
+		return true;
+	}
+
+	/*
+	 * Positions of replaced diffs are removed, otherwise they are updated on every edit
+	 */
+	private void removePositions(List<Diff> diffs) {
+		if (diffs.isEmpty())
+			return;
+		Set<Position> positions= Collections.newSetFromMap(new IdentityHashMap<>());
+		for (Diff diff : diffs) {
+			diff.collectPositions(positions);
+		}
+		for (char contributor : new char[] { ANCESTOR_CONTRIBUTOR, LEFT_CONTRIBUTOR, RIGHT_CONTRIBUTOR }) {
+			IDocument doc= getDocument(contributor);
+			if (doc != null)
+				removePositions(doc, positions);
+		}
+	}
+
+	private static void removePositions(IDocument doc, Set<Position> removed) {
+		Position[] positions;
+		try {
+			positions= doc.getPositions(DIFF_RANGE_CATEGORY);
+		} catch (BadPositionCategoryException e) {
+			return;
+		}
+		boolean found= false;
+		for (Position position : positions) {
+			if (removed.contains(position)) {
+				found= true;
+				break;
+			}
+		}
+		if (!found)
+			return;
+		// one by one is quadratic for many positions: the category is filled again
+		try {
+			doc.removePositionCategory(DIFF_RANGE_CATEGORY);
+		} catch (BadPositionCategoryException e) {
+			// silently ignored
+		}
+		doc.addPositionCategory(DIFF_RANGE_CATEGORY);
+		for (Position position : positions) {
+			if (!removed.contains(position)) {
+				try {
+					doc.addPosition(DIFF_RANGE_CATEGORY, position);
+				} catch (BadPositionCategoryException | BadLocationException e) {
+					// silently ignored
+				}
+			}
+		}
+	}
+
+	//=========================
+	// differencing
+
+	/**
+	 * Вычисление и замена всех различий (в UI-потоке)
+	 */
+	public void doDiff() throws CoreException {
+		DiffRequest request= createRequest();
+		if (request == null)
+			return;
+		try {
+			apply(computeDiff(request, null));
+		} catch (OutOfMemoryError ex) {
+			System.gc();
+			throw new CoreException(new Status(IStatus.ERROR, CompareUIPlugin.PLUGIN_ID, 0, ex.toString(), ex));
+		}
+	}
+
+	/**
+	 * Returns the diff at the given position, the diff is computed again
+	 * (used before the differences of the current input are computed)
+	 */
+	public Diff findDiff(char type, int pos) throws CoreException {
+		DiffRequest request= createRequest(false, false);
+		if (request == null)
+			return null;
+		List<RangeResult> ranges;
+		try {
+			ranges= computeDiff(request, null).fRanges;
+		} catch (OutOfMemoryError ex) {
+			System.gc();
+			throw new CoreException(new Status(IStatus.ERROR, CompareUIPlugin.PLUGIN_ID, 0, ex.toString(), ex));
+		}
+		for (int i= 0; i < ranges.size(); i++) {
+			RangeResult range= ranges.get(i);
+			if ((pos >= range.getStart(type) && pos < range.getEnd(type)) || i == ranges.size() - 1) {
+				Position ancestorPos= request.fAncestor != null
+						? new Position(range.fAncestorStart, range.fAncestorEnd - range.fAncestorStart) : null;
+				return new Diff(range.fKind, ancestorPos,
+						new Position(range.fLeftStart, range.fLeftEnd - range.fLeftStart),
+						new Position(range.fRightStart, range.fRightEnd - range.fRightStart));
+			}
+		}
+		return null;
+	}
+
+	public boolean useChange(Diff diff) {
+		if (diff.fIsWhitespace)
+			return false;
+		int kind = diff.getKind();
+		return useChange(kind);
+	}
+
+	private boolean useChange(int kind) {
+		if (kind == RangeDifference.NOCHANGE)
+			return false;
+		if (fInput.getCompareConfiguration().isChangeIgnored(kind))
+			return false;
+		if (kind == RangeDifference.ANCESTOR)
+			return fInput.isShowPseudoConflicts();
+		return true;
+	}
+
+	private boolean isIgnoreWhitespace() {
+		return Utilities.getBoolean(getCompareConfiguration(), CompareConfiguration.IGNORE_WHITESPACE, false);
+	}
+
+	private ICompareFilter[] getCompareFilters() {
+		Object value= getCompareConfiguration().getProperty(ChangeCompareFilterPropertyAction.COMPARE_FILTERS);
+		if (value instanceof Map) {
+			List<ICompareFilter> filters= new ArrayList<>();
+			for (Object filter : ((Map<?, ?>) value).values()) {
+				if (filter instanceof ICompareFilter)
+					filters.add((ICompareFilter) filter);
+			}
+			return filters.toArray(new ICompareFilter[filters.size()]);
+		}
+		return new ICompareFilter[0];
+	}
+
+	private IDocument getDocument(char contributor) {
+		return fInput.getDocument(contributor);
+	}
+
+	private CompareConfiguration getCompareConfiguration() {
+		return fInput.getCompareConfiguration();
+	}
+
+	private boolean isThreeWay() {
+		return fInput.isThreeWay();
+	}
+
+	private boolean isIgnoreAncestor() {
+		return fInput.isIgnoreAncestor();
+	}
+
+	private boolean isPatchHunk() {
+		return fInput.isPatchHunk();
+	}
+
+	/*
+	 * Returns the start line and the number of lines which correspond to the given position.
+	 * Starting line number is 0 based.
+	 */
+	private static Point getLineRange(IDocument doc, Position p, Point region) {
+
+		if (p == null || doc == null) {
+			region.x= 0;
+			region.y= 0;
+			return region;
+		}
+
+		int start= p.getOffset();
+		int length= p.getLength();
+
+		int startLine= 0;
+		try {
+			startLine= doc.getLineOfOffset(start);
+		} catch (BadLocationException e) {
+			// silently ignored
+		}
+
+		int lineCount= 0;
+
+		if (length == 0) {
+//			// if range length is 0 and if range starts a new line
+//			try {
+//				if (start == doc.getLineStartOffset(startLine)) {
+//					lines--;
+//				}
+//			} catch (BadLocationException e) {
+//				lines--;
+//			}
+
+		} else {
+			int endLine= 0;
+			try {
+				endLine= doc.getLineOfOffset(start + length - 1);	// why -1?
+			} catch (BadLocationException e) {
+				// silently ignored
+			}
+			lineCount= endLine-startLine+1;
+		}
+
+		region.x= startLine;
+		region.y= lineCount;
+		return region;
+	}
+
+	//=========================
+	// diffs
+
+	public int getVirtualHeight() {
+		int h= 1;
+		if (fAllDiffs != null) {
+			for (Diff diff : fAllDiffs) {
+				h+= diff.getMaxDiffHeight();
+			}
+		}
+		return h;
+	}
+
+	public int getRightHeight() {
+		int h= 1;
+		if (fAllDiffs != null) {
+			for (Diff diff : fAllDiffs) {
+				h+= diff.getRightHeight();
+			}
+		}
+		return h;
+	}
+
+	public int realToVirtualPosition(char contributor, int vpos) {
+		if (fAllDiffs == null)
+			return vpos;
+
+		int viewPos= 0;		// real view position
+		int virtualPos= 0;	// virtual position
+		Point region= new Point(0, 0);
+
+		for (Diff diff : fAllDiffs) {
+			Position pos= diff.getPosition(contributor);
+			int viewHeight= getLineRange(getDocument(contributor), pos, region).y;
+			int virtualHeight= diff.getMaxDiffHeight();
+			if (vpos < viewPos + viewHeight) {	// OK, found!
+				vpos-= viewPos;	// make relative to this slot
+				// now scale position within this slot to virtual slot
+				if (viewHeight <= 0) {
+					vpos= 0;
+				} else {
+					vpos= (int) (vpos * ((double)virtualHeight/viewHeight));
+				}
+				return virtualPos+vpos;
+			}
+			viewPos+= viewHeight;
+			virtualPos+= virtualHeight;
+		}
+		return virtualPos;
+	}
+
+	public int virtualToRealPosition(char contributor, int v) {
+		if (fAllDiffs == null)
+			return v;
+
+		int virtualPos= 0;
+		int viewPos= 0;
+		Point region= new Point(0, 0);
+
+		for (Diff diff : fAllDiffs) {
+			Position pos= diff.getPosition(contributor);
+			int viewHeight= getLineRange(getDocument(contributor), pos, region).y;
+			int virtualHeight= diff.getMaxDiffHeight();
+			if (v < (virtualPos + virtualHeight)) {
+				v-= virtualPos;		// make relative to this slot
+				if (viewHeight <= 0) {
+					v= 0;
+				} else {
+					v= (int) (v * ((double)viewHeight/virtualHeight));
+				}
+				return viewPos+v;
+			}
+			virtualPos+= virtualHeight;
+			viewPos+= viewHeight;
+		}
+		return viewPos;
+	}
+
+	public Diff findDiff(int viewportHeight, boolean synchronizedScrolling, Point size, int my) {
+		int virtualHeight= synchronizedScrolling ? getVirtualHeight() : getRightHeight();
+		if (virtualHeight < viewportHeight)
+			return null;
+
+		int yy, hh;
+		int y= 0;
+		if (fAllDiffs != null) {
+			for (Diff diff : fAllDiffs) {
+				int h= synchronizedScrolling ? diff.getMaxDiffHeight()
+											  : diff.getRightHeight();
+				if (useChange(diff)) {
+
+					yy= (y*size.y)/virtualHeight;
+					hh= (h*size.y)/virtualHeight;
+					if (hh < 3)
+						hh= 3;
+
+					if (my >= yy && my < yy+hh)
+						return diff;
+				}
+				y+= h;
+			}
+		}
+		return null;
+	}
+
+	public boolean copy(Diff diff, boolean leftToRight) {
+
+		if (diff != null) {
+			Position fromPos= null;
+			Position toPos= null;
+			IDocument fromDoc= null;
+			IDocument toDoc= null;
+
+			if (leftToRight) {
+				fromPos= diff.getPosition(LEFT_CONTRIBUTOR);
+				toPos= diff.getPosition(RIGHT_CONTRIBUTOR);
+				fromDoc= getDocument(LEFT_CONTRIBUTOR);
+				toDoc= getDocument(RIGHT_CONTRIBUTOR);
+			} else {
+				fromPos= diff.getPosition(RIGHT_CONTRIBUTOR);
+				toPos= diff.getPosition(LEFT_CONTRIBUTOR);
+				fromDoc= getDocument(RIGHT_CONTRIBUTOR);
+				toDoc= getDocument(LEFT_CONTRIBUTOR);
+			}
+
+			if (fromDoc != null) {
+
+				int fromStart= fromPos.getOffset();
+				int fromLen= fromPos.getLength();
+
+				int toStart= toPos.getOffset();
+				int toLen= toPos.getLength();
+
+				try {
+					String s= null;
+
+					switch (diff.getKind()) {
+					case RangeDifference.RIGHT:
+					case RangeDifference.LEFT:
+						s= fromDoc.get(fromStart, fromLen);
+						break;
+					case RangeDifference.ANCESTOR:
+						break;
+					case RangeDifference.CONFLICT:
+						if (APPEND_CONFLICT) {
+							s= toDoc.get(toStart, toLen);
+							String ls = TextUtilities.getDefaultLineDelimiter(toDoc);
+							if (!s.endsWith(ls))
+								s += ls;
+							s+= fromDoc.get(fromStart, fromLen);
+						} else
+							s= fromDoc.get(fromStart, fromLen);
+						break;
+					default:
+						break;
+					}
+					if (s != null) {
+						toDoc.replace(toStart, toLen, s);
+						toPos.setOffset(toStart);
+						toPos.setLength(s.length());
+					}
+
+				} catch (BadLocationException e) {
+					// silently ignored
+				}
+			}
+
+			diff.setResolved(true);
+			return true;
+		}
+		return false;
+	}
+
+	public int changesCount() {
+		if (fChangeDiffs == null)
+			return 0;
+		return fChangeDiffs.size();
+	}
+
+	public Diff findDiff(char contributor, int rangeStart, int rangeEnd) {
+		if (hasChanges()) {
+			for (Iterator<Diff> iterator = changesIterator(); iterator.hasNext();) {
+				Diff diff = iterator.next();
+				if (diff.isDeleted() || diff.getKind() == RangeDifference.NOCHANGE)
+					continue;
+				if (diff.overlaps(contributor, rangeStart, rangeEnd, getDocument(contributor).getLength()))
+					return diff;
+			}
+		}
+		return null;
+	}
+
+	public Diff findDiff(char contributor, Position range) {
+		int start= range.getOffset();
+		int end= start + range.getLength();
+		return findDiff(contributor, start, end);
+	}
+
+	public Diff findNext(char contributor, int start, int end, boolean deep) {
+		return findNext(contributor, fChangeDiffs, start, end, deep);
+	}
+
+	private Diff findNext(char contributor, List<Diff> v, int start, int end, boolean deep) {
+		if (v == null)
+			return null;
+		for (Diff diff : v) {
+			Position p= diff.getPosition(contributor);
+			if (p != null) {
+				int startOffset= p.getOffset();
+				if (end < startOffset)  // <=
+					return diff;
+				if (deep && diff.fDiffs != null) {
+					Diff d= null;
+					int endOffset= startOffset + p.getLength();
+					if (start == startOffset && (end == endOffset || end == endOffset-1)) {
+						d= findNext(contributor, diff.fDiffs, start-1, start-1, deep);
+					} else if (end < endOffset) {
+						d= findNext(contributor, diff.fDiffs, start, end, deep);
+					}
+					if (d != null)
+						return d;
+				}
+			}
+		}
+		return null;
+	}
+
+	public Diff findPrev(char contributor, int start, int end, boolean deep) {
+		return findPrev(contributor, fChangeDiffs, start, end, deep);
+	}
+
+	private Diff findPrev(char contributor, List<Diff> v, int start, int end, boolean deep) {
+		if (v == null)
+			return null;
+		for (int i= v.size()-1; i >= 0; i--) {
+			Diff diff= v.get(i);
+			Position p= diff.getPosition(contributor);
+			if (p != null) {
+				int startOffset= p.getOffset();
+				int endOffset= startOffset + p.getLength();
+				if (start > endOffset) {
+					if (deep && diff.fDiffs != null) {
+						// the last token diff
+						return diff.fDiffs.get(diff.fDiffs.size() - 1);
+					}
+					return diff;
+				}
+				if (deep && diff.fDiffs != null) {
+					Diff d= null;
+					if (start == startOffset && end == endOffset) {
+						d= findPrev(contributor, diff.fDiffs, end, end, deep);
+					} else if (start >= startOffset) {
+						d= findPrev(contributor, diff.fDiffs, start, end, deep);
+					}
+					if (d != null)
+						return d;
+				}
+			}
+		}
+		return null;
+	}
+
+	public Diff getWrappedDiff(Diff diff, boolean down) {
+		if (fChangeDiffs != null && fChangeDiffs.size() > 0) {
+			if (down)
+				return fChangeDiffs.get(0);
+			return fChangeDiffs.get(fChangeDiffs.size()-1);
+		}
+		return null;
+	}
+
+	public Iterator<Diff> changesIterator() {
+		if (fChangeDiffs == null)
+			return new ArrayList<Diff>().iterator();
+		return fChangeDiffs.iterator();
+	}
+
+	public Iterator<Diff> rangesIterator() {
+		if (fAllDiffs == null)
+			return new ArrayList<Diff>().iterator();
+		return fAllDiffs.iterator();
+	}
+
+	/**
+	 * Различие (или его токен) не заменено при пересчете
+	 */
+	public boolean contains(Diff diff) {
+		return fAllDiffs != null && fAllDiffs.contains(diff.getParent());
+	}
+
+	public boolean hasChanges() {
+		return fChangeDiffs != null && !fChangeDiffs.isEmpty();
+	}
+
+	public boolean isFirstChildDiff(char contributor, int childStart, Diff diff) {
+		if (!diff.hasChildren())
+			return false;
+		Diff d = diff.fDiffs.get(0);
+		Position p= d.getPosition(contributor);
+		return (p.getOffset() >= childStart);
+	}
+
+	public Diff[] getChangeDiffs(char contributor, IRegion region) {
+		if (fChangeDiffs == null)
+			return new Diff[0];
+		List<Diff> intersectingDiffs = new ArrayList<>();
+		for (Diff diff : fChangeDiffs) {
+			Diff[] changeDiffs = diff.getChangeDiffs(contributor, region);
+			Collections.addAll(intersectingDiffs, changeDiffs);
+		}
+		return intersectingDiffs.toArray(new Diff[intersectingDiffs.size()]);
+	}
+
+	public int findInsertionPoint(Diff diff, char type) {
+		if (diff != null) {
+			switch (type) {
+			case ANCESTOR_CONTRIBUTOR:
+				if (diff.fAncestorPos != null)
+					return diff.fAncestorPos.offset;
+				break;
+			case LEFT_CONTRIBUTOR:
+				if (diff.fLeftPos != null)
+					return diff.fLeftPos.offset;
+				break;
+			case RIGHT_CONTRIBUTOR:
+				if (diff.fRightPos != null)
+					return diff.fRightPos.offset;
+				break;
+			default:
+				break;
+			}
+		}
+		return 0;
+	}
+
+	public void reset() {
+		fChangeDiffs= null;
+		fAllDiffs= null;
+		fLeftEdit= null;
+		fRightEdit= null;
+		fGeneration++;
+	}
+
+}
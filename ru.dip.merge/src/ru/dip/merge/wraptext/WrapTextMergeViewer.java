@@ -71,9 +71,6 @@ import org.eclipse.compare.internal.MergeViewerContentProvider;
 import org.eclipse.compare.internal.NavigationEndDialog;
 import org.eclipse.compare.internal.OutlineViewerCreator;
 import org.eclipse.compare.internal.Utilities;
-import org.eclipse.compare.internal.merge.DocumentMerger;
-import org.eclipse.compare.internal.merge.DocumentMerger.Diff;
-import org.eclipse.compare.internal.merge.DocumentMerger.IDocumentMergerInput;
 import org.eclipse.compare.patch.IHunk;
 import org.eclipse.compare.rangedifferencer.RangeDifference;
 import org.eclipse.compare.structuremergeviewer.DiffNode;
@@ -93,7 +90,9 @@ import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.ActionContributionItem;
 import org.eclipse.jface.action.IAction;
@@ -212,6 +211,10 @@ import org.eclipse.ui.texteditor.SourceViewerDecorationSupport;
 
 import com.ibm.icu.text.MessageFormat;
 
+import ru.dip.merge.wraptext.WrapDocumentMerger.Diff;
+import ru.dip.merge.wraptext.WrapDocumentMerger.DiffRequest;
+import ru.dip.merge.wraptext.WrapDocumentMerger.DiffResult;
+import ru.dip.merge.wraptext.WrapDocumentMerger.IDocumentMergerInput;
 import ru.dip.merge.wraptext.wrapper.BufferedCanvas;
 
 
@@ -335,6 +338,8 @@ public class WrapTextMergeViewer extends WrapContentMergeViewer implements IAdap
 
 	/** line width of change borders */
 	private static final int LW= 1;
+	// задержка пересчета участка после правки (мс), следующая правка откладывает пересчет
+	private static final int PARTIAL_DIFF_DELAY= 300;
 
 	private boolean fShowCurrentOnly= false;
 	private boolean fShowCurrentOnly2= false;
@@ -470,7 +475,9 @@ public class WrapTextMergeViewer extends WrapContentMergeViewer implements IAdap
 	private IFindReplaceTarget fFindReplaceTarget;
 	private ChangePropertyAction fIgnoreWhitespace;
 	private List<ChangeCompareFilterPropertyAction> fCompareFilterActions = new ArrayList<>();
-	private DocumentMerger fMerger;
+	private WrapDocumentMerger fMerger;
+	// вычисление различий в фоне, null - не запланировано
+	private DiffJob fDiffJob;
 	/** The current diff */
 	private Diff fCurrentDiff;
 	private Diff fSavedDiff;
@@ -1098,8 +1105,7 @@ public class WrapTextMergeViewer extends WrapContentMergeViewer implements IAdap
 				new UIJob(CompareMessages.DocumentMerger_0) {
 					@Override
 					public IStatus runInUIThread(IProgressMonitor monitor) {
-						update(true);
-						updateStructure(fLeg);
+						scheduleUpdate(() -> updateStructure(fLeg));
 						return Status.OK_STATUS;
 					}
 				}.schedule();
@@ -1531,7 +1537,7 @@ public class WrapTextMergeViewer extends WrapContentMergeViewer implements IAdap
 		OperationHistoryFactory.getOperationHistory()
 				.addOperationHistoryListener(operationHistoryListener);
 
-		fMerger = new DocumentMerger(new IDocumentMergerInput() {
+		fMerger = new WrapDocumentMerger(new IDocumentMergerInput() {
 			@Override
 			public ITokenComparator createTokenComparator(String line) {
 				return WrapTextMergeViewer.this.createTokenComparator(line);
@@ -1554,10 +1560,6 @@ public class WrapTextMergeViewer extends WrapContentMergeViewer implements IAdap
 				}
 			}
 			@Override
-			public int getHunkStart() {
-				return WrapTextMergeViewer.this.getHunkStart();
-			}
-			@Override
 			public Position getRegion(char contributor) {
 				switch (contributor) {
 				case LEFT_CONTRIBUTOR:
@@ -1571,11 +1573,6 @@ public class WrapTextMergeViewer extends WrapContentMergeViewer implements IAdap
 				}
 			}
 			@Override
-			public boolean isHunkOnLeft() {
-				ITypedElement left = ((ICompareInput) getInput()).getRight();
-				return left != null && Adapters.adapt(left, IHunk.class) != null;
-			}
-			@Override
 			public boolean isIgnoreAncestor() {
 				return WrapTextMergeViewer.this.isIgnoreAncestor();
 			}
@@ -1592,10 +1589,6 @@ public class WrapTextMergeViewer extends WrapContentMergeViewer implements IAdap
 			public boolean isThreeWay() {
 				return WrapTextMergeViewer.this.isThreeWay();
 			}
-			@Override
-			public boolean isPatchHunkOk() {
-				return WrapTextMergeViewer.this.isPatchHunkOk();
-			}
 		});
 
 		int inheritedStyle= parent.getStyle();
@@ -1948,6 +1941,7 @@ public class WrapTextMergeViewer extends WrapContentMergeViewer implements IAdap
 	 */
 	@Override
 	protected void handleDispose(DisposeEvent event) {
+		cancelDiffJob();
 		OperationHistoryFactory.getOperationHistory().removeOperationHistoryListener(operationHistoryListener);
 
 		if (fHandlerService != null)
@@ -2428,8 +2422,7 @@ public class WrapTextMergeViewer extends WrapContentMergeViewer implements IAdap
 			new UIJob(CompareMessages.DocumentMerger_0) {
 				@Override
 				public IStatus runInUIThread(IProgressMonitor monitor) {
-					update(true);
-					updateStructure();
+					scheduleUpdate(() -> updateStructure());
 					return Status.OK_STATUS;
 				}
 			}.schedule();
@@ -3149,6 +3142,7 @@ public class WrapTextMergeViewer extends WrapContentMergeViewer implements IAdap
 	 */
 	private void documentChanged(DocumentEvent e, boolean dirty) {
 		final IDocument doc= e.getDocument();
+		fMerger.documentChanged(e);
 
 		if (doc == fLeft.getSourceViewer().getDocument()) {
 			setLeftDirty(dirty);
@@ -3158,26 +3152,20 @@ public class WrapTextMergeViewer extends WrapContentMergeViewer implements IAdap
 		if (!isLeftDirty() && !isRightDirty()) {
 			fRedoDiff = false;
 			final Diff oldDiff = getLastDiff();
-			new UIJob(CompareMessages.DocumentMerger_0) {
-				@Override
-				public IStatus runInUIThread(IProgressMonitor monitor) {
-					if (!getControl().isDisposed()) {
-						doDiff();
-						if (!getControl().isDisposed()) {
-							Diff newDiff = findNewDiff(oldDiff);
-							if (newDiff != null) {
-								updateStatus(newDiff);
-								setCurrentDiff(newDiff, true);
-							}
-							invalidateLines();
-							updateLines(doc);
-						}
-					}
-					return Status.OK_STATUS;
+			scheduleDiff(false, 0, () -> {
+				Diff newDiff = findNewDiff(oldDiff);
+				if (newDiff != null) {
+					updateStatus(newDiff);
+					setCurrentDiff(newDiff, true);
 				}
-			}.schedule();
+				invalidateLines();
+				updateLines(doc);
+			});
 		} else {
 			updateLines(doc);
+			// пересчет участка вокруг правки (для трех документов - как раньше, при сохранении)
+			if (!copyOperationInProgress)
+				scheduleDiff(true, PARTIAL_DIFF_DELAY, null);
 		}
 	}
 
@@ -3530,6 +3518,7 @@ public class WrapTextMergeViewer extends WrapContentMergeViewer implements IAdap
 		IDocument rDoc= fRight.getSourceViewer().getDocument();
 		if (lDoc == null || rDoc == null)
 			return;
+		cancelDiffJob();
 		fAncestor.resetLineBackground();
 		fLeft.resetLineBackground();
 		fRight.resetLineBackground();
@@ -3547,6 +3536,139 @@ public class WrapTextMergeViewer extends WrapContentMergeViewer implements IAdap
 		invalidateTextPresentation();
 	}
 
+	/*
+	 * Как update(true), но различия вычисляются в фоне
+	 */
+	private void scheduleUpdate(Runnable afterUpdate) {
+		if (getControl().isDisposed())
+			return;
+		if (fHasErrors) {
+			update(true);
+			afterUpdate.run();
+			return;
+		}
+		scheduleDiff(false, 0, () -> {
+			updateControls();
+			updateVScrollBar();
+			updatePresentation();
+			afterUpdate.run();
+		});
+	}
+
+	/**
+	 * Вычисление различий в фоне (снимок документов - сейчас), запланированное ранее вычисление отменяется.
+	 * Если отменено полное вычисление, то и новое полное, действия после применения выполняются все.
+	 * @param partial - только участок вокруг правок
+	 * @param onApplied - после применения результата (в UI-потоке), может быть null
+	 */
+	private void scheduleDiff(boolean partial, long delay, Runnable onApplied) {
+		if (fDiffJob != null) {
+			fDiffJob.cancel();
+			partial= partial && fDiffJob.fPartial;
+			Runnable previous= fDiffJob.fOnApplied;
+			if (previous != null) {
+				Runnable next= onApplied;
+				onApplied= next == null ? previous : () -> {
+					previous.run();
+					next.run();
+				};
+			}
+			fDiffJob= null;
+		}
+		DiffRequest request= partial ? fMerger.createPartialRequest() : fMerger.createRequest();
+		if (request == null) {
+			if (!partial && onApplied != null)
+				onApplied.run();
+			return;
+		}
+		fDiffJob= new DiffJob(request, partial, onApplied);
+		fDiffJob.schedule(delay);
+	}
+
+	private void cancelDiffJob() {
+		if (fDiffJob != null) {
+			fDiffJob.cancel();
+			fDiffJob= null;
+		}
+	}
+
+	/*
+	 * Результат фонового вычисления (в UI-потоке)
+	 */
+	private void diffComputed(DiffJob job, DiffResult result) {
+		if (job != fDiffJob || getControl().isDisposed())
+			return;
+		fDiffJob= null;
+		if (result == null) {
+			// не хватило памяти в фоне - сообщение об ошибке (как в doDiff)
+			CompareUIPlugin.log(job.fError);
+			String title= Utilities.getString(getResourceBundle(), "tooComplexError.title"); //$NON-NLS-1$
+			String msg= Utilities.getString(getResourceBundle(), "tooComplexError.message"); //$NON-NLS-1$
+			MessageDialog.openError(fComposite.getShell(), title, msg);
+			invalidateTextPresentation();
+		} else if (!fMerger.apply(result)) {
+			// документы изменились после снимка
+			scheduleDiff(job.fPartial, 0, job.fOnApplied);
+			return;
+		} else if (result.isPartial()) {
+			if (fCurrentDiff != null && !fMerger.contains(fCurrentDiff))
+				setCurrentDiff(findNewDiff(fCurrentDiff), false);
+			invalidateLines();
+			updateVScrollBar();
+			refreshBirdsEyeView();
+			invalidateTextPresentation();
+		} else {
+			fAncestor.resetLineBackground();
+			fLeft.resetLineBackground();
+			fRight.resetLineBackground();
+			saveDiff();
+			fCurrentDiff= null;
+			invalidateTextPresentation();
+		}
+		if (job.fOnApplied != null)
+			job.fOnApplied.run();
+	}
+
+	/**
+	 * Вычисление различий по снимку документов, результат применяется в UI-потоке
+	 */
+	private class DiffJob extends Job {
+
+		private final DiffRequest fRequest;
+		private final boolean fPartial;
+		private final Runnable fOnApplied;
+		private final Display fDisplay;
+		private IStatus fError;
+
+		DiffJob(DiffRequest request, boolean partial, Runnable onApplied) {
+			super(CompareMessages.DocumentMerger_0);
+			fRequest= request;
+			fPartial= partial;
+			fOnApplied= onApplied;
+			fDisplay= getControl().getDisplay();
+			setSystem(true);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			DiffResult result;
+			try {
+				result= fMerger.computeDiff(fRequest, monitor);
+			} catch (OperationCanceledException e) {
+				return Status.CANCEL_STATUS;
+			} catch (OutOfMemoryError e) {
+				System.gc();
+				fError= new Status(IStatus.ERROR, CompareUIPlugin.PLUGIN_ID, 0, e.toString(), e);
+				result= null;
+			}
+			if (monitor.isCanceled() || fDisplay.isDisposed())
+				return Status.CANCEL_STATUS;
+			DiffResult computed= result;
+			fDisplay.asyncExec(() -> diffComputed(this, computed));
+			return Status.OK_STATUS;
+		}
+	}
+
 	private Diff findDiff(char type, int pos) {
 		try {
 			return fMerger.findDiff(type, pos);
@@ -4047,10 +4169,11 @@ public class WrapTextMergeViewer extends WrapContentMergeViewer implements IAdap
 
 			fShowPseudoConflicts= fPreferenceStore.getBoolean(ComparePreferencePage.SHOW_PSEUDO_CONFLICTS);
 
-			update(true);
-			// selectFirstDiff(true);
-			if (fFocusPart != null)
-				handleSelectionChanged(fFocusPart);
+			scheduleUpdate(() -> {
+				// selectFirstDiff(true);
+				if (fFocusPart != null)
+					handleSelectionChanged(fFocusPart);
+			});
 
 //		} else if (key.equals(ComparePreferencePage.USE_SPLINES)) {
 //			fUseSplines= fPreferenceStore.getBoolean(ComparePreferencePage.USE_SPLINES);
@@ -4123,8 +4246,7 @@ public class WrapTextMergeViewer extends WrapContentMergeViewer implements IAdap
 			super.handlePropertyChangeEvent(event);
 
 			if (key.equals(ICompareUIConstants.PROP_IGNORE_ANCESTOR)) {
-				update(true);
-				selectFirstDiff(true);
+				scheduleUpdate(() -> selectFirstDiff(true));
 			}
 		}
 	}
@@ -5419,6 +5541,7 @@ public class WrapTextMergeViewer extends WrapContentMergeViewer implements IAdap
 
 	private void resetDiffs() {
 		// clear stuff
+		cancelDiffJob();
 		saveDiff();
 		fCurrentDiff= null;
 		fMerger.reset();
@@ -5431,12 +5554,6 @@ public class WrapTextMergeViewer extends WrapContentMergeViewer implements IAdap
 		return Utilities.isHunk(getInput());
 	}
 
-	private boolean isPatchHunkOk() {
-		if (isPatchHunk())
-			return Utilities.isHunkOk(getInput());
-		return false;
-	}
-
 	/**
 	 * Return the provided start position of the hunk in the target file.
 	 * @return the provided start position of the hunk in the target file
@@ -0,0 +1,232 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.merge.wraptext.diff;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+/**
+ * Гистограммное сравнение последовательностей строк (как HistogramDiff в JGit)
+ *
+ * Строки заданы номерами, одинаковые строки - одинаковые номера.
+ * Общие начало и конец участка отбрасываются, затем в участке ищется общий фрагмент,
+ * строки которого реже всего повторяются в первой последовательности.
+ * Участки до и после фрагмента сравниваются так же.
+ * Если общего фрагмента нет (или все строки повторяются больше MAX_CHAIN_LENGTH раз),
+ * участок передается в Fallback.
+ * В среднем время линейное, поэтому большие документы сравниваются быстрее, чем RangeDifferencer (LCS).
+ */
+public class HistogramDiff {
+
+	public static final int MAX_CHAIN_LENGTH = 64;
+
+	/**
+	 * Изменение: строки [beginA, endA) заменены строками [beginB, endB)
+	 */
+	public static class Edit {
+
+		public final int beginA;
+		public final int endA;
+		public final int beginB;
+		public final int endB;
+
+		public Edit(int beginA, int endA, int beginB, int endB) {
+			this.beginA = beginA;
+			this.endA = endA;
+			this.beginB = beginB;
+			this.endB = endB;
+		}
+
+		@Override
+		public String toString() {
+			return "Edit[" + beginA + "-" + endA + ", " + beginB + "-" + endB + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		}
+	}
+
+	/**
+	 * Сравнение участка, в котором не найден общий фрагмент
+	 */
+	public interface Fallback {
+
+		List<Edit> diff(int beginA, int endA, int beginB, int endB);
+	}
+
+	/**
+	 * @param a, b - номера строк
+	 * @param idCount - количество разных номеров (номера от 0 до idCount - 1)
+	 * @param fallback - может быть null, тогда участок считается изменением целиком
+	 * @param monitor - может быть null, при отмене - OperationCanceledException
+	 * @return изменения по порядку
+	 */
+	public static List<Edit> diff(int[] a, int[] b, int idCount, Fallback fallback, IProgressMonitor monitor) {
+		return new HistogramDiff(a, b, idCount, fallback, monitor).diff();
+	}
+
+	private final int[] fA;
+	private final int[] fB;
+	private final Fallback fFallback;
+	private final IProgressMonitor fMonitor;
+	// индекс участка A: количество строк с номером, первая строка с номером, следующая строка с тем же номером
+	private final int[] fCount;
+	private final int[] fHead;
+	private final int[] fNext;
+
+	private HistogramDiff(int[] a, int[] b, int idCount, Fallback fallback, IProgressMonitor monitor) {
+		fA = a;
+		fB = b;
+		fFallback = fallback;
+		fMonitor = monitor;
+		fCount = new int[idCount];
+		fHead = new int[idCount];
+		fNext = new int[a.length];
+	}
+
+	private List<Edit> diff() {
+		List<Edit> edits = new ArrayList<>();
+		// рекурсия заменена стеком, глубина может быть порядка числа строк
+		Deque<int[]> regions = new ArrayDeque<>();
+		regions.push(new int[] { 0, fA.length, 0, fB.length });
+		while (!regions.isEmpty()) {
+			if (fMonitor != null && fMonitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+			int[] region = regions.pop();
+			diffRegion(region[0], region[1], region[2], region[3], regions, edits);
+		}
+		edits.sort(Comparator.<Edit>comparingInt(edit -> edit.beginA).thenComparingInt(edit -> edit.beginB));
+		assert isValid(edits) : edits;
+		return edits;
+	}
+
+	/**
+	 * Проверка результата (при включенных assertions, -ea):
+	 * изменения идут по порядку, не пересекаются, и строки между ними в A и B совпадают
+	 */
+	private boolean isValid(List<Edit> edits) {
+		int a = 0;
+		int b = 0;
+		for (Edit edit: edits) {
+			if (edit.beginA < a || edit.beginB < b || edit.endA < edit.beginA || edit.endB < edit.beginB
+					|| edit.beginA - a != edit.beginB - b || !isEqual(a, b, edit.beginA - a)) {
+				return false;
+			}
+			a = edit.endA;
+			b = edit.endB;
+		}
+		return fA.length - a == fB.length - b && isEqual(a, b, fA.length - a);
+	}
+
+	private boolean isEqual(int a, int b, int length) {
+		for (int i = 0; i < length; i++) {
+			if (fA[a + i] != fB[b + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void diffRegion(int beginA, int endA, int beginB, int endB, Deque<int[]> regions, List<Edit> edits) {
+		while (beginA < endA && beginB < endB && fA[beginA] == fB[beginB]) {
+			beginA++;
+			beginB++;
+		}
+		while (beginA < endA && beginB < endB && fA[endA - 1] == fB[endB - 1]) {
+			endA--;
+			endB--;
+		}
+		if (beginA == endA || beginB == endB) {
+			if (beginA < endA || beginB < endB) {
+				edits.add(new Edit(beginA, endA, beginB, endB));
+			}
+			return;
+		}
+		int[] common = findCommon(beginA, endA, beginB, endB);
+		if (common == null) {
+			if (fFallback != null) {
+				edits.addAll(fFallback.diff(beginA, endA, beginB, endB));
+			} else {
+				edits.add(new Edit(beginA, endA, beginB, endB));
+			}
+			return;
+		}
+		regions.push(new int[] { beginA, common[0], beginB, common[2] });
+		regions.push(new int[] { common[1], endA, common[3], endB });
+	}
+
+	/**
+	 * Общий фрагмент {beginA, endA, beginB, endB} с наименьшим числом повторов строк, null - не найден
+	 */
+	private int[] findCommon(int beginA, int endA, int beginB, int endB) {
+		for (int i = endA - 1; i >= beginA; i--) {
+			int id = fA[i];
+			fNext[i] = fCount[id] == 0 ? -1 : fHead[id];
+			fHead[id] = i;
+			fCount[id]++;
+		}
+		try {
+			int[] best = null;
+			int bestCount = MAX_CHAIN_LENGTH + 1;
+			int bi = beginB;
+			while (bi < endB) {
+				int count = fCount[fB[bi]];
+				if (count == 0 || count > bestCount) {
+					bi++;
+					continue;
+				}
+				int nextB = bi + 1;
+				for (int ai = fHead[fB[bi]]; ai != -1; ai = fNext[ai]) {
+					int as = ai;
+					int ae = ai + 1;
+					int bs = bi;
+					int be = bi + 1;
+					int rc = count;
+					while (as > beginA && bs > beginB && fA[as - 1] == fB[bs - 1]) {
+						as--;
+						bs--;
+						rc = Math.min(rc, fCount[fA[as]]);
+					}
+					while (ae < endA && be < endB && fA[ae] == fB[be]) {
+						rc = Math.min(rc, fCount[fA[ae]]);
+						ae++;
+						be++;
+					}
+					if (nextB < be) {
+						nextB = be;
+					}
+					if (best == null || best[1] - best[0] < ae - as || rc < bestCount) {
+						best = new int[] { as, ae, bs, be };
+						bestCount = rc;
+					}
+					// вхождения внутри найденного фрагмента дадут тот же фрагмент
+					while (fNext[ai] != -1 && fNext[ai] < ae) {
+						ai = fNext[ai];
+					}
+				}
+				bi = nextB;
+			}
+			return best;
+		} finally {
+			for (int i = beginA; i < endA; i++) {
+				fCount[fA[i]] = 0;
+			}
+		}
+	}
+
+}
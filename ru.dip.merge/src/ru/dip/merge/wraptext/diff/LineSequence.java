@@ -0,0 +1,156 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.merge.wraptext.diff;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import org.eclipse.compare.rangedifferencer.IRangeComparator;
+
+/**
+ * Строки снимка документа (для сравнения вне UI-потока)
+ *
+ * Строка - от начала до начала следующей строки (вместе с разделителем), как в DocLineComparator.
+ * Строки сравниваются по номерам: одинаковые после нормализации (пробелы, фильтры) строки
+ * получают одинаковый номер из общей для сравниваемых последовательностей таблицы.
+ */
+public class LineSequence implements IRangeComparator {
+
+	private final String fText;
+	private final int fOffset;
+	// fStarts[i] - начало строки i в fText, fStarts[count] - конец последней строки
+	private final int[] fStarts;
+	private final int[] fIds;
+
+	/**
+	 * @param text - текст от начала первой строки до начала следующей за последней строкой (или до конца документа)
+	 * @param offset - смещение текста в документе
+	 * @param lineCount - количество строк
+	 * @param normalizer - преобразование строки (без разделителя) перед сравнением, может быть null
+	 * @param ids - номера строк
+	 */
+	public LineSequence(String text, int offset, int lineCount, UnaryOperator<String> normalizer, Map<String, Integer> ids) {
+		fText = text;
+		fOffset = offset;
+		fStarts = new int[lineCount + 1];
+		fIds = new int[lineCount];
+		int start = 0;
+		int count = 0;
+		int length = text.length();
+		while (count < lineCount) {
+			int end = start;
+			while (end < length && text.charAt(end) != '\n' && text.charAt(end) != '\r') {
+				end++;
+			}
+			int next = end;
+			if (next < length) {
+				next += text.charAt(next) == '\r' && next + 1 < length && text.charAt(next + 1) == '\n' ? 2 : 1;
+			}
+			String line = text.substring(start, end);
+			if (normalizer != null) {
+				line = normalizer.apply(line);
+			}
+			fStarts[count] = start;
+			fIds[count] = ids.computeIfAbsent(line, key -> ids.size());
+			count++;
+			if (next == start) {
+				// конец текста
+				break;
+			}
+			start = next;
+		}
+		for (int i = count; i <= lineCount; i++) {
+			fStarts[i] = Math.min(start, length);
+		}
+		if (count < lineCount) {
+			// строк меньше, чем ожидалось - лишние пустые
+			int empty = ids.computeIfAbsent("", key -> ids.size()); //$NON-NLS-1$
+			Arrays.fill(fIds, count, lineCount, empty);
+		}
+	}
+
+	public int[] ids() {
+		return fIds;
+	}
+
+	/**
+	 * Смещение начала строки в документе (line == количество строк - конец последней строки)
+	 */
+	public int getLineStart(int line) {
+		return fOffset + fStarts[line];
+	}
+
+	/**
+	 * Текст строк [start, start + length) с разделителями
+	 */
+	public String extract(int start, int length) {
+		if (length <= 0) {
+			return ""; //$NON-NLS-1$
+		}
+		return fText.substring(fStarts[start], fStarts[start + length]);
+	}
+
+	/**
+	 * Строки [from, to) как IRangeComparator (для RangeDifferencer)
+	 */
+	public IRangeComparator range(int from, int to) {
+		return new Range(fIds, from, to);
+	}
+
+	@Override
+	public int getRangeCount() {
+		return fIds.length;
+	}
+
+	@Override
+	public boolean rangesEqual(int thisIndex, IRangeComparator other, int otherIndex) {
+		return fIds[thisIndex] == ((LineSequence) other).fIds[otherIndex];
+	}
+
+	@Override
+	public boolean skipRangeComparison(int length, int maxLength, IRangeComparator other) {
+		return false;
+	}
+
+	private static class Range implements IRangeComparator {
+
+		private final int[] fIds;
+		private final int fFrom;
+		private final int fTo;
+
+		private Range(int[] ids, int from, int to) {
+			fIds = ids;
+			fFrom = from;
+			fTo = to;
+		}
+
+		@Override
+		public int getRangeCount() {
+			return fTo - fFrom;
+		}
+
+		@Override
+		public boolean rangesEqual(int thisIndex, IRangeComparator other, int otherIndex) {
+			Range range = (Range) other;
+			return fIds[fFrom + thisIndex] == range.fIds[range.fFrom + otherIndex];
+		}
+
+		@Override
+		public boolean skipRangeComparison(int length, int maxLength, IRangeComparator other) {
+			return false;
+		}
+	}
+
+}
@@ -14,6 +14,7 @@
 package ru.dip.text.spelling.engine;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -35,6 +36,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+import ru.dip.core.utilities.spellcheck.CompiledDictionary;
+
 /**
  * Partial implementation of a spell dictionary.
  *
@@ -104,6 +107,12 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 	/** The phonetic hash provider */
 	private IPhoneticHashProvider fHashProvider= new DefaultPhoneticHashProvider();
 
+	/**
+	 * Скомпилированный словарь для word list из файла (null - слова в fHashBuckets).
+	 * В fHashBuckets остаются только слова, добавленные после загрузки.
+	 */
+	private volatile CompiledDictionary fCompiled;
+
 	/** Is the dictionary already loaded? */
 	private boolean fLoaded= false;
 	/**
@@ -136,6 +145,40 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 	 * @return Array of candidates for the phonetic hash
 	 */
 	protected final Object getCandidates(final String hash) {
+		final Object bucket= getBucket(hash);
+		final CompiledDictionary compiled= fCompiled;
+		if (compiled == null)
+			return bucket;
+
+		final List<String> words= compiled.getPhoneticCandidates(hash);
+		if (words.isEmpty())
+			return bucket;
+
+		final ArrayList<byte[]> candidates= new ArrayList<>(words.size() + BUCKET_CAPACITY);
+		try {
+			for (String word : words)
+				candidates.add(word.getBytes(UTF_8));
+		} catch (UnsupportedEncodingException e) {
+			return bucket;
+		}
+		if (bucket instanceof byte[])
+			candidates.add((byte[])bucket);
+		else if (bucket != null) {
+			@SuppressWarnings("unchecked")
+			final ArrayList<byte[]> bucketList= (ArrayList<byte[]>)bucket;
+			candidates.addAll(bucketList);
+		}
+		return candidates;
+	}
+
+	/**
+	 * Returns the words with the same phonetic hash added to the hash buckets.
+	 *
+	 * @param hash
+	 *                   The hash to retrieve the words of
+	 * @return byte[], ArrayList of byte[] or <code>null</code>
+	 */
+	private Object getBucket(final String hash) {
 		ByteArrayWrapper hashBytes;
 		try {
 			hashBytes= new ByteArrayWrapper(hash.getBytes(UTF_8));
@@ -301,7 +344,8 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 	 * @since 3.3
 	 */
 	protected boolean isEmpty() {
-		return fHashBuckets.isEmpty();
+		final CompiledDictionary compiled= fCompiled;
+		return fHashBuckets.isEmpty() && (compiled == null || compiled.size() == 0);
 	}
 
 	/**
@@ -492,7 +536,11 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 			// Do nothing
 		}
 
-		final Object candidates= getCandidates(fHashProvider.getHash(word));
+		final CompiledDictionary compiled= fCompiled;
+		if (compiled != null && (compiled.contains(word) || compiled.contains(word, 0, word.length(), true)))
+			return true;
+
+		final Object candidates= getBucket(fHashProvider.getHash(word));
 		if (candidates == null)
 			return false;
 		else if (candidates instanceof byte[]) {
@@ -560,7 +608,7 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 
 	@Override
 	public synchronized final boolean isLoaded() {
-		return fLoaded || fHashBuckets.size() > 0;
+		return fLoaded || fHashBuckets.size() > 0 || fCompiled != null;
 	}
 
 	/**
@@ -575,6 +623,17 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 		 if (!fMustLoad)
 			 return fLoaded;
 
+		if (url != null && "file".equals(url.getProtocol())) { //$NON-NLS-1$
+			// word list is compiled once and memory-mapped, see CompiledDictionary
+			try {
+				fCompiled= CompiledDictionary.open(new File(url.getPath()).toPath(), fHashProvider::getHash);
+				fMustLoad= false;
+				return true;
+			} catch (IOException exception) {
+				// read the word list line by line
+			}
+		}
+
 		if (url != null) {
 			InputStream stream= null;
 			int line= 0;
@@ -666,6 +725,7 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 		fLoaded= false;
 		fMustLoad= true;
 		fHashBuckets.clear();
+		fCompiled= null;
 	}
 
 	@Override
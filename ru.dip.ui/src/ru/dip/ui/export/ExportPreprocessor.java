@@ -13,10 +13,12 @@
  *******************************************************************************/
 package ru.dip.ui.export;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -44,6 +46,7 @@ import ru.dip.core.unit.UnitType;
 import ru.dip.core.unit.md.SubMarkdownPresentation;
 import ru.dip.core.utilities.DipUtilities;
 import ru.dip.core.utilities.FileUtilities;
+import ru.dip.core.utilities.UmlUtilities;
 import ru.dip.ui.export.ExportElement.ExportElementBuilder;
 import ru.dip.ui.export.error.IExportError;
 import ru.dip.ui.table.ExporterHolder;
@@ -306,10 +309,35 @@ public class ExportPreprocessor implements IExportPreprocessor {
 	protected void prepareImage(DipUnit unit, IExportElement element) {
 		String fileName = element.getId().replaceAll("/", "_") + ".png";
 		String fullName = fPartsPath.resolve(fileName).toString();
-		convertToImage(fullName, unit);
+		if (!copyDiagramImage(fullName, unit)) {
+			convertToImage(fullName, unit);
+		}
 		element.setPath(fullName);
 	}
 	
+	/**
+	 * PlantUML/DOT - копируется готовый png из кэша диаграмм (без повторной отрисовки)
+	 */
+	private boolean copyDiagramImage(String fullName, DipUnit unit) {
+		UnitType unitType = unit.getUnitPresentation().getUnitType();
+		File imageFile = null;
+		if (unitType == UnitType.UML) {
+			imageFile = UmlUtilities.getUmlImageFile(unit.resource());
+		} else if (unitType == UnitType.DOT) {
+			imageFile = UmlUtilities.getDotImageFile(unit.resource());
+		}
+		if (imageFile == null) {
+			return false;
+		}
+		try {
+			Files.copy(imageFile.toPath(), Paths.get(fullName), StandardCopyOption.REPLACE_EXISTING);
+			return true;
+		} catch (IOException e) {
+			e.printStackTrace();
+			return false;
+		}
+	}
+	
 	protected void convertToImage(String fullName, DipUnit unit) {
 		Image image = getImageFormPresentation(unit);
 		ImageLoader saver = new ImageLoader();
@@ -389,7 +417,7 @@ public class ExportPreprocessor implements IExportPreprocessor {
 		// html presentation
 		String htmlName = element.getId().replaceAll("/", "_") + ".html";
 		String htmlFullName = fPartsPath.resolve(htmlName).toString();	
-		HtmlReportWriter htmlWriter = new HtmlReportWriter(reader, fDipProject);
+		HtmlReportWriter htmlWriter = new HtmlReportWriter(reader, fDipProject, fMonitor);
 		htmlWriter.writeReportToHtml(htmlFullName);	
 		element.setPath(htmlFullName);
 	}
@@ -18,9 +18,12 @@ import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.List;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+
 import ru.dip.core.model.DipProject;
 import ru.dip.core.model.interfaces.IDipElement;
-import ru.dip.core.report.checker.ReportEntryChecker;
+import ru.dip.core.report.checker.ReportEngine;
+import ru.dip.core.report.checker.ReportEngine.EntryResult;
 import ru.dip.core.report.checker.ReportRuleSyntaxException;
 import ru.dip.core.report.model.report.ReportEntry;
 import ru.dip.core.report.scanner.ReportReader;
@@ -31,10 +34,12 @@ public class HtmlReportWriter {
 	
 	private ReportReader fReader;
 	private DipProject fDipProject;
+	private IProgressMonitor fMonitor;
 	
-	public HtmlReportWriter(ReportReader reader, DipProject project) {
+	public HtmlReportWriter(ReportReader reader, DipProject project, IProgressMonitor monitor) {
 		fReader = reader;
 		fDipProject = project;
+		fMonitor = monitor;
 	}
 	
 	public void writeReportToHtml(String  fullName) throws IOException {
@@ -52,17 +57,19 @@ public class HtmlReportWriter {
 				+ "<td style=\"text-align: center;\">\n<strong>ОТЧЕТ: </strong>");
 		builder.append(fReader.getRulesModel().getDescription());
 		builder.append("\n</td>\n</tr>\n");		
-		for (ReportEntry entry: fReader.getEntries()) {
-			builder.append(getEntryContent(entry));			
+		// все разделы - за один проход по проекту
+		for (EntryResult result: ReportEngine.findEntries(fReader.getEntries(), fDipProject, fMonitor)) {
+			builder.append(getEntryContent(result));			
 		}	
 		builder.append("</tbody>\n</table>");
 		return builder.toString();
 	}
 	
-	private String getEntryContent(ReportEntry entry) {
+	private String getEntryContent(EntryResult result) {
+		ReportEntry entry = result.entry();
 		List<IDipElement> entryElements = null;
 		try {
-			entryElements = ReportEntryChecker.findEntry(entry, fDipProject);
+			entryElements = result.elements();
 		} catch (ReportRuleSyntaxException e) {
 			entryElements = Collections.emptyList();
 		}
@@ -19,6 +19,7 @@ import java.util.Collection;
 import java.util.List;
 
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.jface.operation.IRunnableWithProgress;
 import org.eclipse.swt.SWT;
@@ -337,7 +338,11 @@ public class GlossaryComposite {
 			WorkbenchUtitlities.runWithCursorBusy(new IRunnableWithProgress() {				
 				@Override
 				public void run(IProgressMonitor monitor) throws InvocationTargetException, InterruptedException {
-					fUnusedFields = fGlossFolder.findUnsedFields();
+					try {
+						fUnusedFields = fGlossFolder.analyzeUsage(monitor).getUnusedFields();
+					} catch (OperationCanceledException e) {
+						throw new InterruptedException();
+					}
 				}
 			});
 		
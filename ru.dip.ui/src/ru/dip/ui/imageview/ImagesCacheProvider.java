@@ -13,97 +13,158 @@
  *******************************************************************************/
 package ru.dip.ui.imageview;
 
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 import org.eclipse.core.resources.IResource;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Display;
 
 import ru.dip.core.model.interfaces.IDipUnit;
 import ru.dip.core.unit.CsvUnitPresentation;
 import ru.dip.core.unit.HtmlImagePresentation;
 import ru.dip.core.unit.TablePresentation;
+import ru.dip.core.unit.UnitType;
 import ru.dip.core.utilities.ui.image.ImageUtilities;
 import ru.dip.ui.table.table.TableSettings;
 
 /**
  * Кэш для картинок (миниатюр)
+ * 
+ * Хранится не более MAX_IMAGES миниатюр, давно не использованные освобождаются (LRU).
+ * Если миниатюры нет, getShowedImage возвращает null, а миниатюра строится позже:
+ * для файлов изображений - в фоне (ThumbnailCache), для остальных - в UI-потоке после отрисовки view.
+ * Когда миниатюра готова, вызывается onUpdate (view перерисовывается).
  */
 public class ImagesCacheProvider {
 
-	private class Key {
+	private static final int MAX_IMAGES = 256;
+
+	private static class Key {
 		
 		private final IResource fResource;
-		private final long fTimeStamp;
 		private final int fWidth;
 		
 		public Key(IDipUnit unit, int width) {
 			fResource = unit.resource();
-			fTimeStamp = fResource.getLocalTimeStamp();
 			fWidth = width;
 		}
 
 		@Override
 		public int hashCode() {
-			final int prime = 31;
-			int result = 1;
-			result = prime * result + getEnclosingInstance().hashCode();
-			result = prime * result + ((fResource == null) ? 0 : fResource.hashCode());
-			result = prime * result + (int) (fTimeStamp ^ (fTimeStamp >>> 32));
-			result = prime * result + fWidth;
-			return result;
+			return 31 * Objects.hashCode(fResource) + fWidth;
 		}
 
 		@Override
 		public boolean equals(Object obj) {
 			if (this == obj)
 				return true;
-			if (obj == null)
-				return false;
-			if (getClass() != obj.getClass())
+			if (!(obj instanceof Key))
 				return false;
 			Key other = (Key) obj;
-			if (!getEnclosingInstance().equals(other.getEnclosingInstance()))
-				return false;
-			if (fResource == null) {
-				if (other.fResource != null)
-					return false;
-			} else if (!fResource.equals(other.fResource))
-				return false;
-			if (fTimeStamp != other.fTimeStamp)
-				return false;
-			if (fWidth != other.fWidth)
-				return false;
-			return true;
-		}
-
-		private ImagesCacheProvider getEnclosingInstance() {
-			return ImagesCacheProvider.this;
+			return fWidth == other.fWidth && Objects.equals(fResource, other.fResource);
 		}
 	
 	}
 	
-	private final Map<Key, Image> fImages = new HashMap<>();
+	/**
+	 * Миниатюра (null - не удалось построить) и время изменения файла, для которого она построена
+	 */
+	private static class Entry {
+		
+		private final Image fImage;
+		private final long fTimeStamp;
+		
+		private Entry(Image image, long timeStamp) {
+			fImage = image;
+			fTimeStamp = timeStamp;
+		}
+		
+		private void dispose() {
+			if (fImage != null && !fImage.isDisposed()) {
+				fImage.dispose();
+			}
+		}
+	}
+	
+	// порядок доступа - первым идет давно не использованный
+	private final Map<Key, Entry> fImages = new LinkedHashMap<>(64, 0.75f, true);
+	// миниатюры, которые строятся
+	private final Set<Key> fLoading = new HashSet<>();
+	private final Runnable fOnUpdate;
+	// увеличивается при dispose, результаты построения для прежнего значения не используются
+	private int fGeneration = 0;
+	
+	public ImagesCacheProvider(Runnable onUpdate) {
+		fOnUpdate = onUpdate;
+	}
 	
 	public Image getImage(IDipUnit unit, int width) {
-		Key key = new Key(unit, width);
-		return fImages.get(key);
+		Entry entry = getEntry(new Key(unit, width), unit);
+		return entry != null ? entry.fImage : null;
 	}
 	
+	private Entry getEntry(Key key, IDipUnit unit) {
+		Entry entry = fImages.get(key);
+		if (entry != null && entry.fTimeStamp != unit.resource().getLocalTimeStamp()) {
+			fImages.remove(key);
+			entry.dispose();
+			return null;
+		}
+		return entry;
+	}
+	
+	/**
+	 * Миниатюра или null, если она еще не построена (построение запускается)
+	 */
 	public Image getShowedImage(IDipUnit unit, int width) {
-		Image image = getImage(unit, width);
-		if (image != null) {
-			return image;
-		}		
-		image = getImageFromUnit(unit, width);
+		Key key = new Key(unit, width);
+		Entry entry = getEntry(key, unit);
+		if (entry != null) {
+			return entry.fImage;
+		}
+		if (!fLoading.add(key)) {
+			return null;
+		}
+		int generation = fGeneration;
+		long timeStamp = unit.resource().getLocalTimeStamp();
+		if (unit.getUnitType() == UnitType.IMAGE) {
+			ThumbnailCache.instance().load(unit.resource(), width, data -> {
+				if (generation == fGeneration) {
+					imageReady(key, data != null ? new Image(Display.getDefault(), data) : null, timeStamp);
+				}
+			});
+		} else {
+			Display.getDefault().asyncExec(() -> {
+				if (generation == fGeneration) {
+					imageReady(key, createImage(unit, width), timeStamp);
+				}
+			});
+		}
+		return null;
+	}
+	
+	private void imageReady(Key key, Image image, long timeStamp) {
+		fLoading.remove(key);
+		put(key, new Entry(image, timeStamp));
+		fOnUpdate.run();
+	}
+	
+	private Image createImage(IDipUnit unit, int width) {
+		Image image = getImageFromUnit(unit, width);
 		if (image == null) {
 			return null;
 		}		
 		if (image.getBounds().height > ImagesView.IMAGE_WIDTH) {
-			image = ImageUtilities.getResizedImage(image, image.getBounds().width, ImagesView.IMAGE_WIDTH);
-		}			
-		put(unit, image, width);;
+			Image resized = ImageUtilities.getResizedImage(image, image.getBounds().width, ImagesView.IMAGE_WIDTH);
+			image.dispose();
+			image = resized;
+		}
 		return image;
 	}
 	
@@ -132,13 +193,23 @@ public class ImagesCacheProvider {
 		return ImageUtilities.trimImage(width, original);	
 	}
 	
-	public void put(IDipUnit unit, Image image, int width) {
-		Key key = new Key(unit, width);
-		fImages.put(key, image);
+	private void put(Key key, Entry entry) {
+		Entry old = fImages.put(key, entry);
+		if (old != null) {
+			old.dispose();
+		}
+		Iterator<Entry> iterator = fImages.values().iterator();
+		while (fImages.size() > MAX_IMAGES && iterator.hasNext()) {
+			Entry eldest = iterator.next();
+			iterator.remove();
+			eldest.dispose();
+		}
 	}
 
 	public void dispose() {
-		fImages.values().forEach(Image::dispose);
+		fGeneration++;
+		fLoading.clear();
+		fImages.values().forEach(Entry::dispose);
 		fImages.clear();
 	}
 	
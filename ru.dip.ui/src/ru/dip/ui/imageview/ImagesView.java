@@ -70,7 +70,7 @@ public class ImagesView extends ViewPart implements ProjectImagesListener, IImag
 	private ImagesFontProvider fFontProvider = new ImagesFontProvider();
 	private DipUnitManager fUnitManager;
 	private ImageViewMouseAdapter fMouseAdapter;
-	private ImagesCacheProvider fImageProvider = new ImagesCacheProvider();
+	private ImagesCacheProvider fImageProvider = new ImagesCacheProvider(this::thumbnailsReady);
 		
 	public ImagesView() {
 		fActionManager = new ImageViewActionManager(this);
@@ -303,4 +303,13 @@ public class ImagesView extends ViewPart implements ProjectImagesListener, IImag
 		return fImageProvider;
 	}
 
+	/**
+	 * Миниатюры построены в фоне - перерисовка
+	 */
+	private void thumbnailsReady() {
+		if (fTable != null && !fTable.isDisposed()) {
+			fTable.redraw();
+		}
+	}
+
 }
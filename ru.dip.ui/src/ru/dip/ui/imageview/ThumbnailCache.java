@@ -0,0 +1,319 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.ui.imageview;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import javax.imageio.ImageIO;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.ImageLoader;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.widgets.Display;
+
+import ru.dip.core.DipCorePlugin;
+import ru.dip.ui.ReqUIPlugin;
+
+/**
+ * Миниатюры файлов изображений
+ *
+ * Миниатюры хранятся в PNG в служебной папке плагина (workspace/.metadata), имя файла - хэш содержимого
+ * исходного файла и ширины, поэтому между сессиями оригиналы повторно не декодируются.
+ * В течение сессии имя миниатюры запоминается по пути, размеру, времени изменения файла и ширине -
+ * повторно оригинал не читается и не хэшируется.
+ * Чтение, декодирование и уменьшение выполняются в фоне (ограниченный пул потоков),
+ * результат - ImageData, Image создает потребитель в UI-потоке.
+ * При превышении MAX_FILES удаляются самые старые миниатюры (при запуске и через каждые TRIM_INTERVAL сохранений).
+ */
+public class ThumbnailCache {
+
+	private static final String FOLDER = "thumbnails"; //$NON-NLS-1$
+	private static final String EXTENSION = ".png"; //$NON-NLS-1$
+	// изменить при изменении способа построения миниатюр
+	private static final String FORMAT_VERSION = "1"; //$NON-NLS-1$
+	private static final int MAX_FILES = 4096;
+	private static final int TRIM_INTERVAL = 256;
+	private static final int MAX_WORKERS = 2;
+
+	private static ThumbnailCache instance;
+
+	public static synchronized ThumbnailCache instance() {
+		if (instance == null) {
+			instance = new ThumbnailCache();
+		}
+		return instance;
+	}
+
+	/**
+	 * Размер миниатюры (как раньше строились миниатюры в ImagesCacheProvider):
+	 * изображение вписывается в квадрат width, высота ограничивается ImagesView.IMAGE_WIDTH
+	 */
+	static Point thumbnailSize(int imageWidth, int imageHeight, int width) {
+		int resultWidth = imageWidth;
+		int resultHeight = imageHeight;
+		if (imageWidth > width || imageHeight > width) {
+			if (imageWidth > imageHeight) {
+				resultWidth = width;
+				resultHeight = (int) (imageHeight * ((double) width / imageWidth));
+			} else {
+				resultWidth = (int) (imageWidth * ((double) width / imageHeight));
+				resultHeight = width;
+			}
+		}
+		if (resultHeight > ImagesView.IMAGE_WIDTH) {
+			resultHeight = ImagesView.IMAGE_WIDTH;
+		}
+		return new Point(Math.max(1, resultWidth), Math.max(1, resultHeight));
+	}
+
+	private final ExecutorService fExecutor;
+	private final Path fFolder;
+	// построение в процессе (по исходному файлу и ширине)
+	private final Map<String, CompletableFuture<ImageData>> fPending = new ConcurrentHashMap<>();
+	// путь|размер|время изменения|ширина -> файл миниатюры
+	private final Map<String, Path> fNames = new LinkedHashMap<String, Path>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Path> eldest) {
+			return size() > MAX_FILES;
+		}
+	};
+	private final AtomicInteger fSaved = new AtomicInteger();
+
+	private ThumbnailCache() {
+		int workers = Math.max(1, Math.min(MAX_WORKERS, Runtime.getRuntime().availableProcessors() - 1));
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(workers, workers, 30, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), runnable -> {
+					Thread thread = new Thread(runnable, "Thumbnails"); //$NON-NLS-1$
+					thread.setDaemon(true);
+					return thread;
+				});
+		executor.allowCoreThreadTimeOut(true);
+		fExecutor = executor;
+		fFolder = ReqUIPlugin.getDefault().getStateLocation().append(FOLDER).toFile().toPath();
+		fExecutor.execute(this::trim);
+	}
+
+	/**
+	 * Миниатюра в фоне, onReady вызывается в UI-потоке (null - изображение не прочитано)
+	 */
+	public void load(IFile file, int width, Consumer<ImageData> onReady) {
+		if (file.getLocation() == null) {
+			Display.getDefault().asyncExec(() -> onReady.accept(null));
+			return;
+		}
+		Path source = file.getLocation().toFile().toPath();
+		String pendingKey = source + "|" + width; //$NON-NLS-1$
+		CompletableFuture<ImageData> future = new CompletableFuture<>();
+		CompletableFuture<ImageData> pending = fPending.putIfAbsent(pendingKey, future);
+		if (pending == null) {
+			fExecutor.execute(() -> {
+				ImageData data = null;
+				try {
+					data = getThumbnail(source, width);
+				} catch (Exception e) {
+					DipCorePlugin.logError(e, "Thumbnail error " + source); //$NON-NLS-1$
+				} finally {
+					fPending.remove(pendingKey);
+					future.complete(data);
+				}
+			});
+			pending = future;
+		}
+		pending.thenAccept(data -> {
+			Display display = Display.getDefault();
+			if (display != null && !display.isDisposed()) {
+				display.asyncExec(() -> onReady.accept(data));
+			}
+		});
+	}
+
+	private ImageData getThumbnail(Path source, int width) throws IOException {
+		BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+		String nameKey = source + "|" + attributes.size() + "|" + attributes.lastModifiedTime().toMillis() + "|" + width; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		Path thumbnail;
+		synchronized (fNames) {
+			thumbnail = fNames.get(nameKey);
+		}
+		if (thumbnail != null) {
+			ImageData data = readThumbnail(thumbnail);
+			if (data != null) {
+				return data;
+			}
+		}
+		byte[] content = Files.readAllBytes(source);
+		thumbnail = fFolder.resolve(hash(content, width) + EXTENSION);
+		synchronized (fNames) {
+			fNames.put(nameKey, thumbnail);
+		}
+		ImageData data = readThumbnail(thumbnail);
+		if (data != null) {
+			return data;
+		}
+		data = createThumbnail(source, width);
+		if (data != null) {
+			save(data, thumbnail);
+		}
+		return data;
+	}
+
+	/**
+	 * Сохраненная миниатюра, null - нет (удалена при очистке) или поврежденный файл
+	 */
+	private ImageData readThumbnail(Path thumbnail) {
+		if (!Files.exists(thumbnail)) {
+			return null;
+		}
+		try {
+			ImageData data = new ImageData(thumbnail.toString());
+			// для LRU при очистке папки
+			thumbnail.toFile().setLastModified(System.currentTimeMillis());
+			return data;
+		} catch (Exception e) {
+			// поврежденный файл - строим заново
+			return null;
+		}
+	}
+
+	/**
+	 * Декодирование и уменьшение оригинала
+	 * Форматы, которые не читает ImageIO (например, ico), читаются SWT
+	 */
+	private ImageData createThumbnail(Path source, int width) throws IOException {
+		BufferedImage original = ImageIO.read(source.toFile());
+		if (original == null) {
+			ImageData data = new ImageData(source.toString());
+			Point size = thumbnailSize(data.width, data.height, width);
+			if (size.x == data.width && size.y == data.height) {
+				return data;
+			}
+			return data.scaledTo(size.x, size.y);
+		}
+		Point size = thumbnailSize(original.getWidth(), original.getHeight(), width);
+		return toImageData(scale(original, size.x, size.y));
+	}
+
+	/**
+	 * Уменьшение в несколько шагов (не более чем в 2 раза за шаг), чтобы билинейная интерполяция
+	 * не пропускала пиксели
+	 */
+	private static BufferedImage scale(BufferedImage image, int width, int height) {
+		BufferedImage result = image;
+		int currentWidth = image.getWidth();
+		int currentHeight = image.getHeight();
+		do {
+			currentWidth = Math.max(width, currentWidth / 2);
+			currentHeight = Math.max(height, currentHeight / 2);
+			BufferedImage step = new BufferedImage(currentWidth, currentHeight, BufferedImage.TYPE_INT_ARGB);
+			Graphics2D graphics = step.createGraphics();
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			graphics.drawImage(result, 0, 0, currentWidth, currentHeight, null);
+			graphics.dispose();
+			result = step;
+		} while (currentWidth != width || currentHeight != height);
+		return result;
+	}
+
+	private static ImageData toImageData(BufferedImage image) {
+		int width = image.getWidth();
+		int height = image.getHeight();
+		ImageData data = new ImageData(width, height, 24, new PaletteData(0xFF0000, 0xFF00, 0xFF));
+		byte[] alpha = new byte[width * height];
+		int[] row = new int[width];
+		for (int y = 0; y < height; y++) {
+			image.getRGB(0, y, width, 1, row, 0, width);
+			for (int x = 0; x < width; x++) {
+				data.setPixel(x, y, row[x] & 0xFFFFFF);
+				alpha[y * width + x] = (byte) (row[x] >>> 24);
+			}
+		}
+		data.alphaData = alpha;
+		return data;
+	}
+
+	private void save(ImageData data, Path thumbnail) {
+		try {
+			Files.createDirectories(fFolder);
+			Path temp = Files.createTempFile(fFolder, null, EXTENSION);
+			ImageLoader loader = new ImageLoader();
+			loader.data = new ImageData[] { data };
+			loader.save(temp.toString(), SWT.IMAGE_PNG);
+			Files.move(temp, thumbnail, StandardCopyOption.REPLACE_EXISTING);
+			if (fSaved.incrementAndGet() % TRIM_INTERVAL == 0) {
+				trim();
+			}
+		} catch (Exception e) {
+			// миниатюра будет построена в следующий раз
+			DipCorePlugin.logError(e, "Save thumbnail error " + thumbnail); //$NON-NLS-1$
+		}
+	}
+
+	private static String hash(byte[] content, int width) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1"); //$NON-NLS-1$
+			digest.update(content);
+			digest.update((FORMAT_VERSION + "|" + width).getBytes()); //$NON-NLS-1$
+			StringBuilder builder = new StringBuilder();
+			for (byte b: digest.digest()) {
+				builder.append(String.format("%02x", b)); //$NON-NLS-1$
+			}
+			return builder.toString();
+		} catch (NoSuchAlgorithmException e) {
+			return Integer.toHexString(Arrays.hashCode(content)) + "_" + width; //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Удаление самых старых миниатюр при превышении MAX_FILES
+	 */
+	private void trim() {
+		File[] files = fFolder.toFile().listFiles();
+		if (files == null || files.length <= MAX_FILES) {
+			return;
+		}
+		Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+		for (int i = 0; i < files.length - MAX_FILES; i++) {
+			files[i].delete();
+		}
+	}
+
+}
@@ -217,6 +217,10 @@ public class HorizontalImageComposite implements IImageComposite {
 			column.setData(columnData = new ColumnData(unit, event));
 		} else {
 			columnData = (ColumnData) data;
+			// миниатюра могла быть еще не построена или вытеснена из кэша
+			if (columnData.fImage == null || columnData.fImage.isDisposed()) {
+				columnData.createImage();
+			}
 		}
 		// draw id
 		int xStart = event.x + 5;
@@ -0,0 +1,56 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.ui.navigator.decorator;
+
+import org.eclipse.jface.viewers.IDecoration;
+import org.eclipse.jface.viewers.ILightweightLabelDecorator;
+import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.LabelProviderChangedEvent;
+import org.eclipse.swt.widgets.Display;
+
+import ru.dip.core.model.interfaces.IDipElement;
+import ru.dip.core.model.interfaces.IDipParent;
+import ru.dip.core.utilities.GITUtilities;
+import ru.dip.core.utilities.git.GitMetadataProvider.FileMetadata;
+
+/**
+ * Статус git для файлов: "> " - изменен, " [describe]" - последний коммит файла
+ * Данные берутся из GitMetadataProvider, пока они вычисляются - без декорации
+ */
+public class GitStatusDecorator extends LabelProvider implements ILightweightLabelDecorator {
+
+	public static final String ID = "ru.dip.git.decorator"; //$NON-NLS-1$
+
+	@Override
+	public void decorate(Object element, IDecoration decoration) {
+		if (!(element instanceof IDipElement) || element instanceof IDipParent) {
+			return;
+		}
+		FileMetadata metadata = GITUtilities.getMetadata((IDipElement) element, this, this::metadataReady);
+		if (metadata == null) {
+			return;
+		}
+		if (metadata.isChanged()) {
+			decoration.addPrefix("> "); //$NON-NLS-1$
+		}
+		if (metadata.describe() != null) {
+			decoration.addSuffix(" [" + metadata.describe() + "]"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	private void metadataReady() {
+		Display.getDefault().asyncExec(() -> fireLabelProviderChanged(new LabelProviderChangedEvent(this)));
+	}
+
+}
@@ -0,0 +1,307 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.ui.table.editor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.swt.widgets.Display;
+
+import ru.dip.core.exception.NotFoundTableNodeException;
+import ru.dip.core.model.DipElementType;
+import ru.dip.core.model.DipProject;
+import ru.dip.core.model.DipRoot;
+import ru.dip.core.model.interfaces.IDipElement;
+import ru.dip.core.model.interfaces.IDipParent;
+import ru.dip.core.table.TableWriter;
+import ru.dip.core.utilities.DipUtilities;
+
+/**
+ * Обработка изменений ресурсов для DipTableEditor
+ *
+ * Изменения накапливаются в течение DELAY мс (каждое новое изменение откладывает обработку),
+ * в потоке уведомления только собираются ресурсы, сверка с моделью и обновление - в UI-потоке:
+ * - изменение содержимого файла - обновляется презентация элемента;
+ * - добавление/удаление/переименование файлов и папок, изменение .dnfo - перечитывается
+ *   родительская папка и ее узел таблицы;
+ * - изменения, которые уже есть в модели (выполнены из редактора/ProjectExplorer), пропускаются.
+ * Если изменений много относительно размера таблицы или их нельзя применить к отдельным
+ * папкам - полное обновление редактора (как раньше).
+ */
+public class DipEditorDeltaProcessor {
+
+	private static final int DELAY = 300;
+	private static final int MIN_FULL_UPDATE = 32;
+	private static final double FULL_UPDATE_RATIO = 0.3;
+
+	private final DipTableEditor fEditor;
+	private final Runnable fFlush = this::flush;
+	// измененные файлы (содержимое)
+	private final Set<IFile> fChangedFiles = new LinkedHashSet<>();
+	// папки, в которых изменился .dnfo
+	private final Set<IContainer> fChangedFolders = new LinkedHashSet<>();
+	// добавленные/удаленные ресурсы (сверяются с моделью при обработке)
+	private final Set<IResource> fAdded = new LinkedHashSet<>();
+	private final Set<IResource> fRemoved = new LinkedHashSet<>();
+	private boolean fFullUpdate = false;
+	private volatile boolean fDisposed = false;
+
+	public DipEditorDeltaProcessor(DipTableEditor editor) {
+		fEditor = editor;
+	}
+
+	/**
+	 * Вызывается из resourceChanged (в любом потоке)
+	 */
+	public void add(IResourceDelta delta, IContainer container) {
+		IResourceDelta containerDelta = delta.findMember(container.getFullPath());
+		if (containerDelta == null) {
+			return;
+		}
+		boolean changed;
+		synchronized (this) {
+			int size = size();
+			boolean full = fFullUpdate;
+			if (containerDelta.getKind() != IResourceDelta.CHANGED) {
+				// удален/добавлен сам контейнер редактора
+				fFullUpdate = true;
+			} else {
+				try {
+					containerDelta.accept(this::visit);
+				} catch (CoreException e) {
+					e.printStackTrace();
+					fFullUpdate = true;
+				}
+			}
+			changed = size != size() || full != fFullUpdate;
+		}
+		if (changed) {
+			schedule();
+		}
+	}
+
+	private boolean visit(IResourceDelta delta) {
+		IResource resource = delta.getResource();
+		switch (delta.getKind()) {
+		// переименование - REMOVED (MOVED_TO) + ADDED (MOVED_FROM)
+		case IResourceDelta.ADDED: {
+			if (isModelResource(resource)) {
+				fAdded.add(resource);
+			}
+			return false;
+		}
+		case IResourceDelta.REMOVED: {
+			// тип удаленного ресурса не определить (нет .dnfo) - проверяется только модель
+			fRemoved.add(resource);
+			return false;
+		}
+		case IResourceDelta.CHANGED: {
+			if (resource instanceof IFile) {
+				// маркеры, синхронизация и т.п. - содержимое не изменилось
+				if ((delta.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED)) == 0) {
+					return false;
+				}
+				IFile file = (IFile) resource;
+				if (DipRoot.getType(file) == DipElementType.TABLE) {
+					if (!TableWriter.isSavedByModel(file)) {
+						fChangedFolders.add(file.getParent());
+					}
+				} else {
+					fChangedFiles.add(file);
+				}
+				return false;
+			}
+			return true;
+		}
+		default:
+			return true;
+		}
+	}
+
+	/**
+	 * Ресурсы, которые отображаются в таблице (служебные, настройки экспорта и т.п. пропускаются)
+	 * Комментарии и описания не являются дочерними элементами папки - изменяют только презентацию
+	 */
+	private boolean isModelResource(IResource resource) {
+		if (resource.isTeamPrivateMember() || resource.isDerived()) {
+			return false;
+		}
+		if (!(resource instanceof IFile) && !(resource instanceof IFolder)) {
+			return false;
+		}
+		switch (DipRoot.getType(resource)) {
+		case SERV_FOLDER:
+		case BROKEN_FOLDER:
+		case EXPORT_CONFIG:
+		case UNDEFINE:
+		case COMMENT:
+		case DESCRIPTION:
+		case FOLDER_COMMENT:
+			return false;
+		default:
+			return true;
+		}
+	}
+
+	/**
+	 * Если ресурс создан/удален через модель - изменение в модели уже есть
+	 */
+	private IDipElement findInModel(IResource resource) {
+		return DipUtilities.findElement(resource);
+	}
+	
+	/**
+	 * Папки, состав которых не совпадает с моделью (вызывается в UI-потоке)
+	 */
+	private void resolveFolders(List<IResource> added, List<IResource> removed, List<IContainer> folders) {
+		for (IResource resource: added) {
+			if (findInModel(resource) == null && !folders.contains(resource.getParent())) {
+				folders.add(resource.getParent());
+			}
+		}
+		for (IResource resource: removed) {
+			if (findInModel(resource) != null && !folders.contains(resource.getParent())) {
+				folders.add(resource.getParent());
+			}
+		}
+	}
+
+	private int size() {
+		return fChangedFiles.size() + fChangedFolders.size() + fAdded.size() + fRemoved.size();
+	}
+
+	private void schedule() {
+		Display display = Display.getDefault();
+		if (display == null || display.isDisposed()) {
+			return;
+		}
+		// повторный timerExec для того же Runnable переносит срабатывание
+		display.asyncExec(() -> {
+			if (!fDisposed) {
+				display.timerExec(DELAY, fFlush);
+			}
+		});
+	}
+
+	//=========================
+	// apply
+
+	private void flush() {
+		if (fDisposed) {
+			return;
+		}
+		List<IFile> files;
+		List<IContainer> folders;
+		List<IResource> added;
+		List<IResource> removed;
+		boolean fullUpdate;
+		synchronized (this) {
+			files = new ArrayList<>(fChangedFiles);
+			folders = new ArrayList<>(fChangedFolders);
+			added = new ArrayList<>(fAdded);
+			removed = new ArrayList<>(fRemoved);
+			fullUpdate = fFullUpdate;
+			fChangedFiles.clear();
+			fChangedFolders.clear();
+			fAdded.clear();
+			fRemoved.clear();
+			fFullUpdate = false;
+		}
+		if (fEditor.kTable() == null) {
+			// таблица еще не создана
+			fEditor.setModelChanged();
+			return;
+		}
+		if (!fullUpdate) {
+			resolveFolders(added, removed, folders);
+		}
+		if (fullUpdate || isFullUpdate(files, folders) || !updateFolders(folders)) {
+			fullUpdate();
+			return;
+		}
+		for (IFile file: files) {
+			if (file.exists() && !isLocated(file, folders)) {
+				fEditor.updater().updateFilePresentation(file);
+			}
+		}
+	}
+
+	private boolean isFullUpdate(List<IFile> files, List<IContainer> folders) {
+		if (fEditor.kTable().isDiffMode() && !folders.isEmpty()) {
+			return true;
+		}
+		int changes = files.size() + folders.size();
+		if (changes < MIN_FULL_UPDATE) {
+			return false;
+		}
+		return changes > fEditor.kTable().tableModel().getElements().size() * FULL_UPDATE_RATIO;
+	}
+
+	/**
+	 * Перечитывает папки и их узлы таблицы
+	 * @return false - если папку нельзя обновить отдельно (нужно полное обновление)
+	 */
+	private boolean updateFolders(List<IContainer> folders) {
+		// вложенные папки перечитываются вместе с родительской
+		List<IContainer> all = new ArrayList<>(folders);
+		folders.removeIf(folder -> isLocated(folder, all));
+		for (IContainer folder: folders) {
+			IDipElement element = DipUtilities.findElement(folder);
+			if (!(element instanceof IDipParent) || element instanceof DipProject) {
+				return false;
+			}
+			IDipParent dipParent = (IDipParent) element;
+			dipParent.refresh();
+			try {
+				fEditor.updater().updatePresentationForNewObject(dipParent);
+			} catch (NotFoundTableNodeException e) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isLocated(IResource resource, List<IContainer> folders) {
+		for (IContainer folder: folders) {
+			if (!folder.equals(resource) && folder.getFullPath().isPrefixOf(resource.getFullPath())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void fullUpdate() {
+		fEditor.setModelChanged();
+		if (fEditor.getSite().getPage().getActiveEditor() == fEditor) {
+			fEditor.updateEditor();
+		}
+	}
+
+	public void dispose() {
+		fDisposed = true;
+		Display display = Display.getDefault();
+		if (display != null && !display.isDisposed()) {
+			display.asyncExec(() -> display.timerExec(-1, fFlush));
+		}
+	}
+
+}
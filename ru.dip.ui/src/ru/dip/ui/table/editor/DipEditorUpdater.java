@@ -15,6 +15,7 @@ package ru.dip.ui.table.editor;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -320,29 +321,28 @@ public class DipEditorUpdater {
 		}
 		if (nodes.size() < 3) {
 			updateNodePresentationWithChildren(nodes);
+			return;
 		}
 		
+		updateColors();
+		updatePresentationForAllDescriptions();
+		updatePresentationForAllNodes();
+		// все элементы одним списком - текст вычисляется в пуле потоков, применяется пакетами в UI-потоке (см. DipTableModel.updateElements)
+		List<IDipTableElement> elements = new ArrayList<>(nodes);
+		nodes.forEach(node -> elements.addAll(tableModel().getElementsWithChild(node.children())));
+		
 		IWorkbench wb = PlatformUI.getWorkbench();
 		IProgressService ps = wb.getProgressService();
 		try {
 			ps.busyCursorWhile(new IRunnableWithProgress() {
 				public void run(IProgressMonitor pm) {
-					Display.getDefault().asyncExec(() -> {
-						updateColors();
-						updatePresentationForAllDescriptions();
-						updatePresentationForAllNodes();
-						
-						nodes.forEach(node -> { 
-								tableModel().updateElements(List.of(node));
-								tableModel().updateElementsWithChild(node.children());
-						});
-						table().refreshTable();
-					});
+					tableModel().updateElements(elements);
 				}
 			});
 		} catch (InvocationTargetException | InterruptedException e) {
 			e.printStackTrace();
 		}
+		table().refreshTable();
 	}
 	
 	private void updateNodePresentationWithChildren(TableNode node) {
@@ -23,10 +23,8 @@ import java.util.List;
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.eclipse.core.resources.IContainer;
-import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.IResourceChangeListener;
-import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.swt.SWT;
@@ -59,7 +57,6 @@ import org.eclipse.ui.part.EditorPart;
 import ru.dip.core.model.DipElementType;
 import ru.dip.core.model.DipProject;
 import ru.dip.core.model.DipTableContainer;
-import ru.dip.core.model.DnfoTable;
 import ru.dip.core.model.finder.IFinder;
 import ru.dip.core.model.interfaces.IDipDocumentElement;
 import ru.dip.core.model.interfaces.IDipEditor;
@@ -92,6 +89,7 @@ public class DipTableEditor extends EditorPart implements IResourceChangeListene
 
 	// model
 	private DipEditorUpdater fUpdater;
+	private DipEditorDeltaProcessor fDeltaProcessor;
 	private TableModel fTableModel;
 	private IContainer fContainer;	
 	private boolean fDirty = false;
@@ -132,6 +130,7 @@ public class DipTableEditor extends EditorPart implements IResourceChangeListene
 	
 	public DipTableEditor() {
 		fUpdater = new DipEditorUpdater(this);
+		fDeltaProcessor = new DipEditorDeltaProcessor(this);
 	}
 	
 	@Override
@@ -375,34 +374,11 @@ public class DipTableEditor extends EditorPart implements IResourceChangeListene
 	
 	@Override
 	public void resourceChanged(IResourceChangeEvent event) {
-		if (event.getDelta() == null) {
+		IContainer container = fContainer;
+		if (event.getDelta() == null || container == null) {
 			return;
 		}
-		IFile file = getModifitedFile(event.getDelta());
-		if (file != null && !file.getName().equals(DnfoTable.TABLE_FILE_NAME)) {
-			updater().updateFilePresentation(file);
-			return;
-		}
-		
-		if (fContainer != null && event.getDelta() != null){
-			if (event.getDelta().findMember(fContainer.getFullPath()) != null){
-				setModelChanged();
-			}
-		}
-	}
-	
-
-	
-	private IFile getModifitedFile(IResourceDelta delta) {
-		if (delta.getKind() == IResourceDelta.CHANGED) {
-			if (delta.getResource() instanceof IFile) {
-				return (IFile) delta.getResource();
-			}
-			if (delta.getAffectedChildren().length == 1) {
-				return getModifitedFile(delta.getAffectedChildren()[0]);
-			}					
-		} 
-		return null;		
+		fDeltaProcessor.add(event.getDelta(), container);
 	}
 	
 	@Override
@@ -612,6 +588,7 @@ public class DipTableEditor extends EditorPart implements IResourceChangeListene
 	@Override
 	public void dispose() {
 		ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+		fDeltaProcessor.dispose();
 		fMarksUpdateListener = null;
 		
 		if (fParentComposite != null && !fParentComposite.isDisposed()) {
@@ -141,13 +141,12 @@ public class KDipTableSelector implements ISelector {
 	}
 	
 	private void addToShiftSelection(IDipTableElement element) {		
-		List<IDipTableElement> elements =  fTableComposite.tableModel().getElements();		
-		int elementIndex = elements.indexOf(element);
+		int elementIndex = tableModel().indexOfElement(element);
 		
-		IntSummaryStatistics statistic = fSelectedTblElements.stream().mapToInt(elements::indexOf).summaryStatistics();
+		IntSummaryStatistics statistic = fSelectedTblElements.stream().mapToInt(tableModel()::indexOfElement).summaryStatistics();
 		int selectMin = statistic.getMin();
 		int selectMax = statistic.getMax();		
-		int lastSelectedIndex = elements.indexOf(fLastSelectedObj);
+		int lastSelectedIndex = tableModel().indexOfElement(fLastSelectedObj);
 	
 		fSelectedTblElements.clear();
 
@@ -187,8 +186,8 @@ public class KDipTableSelector implements ISelector {
 	
 	private void selectBetween(int startIndex, int endIndex) {
 		List<IDipTableElement> elements =  fTableComposite.tableModel().getElements();
-		startIndex = elements.indexOf(elements.get(startIndex).startElement(HideElements.EXCLUDE));		
-		endIndex = elements.indexOf(elements.get(endIndex).endElement(HideElements.EXCLUDE));	
+		startIndex = tableModel().indexOfElement(elements.get(startIndex).startElement(HideElements.EXCLUDE));		
+		endIndex = tableModel().indexOfElement(elements.get(endIndex).endElement(HideElements.EXCLUDE));	
 		fSelectedTblElements.addAll(elements.subList(startIndex, endIndex + 1));	
 	}
 	
@@ -223,7 +222,7 @@ public class KDipTableSelector implements ISelector {
 
 	@Override
 	public void setTopItemElement(Object tableElement) {
-		int index = tableModel().getElements().indexOf(tableElement);
+		int index = tableModel().indexOfElement(tableElement);
 		// как отображается на экране (полностью, частично, не отображается)
 		RowVisible cellVisible = (fTableComposite.table().isShowRow(index));
 		if (cellVisible == RowVisible.FULL) {
@@ -82,6 +82,7 @@ import ru.dip.core.model.IncludeFolder;
 import ru.dip.core.model.TocRef;
 import ru.dip.core.model.finder.FindSettings;
 import ru.dip.core.model.finder.IFinder;
+import ru.dip.core.model.finder.TextIndex;
 import ru.dip.core.model.finder.WordFinder;
 import ru.dip.core.model.interfaces.IDipDocumentElement;
 import ru.dip.core.model.interfaces.IDipElement;
@@ -854,26 +855,33 @@ public class KTableComposite extends Composite implements ITableComposite {
 	
 	class SearchElemetns implements ISearchElementsHolder {
 
-		private IDipDocumentElement[] fDipDocElements;
-
 		private SearchElemetns() {
-			computeElements();
 		}
 
-		private void computeElements() {
-			fDipDocElements = fModel.getOneListChildren();
+		@Override
+		public IDipDocumentElement[] getDipDocElementsForSearch() {
+			IDipDocumentElement[] dipDocElements = fModel.getOneListChildren();
 			IDipDocumentElement select = fSelector.getLastSelectDipDocElement();
-			int startIndex = ArrayUtils.getIndex(fDipDocElements, select);
+			int startIndex = ArrayUtils.getIndex(dipDocElements, select);
 			if (startIndex > 0) {
-				IDipDocumentElement[] start = Arrays.copyOf(fDipDocElements, startIndex);
-				IDipDocumentElement[] end = Arrays.copyOfRange(fDipDocElements, startIndex, fDipDocElements.length);
-				fDipDocElements = Stream.of(end, start).flatMap(Stream::of).toArray(IDipDocumentElement[]::new);
+				IDipDocumentElement[] start = Arrays.copyOf(dipDocElements, startIndex);
+				IDipDocumentElement[] end = Arrays.copyOfRange(dipDocElements, startIndex, dipDocElements.length);
+				dipDocElements = Stream.of(end, start).flatMap(Stream::of).toArray(IDipDocumentElement[]::new);
 			}
+			return dipDocElements;
 		}
-
+		
+		/**
+		 * Кандидаты по индексу проекта (без обхода дерева модели на каждый запрос)
+		 */
 		@Override
-		public IDipDocumentElement[] getDipDocElementsForSearch() {
-			return fDipDocElements;
+		public IDipDocumentElement[] getDipDocElementsForSearch(String text, FindSettings findSettings) {
+			if (fModel.dipProject() == null) {
+				return getDipDocElementsForSearch();
+			}
+			TextIndex index = fModel.dipProject().getTextIndex();
+			return index.getSearchOrder(fModel).getElements(index, text, findSettings,
+					fSelector.getLastSelectDipDocElement());
 		}
 
 	}
@@ -1736,7 +1744,7 @@ public class KTableComposite extends Composite implements ITableComposite {
 		IDipTableElement element = fSelector.getLastSelectObject();
 		if (element != null) {
 			element = element.startElement(HideElements.EXCLUDE);
-			int index = fDipTableModel.getElements().indexOf(element) - 1;
+			int index = fDipTableModel.indexOfElement(element) - 1;
 			if (index >= 0) {
 				IDipTableElement upElement = fDipTableModel.getElements().get(index);
 				fSelector.setTableElementSelection(upElement);
@@ -1748,7 +1756,7 @@ public class KTableComposite extends Composite implements ITableComposite {
 		IDipTableElement element = fSelector.getLastSelectObject();
 		if (element != null) {
 			element = element.endElement(HideElements.EXCLUDE);
-			int index = fDipTableModel.getElements().indexOf(element) + 1;
+			int index = fDipTableModel.indexOfElement(element) + 1;
 			if (index < fDipTableModel.getElements().size()) {
 				IDipTableElement downElement = fDipTableModel.getElements().get(index);
 				fSelector.setTableElementSelection(downElement);
@@ -1893,6 +1901,7 @@ public class KTableComposite extends Composite implements ITableComposite {
 		fTable.setModel(fDipTableModel);
 	}
 
+	@Override
 	public void refreshElements(Collection<IDipTableElement> elements) {
 		fDipTableModel.updateElementsWithChild(elements);
 		refreshTable();
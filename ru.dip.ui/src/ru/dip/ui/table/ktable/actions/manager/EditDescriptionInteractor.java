@@ -62,7 +62,7 @@ public class EditDescriptionInteractor {
 	
 	private boolean deleteIfExistsEmptyDescription(IDipTableElement element) {
 		if (element.isEmptyDescription()) {
-			tableModel().getElements().remove(element);
+			tableModel().removeFromElements(List.of(element));
 			return true;
 		}
 		return false;
@@ -140,11 +140,11 @@ public class EditDescriptionInteractor {
 	}
 
 	private void addDescriptionToModel(IDipTableElement endElement) {
-		if (!tableModel().getElements().contains(endElement)) {
+		if (tableModel().indexOfElement(endElement) < 0) {
 			IDipTableElement startElement = endElement.startElement(HideElements.EXCLUDE);
-			int indexStartElement = tableModel().getElements().indexOf(startElement);
+			int indexStartElement = tableModel().indexOfElement(startElement);
 			int index = indexStartElement + startElement.parent().linkedElements(startElement, HideElements.EXCLUDE).size() - 1;
-			tableModel().getElements().add(index, endElement);
+			tableModel().addElement(index, endElement);
 		}
 	}
 	
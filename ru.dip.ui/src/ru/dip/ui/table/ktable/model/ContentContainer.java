@@ -13,28 +13,97 @@
  *******************************************************************************/
 package ru.dip.ui.table.ktable.model;
 
-import java.util.Map;
-
+/**
+ * Содержимое ячеек элемента таблицы (ID, презентация, комментарий)
+ * 
+ * Высота и ширина хранятся в массиве int (без упаковки, чтение - обращение к массиву),
+ * остальное содержимое (текст, изображение, шрифт и т.д.) - в массиве объектов, 
+ * который создается при первой записи.
+ */
 public final class ContentContainer {
+	
+	private static final int ID_COUNT = ContentId.values().length;
+	private static final int TYPE_COUNT = ContentType.values().length;
+	
+	// [id * 2] - высота, [id * 2 + 1] - ширина
+	private final int[] fSizes = new int[ID_COUNT * 2];
+	// установленные высоты/ширины (биты по индексам fSizes)
+	private int fSizeMask;
+	private Object[] fObjects;
+	
+	private static int sizeIndex(ContentId id, ContentType type) {
+		switch (type) {
+		case HEIGHT:
+			return id.ordinal() * 2;
+		case WIDTH:
+			return id.ordinal() * 2 + 1;
+		default:
+			return -1;
+		}
+	}
+	
+	private static int objectIndex(ContentId id, ContentType type) {
+		return id.ordinal() * TYPE_COUNT + type.ordinal();
+	}
 
-	private final Map<ContentId, Content> fContentById = Map.of(
-			ContentId.ID, new Content(), 
-			ContentId.PRESENTATION,	new Content(), 
-			ContentId.COMMENT, new Content());
-
+	@SuppressWarnings("unchecked")
 	public <T> T get(ContentId id, ContentType type, Class<T> className) {
-		Content content = fContentById.get(id);
-		return content.get(type, className);
+		Object obj;
+		int sizeIndex = sizeIndex(id, type);
+		if (sizeIndex >= 0) {
+			obj = (fSizeMask & (1 << sizeIndex)) != 0 ? Integer.valueOf(fSizes[sizeIndex]) : null;
+		} else {
+			obj = fObjects == null ? null : fObjects[objectIndex(id, type)];
+		}
+		if (obj == null) {
+			return null;
+		}
+		if (obj.getClass() == className) {
+			return (T) obj;
+		}
+		return null;
 	}
 
 	public int getInt(ContentId id, ContentType type) {
-		Content content = fContentById.get(id);
-		return content.getInt(id, type);
+		int sizeIndex = sizeIndex(id, type);
+		if (sizeIndex >= 0) {
+			return fSizes[sizeIndex];
+		}
+		Object obj = fObjects == null ? null : fObjects[objectIndex(id, type)];
+		if (obj instanceof Integer) {
+			return (int) obj;
+		}		
+		return 0;
 	}
 
+	public void putInt(ContentId id, ContentType type, int value) {
+		int sizeIndex = sizeIndex(id, type);
+		if (sizeIndex < 0) {
+			put(id, type, value);
+			return;
+		}
+		fSizes[sizeIndex] = value;
+		fSizeMask |= 1 << sizeIndex;
+	}
+	
 	public void put(ContentId id, ContentType type, Object object) {
-		Content content = fContentById.get(id);
-		content.put(type, object);
+		int sizeIndex = sizeIndex(id, type);
+		if (sizeIndex >= 0) {
+			if (object instanceof Integer) {
+				putInt(id, type, (int) object);
+				return;
+			}
+			fSizes[sizeIndex] = 0;
+			fSizeMask &= ~(1 << sizeIndex);
+			return;
+		}
+		if (fObjects == null) {
+			if (object == null) {
+				return;
+			}
+			fObjects = new Object[ID_COUNT * TYPE_COUNT];
+		}
+		fObjects[objectIndex(id, type)] = object;
 	}
 
 }
@@ -46,8 +46,7 @@ public final class ContentProvider {
 	}
 
 	public void setHeight(IContentContainer container, int height) {
-		put(container, ContentType.HEIGHT, height); 
-		
+		container.putInt(fContentId, ContentType.HEIGHT, height); 
 	}
 	
 	public void setFont(IContentContainer container, Font font) {
@@ -15,11 +15,25 @@ package ru.dip.ui.table.ktable.model;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.ICoreRunnable;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.widgets.Display;
 
 import de.kupzog.ktable.KTableCellEditor;
 import de.kupzog.ktable.KTableCellRenderer;
@@ -35,7 +49,9 @@ import ru.dip.core.model.interfaces.IDipUnit;
 import ru.dip.core.model.interfaces.IUnitPresentation;
 import ru.dip.core.report.model.condition.Condition;
 import ru.dip.core.unit.UnitType;
+import ru.dip.core.utilities.ui.swt.FontDimension;
 import ru.dip.ktable.DipTable;
+import ru.dip.ktable.model.RowHeightIndex;
 import ru.dip.ui.table.ktable.KTableComposite;
 import ru.dip.ui.table.ktable.actions.edit.EditUnitAction;
 import ru.dip.ui.table.ktable.celleditors.CellInfo;
@@ -45,12 +61,32 @@ import ru.dip.ui.table.ktable.render.HeaderCellRender;
 import ru.dip.ui.table.ktable.render.IDCellRender;
 import ru.dip.ui.table.ktable.render.IDPainter;
 import ru.dip.ui.table.ktable.render.PaintPresentationUtils;
+import ru.dip.ui.table.ktable.render.PreparedText;
 import ru.dip.ui.table.ktable.render.PresentationCellRender;
 import ru.dip.ui.table.ktable.render.PresentationPainter;
 import ru.dip.ui.table.table.TableModel;
+import ru.dip.ui.table.table.TableSettings;
 
 public class DipTableModel implements KTableModel, IDipTableModel {
 	
+	// подготовка элементов из фонового потока - пакетами в UI-потоке
+	private static final int PREPARE_BATCH = 50;
+	// текст Presentation (PreparedText) вычисляется в пуле потоков - если элементов не меньше
+	private static final int PARALLEL_THRESHOLD = 16;
+	private static final ForkJoinPool PREPARE_POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+	
+	// виртуальный режим (если элементов не меньше VIRTUAL_THRESHOLD): ряды получают оценочную высоту,
+	// сначала готовятся видимые ряды (+ PREFETCH_ROWS), остальные - в фоне пакетами
+	private static final int VIRTUAL_THRESHOLD = 1000;
+	private static final int PREFETCH_ROWS = 50;
+	private static final int BACKGROUND_BATCH = 200;
+	private static final int ESTIMATED_IMAGE_HEIGHT = 200;
+	private static final int ESTIMATED_MAX_LINES = 300;
+	private static final int ESTIMATED_FIXED_LINES = 3;
+	// пока размер файла неизвестен (уточняется в фоне - refineEstimates)
+	private static final int ESTIMATED_LINES = 3;
+	private static final int ESTIMATED_MARGIN = 10;
+	
 	private DipTable fTable;
 	private KTableComposite fTableComposite;
 	private TableNode fRootNode;
@@ -90,6 +126,21 @@ public class DipTableModel implements KTableModel, IDipTableModel {
 	private List<IDipTableElement> fElements = new ArrayList<>();
 	private boolean fNeedUpdate = false;
 	private List<IDipTableElement> fNewElements;  // используются при обновлении
+	private Job fPrepareJob;                      // фоновая подготовка (виртуальный режим)
+	
+	// индексы высот рядов (строятся лениво, сбрасываются при изменении элементов или высот)
+	private RowHeightIndex fRowHeightIndex;       // getRowHeight без учета отступа первой ячейки
+	private RowHeightIndex fFullRowHeightIndex;   // getFullRowHeight
+	private List<IDipTableElement> fIndexedElements;
+	private int fIndexedSize;
+	private boolean fIndexedShowId;
+	private boolean fIndexedShowComment;
+	// высота изменилась не в UI-потоке - индекс перестраивается при следующем обращении
+	private volatile boolean fHeightIndexStale;
+	// номера рядов элементов (поддерживается при addElement/removeFromElements, перестраивается при замене fElements)
+	private Map<IDipTableElement, Integer> fElementRows;
+	private List<IDipTableElement> fElementRowsList;
+	private int fElementRowsSize;
 
 	// фильтр
 	private Condition fCondition;
@@ -196,6 +247,7 @@ public class DipTableModel implements KTableModel, IDipTableModel {
 	
 	public void applyNewElements() {
 		fElements = fNewElements;
+		invalidateHeightIndex();
 	}
 	
 	private List<ParentNode> parentElements(ITableNode node) {
@@ -320,9 +372,205 @@ public class DipTableModel implements KTableModel, IDipTableModel {
 			
 	/** 
 	 * Обновить все элементы
+	 * Если элементов много - виртуальный режим: оценочные высоты, видимые ряды сразу, остальные в фоне
 	 */
  	public void updateAllElements() {
-		updateElements(fElements);
+ 		cancelBackgroundPrepare();
+ 		if (fElements.size() < VIRTUAL_THRESHOLD || Display.getCurrent() == null) {
+ 			updateElements(fElements);
+ 			return;
+ 		}
+ 		List<IDipTableElement> elements = new ArrayList<>(fElements);
+ 		PaintPresentationUtils.removeCachedLayouts(elements);
+ 		elements.stream()
+ 			.map(TableElement.class::cast)
+ 			.forEach(this::estimate);
+ 		invalidateHeightIndex();
+ 		prepareRows(fTable.topRow(), fTable.getClientArea().height);
+ 		scheduleBackgroundPrepare(elements);
+ 	}
+ 	
+ 	//=========================
+ 	// virtual mode
+ 	
+ 	/**
+ 	 * Оценочная высота элемента (до подготовки) - по типу,
+ 	 * размер файла в UI-потоке не читается (см. refineEstimates)
+ 	 */
+ 	private void estimate(TableElement element) {
+ 		element.setEstimated(true);
+ 		element.putInt(ContentId.PRESENTATION, ContentType.HEIGHT, estimateHeight(element, -1));
+ 	}
+ 	
+ 	/**
+ 	 * size - размер файла, -1 - неизвестен
+ 	 */
+ 	private int estimateHeight(TableElement element, long size) {
+ 		IDipDocumentElement dde = element.dipDocElement();
+ 		if (element instanceof TableNode) {
+ 			return TableSettings.boldPresentationFontDimension().charHeight() + ESTIMATED_MARGIN;
+ 		}
+ 		FontDimension font = TableSettings.presentationFontDimension();
+ 		if (!(dde instanceof IUnitPresentation) || element.isAbstractField()) {
+ 			return font.charHeight() + ESTIMATED_MARGIN;
+ 		}
+ 		UnitType type = ((IUnitPresentation) dde).getUnitType();
+ 		if (type.isImageType()) {
+ 			return ESTIMATED_IMAGE_HEIGHT;
+ 		}
+ 		int lineLength = Math.max(1, font.getStringLength(presentationWidth()));
+ 		int lines = size < 0 ? ESTIMATED_LINES : (int) Math.min(ESTIMATED_MAX_LINES, size / lineLength + 1);
+ 		if (fTableComposite.getTableSettings().isFixedContent()) {
+ 			lines = Math.min(lines, ESTIMATED_FIXED_LINES);
+ 		}
+ 		return font.getHeight(lines) + ESTIMATED_MARGIN;
+ 	}
+ 	
+ 	/**
+ 	 * Готовит неподготовленные элементы рядов, начиная с from, занимающих height пикселей
+ 	 * (+ PREFETCH_ROWS выше и ниже). Вызывается DipTable перед отрисовкой.
+ 	 * После подготовки высоты меняются - окно пересчитывается (несколько проходов)
+ 	 */
+ 	@Override
+ 	public void prepareRows(int from, int height) {
+ 		if (fElements == null) {
+ 			return;
+ 		}
+ 		for (int pass = 0; pass < 3; pass++) {
+ 			List<IDipTableElement> estimated = estimatedRows(from, height);
+ 			if (estimated.isEmpty()) {
+ 				return;
+ 			}
+ 			prepareEstimated(estimated, computeTexts(estimated, false));
+ 			invalidateHeightIndex();
+ 		}
+ 	}
+ 	
+ 	private List<IDipTableElement> estimatedRows(int from, int height) {
+ 		Set<IDipTableElement> result = Collections.newSetFromMap(new IdentityHashMap<>());
+ 		int rowCount = getRowCount();
+ 		int rowsHeight = 0;
+ 		int after = 0;
+ 		for (int row = Math.max(1, from - PREFETCH_ROWS); row < rowCount && after < PREFETCH_ROWS; row++) {
+ 			addEstimated(result, fElements.get(row - 1));
+ 			if (row < from) {
+ 				continue;
+ 			}
+ 			if (rowsHeight < height) {
+ 				rowsHeight += getRowHeight(row);
+ 			} else {
+ 				after++;
+ 			}
+ 		}
+ 		return new ArrayList<>(result);
+ 	}
+ 	
+ 	private void addEstimated(Set<IDipTableElement> result, IDipTableElement element) {
+ 		if (!(element instanceof TableElement) || !((TableElement) element).isEstimated()) {
+ 			return;
+ 		}
+ 		result.add(element);
+ 		// поля формы готовятся вместе (общий FormPresentation)
+ 		if (element.isAbstractField() && element.getLinkedElements() != null) {
+ 			result.addAll(element.getLinkedElements());
+ 		}
+ 	}
+ 	
+ 	/**
+ 	 * Подготовка остальных элементов в фоне, после каждого пакета пересчитывается скролбар.
+ 	 * Текст пакета вычисляется в пуле потоков (computeTexts), применяется в UI-потоке,
+ 	 * элементы забираются через claimEstimated, поэтому каждый готовится одним путем
+ 	 */
+ 	private void scheduleBackgroundPrepare(List<IDipTableElement> elements) {
+ 		Job job = Job.create("Prepare table elements", new ICoreRunnable() {
+ 			
+ 			@Override
+ 			public void run(IProgressMonitor monitor) throws CoreException {
+ 				refineEstimates(elements, monitor);
+ 				for (int i = 0; i < elements.size(); i += BACKGROUND_BATCH) {
+ 					if (monitor.isCanceled() || fTable == null) {
+ 						return;
+ 					}
+ 					List<IDipTableElement> batch = elements.subList(i, Math.min(elements.size(), i + BACKGROUND_BATCH));
+ 					Map<IDipTableElement, PreparedText> prepared = computeTexts(batch, true);
+ 					Display.getDefault().syncExec(() -> {
+ 						if (fTable == null || monitor.isCanceled()) {
+ 							return;
+ 						}
+ 						if (prepareEstimated(batch, prepared)) {
+ 							invalidateHeightIndex();
+ 							fTable.rowHeightsChanged();
+ 						}
+ 					});
+ 				}
+ 			}
+ 		});
+ 		job.setSystem(true);
+ 		job.setPriority(Job.DECORATE);
+ 		fPrepareJob = job;
+ 		job.schedule();
+ 	}
+ 	
+ 	/**
+ 	 * Уточняет оценочные высоты по размеру файлов: размеры читаются в фоновом потоке,
+ 	 * высоты ставятся в UI-потоке (только элементам, которые еще не подготовлены)
+ 	 */
+ 	private void refineEstimates(List<IDipTableElement> elements, IProgressMonitor monitor) {
+ 		Map<TableElement, Long> sizes = new IdentityHashMap<>();
+ 		for (IDipTableElement element: elements) {
+ 			if (monitor.isCanceled()) {
+ 				return;
+ 			}
+ 			IPath location = textLocation(element);
+ 			if (location != null) {
+ 				sizes.put((TableElement) element, location.toFile().length());
+ 			}
+ 		}
+ 		Display.getDefault().syncExec(() -> {
+ 			if (fTable == null || monitor.isCanceled()) {
+ 				return;
+ 			}
+ 			sizes.forEach((element, size) -> {
+ 				if (element.isEstimated()) {
+ 					element.putInt(ContentId.PRESENTATION, ContentType.HEIGHT, estimateHeight(element, size));
+ 				}
+ 			});
+ 			invalidateHeightIndex();
+ 			fTable.rowHeightsChanged();
+ 		});
+ 	}
+ 	
+ 	/**
+ 	 * Файл, от размера которого зависит оценочная высота (не изображения), иначе null
+ 	 */
+ 	private IPath textLocation(IDipTableElement element) {
+ 		IDipDocumentElement dde = element.dipDocElement();
+ 		if (element instanceof TableNode || element.isAbstractField() || !(dde instanceof IUnitPresentation)
+ 				|| ((IUnitPresentation) dde).getUnitType().isImageType()) {
+ 			return null;
+ 		}
+ 		return dde.resource().getLocation();
+ 	}
+ 	
+ 	/**
+ 	 * Готовит элементы с оценочной высотой (в UI-потоке), возвращает true, если что-то подготовлено
+ 	 */
+ 	private boolean prepareEstimated(List<IDipTableElement> elements, Map<IDipTableElement, PreparedText> prepared) {
+ 		List<IDipTableElement> claimed = elements.stream()
+ 				.filter(element -> ((TableElement) element).claimEstimated())
+ 				.collect(Collectors.toList());
+ 		if (claimed.isEmpty()) {
+ 			return false;
+ 		}
+ 		prepareElements(claimed, prepared);
+ 		return true;
+ 	}
+ 	
+ 	private void cancelBackgroundPrepare() {
+ 		if (fPrepareJob != null) {
+ 			fPrepareJob.cancel();
+ 			fPrepareJob = null;
+ 		}
  	}
 	
  	/**
@@ -330,9 +578,16 @@ public class DipTableModel implements KTableModel, IDipTableModel {
  	 * (если включен FixedContent, т.к. меняются дочерние элементы при выделении папки)
  	 */
  	public void updateElementsWithChild(Collection<IDipTableElement> elementsToUpdate) {
+		updateElements(getElementsWithChild(elementsToUpdate));
+	}
+ 	
+ 	/**
+ 	 * Элементы + дочерние элементы раскрытых узлов
+ 	 */
+ 	public List<IDipTableElement> getElementsWithChild(Collection<IDipTableElement> elementsToUpdate) {
 		List<IDipTableElement> elements = new ArrayList<>();
 		elementsToUpdate.forEach(element -> computeElementsForUpdate(elements, element));
-		updateElements(elements);
+		return elements;
 	}
 	
  	/**
@@ -352,8 +607,83 @@ public class DipTableModel implements KTableModel, IDipTableModel {
  		
 	/**
 	 * Обновляет элементы
+	 * Текст TextPresentation/MarkDownPresentation (чтение, разбор, перенос строк, орфография)
+	 * вычисляется в пуле потоков по неизменяемым входным данным (см. PreparedText).
+	 * Состояние Presentation и модели читается при отрисовке, поэтому результат применяется в UI-потоке.
+	 * Из фонового потока - пакетами через syncExec, между пакетами таблица продолжает 
+	 * отрисовываться и обрабатывать события
 	 */
 	public void updateElements(List<IDipTableElement> elements) {
+		if (Display.getCurrent() != null) {
+			prepareElements(elements, computeTexts(elements, false));
+			return;
+		}
+		for (int i = 0; i < elements.size(); i += PREPARE_BATCH) {
+			List<IDipTableElement> batch = elements.subList(i, Math.min(elements.size(), i + PREPARE_BATCH));
+			Map<IDipTableElement, PreparedText> prepared = computeTexts(batch, false);
+			Display.getDefault().syncExec(() -> {
+				if (fTable != null) {
+					prepareElements(batch, prepared);
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Входные данные собираются в UI-потоке, текст вычисляется в PREPARE_POOL
+	 * (вызывающий поток ждет результат). onlyEstimated - только элементы с оценочной высотой
+	 */
+	private Map<IDipTableElement, PreparedText> computeTexts(List<IDipTableElement> elements, boolean onlyEstimated) {
+		Map<IDipTableElement, PreparedText> result = new IdentityHashMap<>();
+		if (elements.size() < PARALLEL_THRESHOLD) {
+			return result;
+		}
+		List<PreparedText.Input> inputs = new ArrayList<>();
+		runInUI(() -> {
+			if (fTable == null) {
+				return;
+			}
+			for (IDipTableElement element: elements) {
+				TableElement tableElement = (TableElement) element;
+				if (onlyEstimated && !tableElement.isEstimated()) {
+					continue;
+				}
+				PreparedText.Input input = tableElement.textInput(elementPresentationWidth(tableElement), this);
+				if (input != null) {
+					inputs.add(input);
+				}
+			}
+		});
+		if (inputs.size() < PARALLEL_THRESHOLD) {
+			return result;
+		}
+		try {
+			PREPARE_POOL.submit(() -> inputs.parallelStream()
+					.map(PreparedText::compute)
+					.filter(Objects::nonNull)
+					.collect(Collectors.toList()))
+				.get()
+				.forEach(prepared -> result.put(prepared.element(), prepared));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			DipCorePlugin.logError(e.getCause(), "Prepare table elements error");
+			e.printStackTrace();
+		}
+		return result;
+	}
+	
+	private void runInUI(Runnable runnable) {
+		if (Display.getCurrent() != null) {
+			runnable.run();
+		} else {
+			Display.getDefault().syncExec(runnable);
+		}
+	}
+	
+	private void prepareElements(List<IDipTableElement> elements, Map<IDipTableElement, PreparedText> prepared) {
+		PaintPresentationUtils.removeCachedLayouts(elements);
+		elements.forEach(element -> ((TableElement) element).setEstimated(false));
 		// флаг, чтобы не срабатывал слушатель на GIT
 		if (dipProject().getGitRepo() != null) {
 			DipCorePlugin.getDefault().setCurrentRepo(dipProject().getGitRepo().getDirectory().toString());
@@ -361,7 +691,6 @@ public class DipTableModel implements KTableModel, IDipTableModel {
 
 		// подготовка идентификаторов
 		if (isShowId()) {
-			//elements.parallelStream()
 			elements.stream()
 				.map(TableElement.class::cast)
 				.forEach(DipTableModel.this::prepareID);
@@ -374,32 +703,10 @@ public class DipTableModel implements KTableModel, IDipTableModel {
 			.forEach(DipTableModel.this::prepareComment);
 		}
 
-		// подготовка Presentation (что можно делать вне UI-потока обрабатываем параллельно
-		// где создаются объекты Image, нужен Display, обрабатываем последовательно
-		List<IDipTableElement> paralles = new ArrayList<>();
-		List<IDipTableElement> notParallel = new ArrayList<>();
-		for (IDipTableElement element: elements) {
-			if (element.isPresentation()) {
-				IDipDocumentElement dde = element.dipDocElement();
-				if (dde instanceof IUnitPresentation) {
-					IUnitPresentation up = (IUnitPresentation) dde;
-					UnitType type = up.getUnitType();
-					if (type.isImageType() || type.isHtmlType() || type == UnitType.CSV) {
-						notParallel.add(element);
-						continue;
-					}					
-				}
-			}
-			paralles.add(element);
-			
-		}
-		//paralles.parallelStream()
-		paralles.stream()
-			.map(TableElement.class::cast)
-			.forEach(DipTableModel.this::preparePresentation);
-		notParallel.stream()
+		// подготовка Presentation (текст из пула потоков, если есть)
+		elements.stream()
 			.map(TableElement.class::cast)
-			.forEach(DipTableModel.this::preparePresentation);
+			.forEach(element -> preparePresentation(element, prepared.get(element)));
 		
 		// снимаем флаг
 		DipCorePlugin.getDefault().setCurrentRepo(null);
@@ -430,7 +737,11 @@ public class DipTableModel implements KTableModel, IDipTableModel {
 	}
 	
 
-	private void preparePresentation(TableElement element) {
+	private void preparePresentation(TableElement element, PreparedText prepared) {
+		element.prepare(elementPresentationWidth(element), this, prepared);
+	}
+	
+	private int elementPresentationWidth(TableElement element) {
 		int indent = 0;
 		if (fPresentationColumnNumber == 0 && !fTableComposite.getTableSettings().isOneListMode()) {
 			indent = getIndent(element) * 16;
@@ -438,7 +749,7 @@ public class DipTableModel implements KTableModel, IDipTableModel {
 		if (indent > 0) {
 			indent += 16;
 		}
-		element.prepare(presentationWidth() - indent, this);
+		return presentationWidth() - indent;
 	}
 	
 	private void prepareComment(TableElement element) {
@@ -573,6 +884,7 @@ public class DipTableModel implements KTableModel, IDipTableModel {
 		}
 
 		fIdColumnMode = idMode;
+		invalidateHeightIndex();
 		updateColumnCount();
 		dipProject().getProjectProperties().setIDShowMode(fIdColumnMode);
 		
@@ -594,6 +906,7 @@ public class DipTableModel implements KTableModel, IDipTableModel {
 	public boolean checkIdColumnMode() {
 		if (fIdColumnMode != dipProject().getProjectProperties().getIDShowMode()) {
 			fIdColumnMode = dipProject().getProjectProperties().getIDShowMode();
+			invalidateHeightIndex();
 			updateColumnCount();
 			return true;
 		}
@@ -615,6 +928,7 @@ public class DipTableModel implements KTableModel, IDipTableModel {
 		}
 
 		fCommentMode = commentMode;
+		invalidateHeightIndex();
 		updateColumnCount();
 		dipProject().getProjectProperties().setReviewMode(fCommentMode);
 		fTableComposite.asyncRefreshTree();
@@ -934,10 +1248,25 @@ public class DipTableModel implements KTableModel, IDipTableModel {
 	
 	
 	private void removeFromElements(IDipTableElement tableElement) {
+		int index = indexOfElement(tableElement);
+		if (index < 0) {
+			return;
+		}
 		if (tableElement instanceof TableNode) {
 			fElements.removeAll(((TableNode) tableElement).allChildren());
 		}
-		fElements.remove(tableElement);
+		fElements.remove(index);
+		updateElementRows(index);
+		invalidateHeightIndex();
+	}
+	
+	/**
+	 * Вставка элемента в getElements() с обновлением номеров рядов
+	 */
+	public void addElement(int index, IDipTableElement tableElement) {
+		fElements.add(index, tableElement);
+		updateElementRows(index);
+		invalidateHeightIndex();
 	}
 	
 	public TableNode findNode(IDipParent parent) {
@@ -1098,11 +1427,178 @@ public class DipTableModel implements KTableModel, IDipTableModel {
 	
 	@Override
 	public int getRowLocation(int row) {
-		int y = 0;
-		for (int i = 0; i < row + 1; i++) {
-			y+= getFullRowHeight(i);
-		}		
-		return y;
+		if (row < 0) {
+			return 0;
+		}
+		RowHeightIndex index = fullRowHeightIndex();
+		return index.prefix(row + 1) + outOfIndexHeight(index, 0, row + 1);
+	}
+	
+	@Override
+	public int getRowsHeight(int from, int to) {
+		from = Math.max(from, 0);
+		if (to <= from) {
+			return 0;
+		}
+		RowHeightIndex index = rowHeightIndex();
+		int height = index.sum(from, to) + outOfIndexHeight(index, from, to);
+		// отступ первой ячейки
+		if (fFirstCell >= from && fFirstCell < to && fFirstCell < index.size()) {
+			height += getRowHeight(fFirstCell) - index.getHeight(fFirstCell);
+		}
+		return height;
+	}
+	
+	@Override
+	public int findRow(int from, int y) {
+		RowHeightIndex index = rowHeightIndex();
+		if (fFirstCell >= from && fFirstCell < index.size() 
+				&& getRowHeight(fFirstCell) != index.getHeight(fFirstCell)) {
+			return IDipTableModel.super.findRow(from, y);
+		}
+		int row = index.find(y + index.prefix(Math.max(from, 0)));
+		return Math.max(row, from);
+	}
+	
+	@Override
+	public int getTotalHeight() {
+		RowHeightIndex index = fullRowHeightIndex();
+		return index.prefix(index.size());
+	}
+	
+	/**
+	 * Высота рядов из [from, to), которые не вошли в индекс (DEFAULT_HEIGHT)
+	 */
+	private int outOfIndexHeight(RowHeightIndex index, int from, int to) {
+		int start = Math.max(from, index.size());
+		return to > start ? (to - start) * DEFAULT_HEIGHT : 0;
+	}
+	
+	private RowHeightIndex rowHeightIndex() {
+		checkHeightIndex();
+		return fRowHeightIndex;
+	}
+	
+	private RowHeightIndex fullRowHeightIndex() {
+		checkHeightIndex();
+		return fFullRowHeightIndex;
+	}
+	
+	private void checkHeightIndex() {
+		if (fRowHeightIndex == null 
+				|| fIndexedElements != fElements 
+				|| fIndexedSize != fElements.size()
+				|| fIndexedShowId != isShowId()
+				|| fIndexedShowComment != isShowComment()
+				|| fHeightIndexStale) {
+			buildHeightIndex();
+		}
+	}
+	
+	/**
+	 * Изменилась высота ячейки элемента - обновляются только его ряды в индексах, O(log n)
+	 */
+	void elementHeightChanged(IDipTableElement element) {
+		if (fRowHeightIndex == null || fIndexedElements != fElements || fIndexedSize != fElements.size()) {
+			// индекс все равно будет перестроен
+			return;
+		}
+		if (Display.getCurrent() == null) {
+			fHeightIndexStale = true;
+			return;
+		}
+		updateIndexedRow(element);
+		// высота последнего поля формы зависит от высот связанных полей
+		if (element.isAbstractField() && element.getLinkedElements() != null) {
+			for (IDipTableElement linked: element.getLinkedElements()) {
+				if (linked != element) {
+					updateIndexedRow(linked);
+				}
+			}
+		}
+	}
+	
+	private void updateIndexedRow(IDipTableElement element) {
+		int row = indexOfElement(element) + 1;
+		if (row <= 0 || row >= fRowHeightIndex.size()) {
+			return;
+		}
+		int height = element.height(this);
+		if (row == fOpenEditingRow) {
+			fRowHeightIndex.setHeight(row, Math.max(fCellEditorHeight, height));
+		} else {
+			fRowHeightIndex.setHeight(row, height >= 0 ? height : DEFAULT_HEIGHT);
+		}
+		fFullRowHeightIndex.setHeight(row, height >= 0 ? height : 40);
+	}
+	
+	/**
+	 * Высоты всех рядов (включая заголовок) за один проход
+	 * Отступ первой ячейки в индекс не входит (меняется при каждой прокрутке)
+	 */
+	private void buildHeightIndex() {
+		// флаг сбрасывается до чтения высот, чтобы не пропустить изменения во время построения
+		fHeightIndexStale = false;
+		int count = fElements.size() + 1;
+		int[] rowHeights = new int[count];
+		int[] fullHeights = new int[count];
+		rowHeights[0] = DEFAULT_HEIGHT;
+		fullHeights[0] = DEFAULT_HEIGHT;
+		for (int row = 1; row < count; row++) {
+			IDipTableElement element = fElements.get(row - 1);
+			if (element == null) {
+				rowHeights[row] = DEFAULT_HEIGHT;
+				fullHeights[row] = 40;
+				continue;
+			}
+			int height = element.height(this);
+			if (row == fOpenEditingRow) {
+				rowHeights[row] = Math.max(fCellEditorHeight, height);
+			} else {
+				rowHeights[row] = height >= 0 ? height : DEFAULT_HEIGHT;
+			}
+			fullHeights[row] = height >= 0 ? height : 40;
+		}
+		fRowHeightIndex = new RowHeightIndex(rowHeights);
+		fFullRowHeightIndex = new RowHeightIndex(fullHeights);
+		fIndexedElements = fElements;
+		fIndexedSize = fElements.size();
+		fIndexedShowId = isShowId();
+		fIndexedShowComment = isShowComment();
+	}
+	
+	public void invalidateHeightIndex() {
+		fRowHeightIndex = null;
+		fFullRowHeightIndex = null;
+	}
+	
+	/**
+	 * Номер элемента в getElements(), -1 если элемента нет
+	 */
+	public int indexOfElement(Object element) {
+		if (fElementRows == null || fElementRowsList != fElements || fElementRowsSize != fElements.size()) {
+			// HashMap (не IdentityHashMap) - элемент мог быть пересоздан (equals по dipDocElement)
+			fElementRows = new HashMap<>(fElements.size() * 2);
+			fElementRowsList = fElements;
+			updateElementRows(0);
+		}
+		Integer index = fElementRows.get(element);
+		return index != null ? index : -1;
+	}
+	
+	/**
+	 * Пересчет номеров рядов начиная с from (после вставки/удаления в fElements)
+	 */
+	private void updateElementRows(int from) {
+		if (fElementRows == null || fElementRowsList != fElements) {
+			return;
+		}
+		fElementRows.values().removeIf(row -> row >= from);
+		for (int i = from; i < fElements.size(); i++) {
+			// как у List.indexOf - первый из равных элементов
+			fElementRows.putIfAbsent(fElements.get(i), i);
+		}
+		fElementRowsSize = fElements.size();
 	}
 	
 	@Override
@@ -1278,11 +1774,13 @@ public class DipTableModel implements KTableModel, IDipTableModel {
 	
 	@Override
 	public void setEditRow(int row) {
-		fOpenEditingRow = row;		
+		fOpenEditingRow = row;
+		invalidateHeightIndex();
 	}
 	
 	public void setEditRowHeight(int cellEditorHeight) {
 		fCellEditorHeight = cellEditorHeight;
+		invalidateHeightIndex();
 	}
 	
 	@Override
@@ -1300,6 +1798,10 @@ public class DipTableModel implements KTableModel, IDipTableModel {
 	//=======================
 	
 	public void dispose() {
+		cancelBackgroundPrepare();
+		if (fElements != null) {
+			PaintPresentationUtils.removeCachedLayouts(fElements);
+		}
 		fTable = null;
 		fTableComposite = null;
 		fRootNode = null;
@@ -1308,6 +1810,11 @@ public class DipTableModel implements KTableModel, IDipTableModel {
 		fEditedCell = null;
 		fElements = null;
 		fNewElements = null;
+		fIndexedElements = null;
+		fRowHeightIndex = null;
+		fFullRowHeightIndex = null;
+		fElementRows = null;
+		fElementRowsList = null;
 		fCondition = null;
 		fIdRender = null;
 		fPresentationRender = null;
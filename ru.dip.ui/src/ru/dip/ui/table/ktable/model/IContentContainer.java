@@ -19,5 +19,9 @@ public interface IContentContainer {
 	
 	void put(ContentId id, ContentType type, Object object);
 	
+	default void putInt(ContentId id, ContentType type, int value) {
+		put(id, type, value);
+	}
+	
 	int getInt(ContentId id, ContentType type);
 }
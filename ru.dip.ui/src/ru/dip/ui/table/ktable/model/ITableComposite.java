@@ -13,6 +13,8 @@
  *******************************************************************************/
 package ru.dip.ui.table.ktable.model;
 
+import java.util.Collection;
+
 import ru.dip.core.model.finder.IFinder;
 import ru.dip.core.model.interfaces.IDipDocumentElement;
 import ru.dip.core.unit.form.IFormSettings;
@@ -37,5 +39,12 @@ public interface ITableComposite {
 
 	TableModel model();
 	
+	/**
+	 * Подготовить заново элементы и перерисовать таблицу
+	 */
+	void refreshElements(Collection<IDipTableElement> elements);
+	
+	boolean isDisposed();
+	
 	ITableCompositeSetting getTableSettings();
 }
@@ -14,12 +14,14 @@
 package ru.dip.ui.table.ktable.model;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.swt.graphics.Color;
 
 import ru.dip.core.model.interfaces.IDipDocumentElement;
 import ru.dip.core.utilities.ui.IBackground;
 import ru.dip.ui.table.ktable.diff.DiffModel;
+import ru.dip.ui.table.ktable.render.PreparedText;
 import ru.dip.ui.table.table.TableSettings;
 
 
@@ -32,6 +34,8 @@ public class TableElement implements IBackground, IDipIdElement, IDipTableElemen
 	private boolean fSelect;
 	
 	private ContentContainer fContent = new ContentContainer();
+	// высота оценочная - элемент еще не подготовлен (виртуальный режим DipTableModel)
+	private final AtomicBoolean fEstimated = new AtomicBoolean();
 	private int fCommentMainHeight; // высота основного комментария (актуально при наличии внутренних комментариев)
 	
 	// linked element (для полей форм)
@@ -48,8 +52,22 @@ public class TableElement implements IBackground, IDipIdElement, IDipTableElemen
 	
 	@Override
 	public void prepare(int width, IDipTableModel model) {
-		width = width <= 10 ? DEFAULT_PRESENTATION_WIDTH : width;
-		((DipTableModel) model).reqPainter().updateTableElement(width, this);
+		prepare(width, model, null);
+	}
+	
+	/**
+	 * prepared - текст, подготовленный в пуле потоков (может быть null)
+	 */
+	public void prepare(int width, IDipTableModel model, PreparedText prepared) {
+		((DipTableModel) model).reqPainter().updateTableElement(checkWidth(width), this, prepared);
+	}
+	
+	public PreparedText.Input textInput(int width, IDipTableModel model) {
+		return ((DipTableModel) model).reqPainter().textInput(checkWidth(width), this);
+	}
+	
+	private static int checkWidth(int width) {
+		return width <= 10 ? DEFAULT_PRESENTATION_WIDTH : width;
 	}
 	
 	//===================
@@ -88,7 +106,7 @@ public class TableElement implements IBackground, IDipIdElement, IDipTableElemen
 	public int linkedTotalHeight() {
 		return getLinkedElements().stream()
 				.filter(IPresentationElement.class::isInstance)
-				.mapToInt(e ->  get(ContentId.PRESENTATION, ContentType.HEIGHT, Integer.class))				
+				.mapToInt(e ->  getInt(ContentId.PRESENTATION, ContentType.HEIGHT))				
 				.sum();
 	}
 	
@@ -159,7 +177,29 @@ public class TableElement implements IBackground, IDipIdElement, IDipTableElemen
 	
 	@Override
 	public void put(ContentId id, ContentType type, Object obj) {
+		int height = fContent.getInt(id, type);
 		fContent.put(id, type, obj);
+		if (type == ContentType.HEIGHT && height != fContent.getInt(id, type)) {
+			heightChanged();
+		}
+	}
+	
+	@Override
+	public void putInt(ContentId id, ContentType type, int value) {
+		int height = fContent.getInt(id, type);
+		fContent.putInt(id, type, value);
+		if (type == ContentType.HEIGHT && height != value) {
+			heightChanged();
+		}
+	}
+	
+	/**
+	 * Высота ячейки изменилась - обновить индекс высот модели
+	 */
+	private void heightChanged() {
+		if (fParent != null && fParent.model() instanceof DipTableModel) {
+			((DipTableModel) fParent.model()).elementHeightChanged(this);
+		}
 	}
 	
 	@Override
@@ -172,6 +212,22 @@ public class TableElement implements IBackground, IDipIdElement, IDipTableElemen
 		return fContent.getInt(id, type);
 	}
 	
+	boolean isEstimated() {
+		return fEstimated.get();
+	}
+	
+	void setEstimated(boolean estimated) {
+		fEstimated.set(estimated);
+	}
+	
+	/**
+	 * Забрать элемент на подготовку: true, если высота была оценочной
+	 * (элемент готовится только одним из путей - видимые ряды или фоновая подготовка)
+	 */
+	boolean claimEstimated() {
+		return fEstimated.compareAndSet(true, false);
+	}
+	
 	//========================
 	// Colors
 	
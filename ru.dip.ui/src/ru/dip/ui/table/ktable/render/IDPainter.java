@@ -13,7 +13,10 @@
  *******************************************************************************/
 package ru.dip.ui.table.ktable.render;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.eclipse.swt.graphics.GC;
@@ -21,6 +24,7 @@ import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.graphics.TextLayout;
+import org.eclipse.swt.widgets.Display;
 
 import ru.dip.core.model.DipFolder;
 import ru.dip.core.model.DipProject;
@@ -40,6 +44,7 @@ import ru.dip.core.unit.form.FormField;
 import ru.dip.core.utilities.DipUtilities;
 import ru.dip.core.utilities.GITUtilities;
 import ru.dip.core.utilities.TagStringUtilities;
+import ru.dip.core.utilities.git.GitMetadataProvider.FileMetadata;
 import ru.dip.core.utilities.ui.gc.GCUtils;
 import ru.dip.core.utilities.ui.swt.ColorProvider;
 import ru.dip.ui.table.ktable.KTableComposite;
@@ -58,6 +63,8 @@ public class IDPainter {
 	private static ContentProvider contentProvider = ContentProvider.ID_CONTENT_PROVIDER;
 
 	private ITableComposite fTableComposite;
+	// элементы, для которых еще не вычислены данные git
+	private final Set<IDipTableElement> fGitWaiting = ConcurrentHashMap.newKeySet();
 
 	public IDPainter(ITableComposite tableComposite) {
 		fTableComposite = tableComposite;
@@ -174,33 +181,33 @@ public class IDPainter {
 	}
 
 	protected void simpleUpdateCell(IContentContainer tableElement, IDipDocumentElement dipDocElement) {		
-		String text = getFirstColumnText(dipDocElement);
+		String text = getFirstColumnText(tableElement, dipDocElement);
 		text = wrapIDText(text);
 		updateCell(tableElement, text, getNavigatorImage(dipDocElement));
 	}
 	
-	private String getFirstColumnText(IDipDocumentElement dipDocElement) {
+	private String getFirstColumnText(IContentContainer tableElement, IDipDocumentElement dipDocElement) {
 		if (dipDocElement instanceof IncludeFolder) {
 			return getIncludeFolderLabel((IncludeFolder) dipDocElement);
 		}
 		if (fTableComposite.getTableSettings().isOneListMode()) {
-			return getRelativeProjectName(dipDocElement);
+			return getRelativeProjectName(tableElement, dipDocElement);
 		}
-		return getDipDocElementName(dipDocElement);
+		return getDipDocElementName(tableElement, dipDocElement);
 	}
 
-	private String getRelativeProjectName(IDipDocumentElement dipDocElement) {
+	private String getRelativeProjectName(IContentContainer tableElement, IDipDocumentElement dipDocElement) {
 		String relativeName = DipUtilities.relativeProjectID(dipDocElement);
 		if (isNeedAppendHash(dipDocElement)) {
-			return getNameWithHash(dipDocElement, relativeName);
+			return getNameWithHash(tableElement, dipDocElement, relativeName);
 		} else {
 			return relativeName;
 		}
 	}
 	
-	private String getDipDocElementName(IDipDocumentElement dipDocElement) {
+	private String getDipDocElementName(IContentContainer tableElement, IDipDocumentElement dipDocElement) {
 		if (isNeedAppendHash(dipDocElement)) {
-			return getNameWithHash(dipDocElement, dipDocElement.name());
+			return getNameWithHash(tableElement, dipDocElement, dipDocElement.name());
 		}
 		return dipDocElement.name();
 	}
@@ -211,14 +218,32 @@ public class IDPainter {
 				&& fTableComposite.getTableSettings().isShowFormVersion();
 	}
 	
-	private String getNameWithHash(IDipDocumentElement dde, String name) {
-		String hash = GITUtilities.getDescribe(dde);
-		if (hash != null) {
-			return name + "@" + hash;
+	/**
+	 * Пока данные git вычисляются - имя без хэша,
+	 * когда данные готовы, элемент подготавливается заново
+	 */
+	private String getNameWithHash(IContentContainer tableElement, IDipDocumentElement dde, String name) {
+		FileMetadata metadata = GITUtilities.getMetadata(dde, this, this::gitMetadataReady);
+		if (metadata == null && tableElement instanceof IDipTableElement) {
+			fGitWaiting.add((IDipTableElement) tableElement);
+		}
+		if (metadata != null && metadata.describe() != null) {
+			return name + "@" + metadata.describe();
 		}
 		return name;
 	}
 	
+	private void gitMetadataReady() {
+		Display.getDefault().asyncExec(() -> {
+			if (fTableComposite.isDisposed() || fGitWaiting.isEmpty()) {
+				return;
+			}
+			List<IDipTableElement> elements = new ArrayList<>(fGitWaiting);
+			fGitWaiting.removeAll(elements);
+			fTableComposite.refreshElements(elements);
+		});
+	}
+	
 	
 	protected void updateCell(IContentContainer tableElement, String text, Image image) {
 		contentProvider.setText(tableElement, text);		
@@ -15,8 +15,11 @@ package ru.dip.ui.table.ktable.render;
 
 import static ru.dip.ui.table.ktable.model.ContentProvider.PRESENTATION_CONTENT_PROVIDER;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.GC;
@@ -24,6 +27,7 @@ import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.graphics.TextLayout;
+import org.eclipse.swt.widgets.Display;
 
 import ru.dip.core.form.model.TextField;
 import ru.dip.core.model.finder.IFinder;
@@ -67,6 +71,7 @@ import ru.dip.ui.utilities.image.ImageProvider;
 public class PaintPresentationUtils {
 		
 	private static final ContentProvider contentProvider = PRESENTATION_CONTENT_PROVIDER;
+	private static final TextLayoutCache LAYOUT_CACHE = new TextLayoutCache();
 	
 	public static boolean hasFontPresentation(IDipTableElement element) {				
 		if (element.isPresentation()) {
@@ -189,10 +194,26 @@ public class PaintPresentationUtils {
 		if (isFixedContent){
 			text = getFixedText(text);
 		}
+		updateTextPoints(text, element, textPresentation, settings, settings.isCheckSpellingEnable());
+	}
+	
+	/**
+	 * Текст, подготовленный вне UI-потока (орфография проверена там же)
+	 */
+	public static void updateTextPresentation(PreparedText prepared, IContentContainer element, ITableCompositeSetting settings) {
+		prepared.publish();
+		updateTextPoints(prepared.text(), element, (ITextPresentation) prepared.presentation(), settings, false);
+	}
+	
+	private static void updateTextPoints(String text, 
+			IContentContainer element, 
+			ITextPresentation textPresentation,
+			ITableCompositeSetting settings,
+			boolean checkSpelling) {
 		if (settings.isHighlightGloss()) {
 			textPresentation.getGlossaryPoints().findGlossaryWords(text);
 		}
-		if (settings.isCheckSpellingEnable()) {
+		if (checkSpelling) {
 			textPresentation.findErrorWords(text);
 		}
 		
@@ -428,17 +449,21 @@ public class PaintPresentationUtils {
 			ITableCompositeSetting tableSetting,
 			IFinder finder) {	
 		String text = contentProvider.getText(element);
-	    final TextLayout layout = createTextLayout(text, width, gc);
-    	applyGlossaryStyles(layout, textPresentation, tableSetting);
-    	applyErrorStyles(layout, textPresentation.errorsPoints(), tableSetting);
-    	
-    	Map<List<Point>, Color> specialPoints = textPresentation.getSpecialPoints();
-    	if (specialPoints != null) {
-    		specialPoints.entrySet().forEach(e -> GCUtils.applyColorStyles(layout, e.getKey(), null, e.getValue()));
-    	}
-    	
-    	applyFindedStyles(layout, textPresentation.getFindedPoints(), textPresentation, tableSetting, finder); 	
-	    drawTextAndDispose(layout, rect, gc);
+		Map<List<Point>, Color> specialPoints = textPresentation.getSpecialPoints();
+		TextLayoutCache.Key key = layoutKey(text, width, tableSetting, textPresentation, textPresentation.errorsPoints());
+		if (specialPoints != null) {
+			specialPoints.forEach((points, color) -> key.addPoints(points).add(color));
+		}
+		addFindedState(key, textPresentation.getFindedPoints(), textPresentation, finder);
+		
+		drawCachedLayout(element, key, gc, rect, layout -> {
+	    	applyGlossaryStyles(layout, textPresentation, tableSetting);
+	    	applyErrorStyles(layout, textPresentation.errorsPoints(), tableSetting);
+	    	if (specialPoints != null) {
+	    		specialPoints.entrySet().forEach(e -> GCUtils.applyColorStyles(layout, e.getKey(), null, e.getValue()));
+	    	}
+	    	applyFindedStyles(layout, textPresentation.getFindedPoints(), textPresentation, tableSetting, finder);
+		});
 	}
 	
 	public static void paintMarkdownPresentation(int width, GC gc, Rectangle rect, 
@@ -452,23 +477,25 @@ public class PaintPresentationUtils {
 			updateMarkdownPresentation(width, mdPresentation, element, fixedChecker, tableSetting);
 			text = contentProvider.getText(element);
 		}
-	    final TextLayout layout = createTextLayout(text, width, gc);
- 	    
-	    GCUtils.applyFontStyle(layout, mdPresentation.boldPoints(), TableSettings.boldMDPresentationFont());	    
-	    GCUtils.applyFontStyle(layout, mdPresentation.italicPoints(), TableSettings.italicPresentationFont());
-	    GCUtils.applyFontStyle(layout, mdPresentation.boldItalicPoints(), TableSettings.boldItalicPresentationFont());
-
-    	applyGlossaryStyles(layout, mdPresentation, tableSetting);
-	    
-    	GCUtils.applyColorStyles(layout, mdPresentation.fencedCodePoints(), null, MdPreferences.codePreferences().color());
-    	GCUtils.applyColorStyles(layout, mdPresentation.codePoints(), null, MdPreferences.codePreferences().color());
-    	if (tableSetting.isShowMdComment()) {
-    		GCUtils.applyColorStyles(layout, mdPresentation.commentPoints(), null, MdPreferences.commentPreferences().color());
-    	}
-    	
-    	applyErrorStyles(layout, mdPresentation.errorsPoints(), tableSetting);
-    	applyFindedStyles(layout, mdPresentation.getFindedPoints(), mdPresentation, tableSetting, finder);
-	    drawTextAndDispose(layout, rect, gc);
+		TextLayoutCache.Key key = layoutKey(text, width, tableSetting, mdPresentation, mdPresentation.errorsPoints());
+		addFindedState(key, mdPresentation.getFindedPoints(), mdPresentation, finder);
+		
+		drawCachedLayout(element, key, gc, rect, layout -> {
+		    GCUtils.applyFontStyle(layout, mdPresentation.boldPoints(), TableSettings.boldMDPresentationFont());	    
+		    GCUtils.applyFontStyle(layout, mdPresentation.italicPoints(), TableSettings.italicPresentationFont());
+		    GCUtils.applyFontStyle(layout, mdPresentation.boldItalicPoints(), TableSettings.boldItalicPresentationFont());
+	
+	    	applyGlossaryStyles(layout, mdPresentation, tableSetting);
+		    
+	    	GCUtils.applyColorStyles(layout, mdPresentation.fencedCodePoints(), null, MdPreferences.codePreferences().color());
+	    	GCUtils.applyColorStyles(layout, mdPresentation.codePoints(), null, MdPreferences.codePreferences().color());
+	    	if (tableSetting.isShowMdComment()) {
+	    		GCUtils.applyColorStyles(layout, mdPresentation.commentPoints(), null, MdPreferences.commentPreferences().color());
+	    	}
+	    	
+	    	applyErrorStyles(layout, mdPresentation.errorsPoints(), tableSetting);
+	    	applyFindedStyles(layout, mdPresentation.getFindedPoints(), mdPresentation, tableSetting, finder);
+		});
 	}
 	
 	public static void paintFormPresentation(int width, GC gc, Rectangle rect,  
@@ -477,32 +504,34 @@ public class PaintPresentationUtils {
 			ITableCompositeSetting tableSetting,
 			IFinder finder){
 		String text = contentProvider.getText(element);
-	    final TextLayout layout = createTextLayout(text, width, gc);
-
-	    // bold title
-	    if (tableSetting.isShowFormNumeration() && formPresentation.titleBoldPoint() != null) {
-		    Point p = formPresentation.titleBoldPoint();		    
-		    layout.setStyle(TableSettings.boldMdPresentationStyle(), p.x, p.y - 1);
-	    }
-	    // select headers
-	    for (Point p: formPresentation.getFieldTitlePoints()){			    
-	    	layout.setStyle(GCUtils.FORM_HEADER_STYLE, p.x, p.y - 1);
-	    }
-	    
-	    // text styles (markdown)
-	    GCUtils.applyFontStyle(layout, formPresentation.boldPoints(), TableSettings.boldMDPresentationFont());	    
-	    GCUtils.applyFontStyle(layout, formPresentation.italicPoints(), TableSettings.italicPresentationFont());
-	    GCUtils.applyFontStyle(layout, formPresentation.boldItalicPoints(), TableSettings.boldItalicPresentationFont());
-	    GCUtils.applyColorStyles(layout, formPresentation.fencedCodePoints(), null, MdPreferences.codePreferences().color());
-	    GCUtils.applyColorStyles(layout, formPresentation.codePoints(), null, MdPreferences.codePreferences().color());
-    	if (tableSetting.isShowMdComment()) {
-    		GCUtils.applyColorStyles(layout, formPresentation.commentPoints(), null, MdPreferences.commentPreferences().color());
-    	}
-	      
-    	applyGlossaryStyles(layout, formPresentation, tableSetting);
-    	applyErrorStyles(layout, formPresentation.errorsPoints(), tableSetting);   
-    	applyFindedStyles(layout, formPresentation.getFindedPoints(), formPresentation, tableSetting, finder);    
-	    drawTextAndDispose(layout, rect, gc);   
+		TextLayoutCache.Key key = layoutKey(text, width, tableSetting, formPresentation, formPresentation.errorsPoints());
+		addFindedState(key, formPresentation.getFindedPoints(), formPresentation, finder);
+		
+		drawCachedLayout(element, key, gc, rect, layout -> {
+		    // bold title
+		    if (tableSetting.isShowFormNumeration() && formPresentation.titleBoldPoint() != null) {
+			    Point p = formPresentation.titleBoldPoint();		    
+			    layout.setStyle(TableSettings.boldMdPresentationStyle(), p.x, p.y - 1);
+		    }
+		    // select headers
+		    for (Point p: formPresentation.getFieldTitlePoints()){			    
+		    	layout.setStyle(GCUtils.FORM_HEADER_STYLE, p.x, p.y - 1);
+		    }
+		    
+		    // text styles (markdown)
+		    GCUtils.applyFontStyle(layout, formPresentation.boldPoints(), TableSettings.boldMDPresentationFont());	    
+		    GCUtils.applyFontStyle(layout, formPresentation.italicPoints(), TableSettings.italicPresentationFont());
+		    GCUtils.applyFontStyle(layout, formPresentation.boldItalicPoints(), TableSettings.boldItalicPresentationFont());
+		    GCUtils.applyColorStyles(layout, formPresentation.fencedCodePoints(), null, MdPreferences.codePreferences().color());
+		    GCUtils.applyColorStyles(layout, formPresentation.codePoints(), null, MdPreferences.codePreferences().color());
+	    	if (tableSetting.isShowMdComment()) {
+	    		GCUtils.applyColorStyles(layout, formPresentation.commentPoints(), null, MdPreferences.commentPreferences().color());
+	    	}
+		      
+	    	applyGlossaryStyles(layout, formPresentation, tableSetting);
+	    	applyErrorStyles(layout, formPresentation.errorsPoints(), tableSetting);   
+	    	applyFindedStyles(layout, formPresentation.getFindedPoints(), formPresentation, tableSetting, finder);
+		});
 	}
 	
 	public static void paintZoomImagePresentation(int width, GC gc, Rectangle rect, ZoomImagePresentation zoomPresentation, IContentContainer element, IFixedContentChecker fixedChecker) {
@@ -558,44 +587,41 @@ public class PaintPresentationUtils {
 			return;
 		}
 		
-		final TextLayout layout = new TextLayout(gc.getDevice());
-	    layout.setFont(TableSettings.presentationFont());
-	    layout.setText(itemText);
-	    layout.setWidth(width);
-	    
-	    // bold title
-	    if (tableSetting.isShowFormNumeration() && formField.titleBoldPoint() != null) {
-		    Point p = formField.titleBoldPoint();		    
-		    layout.setStyle(TableSettings.boldMdPresentationStyle(), p.x, p.y - 1);
-	    }
-	    // select headers
-	    setFormHeadersStyle(formField, layout);
-	    // text styles (markdown)
-	    GCUtils.applyFontStyle(layout, formField.boldPoints(), TableSettings.boldMDPresentationFont());	    
-	    GCUtils.applyFontStyle(layout, formField.italicPoints(), TableSettings.italicPresentationFont());
-	    GCUtils.applyFontStyle(layout, formField.boldItalicPoints(), TableSettings.boldItalicPresentationFont());
-	    GCUtils.applyColorStyles(layout, formField.fencedCodePoints(), null, MdPreferences.codePreferences().color());
-	    GCUtils.applyColorStyles(layout, formField.codePoints(), null, MdPreferences.codePreferences().color());
-    	if (tableSetting.isShowMdComment()) {
-    		GCUtils.applyColorStyles(layout, formField.commentPoints(), null, MdPreferences.commentPreferences().color());
-    	}
-	    
-    	applyGlossaryStyles(layout, formField, tableSetting);
-    	applyErrorStyles(layout, formField.errorsPoints(), tableSetting);
-    	
-    	applyFindedPositionStyles(layout, formField.getFindedPoints(), tableSetting);
-    	if (finder != null &&
-    			finder.isCurrent(formField)) {  
-    		applyCurrentFindedPoinStyle(layout, formField.getFindedPoints(), formField, null, tableSetting, finder);
-    	}
+		TextLayoutCache.Key key = layoutKey(itemText, width, tableSetting, formField, formField.errorsPoints());
+		addFindedState(key, formField.getFindedPoints(), formField, finder);
 	
 		int xLyaout = rect.x  + TableSettings.versionMarginLeft();
 		int yLayout = rect.y;
 		if (((IDipTableElement)element).isFirst()) {
 			yLayout += TableSettings.versionMarginTop();
 		}
-	    layout.draw(gc, xLyaout, yLayout);
-	    layout.dispose();
+		
+		drawCachedLayout(element, key, gc, xLyaout, yLayout, layout -> {
+		    // bold title
+		    if (tableSetting.isShowFormNumeration() && formField.titleBoldPoint() != null) {
+			    Point p = formField.titleBoldPoint();		    
+			    layout.setStyle(TableSettings.boldMdPresentationStyle(), p.x, p.y - 1);
+		    }
+		    // select headers
+		    setFormHeadersStyle(formField, layout);
+		    // text styles (markdown)
+		    GCUtils.applyFontStyle(layout, formField.boldPoints(), TableSettings.boldMDPresentationFont());	    
+		    GCUtils.applyFontStyle(layout, formField.italicPoints(), TableSettings.italicPresentationFont());
+		    GCUtils.applyFontStyle(layout, formField.boldItalicPoints(), TableSettings.boldItalicPresentationFont());
+		    GCUtils.applyColorStyles(layout, formField.fencedCodePoints(), null, MdPreferences.codePreferences().color());
+		    GCUtils.applyColorStyles(layout, formField.codePoints(), null, MdPreferences.codePreferences().color());
+	    	if (tableSetting.isShowMdComment()) {
+	    		GCUtils.applyColorStyles(layout, formField.commentPoints(), null, MdPreferences.commentPreferences().color());
+	    	}
+		    
+	    	applyGlossaryStyles(layout, formField, tableSetting);
+	    	applyErrorStyles(layout, formField.errorsPoints(), tableSetting);
+	    	
+	    	applyFindedPositionStyles(layout, formField.getFindedPoints(), tableSetting);
+	    	if (isFindCurrentDipDocElement(formField, finder)) {
+	    		applyCurrentFindedPoinStyle(layout, formField.getFindedPoints(), formField, null, tableSetting, finder);
+	    	}
+		});
 	}
 	
 	private static void setFormHeadersStyle(AbstractFormField formField, TextLayout layout) {
@@ -604,6 +630,92 @@ public class PaintPresentationUtils {
 		}
 	}
 	
+	//================================
+	// layout cache
+	
+	/**
+	 * Ключ TextLayout: текст, ширина, шрифты и цвета, настройки таблицы, 
+	 * позиции терминов глоссария и орфографических ошибок
+	 */
+	private static TextLayoutCache.Key layoutKey(String text, int width, ITableCompositeSetting tableSetting,
+			IGlossaryPointsHolder glossaryPointHolder, List<Point> errorPoints) {
+		TextLayoutCache.Key key = LAYOUT_CACHE.key(text, width, TableSettings.presentationFont())
+				.add(TableSettings.boldMDPresentationFont())
+				.add(TableSettings.italicPresentationFont())
+				.add(TableSettings.boldItalicPresentationFont())
+				.add(MdPreferences.codePreferences().color())
+				.add(MdPreferences.commentPreferences().color())
+				.add(MdPreferences.glossPreferences().color())
+				.add(tableSetting.isShowMdComment())
+				.add(tableSetting.isShowFormNumeration())
+				.add(tableSetting.isHighlightGloss())
+				.add(tableSetting.isCheckSpellingEnable())
+				.add(tableSetting.isFindMode());
+		if (tableSetting.isHighlightGloss()) {
+			key.addPoints(glossaryPointHolder.getGlossaryPoints().glossaryPoints());
+		}
+		if (tableSetting.isCheckSpellingEnable()) {
+			key.addPoints(errorPoints);
+		}
+		return key;
+	}
+	
+	/**
+	 * Найденные позиции и текущая позиция поиска
+	 */
+	private static void addFindedState(TextLayoutCache.Key key, List<Point> findedPoints, 
+			IDipDocumentElement dipDocElement, IFinder finder) {
+		key.addPoints(findedPoints);
+		boolean current = isFindCurrentDipDocElement(dipDocElement, finder);
+		key.add(current);
+		if (current) {
+			key.add(finder.getCurrentPointNumber());
+		}
+	}
+	
+	private static void addFindedState(TextLayoutCache.Key key, List<Point> findedPoints, 
+			TablePresentation presentation, IFinder finder) {
+		addFindedState(key, findedPoints, presentation.getUnit(), finder);
+		key.addPoints(presentation.getUnit().getUnitPresentation().getFindedIdPoints());
+	}
+	
+	private static void drawCachedLayout(IContentContainer element, TextLayoutCache.Key key, GC gc, Rectangle rect,
+			Consumer<TextLayout> styles) {
+		drawCachedLayout(element, key, gc, rect.x + TableSettings.versionMarginLeft(), 
+				rect.y + TableSettings.versionMarginTop(), styles);
+	}
+	
+	/**
+	 * Рисует TextLayout из кэша, если ключ не совпадает - создает новый и применяет стили
+	 */
+	private static void drawCachedLayout(IContentContainer element, TextLayoutCache.Key key, GC gc, int x, int y,
+			Consumer<TextLayout> styles) {
+		TextLayout layout = LAYOUT_CACHE.get(element, key);
+		if (layout != null) {
+			layout.draw(gc, x, y);
+			return;
+		}
+		layout = GCUtils.createTextLayout(key.text(), key.width(), gc, key.font());
+		styles.accept(layout);
+		layout.draw(gc, x, y);
+		if (!LAYOUT_CACHE.put(element, key, layout)) {
+			layout.dispose();
+		}
+	}
+	
+	/**
+	 * Удаляет TextLayout элементов (при обновлении элементов таблицы)
+	 */
+	public static void removeCachedLayouts(Collection<?> elements) {
+		if (Display.getCurrent() == null) {
+			List<?> copy = new ArrayList<>(elements);
+			Display.getDefault().asyncExec(() -> LAYOUT_CACHE.removeAll(copy));
+			return;
+		}
+		LAYOUT_CACHE.removeAll(elements);
+	}
+
+	
 	//================================
 	// draw utils
 	
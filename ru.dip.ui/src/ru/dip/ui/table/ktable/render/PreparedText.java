@@ -0,0 +1,144 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.ui.table.ktable.render;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.eclipse.swt.graphics.Point;
+
+import ru.dip.core.model.interfaces.IDipUnit;
+import ru.dip.core.unit.TablePresentation;
+import ru.dip.core.unit.TextPresentation;
+import ru.dip.core.unit.md.MarkDownPresentation;
+import ru.dip.core.unit.md.MarkdownSettings;
+import ru.dip.core.utilities.md.parser.MdPresentationParser;
+import ru.dip.core.utilities.spellcheck.SpellCheckService;
+import ru.dip.core.utilities.ui.swt.FontDimension;
+import ru.dip.ui.table.ktable.model.IDipTableElement;
+
+/**
+ * Текст TextPresentation/MarkDownPresentation, подготовленный в пуле потоков.
+ * Входные данные (Input) собираются в UI-потоке, compute не меняет состояние Presentation
+ * (чтение файла, разбор markdown отдельным парсером, перенос строк, орфография),
+ * результат применяется в UI-потоке (PresentationPainter.updateTableElement), если он не устарел
+ */
+public final class PreparedText {
+
+	public static final class Input {
+
+		private final IDipTableElement fElement;
+		private final TablePresentation fPresentation;
+		private final int fWidth;
+		private final int fLineLength;
+		private final boolean fFixedContent;
+		private final boolean fCheckSpelling;
+		// null - TextPresentation
+		private final MarkdownSettings fMarkdownSettings;
+
+		Input(IDipTableElement element, TablePresentation presentation, int width, int lineLength,
+				boolean fixedContent, boolean checkSpelling, MarkdownSettings markdownSettings) {
+			fElement = element;
+			fPresentation = presentation;
+			fWidth = width;
+			fLineLength = lineLength;
+			fFixedContent = fixedContent;
+			fCheckSpelling = checkSpelling;
+			fMarkdownSettings = markdownSettings;
+		}
+
+	}
+
+	/**
+	 * Вычисление вне UI-потока, null - ошибка чтения (элемент готовится обычным образом)
+	 */
+	public static PreparedText compute(Input input) {
+		IDipUnit unit = input.fPresentation.getUnit();
+		long stamp = unit.resource().getModificationStamp();
+		String text;
+		MdPresentationParser parser = null;
+		if (input.fMarkdownSettings != null) {
+			parser = new MdPresentationParser(unit);
+			text = parser.parse(input.fMarkdownSettings, input.fLineLength, unit.resource());
+		} else {
+			try {
+				text = TextPresentation.readText(unit);
+			} catch (IOException e) {
+				return null;
+			}
+		}
+		String source = text;
+		text = FontDimension.getWrapText(text, input.fLineLength);
+		if (input.fFixedContent) {
+			text = PaintPresentationUtils.getFixedText(text);
+		}
+		List<Point> errorPoints = input.fCheckSpelling ? SpellCheckService.instance().checkText(text) : null;
+		return new PreparedText(input, stamp, source, text, parser, errorPoints);
+	}
+
+	private final Input fInput;
+	private final long fStamp;
+	private final String fSource;
+	private final String fText;
+	private final MdPresentationParser fParser;
+	private final List<Point> fErrorPoints;
+
+	private PreparedText(Input input, long stamp, String source, String text,
+			MdPresentationParser parser, List<Point> errorPoints) {
+		fInput = input;
+		fStamp = stamp;
+		fSource = source;
+		fText = text;
+		fParser = parser;
+		fErrorPoints = errorPoints;
+	}
+
+	/**
+	 * Результат актуален, если не изменились Presentation, файл и входные данные
+	 */
+	boolean isActual(TablePresentation presentation, int width, boolean fixedContent, boolean checkSpelling) {
+		return fInput.fPresentation == presentation
+				&& fInput.fWidth == width
+				&& fInput.fFixedContent == fixedContent
+				&& fInput.fCheckSpelling == checkSpelling
+				&& fStamp == presentation.getUnit().resource().getModificationStamp();
+	}
+
+	/**
+	 * Перенос результата в Presentation (в UI-потоке)
+	 */
+	void publish() {
+		if (fParser != null) {
+			((MarkDownPresentation) fInput.fPresentation).setParsed(fParser);
+		} else {
+			((TextPresentation) fInput.fPresentation).setPreparedText(fSource, fStamp);
+		}
+		if (fErrorPoints != null) {
+			fInput.fPresentation.setErrorsPoints(fErrorPoints);
+		}
+	}
+
+	public IDipTableElement element() {
+		return fInput.fElement;
+	}
+
+	TablePresentation presentation() {
+		return fInput.fPresentation;
+	}
+
+	String text() {
+		return fText;
+	}
+
+}
@@ -47,6 +47,7 @@ import ru.dip.core.unit.ZoomImagePresentation;
 import ru.dip.core.unit.form.AbstractFormField;
 import ru.dip.core.unit.form.FormPresentation;
 import ru.dip.core.unit.md.MarkDownPresentation;
+import ru.dip.core.unit.md.MarkdownSettings;
 import ru.dip.core.unit.md.SubMarkdownPresentation;
 import ru.dip.core.utilities.ui.gc.GCUtils;
 import ru.dip.core.utilities.ui.swt.ColorProvider;
@@ -84,6 +85,55 @@ public class PresentationPainter {
 		prepare(width, presentationElement);
 	}
 	
+	/**
+	 * Применяет текст, подготовленный вне UI-потока (см. PreparedText),
+	 * если его нет или он устарел - обычная подготовка
+	 */
+	public void updateTableElement(int width, IDipTableElement presentationElement, PreparedText prepared) {
+		if (prepared == null || !isActual(width, presentationElement, prepared)) {
+			prepare(width, presentationElement);
+			return;
+		}
+		PaintPresentationUtils.updateTextPresentation(prepared, presentationElement, fTableComposite.getTableSettings());
+		contentProvider.setHeight(presentationElement, PaintPresentationUtils.measureSimpleTextPresentation(presentationElement));
+	}
+	
+	private boolean isActual(int width, IDipTableElement presentationElement, PreparedText prepared) {
+		IDipDocumentElement dde = presentationElement.dipDocElement();
+		if (!(dde instanceof IUnitPresentation)) {
+			return false;
+		}
+		TablePresentation presentation = ((IUnitPresentation) dde).getPresentation();
+		return prepared.isActual(presentation, width, 
+				isFixedContent(presentationElement, presentation.getUnit()), 
+				fTableComposite.getTableSettings().isCheckSpellingEnable());
+	}
+	
+	/**
+	 * Входные данные для подготовки текста в пуле потоков (в UI-потоке),
+	 * null - элемент готовится только в UI-потоке
+	 */
+	public PreparedText.Input textInput(int width, IDipTableElement presentationElement) {
+		IDipDocumentElement dde = presentationElement.dipDocElement();
+		if (!(dde instanceof IUnitPresentation)) {
+			return null;
+		}
+		TablePresentation presentation = ((IUnitPresentation) dde).getPresentation();
+		MarkdownSettings markdownSettings = null;
+		if (presentation instanceof SubMarkdownPresentation) {
+			return null;
+		} else if (presentation instanceof MarkDownPresentation) {
+			markdownSettings = TableSettings.markdownSettings(fTableComposite.getTableSettings().isShowMdComment()).copy();
+		} else if (!(presentation instanceof TextPresentation)) {
+			return null;
+		}
+		int lineLength = TableSettings.presentationFontDimension().getStringLength(PaintPresentationUtils.getColumnWidth(width));
+		return new PreparedText.Input(presentationElement, presentation, width, lineLength,
+				isFixedContent(presentationElement, presentation.getUnit()),
+				fTableComposite.getTableSettings().isCheckSpellingEnable(),
+				markdownSettings);
+	}
+	
 	protected void prepare(int width, IDipTableElement presentationElement) {
 		IDipDocumentElement dde = presentationElement.dipDocElement();
 		if (dde instanceof IUnitPresentation) {
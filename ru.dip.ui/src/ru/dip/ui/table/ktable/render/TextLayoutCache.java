@@ -0,0 +1,313 @@
+/******************************************************************************* * 
+ * Copyright (c) 2025 Denis Melnik.
+ * Copyright (c) 2025 Ruslan Sabirov.
+ * Copyright (c) 2025 Andrei Motorin.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package ru.dip.ui.table.ktable.render;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.TextLayout;
+
+/**
+ * Кэш TextLayout для отрисовки презентаций (PaintPresentationUtils)
+ *
+ * Один TextLayout на элемент таблицы (по ссылке), используется повторно пока совпадают
+ * ширина, текст (тот же объект - при обновлении элемента устанавливается новый текст), шрифт
+ * и значения стилей (глоссарий, поиск, ошибки, настройки таблицы).
+ * При отрисовке заполняется один и тот же ключ (key), позиции стилей сравниваются с сохраненными
+ * без копирования - копия ключа создается только вместе с новым TextLayout.
+ * Вес оценивается по длине текста, при превышении удаляются давно не использованные (LRU) с dispose().
+ * Используется только в UI-потоке.
+ */
+public class TextLayoutCache {
+
+	private static final long MAX_WEIGHT = 32L * 1024L * 1024L;
+
+	/**
+	 * Ключ TextLayout
+	 * Значения стилей хранятся в ключе и сравниваются по equals (не по хэшу),
+	 * в текущем ключе - ссылки на списки позиций, в сохраненном - их копии (x, y подряд)
+	 */
+	public static final class Key {
+
+		private String fText;
+		private int fWidth;
+		private Font fFont;
+		private final List<Object> fStyle = new ArrayList<>();
+		private int[] fValues = new int[16];
+		private int fValuesCount;
+		private final List<List<Point>> fPoints = new ArrayList<>();
+		private int[][] fCoords;
+		private int fPointsCount;
+
+		private Key() {
+		}
+
+		private void reset(String text, int width, Font font) {
+			fText = text;
+			fWidth = width;
+			fFont = font;
+			fStyle.clear();
+			fValuesCount = 0;
+			fPoints.clear();
+		}
+
+		public Key add(boolean value) {
+			return add(value ? 1 : 0);
+		}
+
+		public Key add(int value) {
+			if (fValuesCount == fValues.length) {
+				fValues = Arrays.copyOf(fValues, fValuesCount * 2);
+			}
+			fValues[fValuesCount++] = value;
+			return this;
+		}
+
+		public Key add(Object value) {
+			fStyle.add(value);
+			return this;
+		}
+
+		public Key addPoints(List<Point> points) {
+			fPoints.add(points);
+			return this;
+		}
+
+		/**
+		 * Копия для кэша (списки точек презентаций изменяются при обновлении)
+		 */
+		private Key snapshot() {
+			Key result = new Key();
+			result.fText = fText;
+			result.fWidth = fWidth;
+			result.fFont = fFont;
+			result.fStyle.addAll(fStyle);
+			result.fValues = Arrays.copyOf(fValues, fValuesCount);
+			result.fValuesCount = fValuesCount;
+			result.fCoords = new int[fPoints.size()][];
+			for (int i = 0; i < fPoints.size(); i++) {
+				List<Point> points = fPoints.get(i);
+				if (points == null) {
+					continue;
+				}
+				int[] coords = new int[points.size() * 2];
+				for (int j = 0; j < points.size(); j++) {
+					Point p = points.get(j);
+					coords[j * 2] = p.x;
+					coords[j * 2 + 1] = p.y;
+				}
+				result.fCoords[i] = coords;
+				result.fPointsCount += points.size();
+			}
+			return result;
+		}
+
+		/**
+		 * this - сохраненный ключ, current - заполненный при отрисовке
+		 */
+		private boolean matches(Key current) {
+			return fWidth == current.fWidth
+					&& fText == current.fText
+					&& fFont == current.fFont
+					&& Arrays.equals(fValues, 0, fValuesCount, current.fValues, 0, current.fValuesCount)
+					&& fStyle.equals(current.fStyle)
+					&& pointsMatches(current.fPoints);
+		}
+
+		private boolean pointsMatches(List<List<Point>> pointsList) {
+			if (fCoords.length != pointsList.size()) {
+				return false;
+			}
+			for (int i = 0; i < fCoords.length; i++) {
+				int[] coords = fCoords[i];
+				List<Point> points = pointsList.get(i);
+				if (coords == null || points == null) {
+					if ((coords == null) != (points == null)) {
+						return false;
+					}
+					continue;
+				}
+				if (coords.length != points.size() * 2) {
+					return false;
+				}
+				for (int j = 0; j < points.size(); j++) {
+					Point p = points.get(j);
+					if (coords[j * 2] != p.x || coords[j * 2 + 1] != p.y) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+
+		private long weight() {
+			return 256 + (fText == null ? 0 : fText.length() * 24L) + (fStyle.size() + fValuesCount) * 16L + fPointsCount * 8L;
+		}
+
+		public String text() {
+			return fText;
+		}
+
+		public int width() {
+			return fWidth;
+		}
+
+		public Font font() {
+			return fFont;
+		}
+	}
+
+	/**
+	 * Элементы таблицы сравниваются по ссылке (equals у TableElement - по IDipDocumentElement)
+	 */
+	private static final class ElementRef {
+
+		private Object fElement;
+
+		private ElementRef(Object element) {
+			fElement = element;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(fElement);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof ElementRef && ((ElementRef) obj).fElement == fElement;
+		}
+	}
+
+	private static class Entry {
+
+		private final Key fKey;
+		private final TextLayout fLayout;
+
+		private Entry(Key key, TextLayout layout) {
+			fKey = key;
+			fLayout = layout;
+		}
+	}
+
+	// порядок доступа - первым идет давно не использованный
+	private final LinkedHashMap<ElementRef, Entry> fEntries = new LinkedHashMap<>(256, 0.75f, true);
+	// для поиска в fEntries без создания ElementRef (в map не помещается)
+	private final ElementRef fLookup = new ElementRef(null);
+	private final Key fKey = new Key();
+	private long fWeight = 0;
+	private long fHits = 0;
+	private long fMisses = 0;
+
+	/**
+	 * Ключ для текущей отрисовки (один экземпляр, заполняется заново)
+	 */
+	public Key key(String text, int width, Font font) {
+		fKey.reset(text, width, font);
+		return fKey;
+	}
+
+	/**
+	 * TextLayout элемента, если ключ совпадает, иначе null (старый TextLayout удаляется)
+	 */
+	public TextLayout get(Object element, Key key) {
+		Entry entry = fEntries.get(lookup(element));
+		fLookup.fElement = null;
+		if (entry != null) {
+			if (entry.fKey.matches(key) && !entry.fLayout.isDisposed()) {
+				fHits++;
+				return entry.fLayout;
+			}
+			remove(element);
+		}
+		fMisses++;
+		return null;
+	}
+
+	/**
+	 * @return false - если TextLayout не помещен в кэш (нужно вызвать dispose после отрисовки)
+	 */
+	public boolean put(Object element, Key key, TextLayout layout) {
+		Key stored = key.snapshot();
+		long weight = stored.weight();
+		if (weight > MAX_WEIGHT) {
+			return false;
+		}
+		remove(element);
+		fEntries.put(new ElementRef(element), new Entry(stored, layout));
+		fWeight += weight;
+		evict(layout);
+		return true;
+	}
+
+	private ElementRef lookup(Object element) {
+		fLookup.fElement = element;
+		return fLookup;
+	}
+
+	private void evict(TextLayout current) {
+		Iterator<Entry> iterator = fEntries.values().iterator();
+		while (fWeight > MAX_WEIGHT && iterator.hasNext()) {
+			Entry entry = iterator.next();
+			if (entry.fLayout == current) {
+				continue;
+			}
+			iterator.remove();
+			fWeight -= entry.fKey.weight();
+			entry.fLayout.dispose();
+		}
+	}
+
+	public void remove(Object element) {
+		Entry entry = fEntries.remove(lookup(element));
+		fLookup.fElement = null;
+		if (entry != null) {
+			fWeight -= entry.fKey.weight();
+			entry.fLayout.dispose();
+		}
+	}
+
+	public void removeAll(Collection<?> elements) {
+		elements.forEach(this::remove);
+	}
+
+	public void clear() {
+		fEntries.values().forEach(entry -> entry.fLayout.dispose());
+		fEntries.clear();
+		fWeight = 0;
+	}
+
+	public long hits() {
+		return fHits;
+	}
+
+	public long misses() {
+		return fMisses;
+	}
+
+	public int size() {
+		return fEntries.size();
+	}
+
+	public long weight() {
+		return fWeight;
+	}
+
+}